@@ -1,9 +1,17 @@
 package de.metas.acct.posting;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.util.Env;
@@ -20,10 +28,12 @@ import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
 import de.metas.event.SimpleObjectSerializer;
 import de.metas.event.Topic;
+import de.metas.event.log.EventLogEntryCollector;
 import de.metas.event.log.EventLogUserService;
 import de.metas.event.log.EventLogUserService.InvokeHandlerAndLogRequest;
 import de.metas.logging.LogManager;
 import de.metas.logging.TableRecordMDC;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -55,17 +65,56 @@ public class DocumentPostingBusService
 	private static final Topic TOPIC = Topic.remote("de.metas.acct.handler.DocumentPostRequest");
 	private static final String PROPERTY_DocumentPostRequest = "DocumentPostRequest";
 
+	/** How many workers shall process the incoming requests. If zero, requests are processed directly in the event bus thread. */
+	private static final String SYSCONFIG_Workers = "de.metas.acct.posting.DocumentPostingBusService.Workers";
+	private static final int DEFAULT_Workers = 0;
+	/** Maximum number of queued requests per worker. When reached, receiving new requests is blocked until the worker catches up. */
+	private static final String SYSCONFIG_QueueCapacity = "de.metas.acct.posting.DocumentPostingBusService.QueueCapacity";
+	private static final int DEFAULT_QueueCapacity = 1000;
+	/** Maximum number of requests a worker takes from its queue at once. */
+	private static final String SYSCONFIG_BatchSize = "de.metas.acct.posting.DocumentPostingBusService.BatchSize";
+	private static final int DEFAULT_BatchSize = 100;
+	/** How long to wait on shutdown for the workers to process the requests which are still queued. */
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(60);
+
 	// services
 	private static final Logger logger = LogManager.getLogger(DocumentPostingBusService.class);
 	private final IEventBusFactory eventBusFactory;
 	private final EventLogUserService eventLogUserService;
 
+	@Nullable
+	private final DocumentPostingWorkers workers;
+	private final CopyOnWriteArrayList<IEventListener> registeredListeners = new CopyOnWriteArrayList<>();
+
 	public DocumentPostingBusService(
 			@NonNull final IEventBusFactory eventBusFactory,
 			@NonNull final EventLogUserService eventLogUserService)
 	{
 		this.eventBusFactory = eventBusFactory;
 		this.eventLogUserService = eventLogUserService;
+		this.workers = createWorkersIfEnabled();
+	}
+
+	@Nullable
+	private static DocumentPostingWorkers createWorkersIfEnabled()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int workersCount = sysConfigBL.getIntValue(SYSCONFIG_Workers, DEFAULT_Workers);
+		if (workersCount <= 0)
+		{
+			return null;
+		}
+
+		final DocumentPostingWorkers workers = DocumentPostingWorkers.builder()
+				.workersCount(workersCount)
+				.queueCapacity(Math.max(sysConfigBL.getIntValue(SYSCONFIG_QueueCapacity, DEFAULT_QueueCapacity), 1))
+				.batchSize(Math.max(sysConfigBL.getIntValue(SYSCONFIG_BatchSize, DEFAULT_BatchSize), 1))
+				.threadNamePrefix(DocumentPostingWorkers.class.getSimpleName())
+				.build();
+		JMXRegistry.get().registerJMX(new JMXDocumentPostingWorkers(workers), OnJMXAlreadyExistsPolicy.Replace);
+		logger.info("Created {}", workers);
+
+		return workers;
 	}
 
 	public void postRequest(@NonNull final DocumentPostRequest request)
@@ -109,27 +158,65 @@ public class DocumentPostingBusService
 
 	public void registerHandler(@NonNull final DocumentPostRequestHandler handler)
 	{
-		getEventBus().subscribe(DocumentPostRequestHandlerAsEventListener.builder()
+		final DocumentPostRequestHandlerAsEventListener listener = DocumentPostRequestHandlerAsEventListener.builder()
 				.handler(handler)
 				.eventLogUserService(eventLogUserService)
-				.build());
+				.workers(workers)
+				.build();
+		getEventBus().subscribe(listener);
+		registeredListeners.add(listener);
 
 		logger.info("Registered handler: {}", handler);
 	}
 
+	/**
+	 * Stops receiving posting requests and lets the workers process the requests they already have in their queues.
+	 * <p>
+	 * Because this bean depends on the {@link Adempiere} bean, it's destroyed while the database is still available.
+	 */
+	@PreDestroy
+	public void shutdown()
+	{
+		registeredListeners.forEach(getEventBus()::unsubscribe);
+		registeredListeners.clear();
+
+		if (workers == null)
+		{
+			return;
+		}
+
+		workers.shutdown();
+		try
+		{
+			if (!workers.awaitTermination(SHUTDOWN_TIMEOUT))
+			{
+				logger.warn("Workers did not finish within {}. Dropping {} queued posting requests.", SHUTDOWN_TIMEOUT, workers.getQueueSize());
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted while waiting for the workers to finish. Dropping {} queued posting requests.", workers.getQueueSize());
+		}
+	}
+
 	@lombok.ToString
 	private static final class DocumentPostRequestHandlerAsEventListener implements IEventListener
 	{
 		private final EventLogUserService eventLogUserService;
 		private final DocumentPostRequestHandler handler;
+		@Nullable
+		private final DocumentPostingWorkers workers;
 
 		@lombok.Builder
 		private DocumentPostRequestHandlerAsEventListener(
 				@NonNull final DocumentPostRequestHandler handler,
-				@NonNull final EventLogUserService eventLogUserService)
+				@NonNull final EventLogUserService eventLogUserService,
+				@Nullable final DocumentPostingWorkers workers)
 		{
 			this.handler = handler;
 			this.eventLogUserService = eventLogUserService;
+			this.workers = workers;
 		}
 
 		@Override
@@ -137,6 +224,34 @@ public class DocumentPostingBusService
 		{
 			final DocumentPostRequest request = extractDocumentPostRequest(event);
 
+			if (workers != null)
+			{
+				workers.enqueue(request, () -> processInWorker(event, request));
+			}
+			else
+			{
+				process(request);
+			}
+		}
+
+		private void processInWorker(@NonNull final Event event, @NonNull final DocumentPostRequest request)
+		{
+			// the event bus' log collector is bound to the thread which received the event, so we need our own one
+			if (event.isWasLogged())
+			{
+				try (final EventLogEntryCollector collector = EventLogEntryCollector.createThreadLocalForEvent(event))
+				{
+					process(request);
+				}
+			}
+			else
+			{
+				process(request);
+			}
+		}
+
+		private void process(@NonNull final DocumentPostRequest request)
+		{
 			try (final IAutoCloseable ctx = switchCtx(request);
 					final MDCCloseable requestRecordMDC = TableRecordMDC.putTableRecordReference(request.getRecord());
 					final MDCCloseable eventHandlerMDC = MDC.putCloseable("eventHandler.className", handler.getClass().getName());)
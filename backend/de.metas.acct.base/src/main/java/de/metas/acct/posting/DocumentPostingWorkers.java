@@ -0,0 +1,364 @@
+package de.metas.acct.posting;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Bounded pool of posting workers.
+ * <p>
+ * Each worker has its own bounded queue. A request is always routed to the same worker, based on its client and document record,
+ * so requests for the same document are processed one after the other, in the order they were enqueued.
+ * Enqueuing blocks while the target queue is full.
+ * <p>
+ * A worker drains up to <code>batchSize</code> requests at once and processes them grouped by table name
+ * (stable sort, so the per-document order is preserved).
+ * <p>
+ * On {@link #shutdown()} no new requests are accepted, but the workers still process the ones which are already enqueued.
+ */
+final class DocumentPostingWorkers
+{
+	private static final Logger logger = LogManager.getLogger(DocumentPostingWorkers.class);
+
+	private static final long POLL_TIMEOUT_MILLIS = 500;
+
+	private final ImmutableList<Worker> workers;
+	private final int batchSize;
+
+	private volatile long startTimeMillis = System.currentTimeMillis();
+	private final LongAdder processedCount = new LongAdder();
+	private final LongAdder errorsCount = new LongAdder();
+	private final ConcurrentHashMap<String, LatencyRecorder> latencyByTableName = new ConcurrentHashMap<>();
+
+	@Builder
+	private DocumentPostingWorkers(
+			final int workersCount,
+			final int queueCapacity,
+			final int batchSize,
+			@NonNull final String threadNamePrefix)
+	{
+		Check.assumeGreaterThanZero(workersCount, "workersCount");
+		Check.assumeGreaterThanZero(queueCapacity, "queueCapacity");
+		Check.assumeGreaterThanZero(batchSize, "batchSize");
+
+		this.batchSize = batchSize;
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(threadNamePrefix)
+				.setDaemon(true)
+				.build();
+
+		final ImmutableList.Builder<Worker> workers = ImmutableList.builder();
+		for (int i = 0; i < workersCount; i++)
+		{
+			final Worker worker = new Worker(queueCapacity);
+			threadFactory.newThread(worker::run).start();
+			workers.add(worker);
+		}
+		this.workers = workers.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[workers=" + workers.size() + ", queueSize=" + getQueueSize() + "]";
+	}
+
+	public void enqueue(@NonNull final DocumentPostRequest request, @NonNull final Runnable action)
+	{
+		final Worker worker = workers.get(computePartition(request, workers.size()));
+		try
+		{
+			worker.enqueue(Task.builder().request(request).action(action).build());
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new AdempiereException("Interrupted while enqueuing " + request, ex);
+		}
+	}
+
+	@VisibleForTesting
+	static int computePartition(@NonNull final DocumentPostRequest request, final int partitionsCount)
+	{
+		return Math.floorMod(Objects.hash(request.getClientId(), request.getRecord()), partitionsCount);
+	}
+
+	@VisibleForTesting
+	static void sortBatch(@NonNull final List<Task> batch)
+	{
+		// NOTE: List.sort is stable, so requests of the same document keep their relative order
+		batch.sort(Comparator.comparing(task -> task.getRequest().getRecord().getTableName()));
+	}
+
+	/**
+	 * Stops accepting new requests. The requests which are already enqueued are still processed; use {@link #awaitTermination(Duration)} to wait for them.
+	 */
+	public void shutdown()
+	{
+		workers.forEach(Worker::stop);
+	}
+
+	/**
+	 * @return <code>true</code> if all workers finished processing their queues and stopped within the given timeout
+	 */
+	public boolean awaitTermination(@NonNull final Duration timeout) throws InterruptedException
+	{
+		final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+		for (final Worker worker : workers)
+		{
+			if (!worker.awaitTermination(deadlineNanos - System.nanoTime()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int getWorkersCount()
+	{
+		return workers.size();
+	}
+
+	public int getQueueSize()
+	{
+		return workers.stream().mapToInt(Worker::getQueueSize).sum();
+	}
+
+	public long getProcessedCount()
+	{
+		return processedCount.sum();
+	}
+
+	public long getErrorsCount()
+	{
+		return errorsCount.sum();
+	}
+
+	public double getThroughputPerSecond()
+	{
+		final long durationMillis = Math.max(System.currentTimeMillis() - startTimeMillis, 1);
+		return getProcessedCount() * 1000.0 / durationMillis;
+	}
+
+	public String[] getLatencyInfos()
+	{
+		return latencyByTableName.entrySet()
+				.stream()
+				.sorted(Map.Entry.comparingByKey())
+				.map(entry -> entry.getKey() + ": " + entry.getValue())
+				.toArray(String[]::new);
+	}
+
+	public void resetStatistics()
+	{
+		startTimeMillis = System.currentTimeMillis();
+		processedCount.reset();
+		errorsCount.reset();
+		latencyByTableName.clear();
+	}
+
+	private void process(@NonNull final Task task)
+	{
+		final long startNanos = System.nanoTime();
+		try
+		{
+			task.getAction().run();
+		}
+		catch (final Exception ex)
+		{
+			errorsCount.increment();
+			logger.warn("Failed processing {}. Skipped.", task.getRequest(), ex);
+		}
+		finally
+		{
+			final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+			processedCount.increment();
+			latencyByTableName
+					.computeIfAbsent(task.getRequest().getRecord().getTableName(), tableName -> new LatencyRecorder())
+					.record(durationMillis);
+		}
+	}
+
+	@Value
+	@Builder
+	static class Task
+	{
+		@NonNull
+		DocumentPostRequest request;
+		@NonNull
+		Runnable action;
+	}
+
+	private final class Worker
+	{
+		private final BlockingQueue<Task> queue;
+		private final AtomicInteger inProgressCount = new AtomicInteger();
+		private final CountDownLatch terminated = new CountDownLatch(1);
+		private volatile boolean stopped = false;
+
+		private Worker(final int queueCapacity)
+		{
+			this.queue = new LinkedBlockingQueue<>(queueCapacity);
+		}
+
+		private void enqueue(@NonNull final Task task) throws InterruptedException
+		{
+			if (stopped)
+			{
+				throw new AdempiereException("Posting workers were already shut down");
+			}
+			queue.put(task);
+		}
+
+		private int getQueueSize()
+		{
+			return queue.size() + inProgressCount.get();
+		}
+
+		private void stop()
+		{
+			// NOTE: we don't interrupt the thread, because that could also interrupt a running posting.
+			// The worker notices the flag at the latest after POLL_TIMEOUT_MILLIS.
+			stopped = true;
+		}
+
+		private boolean awaitTermination(final long timeoutNanos) throws InterruptedException
+		{
+			return terminated.await(timeoutNanos, TimeUnit.NANOSECONDS);
+		}
+
+		private void run()
+		{
+			try
+			{
+				processQueueUntilStopped();
+			}
+			finally
+			{
+				terminated.countDown();
+			}
+		}
+
+		private void processQueueUntilStopped()
+		{
+			final List<Task> batch = new ArrayList<>(batchSize);
+			while (true)
+			{
+				final Task firstTask;
+				try
+				{
+					firstTask = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				catch (final InterruptedException ex)
+				{
+					logger.info("Worker {} was interrupted. Stopping.", Thread.currentThread().getName());
+					Thread.currentThread().interrupt();
+					break;
+				}
+
+				if (firstTask == null)
+				{
+					if (stopped)
+					{
+						break; // queue was drained
+					}
+					continue;
+				}
+
+				batch.add(firstTask);
+
+				queue.drainTo(batch, batchSize - 1);
+				inProgressCount.set(batch.size());
+				sortBatch(batch);
+
+				for (final Task task : batch)
+				{
+					process(task);
+					inProgressCount.decrementAndGet();
+				}
+
+				batch.clear();
+			}
+
+			if (!queue.isEmpty())
+			{
+				logger.warn("Worker {} stopped with {} unprocessed requests", Thread.currentThread().getName(), queue.size());
+			}
+		}
+	}
+
+	private static final class LatencyRecorder
+	{
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalMillis = new LongAdder();
+		private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+		private final AtomicLong lastMillis = new AtomicLong();
+
+		private void record(final long durationMillis)
+		{
+			count.increment();
+			totalMillis.add(durationMillis);
+			maxMillis.accumulate(durationMillis);
+			lastMillis.set(durationMillis);
+		}
+
+		@Override
+		public String toString()
+		{
+			final long count = this.count.sum();
+			final long avgMillis = count > 0 ? totalMillis.sum() / count : 0;
+			return "count=" + count
+					+ ", avg=" + avgMillis + "ms"
+					+ ", max=" + maxMillis.get() + "ms"
+					+ ", last=" + lastMillis.get() + "ms";
+		}
+	}
+}
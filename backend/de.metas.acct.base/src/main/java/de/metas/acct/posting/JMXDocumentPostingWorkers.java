@@ -0,0 +1,90 @@
+package de.metas.acct.posting;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX bean for {@link DocumentPostingWorkers} (implementation)
+ */
+public class JMXDocumentPostingWorkers implements JMXDocumentPostingWorkersMBean, IJMXNameAware
+{
+	private static final String JMX_NAME = "de.metas.acct.posting:type=DocumentPostingWorkers";
+
+	private final DocumentPostingWorkers workers;
+
+	JMXDocumentPostingWorkers(@NonNull final DocumentPostingWorkers workers)
+	{
+		this.workers = workers;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return JMX_NAME;
+	}
+
+	@Override
+	public int getWorkersCount()
+	{
+		return workers.getWorkersCount();
+	}
+
+	@Override
+	public int getQueueSize()
+	{
+		return workers.getQueueSize();
+	}
+
+	@Override
+	public long getProcessedCount()
+	{
+		return workers.getProcessedCount();
+	}
+
+	@Override
+	public long getErrorsCount()
+	{
+		return workers.getErrorsCount();
+	}
+
+	@Override
+	public double getThroughputPerSecond()
+	{
+		return workers.getThroughputPerSecond();
+	}
+
+	@Override
+	public String[] getLatencyInfos()
+	{
+		return workers.getLatencyInfos();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		workers.resetStatistics();
+	}
+}
@@ -0,0 +1,218 @@
+package de.metas.acct.posting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentPostingWorkersTest
+{
+	private static DocumentPostRequest request(final String tableName, final int recordId)
+	{
+		return DocumentPostRequest.builder()
+				.record(TableRecordReference.of(tableName, recordId))
+				.clientId(ClientId.ofRepoId(1000))
+				.build();
+	}
+
+	@Test
+	public void computePartition_sameDocument_samePartition()
+	{
+		final int partition = DocumentPostingWorkers.computePartition(request("C_Invoice", 1), 4);
+		assertThat(partition).isBetween(0, 3);
+
+		for (int i = 0; i < 10; i++)
+		{
+			assertThat(DocumentPostingWorkers.computePartition(request("C_Invoice", 1), 4)).isEqualTo(partition);
+		}
+	}
+
+	@Test
+	public void sortBatch_groupsByTableAndKeepsOrder()
+	{
+		final List<DocumentPostingWorkers.Task> batch = new ArrayList<>();
+		batch.add(task(request("M_InOut", 1), "inout1-a"));
+		batch.add(task(request("C_Invoice", 1), "invoice1-a"));
+		batch.add(task(request("M_InOut", 1), "inout1-b"));
+		batch.add(task(request("C_Invoice", 1), "invoice1-b"));
+
+		DocumentPostingWorkers.sortBatch(batch);
+
+		assertThat(batch)
+				.extracting(task -> task.getAction().toString())
+				.containsExactly("invoice1-a", "invoice1-b", "inout1-a", "inout1-b");
+	}
+
+	private static DocumentPostingWorkers.Task task(final DocumentPostRequest request, final String name)
+	{
+		final Runnable action = new Runnable()
+		{
+			@Override
+			public void run()
+			{
+			}
+
+			@Override
+			public String toString()
+			{
+				return name;
+			}
+		};
+
+		return DocumentPostingWorkers.Task.builder().request(request).action(action).build();
+	}
+
+	@Test
+	public void enqueue_preservesPerDocumentOrder() throws Exception
+	{
+		final DocumentPostingWorkers workers = DocumentPostingWorkers.builder()
+				.workersCount(3)
+				.queueCapacity(5)
+				.batchSize(4)
+				.threadNamePrefix("test")
+				.build();
+		try
+		{
+			final int documentsCount = 10;
+			final int requestsPerDocument = 20;
+			final CountDownLatch done = new CountDownLatch(documentsCount * requestsPerDocument);
+			final ListMultimap<Integer, Integer> processed = Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
+
+			for (int seqNo = 0; seqNo < requestsPerDocument; seqNo++)
+			{
+				for (int recordId = 1; recordId <= documentsCount; recordId++)
+				{
+					final int recordIdFinal = recordId;
+					final int seqNoFinal = seqNo;
+					workers.enqueue(request("C_Invoice", recordId), () -> {
+						processed.put(recordIdFinal, seqNoFinal);
+						done.countDown();
+					});
+				}
+			}
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+			for (int recordId = 1; recordId <= documentsCount; recordId++)
+			{
+				assertThat(processed.get(recordId)).isSorted().hasSize(requestsPerDocument);
+			}
+		}
+		finally
+		{
+			workers.shutdown();
+		}
+	}
+
+	@Test
+	public void shutdown_processesAlreadyEnqueuedRequests() throws Exception
+	{
+		final DocumentPostingWorkers workers = DocumentPostingWorkers.builder()
+				.workersCount(1)
+				.queueCapacity(100)
+				.batchSize(4)
+				.threadNamePrefix("test")
+				.build();
+
+		final CountDownLatch firstRequestStarted = new CountDownLatch(1);
+		final CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+		final AtomicInteger processedCount = new AtomicInteger();
+
+		workers.enqueue(request("C_Invoice", 1), () -> {
+			firstRequestStarted.countDown();
+			awaitUninterruptibly(releaseFirstRequest);
+			processedCount.incrementAndGet();
+		});
+		assertThat(firstRequestStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+		for (int recordId = 2; recordId <= 20; recordId++)
+		{
+			workers.enqueue(request("C_Invoice", recordId), processedCount::incrementAndGet);
+		}
+
+		workers.shutdown();
+		assertThatThrownBy(() -> workers.enqueue(request("C_Invoice", 21), processedCount::incrementAndGet))
+				.isInstanceOf(AdempiereException.class);
+
+		releaseFirstRequest.countDown();
+		assertThat(workers.awaitTermination(Duration.ofSeconds(10))).isTrue();
+		assertThat(processedCount.get()).isEqualTo(20);
+		assertThat(workers.getQueueSize()).isZero();
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void resetStatistics_resetsAllCounters() throws Exception
+	{
+		final DocumentPostingWorkers workers = DocumentPostingWorkers.builder()
+				.workersCount(2)
+				.queueCapacity(10)
+				.batchSize(4)
+				.threadNamePrefix("test")
+				.build();
+
+		workers.enqueue(request("C_Invoice", 1), () -> {});
+		workers.enqueue(request("C_Invoice", 2), () -> {
+			throw new RuntimeException("test");
+		});
+		workers.shutdown();
+		assertThat(workers.awaitTermination(Duration.ofSeconds(10))).isTrue();
+
+		assertThat(workers.getProcessedCount()).isEqualTo(2);
+		assertThat(workers.getErrorsCount()).isEqualTo(1);
+		assertThat(workers.getLatencyInfos()).isNotEmpty();
+
+		workers.resetStatistics();
+
+		assertThat(workers.getProcessedCount()).isZero();
+		assertThat(workers.getErrorsCount()).isZero();
+		assertThat(workers.getLatencyInfos()).isEmpty();
+		assertThat(workers.getThroughputPerSecond()).isZero();
+	}
+}
@@ -377,7 +377,7 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 	 * @param clazz
 	 * @return next model
 	 */
-	private final <ET extends T> ET retrieveModel(final ResultSet rs, final Class<ET> clazz)
+	/* package */ final <ET extends T> ET retrieveModel(final ResultSet rs, final Class<ET> clazz)
 	{
 		final String tableName = getTableName();
 
@@ -948,6 +948,13 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 	{
 		Check.assumeNull(postQueryFilter, "No post-filter shall be defined when iterating");
 
+		// NOTE: one server side cursor is consistent by itself, so we don't need a guaranteed iterator in this case
+		final Integer iteratorFetchSize = getOption(OPTION_IteratorFetchSize);
+		if (iteratorFetchSize != null && iteratorFetchSize > 0 && isReadOnlyRecords())
+		{
+			return new POStreamingIterator<>(this, clazz, iteratorFetchSize);
+		}
+
 		final Integer iteratorBufferSize = getOption(OPTION_IteratorBufferSize);
 
 		if (guaranteed)
@@ -16,6 +16,7 @@ package org.adempiere.model;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -803,6 +804,25 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 		}
 	}
 
+	/**
+	 * @see PO#saveAllNewInBatch(List)
+	 */
+	public static void saveAllNewInBatch(@NonNull final List<?> models)
+	{
+		final List<PO> pos = new ArrayList<>(models.size());
+		for (final Object model : models)
+		{
+			final PO po = getStrictPO(model);
+			if (po == null)
+			{
+				throw new ModelClassNotSupportedException(model);
+			}
+			pos.add(po);
+		}
+
+		PO.saveAllNewInBatch(pos);
+	}
+
 	/**
 	 * @param model
 	 * @param force if true then the Processed flag will be ignored
@@ -41,6 +41,8 @@ import org.slf4j.Logger;
 
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.logging.LogManager;
+import de.metas.sequence.TableIDBlock;
+import de.metas.sequence.TableIDBlockAllocator;
 import de.metas.util.Check;
 import de.metas.util.Services;
 
@@ -246,6 +248,91 @@ public class MSequence extends X_AD_Sequence
 		}
 	}	// getNextID
 
+	/**
+	 * Reserves a block of {@code blockSize} IDs by advancing the table's {@code AD_Sequence} only once.
+	 * Like {@link #getNextID(int, String, String)}, this is done out of transaction.
+	 * <p>
+	 * The centralized dictionary/project ID servers are not supported here, so the caller shall check {@link #isUseExternalIDSystem(String, int)} first.
+	 *
+	 * @return the reserved block; it's the caller's responsibility to hand out those IDs
+	 * @see TableIDBlockAllocator
+	 */
+	public static TableIDBlock reserveIDBlock(final int AD_Client_ID, final String TableName, final int blockSize)
+	{
+		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
+		Check.assume(blockSize > 0, "blockSize > 0 but it was {}", blockSize);
+
+		final boolean adempiereSys = isAdempiereSys(AD_Client_ID);
+
+		final String selectSQL = "SELECT CurrentNext, CurrentNextSys, IncrementNo, AD_Sequence_ID "
+				+ "FROM AD_Sequence "
+				+ "WHERE Name=?"
+				+ " AND IsActive='Y' AND IsTableID='Y' AND IsAutoSequence='Y' "
+				+ " FOR UPDATE OF AD_Sequence ";
+		final String updateSQL = adempiereSys
+				? "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID = ?"
+				: "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ?";
+
+		Connection conn = null;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		PreparedStatement updateStmt = null;
+		boolean success = false;
+		try
+		{
+			conn = DB.getConnectionID();
+
+			pstmt = conn.prepareStatement(selectSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
+			pstmt.setString(1, TableName);
+			if (DB.getDatabase().isQueryTimeoutSupported())
+			{
+				pstmt.setQueryTimeout(QUERY_TIME_OUT);
+			}
+
+			rs = pstmt.executeQuery();
+			if (!rs.next())
+			{
+				throw new AdempiereException("No AD_Sequence found for " + TableName);
+			}
+
+			final int firstId = adempiereSys ? rs.getInt(2) : rs.getInt(1);
+			final int incrementNo = rs.getInt(3);
+			final int AD_Sequence_ID = rs.getInt(4);
+
+			updateStmt = conn.prepareStatement(updateSQL);
+			updateStmt.setInt(1, incrementNo * blockSize);
+			updateStmt.setInt(2, AD_Sequence_ID);
+			updateStmt.executeUpdate();
+
+			conn.commit();
+			success = true;
+
+			return TableIDBlock.of(firstId, incrementNo, blockSize);
+		}
+		catch (final Exception ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		finally
+		{
+			if (!success && conn != null)
+			{
+				try
+				{
+					conn.rollback();
+				}
+				catch (final SQLException e)
+				{
+					s_log.warn("Failed rolling back the ID block reservation for {}", TableName, e);
+				}
+			}
+
+			DB.close(updateStmt);
+			DB.close(rs, pstmt);
+			DB.close(conn);
+		}
+	}
+
 	/**
 	 * Get Next ID
 	 *
@@ -26,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -36,6 +37,8 @@ import org.adempiere.ad.modelvalidator.IModelValidationEngine;
 import org.adempiere.ad.modelvalidator.ModelChangeType;
 import org.adempiere.ad.modelvalidator.ModelInterceptor2ModelValidatorWrapper;
 import org.adempiere.ad.modelvalidator.ModelInterceptorInitException;
+import org.adempiere.ad.modelvalidator.ModelInterceptorTimings;
+import org.adempiere.ad.modelvalidator.ModelInterceptorTimings.Recorder;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptor;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsCollection;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsRepository;
@@ -63,6 +66,7 @@ import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.ApplicationContext;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
@@ -82,6 +86,7 @@ import de.metas.security.IUserLoginListener;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /**
  * Model Validation Engine
@@ -182,7 +187,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 	/**************************************************************************
 	 * Constructor. Creates Model Validators
 	 */
-	private ModelValidationEngine()
+	@VisibleForTesting
+	ModelValidationEngine()
 	{
 		// metas: tsa: begin: break this in 2 parts because if the get() method is called during initialization we will end with multiple instances of ModelVaidationEngine
 	}
@@ -452,6 +458,30 @@ public class ModelValidationEngine implements IModelValidationEngine
 	 */
 	private Map<ModelValidator, Boolean> m_modelChangeSubsequent = Collections.synchronizedMap(new HashMap<ModelValidator, Boolean>());
 
+	/**
+	 * Model change interceptors to be invoked, precomputed from {@link #m_modelChangeListeners} per table, client and change type.
+	 * The whole map is replaced when interceptors are (un)registered.
+	 */
+	private volatile ConcurrentHashMap<ModelChangeDispatchKey, ImmutableList<ModelChangeInvoker>> modelChangeDispatchTable = new ConcurrentHashMap<>();
+
+	private final ModelInterceptorTimings modelInterceptorTimings = new ModelInterceptorTimings();
+
+	@Value(staticConstructor = "of")
+	private static class ModelChangeDispatchKey
+	{
+		String tableName;
+		int adClientId;
+		ModelChangeType changeType;
+	}
+
+	@Value(staticConstructor = "of")
+	@VisibleForTesting
+	static class ModelChangeInvoker
+	{
+		ModelValidator validator;
+		Recorder timingRecorder;
+	}
+
 	/**
 	 * Initialize and add validator
 	 *
@@ -465,6 +495,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			registerGlobal(validator);
 		}
 		m_validators.add(validator);
+		invalidateModelChangeDispatchTable();
 
 		final MClient clientPO = LegacyAdapters.convertToPO(client);
 		validator.initialize(this, clientPO);
@@ -639,6 +670,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 				logger.debug("Listener " + listener + " already added for " + propertyName);
 			}
 		}
+
+		invalidateModelChangeDispatchTable();
 	}	// addModelValidator
 
 	@Override
@@ -679,6 +712,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			m_modelChangeListeners.remove(propertyName);
 		}
+
+		invalidateModelChangeDispatchTable();
 	}	// removeModelValidator
 
 	@Override
@@ -733,18 +768,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 			int countInterceptors = 0;
 
 			//
-			// Retrieve system level model interceptors
-			final String propertyNameSystem = getPropertyName(po.get_TableName());
-			final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(propertyNameSystem);
-			final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
-			countInterceptors += countSystemInterceptors;
-
-			//
-			// Retrieve client level model interceptors
-			final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-			final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(propertyNameClient);
-			final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
-			countInterceptors += countClientInterceptors;
+			// Retrieve system and client level model interceptors
+			final ImmutableList<ModelChangeInvoker> interceptors = getModelChangeInvokers(po.get_TableName(), po.getAD_Client_ID(), changeType);
+			countInterceptors += interceptors.size();
 
 			//
 			// Retrieve script interceptors
@@ -779,7 +805,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			//
 			// Execute interceptors
 			final String trxName = po.get_TrxName();
-			executeInTrx(trxName, changeType, () -> fireModelChange0(po, changeType, interceptorsSystem, interceptorsClient, scriptValidators));
+			executeInTrx(trxName, changeType, () -> fireModelChange0(po, changeType, interceptors, scriptValidators));
 
 			logger.debug("Executed: ALL {} interceptors for {}", changeType, po);
 		}
@@ -818,21 +844,11 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private final void fireModelChange0(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@Nullable List<ModelValidator> interceptorsSystem,
-			@Nullable List<ModelValidator> interceptorsClient,
+			@NonNull final List<ModelChangeInvoker> interceptors,
 			@Nullable List<I_AD_Table_ScriptValidator> scriptValidators)
 	{
-		if (interceptorsSystem != null)
-		{
-			// ad_entitytype.modelvalidationclasses
-			invokeModelChangeMethods(po, changeType, interceptorsSystem);
-		}
-
-		if (interceptorsClient != null)
-		{
-			// ad_client.modelvalidationclasses
-			invokeModelChangeMethods(po, changeType, interceptorsClient);
-		}
+		// system level (ad_entitytype.modelvalidationclasses) first, then client level (ad_client.modelvalidationclasses)
+		invokeModelChangeMethods(po, changeType, interceptors);
 
 		//
 		// now process the script model validator for this event
@@ -935,48 +951,120 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private final void invokeModelChangeMethods(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@NonNull final List<ModelValidator> validators)
+			@NonNull final List<ModelChangeInvoker> interceptors)
 	{
-		for (final ModelValidator validator : validators)
+		for (final ModelChangeInvoker interceptor : interceptors)
 		{
-			invokeModelChangeMethod(po, changeType, validator);
+			invokeModelChangeMethod(po, changeType, interceptor);
 		}
 	}
 
 	private void invokeModelChangeMethod(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@NonNull final ModelValidator validator)
+			@NonNull final ModelChangeInvoker interceptor)
 	{
+		final ModelValidator validator = interceptor.getValidator();
 		try (final MDCCloseable mdcCloseable = MDC.putCloseable("interceptor", validator.toString()))
 		{
-			if (!appliesFor(validator, po.getAD_Client_ID()))
+			final long startNanos = System.nanoTime();
+			try
 			{
-				logger.debug("Skip {} ({}) for {}", validator, changeType, po);
-				return;
-			}
-
-		final Stopwatch stopwatch = Stopwatch.createStarted();
-				try
-		{
+				// the default cause
+				final String error = validator.modelChange(po, changeType.toInt());
+				if (!Check.isEmpty(error))
+				{
+					throw new AdempiereException(error);
+				}
 
-			// the default cause
-			final String error = validator.modelChange(po, changeType.toInt());
-			if (!Check.isEmpty(error))
+				logger.debug("Executed in {}ns: {} ({}) for {}", System.nanoTime() - startNanos, validator, changeType, po);
+			}
+			catch (final Exception ex)
 			{
-				throw new AdempiereException(error);
+				logger.debug("Failed executing in {}ns: {} ({}) for {}", System.nanoTime() - startNanos, validator, changeType, po, ex);
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			finally
+			{
+				interceptor.getTimingRecorder().record(System.nanoTime() - startNanos);
 			}
-
-					logger.debug("Executed in {}: {} ({}) for {}", stopwatch, validator, changeType, po);
 		}
-		catch (final Exception ex)
+	}
+
+	@VisibleForTesting
+	ImmutableList<ModelChangeInvoker> getModelChangeInvokers(
+			@NonNull final String tableName,
+			final int adClientId,
+			@NonNull final ModelChangeType changeType)
+	{
+		final ModelChangeDispatchKey key = ModelChangeDispatchKey.of(tableName, adClientId, changeType);
+		return modelChangeDispatchTable.computeIfAbsent(key, this::buildModelChangeInvokers);
+	}
+
+	private ImmutableList<ModelChangeInvoker> buildModelChangeInvokers(@NonNull final ModelChangeDispatchKey key)
+	{
+		final String tableName = key.getTableName();
+		final ModelChangeType changeType = key.getChangeType();
+
+		final ImmutableList.Builder<ModelChangeInvoker> result = ImmutableList.builder();
+		synchronized (m_modelChangeListeners)
 		{
-					logger.debug("Failed executing in {}: {} ({}) for {}", stopwatch, validator, changeType, po, ex);
-			throw AdempiereException.wrapIfNeeded(ex);
+			final List<String> propertyNames = ImmutableList.of(
+					getPropertyName(tableName), // system level
+					getPropertyName(tableName, key.getAdClientId())); // client level
+			for (final String propertyName : propertyNames)
+			{
+				final List<ModelValidator> validators = m_modelChangeListeners.get(propertyName);
+				if (validators == null)
+				{
+					continue;
+				}
+
+				for (final ModelValidator validator : validators)
+				{
+					if (!appliesFor(validator, key.getAdClientId()))
+					{
+						logger.debug("Skip {} ({}) for table {} because it does not apply for AD_Client_ID={}", validator, changeType, tableName, key.getAdClientId());
+						continue;
+					}
+					if (validator instanceof ModelInterceptor2ModelValidatorWrapper
+							&& !((ModelInterceptor2ModelValidatorWrapper)validator).isModelChangeHandled(tableName, changeType))
+					{
+						continue;
+					}
+
+					result.add(ModelChangeInvoker.of(validator, modelInterceptorTimings.getRecorder(getInterceptorName(validator), changeType)));
+				}
+			}
 		}
+
+		return result.build();
 	}
 
-				}
+	private static String getInterceptorName(@NonNull final ModelValidator validator)
+	{
+		return validator instanceof ModelInterceptor2ModelValidatorWrapper
+				? ((ModelInterceptor2ModelValidatorWrapper)validator).getInterceptorName()
+				: validator.getClass().getName();
+	}
+
+	private void invalidateModelChangeDispatchTable()
+	{
+		modelChangeDispatchTable = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @return model interceptors execution times, collected since startup or last {@link #resetModelInterceptorTimings()}
+	 */
+	public ImmutableList<ModelInterceptorTimings.ModelInterceptorTiming> getModelInterceptorTimings()
+	{
+		return modelInterceptorTimings.getSnapshot();
+	}
+
+	public void resetModelInterceptorTimings()
+	{
+		modelInterceptorTimings.reset();
+	}
 
 	/**************************************************************************
 	 * Add Document Validation Listener
@@ -25,6 +25,7 @@ import java.sql.Clob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -39,7 +40,9 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
 
+import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -88,6 +91,10 @@ import org.slf4j.Logger;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
@@ -106,6 +113,7 @@ import de.metas.logging.LogManager;
 import de.metas.logging.MetasfreshLastError;
 import de.metas.process.PInstanceId;
 import de.metas.security.TableAccessLevel;
+import de.metas.sequence.BatchInsertIdSupplier;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.NumberUtils;
@@ -356,6 +364,9 @@ public abstract class PO
 	/** Do not overwrite assigned ID with generated one */
 	private boolean isAssignedID = false;
 
+	/** Supplies the IDs while saving in batch (see {@link #saveAllNewInBatch(List)}); null otherwise */
+	private transient IntSupplier m_batchInsertIdSupplier = null;
+
 	public final boolean isAssignedID()
 	{
 		return isAssignedID;
@@ -2916,6 +2927,222 @@ public abstract class PO
 		});
 	}
 
+	/** Max number of INSERT statements sent to database in one JDBC batch */
+	private static final int SAVE_BATCH_MaxSize = 1000;
+
+	/**
+	 * Saves given new records, sending their INSERT statements to database in JDBC batches instead of one by one.
+	 * <p>
+	 * The records are saved like {@link #saveEx()} would do, but phase by phase:
+	 * first {@link #beforeSave(boolean)} and the BEFORE_NEW model interceptors are called for all records (in given order),
+	 * then the records are inserted and at last {@link #afterSave(boolean, boolean)} and the AFTER_NEW model interceptors are called for all records (in given order).
+	 * <p>
+	 * Same as for {@link #saveEx()}, the saving is checked and prepared outside of the transaction,
+	 * and the change log, the migration step and the migration script are written for each record.
+	 * <p>
+	 * Records which need database generated values right after INSERT (other than the ID) are inserted one by one, at their turn.
+	 * <p>
+	 * If not all records are new, of the same table and in the same active transaction, this method falls back to calling {@link #saveEx()} for each record.
+	 */
+	public static void saveAllNewInBatch(@NonNull final List<? extends PO> pos)
+	{
+		if (!isSaveAllNewInBatchPossible(pos))
+		{
+			pos.forEach(PO::saveEx);
+			return;
+		}
+
+		//
+		// Check and prepare the saving
+		// (this shall happen before running the part which is handled in transaction)
+		// NOTE: the save is always needed for new records
+		pos.forEach(PO::savePrepare);
+
+		final PO firstPO = pos.get(0);
+		final ITrxManager trxManager = firstPO.get_TrxManager();
+		final String trxNameInitial = firstPO.m_trxName;
+		trxManager.run(trxNameInitial, new TrxRunnable2()
+		{
+			@Override
+			public void run(final String localTrxName) throws Exception
+			{
+				pos.forEach(po -> po.m_trxName = localTrxName);
+				saveAllNewInBatch0(pos, localTrxName);
+			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				// restoring settings and flags before failing
+				pos.forEach(po -> po.m_createNew = true);
+				throw e;
+			}
+
+			@Override
+			public void doFinally()
+			{
+				pos.forEach(po -> {
+					po.m_trxName = trxNameInitial;
+					po.m_batchInsertIdSupplier = null; // in case we failed while preparing the INSERT
+				});
+			}
+		});
+	}
+
+	private static boolean isSaveAllNewInBatchPossible(@NonNull final List<? extends PO> pos)
+	{
+		if (pos.size() <= 1)
+		{
+			return false;
+		}
+
+		final PO firstPO = pos.get(0);
+		if (!firstPO.get_TrxManager().isActive(firstPO.m_trxName))
+		{
+			return false;
+		}
+
+		for (final PO po : pos)
+		{
+			if (!po.is_new()
+					|| !Objects.equals(po.get_TableName(), firstPO.get_TableName())
+					|| !Objects.equals(po.m_trxName, firstPO.m_trxName))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void saveAllNewInBatch0(@NonNull final List<? extends PO> pos, @NonNull final String trxName) throws Exception
+	{
+		//
+		// Before save
+		for (final PO po : pos)
+		{
+			po.save0_beforeSave(true);
+		}
+
+		//
+		// Build the INSERTs
+		final BatchInsertIdSupplier idSupplier = createBatchInsertIdSupplierOrNull(pos);
+		final POInsert[] inserts = new POInsert[pos.size()];
+		final boolean[] insertsOk = new boolean[pos.size()];
+		final List<Integer> batchedIndexes = new ArrayList<>();
+		for (int i = 0; i < pos.size(); i++)
+		{
+			final PO po = pos.get(i);
+
+			po.m_batchInsertIdSupplier = idSupplier;
+			final POInsert insert = po.saveNew_prepareInsert();
+			po.m_batchInsertIdSupplier = null;
+			if (insert == null)
+			{
+				po.saveFinish(true, false); // newRecord=true, success=false
+				throw new AdempiereException("saveNew failed").setParameter("po", po).appendParametersToMessage();
+			}
+			inserts[i] = insert;
+
+			if (insert.loadAfterInsertProcessor != null)
+			{
+				// we need to load values right after INSERT => insert it now
+				insertsOk[i] = po.saveNew_executeInsert(insert);
+			}
+			else
+			{
+				batchedIndexes.add(i);
+			}
+		}
+
+		//
+		// Execute the batched INSERTs
+		for (final List<Integer> chunk : Lists.partition(batchedIndexes, SAVE_BATCH_MaxSize))
+		{
+			final boolean[] chunkInsertsOk = executeInsertsBatch(chunk.stream().map(i -> inserts[i].sql).collect(ImmutableList.toImmutableList()), trxName);
+			for (int j = 0; j < chunk.size(); j++)
+			{
+				insertsOk[chunk.get(j)] = chunkInsertsOk[j];
+			}
+		}
+
+		//
+		// After save
+		for (int i = 0; i < pos.size(); i++)
+		{
+			final PO po = pos.get(i);
+			if (!po.saveNew_finish(inserts[i], insertsOk[i]))
+			{
+				throw new AdempiereException("saveNew failed").setParameter("po", po).appendParametersToMessage();
+			}
+		}
+	}
+
+	private static boolean[] executeInsertsBatch(@NonNull final List<String> sqls, @NonNull final String trxName)
+	{
+		Statement stmt = null;
+		try
+		{
+			stmt = DB.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, trxName);
+			return executeInsertsBatch(stmt, sqls);
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sqls.get(0));
+		}
+		finally
+		{
+			DB.close(stmt);
+		}
+	}
+
+	/**
+	 * Sends given INSERT statements to database in one JDBC batch.
+	 * <p>
+	 * NOTE: the statements are written to the migration script while they are added to the batch (see {@code AbstractCStatementProxy.addBatch(String)}),
+	 * same as {@link DB#executeUpdate(String, Object[], OnFail, String, int, ISqlUpdateReturnProcessor)} does for a single record.
+	 *
+	 * @return for each statement, true if the record was inserted
+	 */
+	@VisibleForTesting
+	static boolean[] executeInsertsBatch(@NonNull final Statement stmt, @NonNull final List<String> sqls) throws SQLException
+	{
+		for (final String sql : sqls)
+		{
+			stmt.addBatch(sql);
+		}
+
+		final int[] results = stmt.executeBatch();
+		final boolean[] insertsOk = new boolean[sqls.size()];
+		for (int i = 0; i < insertsOk.length; i++)
+		{
+			insertsOk[i] = results[i] == 1 || results[i] == Statement.SUCCESS_NO_INFO;
+		}
+		return insertsOk;
+	}
+
+	/**
+	 * @return supplier which allocates exactly one ID for each given record that needs a new ID from the table's native sequence;
+	 *         null if the table does not use native sequences or no record needs a new ID
+	 */
+	@Nullable
+	private static BatchInsertIdSupplier createBatchInsertIdSupplierOrNull(@NonNull final List<? extends PO> pos)
+	{
+		final PO firstPO = pos.get(0);
+		final String tableName = firstPO.get_TableName();
+		if (!DB.isUseNativeSequences(firstPO.getAD_Client_ID(), tableName))
+		{
+			return null;
+		}
+
+		final int countToAllocate = (int)pos.stream().filter(PO::isNewIdToBeRetrieved).count();
+		if (countToAllocate <= 0)
+		{
+			return null;
+		}
+
+		return new BatchInsertIdSupplier(tableName, countToAllocate);
+	}
+
 	/**
 	 * Check & prepare the persistent object for saving.
 	 *
@@ -2978,17 +3205,7 @@ public abstract class PO
 	{
 		final boolean newRecord = is_new();	// save locally as load resets
 
-		// Before Save
-		if (!isAssignedID)
-		{
-			if (!beforeSave(newRecord))
-			{
-				throw new AdempiereException("beforeSave failed - " + toString());
-			}
-		}
-
-		// Call ModelValidators TYPE_NEW/TYPE_CHANGE
-		fireModelChange(newRecord ? ModelChangeType.BEFORE_NEW : ModelChangeType.BEFORE_CHANGE);
+		save0_beforeSave(newRecord);
 
 		// Save
 		if (newRecord)
@@ -3009,6 +3226,21 @@ public abstract class PO
 		}
 	}
 
+	private final void save0_beforeSave(final boolean newRecord)
+	{
+		// Before Save
+		if (!isAssignedID)
+		{
+			if (!beforeSave(newRecord))
+			{
+				throw new AdempiereException("beforeSave failed - " + toString());
+			}
+		}
+
+		// Call ModelValidators TYPE_NEW/TYPE_CHANGE
+		fireModelChange(newRecord ? ModelChangeType.BEFORE_NEW : ModelChangeType.BEFORE_CHANGE);
+	}
+
 	/**
 	 * Finish Save Process. Called after {@link #saveNew()} or {@link #saveUpdate()}.
 	 *
@@ -3495,36 +3727,57 @@ public abstract class PO
 	}
 
 	/**
-	 * Set's the IDs on SAVE NEW
-	 *
-	 * @return true if succeed (even if it does nothing); false ONLY if failed
+	 * @return true if the single integer key has to be set on SAVE NEW
 	 */
-	private final boolean retrieveAndSetIds()
+	private final boolean isSingleIntegerKeyToBeSet()
 	{
 		// ID was assigned externally. Nothing to do
 		if (isAssignedID)
 		{
-			return true;
+			return false;
 		}
 
 		// Set ID for single key - Multi-Key values need explicitly be set previously
 		if (m_IDs.length != 1)
 		{
-			return true;
+			return false;
 		}
 		if (!p_info.isSingleKeyColumnName())
 		{
-			return true;
+			return false;
 		}
 
 		// Check if ID column is Integer (i.e. shall end with "_ID")
-		if (!m_KeyColumns[0].endsWith("_ID"))
+		return m_KeyColumns[0].endsWith("_ID");
+	}
+
+	/**
+	 * @return true if on SAVE NEW the ID will be retrieved from the table's sequence
+	 */
+	private final boolean isNewIdToBeRetrieved()
+	{
+		return isSingleIntegerKeyToBeSet() && saveNew_getID() <= 0;
+	}
+
+	/**
+	 * Set's the IDs on SAVE NEW
+	 *
+	 * @return true if succeed (even if it does nothing); false ONLY if failed
+	 */
+	private final boolean retrieveAndSetIds()
+	{
+		if (!isSingleIntegerKeyToBeSet())
 		{
 			return true;
 		}
 
 		Integer idNew = saveNew_getID();
 
+		if (idNew <= 0 && m_batchInsertIdSupplier != null)
+		{
+			idNew = m_batchInsertIdSupplier.getAsInt();
+		}
+
 		if (idNew <= 0
 				&& DB.isUseNativeSequences(getAD_Client_ID(), get_TableName()))
 		{
@@ -3568,14 +3821,45 @@ public abstract class PO
 	 * @return true if new record inserted
 	 */
 	private boolean saveNew() throws Exception
+	{
+		final POInsert insert = saveNew_prepareInsert();
+		if (insert == null)
+		{
+			// Setting new IDs failed.
+			// Execute saveFinish directly
+			return saveFinish(true, false); // newRecord=true, success=false
+		}
+
+		final boolean ok = saveNew_executeInsert(insert);
+		return saveNew_finish(insert, ok);
+	}   // saveNew
+
+	/** The INSERT statement of a new record, as built by {@link #saveNew_prepareInsert()} */
+	private static final class POInsert
+	{
+		private final String sql;
+		/** null if there are no values to load from database after insert */
+		private final POReturningAfterInsertLoader loadAfterInsertProcessor;
+
+		private POInsert(final String sql, final POReturningAfterInsertLoader loadAfterInsertProcessor)
+		{
+			this.sql = sql;
+			this.loadAfterInsertProcessor = loadAfterInsertProcessor;
+		}
+	}
+
+	/**
+	 * Assigns the IDs and DocumentNo/Value if needed and builds the INSERT statement.
+	 *
+	 * @return INSERT statement or null if setting the new IDs failed
+	 */
+	private POInsert saveNew_prepareInsert()
 	{
 		//
 		// Generate and set new IDs
 		if (!retrieveAndSetIds())
 		{
-			// Setting new IDs failed.
-			// Execute saveFinish directly (last line in this method)
-			return saveFinish(true, false); // newRecord=true, success=false
+			return null;
 		}
 
 		final String tableName = p_info.getTableName();
@@ -3839,15 +4123,28 @@ public abstract class PO
 			loadAfterInsertProcessor = null;
 		}
 
-		//
-		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
+		return new POInsert(sqlInsert.toString(), loadAfterInsertProcessor);
+	}
+
+	private boolean saveNew_executeInsert(@NonNull final POInsert insert)
+	{
+		final int no = DB.executeUpdate(insert.sql,
 				(Object[])null,  // params,
 				OnFail.ThrowException,  // onFail
 				m_trxName,
 				0,  // timeOut,
-				loadAfterInsertProcessor);
-		boolean ok = no == 1;
+				insert.loadAfterInsertProcessor);
+		return no == 1;
+	}
+
+	/**
+	 * Saves the LOBs and change logs and finishes the saving.
+	 *
+	 * @param insertOk true if the record was inserted
+	 */
+	private boolean saveNew_finish(@NonNull final POInsert insert, final boolean insertOk) throws Exception
+	{
+		boolean ok = insertOk;
 
 		//
 		// Save LOBs
@@ -3885,7 +4182,7 @@ public abstract class PO
 			String msg = "Not inserted - ";
 			if (LogManager.isLevelFiner())
 			{
-				msg += sqlInsert.toString();
+				msg += insert.sql;
 			}
 			else
 			{
@@ -3902,7 +4199,7 @@ public abstract class PO
 		}
 
 		return saveFinish(true, ok);
-	}   // saveNew
+	}
 
 	/**
 	 * Get ID for new record during save.
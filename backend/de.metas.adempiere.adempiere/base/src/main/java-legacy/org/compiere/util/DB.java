@@ -89,6 +89,7 @@ import de.metas.organization.OrgId;
 import de.metas.process.IADPInstanceDAO;
 import de.metas.process.PInstanceId;
 import de.metas.security.IUserRolePermissionsDAO;
+import de.metas.sequence.TableIDBlockAllocator;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.StringUtils;
@@ -620,6 +621,17 @@ public final class DB
 	public static ImmutablePair<Connection, PreparedStatement> prepareConnectionAndStatementForDataExport(
 			@NonNull final String sqlSelect,
 			@Nullable final List<?> sqlParams/* not ImmutableList because list elements might be null */)
+	{
+		return prepareConnectionAndStatementForDataExport(sqlSelect, sqlParams, 1000);
+	}
+
+	/**
+	 * Same as {@link #prepareConnectionAndStatementForDataExport(String, List)}, but with the given JDBC fetch size.
+	 */
+	public static ImmutablePair<Connection, PreparedStatement> prepareConnectionAndStatementForDataExport(
+			@NonNull final String sqlSelect,
+			@Nullable final List<?> sqlParams/* not ImmutableList because list elements might be null */,
+			final int fetchSize)
 	{
 		Connection conn = null;
 		PreparedStatement pstmt = null;
@@ -633,7 +645,7 @@ public final class DB
 
 			Check.assume(pstmt.getResultSetType() == ResultSet.TYPE_FORWARD_ONLY, "Prepared statement's ResultSetType shall be TYPE_FORWARD_ONLY");
 
-			pstmt.setFetchSize(1000);
+			pstmt.setFetchSize(fetchSize);
 			DB.setParameters(pstmt, sqlParams);
 			return ImmutablePair.of(conn, pstmt);
 		}
@@ -1803,13 +1815,19 @@ public final class DB
 	 * <p>
 	 * <b>WARNING:</b> the underlying sequence might be reset, depending on existing primary keys in the DB
 	 * <p>
+	 * If configured, the ID is handed out from a block of IDs which was reserved in advance, see {@link TableIDBlockAllocator}.
 	 *
 	 * @param trxName optional Transaction Name
 	 * @return next primary key number
 	 */
 	public static int getNextID(final int AD_Client_ID, final String TableName, final String trxName)
 	{
-		final boolean useNativeSequences = DB.isUseNativeSequences(AD_Client_ID, TableName);
+		if (!isLocalIDAllocationAllowed(AD_Client_ID, TableName))
+		{
+			return MSequence.getNextID(AD_Client_ID, TableName, trxName);
+		}
+
+		final boolean useNativeSequences = isUseNativeSequences();
 		if (useNativeSequences)
 		{
 			final String sequenceName = getTableSequenceName(TableName);
@@ -1817,6 +1835,12 @@ public final class DB
 			return nextId;
 		}
 
+		final TableIDBlockAllocator idBlockAllocator = TableIDBlockAllocator.instance;
+		if (idBlockAllocator.isEnabledForTableName(TableName))
+		{
+			return idBlockAllocator.getNextID(AD_Client_ID, TableName);
+		}
+
 		return MSequence.getNextID(AD_Client_ID, TableName, trxName);
 	}    // getNextID
 
@@ -2483,6 +2507,24 @@ public final class DB
 	{
 		log.debug("Checking if we shall use native sequences for {} (AD_Client_ID={})", TableName, AD_Client_ID);
 
+		if (!isLocalIDAllocationAllowed(AD_Client_ID, TableName))
+		{
+			return false;
+		}
+
+		//
+		// Default: use native sequences if activated
+		final boolean useNativeSequences = isUseNativeSequences();
+		log.debug("Returning the result of isUseNativeSequences: {}", useNativeSequences);
+		return useNativeSequences;
+	}
+
+	/**
+	 * @return true if the IDs of given table may be allocated without asking {@code AD_Sequence} (resp. an external ID server) for each single ID,
+	 *         i.e. by using native sequences or {@link TableIDBlockAllocator}.
+	 */
+	private static boolean isLocalIDAllocationAllowed(final int AD_Client_ID, final String TableName)
+	{
 		//
 		// Check: If Log Migration Scripts is enabled then don't use native sequences
 		if (Ini.isPropertyBool(Ini.P_LOGMIGRATIONSCRIPT)
@@ -2508,11 +2550,8 @@ public final class DB
 			log.debug("Returning 'false' because MSequence.isUseExternalIDSystem() returned 'true' for TableName {} and AD_Client_ID {}", TableName, AD_Client_ID);
 			return false;
 		}
-		//
-		// Default: use native sequences if activated
-		final boolean useNativeSequences = isUseNativeSequences();
-		log.debug("Returning the result of isUseNativeSequences: {}", useNativeSequences);
-		return useNativeSequences;
+
+		return true;
 	}
 
 	public static void setUseNativeSequences(final boolean enabled)
@@ -1,10 +1,14 @@
 package de.metas;
 
+import javax.annotation.PreDestroy;
+
 import org.compiere.SpringContextHolder;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextStoppedEvent;
 import org.springframework.stereotype.Component;
 
+import de.metas.sequence.TableIDBlockAllocator;
+
 /*
  * #%L
  * de.metas.adempiere.adempiere.base
@@ -35,4 +39,13 @@ public class ShutdownListener implements ApplicationListener<ContextStoppedEvent
 	{
 		SpringContextHolder.instance.clearApplicationContext();
 	}
+
+	/**
+	 * Logs the IDs which were reserved but not handed out. Unlike the {@link ContextStoppedEvent}, this is also done on a normal context close.
+	 */
+	@PreDestroy
+	public void discardTableIDBlocks()
+	{
+		TableIDBlockAllocator.instance.discardAll();
+	}
 }
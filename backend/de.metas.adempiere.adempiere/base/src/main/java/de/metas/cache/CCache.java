@@ -81,7 +81,7 @@ public class CCache<K, V> implements CacheInterface
 		return CCache.<K, V> builder()
 				.cacheName(cacheName)
 				// .tableName(null) // auto-detect tableName
-				.initialCapacity(maxSize) // FIXME this is confusing because in case of LRU, initialCapacity is used as maxSize
+				.maximumSize(maxSize)
 				.expireMinutes(expireAfterMinutes)
 				.cacheMapType(CacheMapType.LRU)
 				.build();
@@ -113,6 +113,9 @@ public class CCache<K, V> implements CacheInterface
 		/**
 		 * Data is cached in a LRU map (least recently used). This means that if the caches size limit is reached, then the oldest record is removed from cache in order to add a new record.
 		 * This means that we can have a have a cache with a defined (limited) size without any expiration time.
+		 * <p>
+		 * The limit is either given by {@code maximumSize} (number of entries) or by {@code maximumWeight} together with a {@link CacheWeigher}.
+		 * For backwards compatibility, if none of them is specified, then {@code initialCapacity} is used as maximum size.
 		 */
 		LRU,
 	}
@@ -187,7 +190,10 @@ public class CCache<K, V> implements CacheInterface
 				CacheMapType.HashMap,
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
-				(CacheAdditionListener<K, V>)null);
+				(CacheAdditionListener<K, V>)null,
+				null, // maximumSize
+				null, // maximumWeight
+				(CacheWeigher<K, V>)null);
 	}
 
 	@Builder
@@ -200,7 +206,10 @@ public class CCache<K, V> implements CacheInterface
 			final CacheMapType cacheMapType,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
-			@Nullable final CacheAdditionListener<K, V> additionListener)
+			@Nullable final CacheAdditionListener<K, V> additionListener,
+			@Nullable final Integer maximumSize,
+			@Nullable final Long maximumWeight,
+			@Nullable final CacheWeigher<K, V> weigher)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -249,6 +258,9 @@ public class CCache<K, V> implements CacheInterface
 		this.cache = buildGuavaCache(
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
+				maximumSize != null ? maximumSize : 0,
+				maximumWeight != null ? maximumWeight : 0,
+				weigher,
 				this.expireMinutes,
 				removalListener);
 
@@ -317,19 +329,57 @@ public class CCache<K, V> implements CacheInterface
 	private static final <K, V> Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
+			final int maximumSize,
+			final long maximumWeight,
+			@Nullable final CacheWeigher<K, V> weigher,
 			final int expireMinutes,
 			@Nullable final CacheRemovalListener<K, V> removalListener)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats();
 		if (cacheMapType == CacheMapType.HashMap)
 		{
+			if (maximumSize > 0 || maximumWeight > 0 || weigher != null)
+			{
+				throw new AdempiereException("maximumSize, maximumWeight and weigher are supported only for " + CacheMapType.LRU + " caches");
+			}
 			cacheBuilder = cacheBuilder
 					.initialCapacity(initialCapacity);
 		}
 		else if (cacheMapType == CacheMapType.LRU)
 		{
-			cacheBuilder = cacheBuilder
-					.maximumSize(initialCapacity); // FIXME: this is confusing
+			if (weigher != null)
+			{
+				if (maximumWeight <= 0)
+				{
+					throw new AdempiereException("maximumWeight shall be set when a weigher is specified");
+				}
+				if (maximumSize > 0)
+				{
+					throw new AdempiereException("maximumSize and maximumWeight cannot be combined");
+				}
+
+				cacheBuilder = cacheBuilder
+						.maximumWeight(maximumWeight)
+						.weigher((key, value) -> {
+							@SuppressWarnings("unchecked")
+							final K k = (K)key;
+
+							@SuppressWarnings("unchecked")
+							final V v = (V)value;
+
+							return weigher.weigh(k, v);
+						});
+			}
+			else if (maximumWeight > 0)
+			{
+				throw new AdempiereException("maximumWeight requires a weigher");
+			}
+			else
+			{
+				// for backwards compatibility, fallback to initialCapacity
+				cacheBuilder = cacheBuilder.maximumSize(maximumSize > 0 ? maximumSize : initialCapacity);
+			}
 		}
 		else
 		{
@@ -906,5 +956,32 @@ public class CCache<K, V> implements CacheInterface
 		{
 			return guavaStats;
 		}
+
+		public long getHitCount()
+		{
+			return guavaStats.hitCount();
+		}
+
+		public long getMissCount()
+		{
+			return guavaStats.missCount();
+		}
+
+		/** @return ratio of cache requests which were hits; {@code 1.0} if there were no requests yet. */
+		public double getHitRate()
+		{
+			return guavaStats.hitRate();
+		}
+
+		public long getEvictionCount()
+		{
+			return guavaStats.evictionCount();
+		}
+
+		/** @return average time spent loading new values, in milliseconds */
+		public double getAverageLoadPenaltyMillis()
+		{
+			return guavaStats.averageLoadPenalty() / 1_000_000d;
+		}
 	}
 }	// CCache
@@ -0,0 +1,249 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted and sends them as one message after a short time window.
+ * <p>
+ * When sending (also when sending right away, without a window), record-level requests are collapsed into table-level requests for each table which has more record-level requests than a given threshold.
+ * That way, a mass update does not flood the remote event bus and the receiving nodes don't have to do thousands of record-level invalidations.
+ */
+final class CacheInvalidationBroadcastBuffer
+{
+	private static final Logger logger = LogManager.getLogger(CacheInvalidationBroadcastBuffer.class);
+
+	private final Consumer<CacheInvalidateMultiRequest> sender;
+	private final ScheduledExecutorService scheduler;
+
+	private final Object lock = new Object();
+	private LinkedHashSet<CacheInvalidateRequest> pendingRequests = new LinkedHashSet<>();
+	private boolean flushScheduled = false;
+	private int pendingMessagesCount = 0;
+
+	private final AtomicLong requestsCount = new AtomicLong();
+	private final AtomicLong requestsCoalescedCount = new AtomicLong();
+	private final AtomicLong requestsCollapsedCount = new AtomicLong();
+
+	CacheInvalidationBroadcastBuffer(@NonNull final Consumer<CacheInvalidateMultiRequest> sender)
+	{
+		this.sender = sender;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(CacheInvalidationBroadcastBuffer.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+	}
+
+	/**
+	 * Enqueues the given request. If there is no flush scheduled yet, schedules one after {@code windowMillis}.
+	 */
+	public void add(
+			@NonNull final CacheInvalidateMultiRequest multiRequest,
+			final long windowMillis,
+			final int collapseToTableThreshold)
+	{
+		synchronized (lock)
+		{
+			pendingRequests.addAll(multiRequest.getRequests());
+			requestsCount.addAndGet(multiRequest.getRequests().size());
+			pendingMessagesCount++;
+
+			if (flushScheduled)
+			{
+				return;
+			}
+			flushScheduled = true;
+		}
+
+		scheduler.schedule(() -> flush(collapseToTableThreshold), windowMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Collapses the given request and sends it right away, without coalescing it with other requests.
+	 */
+	public void sendNow(
+			@NonNull final CacheInvalidateMultiRequest multiRequest,
+			final int collapseToTableThreshold)
+	{
+		requestsCount.addAndGet(multiRequest.getRequests().size());
+
+		final CollapseResult collapseResult = collapse(multiRequest.getRequests(), collapseToTableThreshold);
+		requestsCollapsedCount.addAndGet(collapseResult.getCollapsedCount());
+
+		sender.accept(collapseResult.getMultiRequest());
+	}
+
+	@VisibleForTesting
+	void flush(final int collapseToTableThreshold)
+	{
+		final Set<CacheInvalidateRequest> requests;
+		final int messagesCount;
+		synchronized (lock)
+		{
+			requests = pendingRequests;
+			messagesCount = pendingMessagesCount;
+			pendingRequests = new LinkedHashSet<>();
+			pendingMessagesCount = 0;
+			flushScheduled = false;
+		}
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		// all but the first message were merged into the first one
+		requestsCoalescedCount.addAndGet(Math.max(0, messagesCount - 1));
+
+		final CollapseResult collapseResult = collapse(requests, collapseToTableThreshold);
+		requestsCollapsedCount.addAndGet(collapseResult.getCollapsedCount());
+
+		try
+		{
+			sender.accept(collapseResult.getMultiRequest());
+		}
+		catch (final Exception ex)
+		{
+			// log but don't fail; there is nobody to propagate the error to
+			logger.warn("Failed broadcasting {}. Ignored.", collapseResult.getMultiRequest(), ex);
+		}
+	}
+
+	public long getRequestsCount()
+	{
+		return requestsCount.get();
+	}
+
+	/**
+	 * @return how many of the enqueued (multi-)requests were merged into a message together with another one, i.e. how many messages were saved
+	 */
+	public long getRequestsCoalescedCount()
+	{
+		return requestsCoalescedCount.get();
+	}
+
+	public long getRequestsCollapsedCount()
+	{
+		return requestsCollapsedCount.get();
+	}
+
+	@Value
+	static class CollapseResult
+	{
+		CacheInvalidateMultiRequest multiRequest;
+		int collapsedCount;
+	}
+
+	/**
+	 * Collapses the record-level requests of each table which has more than {@code threshold} of them into one "all records" request for that table.
+	 * <p>
+	 * Note that a request for a child record also invalidates its root record. So if we collapse child records, we keep one request per root record.
+	 */
+	@VisibleForTesting
+	static CollapseResult collapse(@NonNull final Collection<CacheInvalidateRequest> requests, final int threshold)
+	{
+		if (requests.stream().anyMatch(CacheInvalidateRequest::isAll))
+		{
+			return new CollapseResult(CacheInvalidateMultiRequest.all(), requests.size() - 1);
+		}
+		if (threshold <= 0)
+		{
+			return new CollapseResult(CacheInvalidateMultiRequest.of(requests), 0);
+		}
+
+		final Set<String> collapsedChildTableNames = extractTableNamesAboveThreshold(requests, threshold);
+		final LinkedHashSet<CacheInvalidateRequest> requestsWithCollapsedChildren = new LinkedHashSet<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (isRecordLevelChildRequest(request) && collapsedChildTableNames.contains(request.getTableNameEffective()))
+			{
+				requestsWithCollapsedChildren.add(CacheInvalidateRequest.allRecordsForTable(request.getChildTableName()));
+				requestsWithCollapsedChildren.add(CacheInvalidateRequest.rootRecord(request.getRootTableName(), request.getRootRecordId()));
+			}
+			else
+			{
+				requestsWithCollapsedChildren.add(request);
+			}
+		}
+
+		final Set<String> collapsedTableNames = extractTableNamesAboveThreshold(requestsWithCollapsedChildren, threshold);
+		final LinkedHashSet<CacheInvalidateRequest> result = new LinkedHashSet<>();
+		for (final CacheInvalidateRequest request : requestsWithCollapsedChildren)
+		{
+			if (isRecordLevelRequest(request) && collapsedTableNames.contains(request.getTableNameEffective()))
+			{
+				result.add(CacheInvalidateRequest.allRecordsForTable(request.getTableNameEffective()));
+			}
+			else
+			{
+				result.add(request);
+			}
+		}
+
+		return new CollapseResult(CacheInvalidateMultiRequest.of(result), Math.max(0, requests.size() - result.size()));
+	}
+
+	private static Set<String> extractTableNamesAboveThreshold(final Collection<CacheInvalidateRequest> requests, final int threshold)
+	{
+		final Map<String, Long> countsByTableName = requests.stream()
+				.filter(CacheInvalidationBroadcastBuffer::isRecordLevelRequest)
+				.collect(Collectors.groupingBy(CacheInvalidateRequest::getTableNameEffective, Collectors.counting()));
+
+		return countsByTableName.entrySet()
+				.stream()
+				.filter(entry -> entry.getValue() > threshold)
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toCollection(HashSet::new));
+	}
+
+	private static boolean isRecordLevelRequest(final CacheInvalidateRequest request)
+	{
+		return !request.isAll() && !request.isAllRecords();
+	}
+
+	private static boolean isRecordLevelChildRequest(final CacheInvalidateRequest request)
+	{
+		return isRecordLevelRequest(request) && request.getChildTableName() != null;
+	}
+}
@@ -1,9 +1,11 @@
 package de.metas.cache;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
@@ -60,11 +62,28 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private static final String EVENT_PROPERTY = CacheInvalidateRequest.class.getSimpleName();
 
+	/**
+	 * How long to collect requests before broadcasting them as one message. Zero or less (the default) means that each request is broadcasted right away.
+	 * Note that a window delays the invalidation on the other nodes by up to that time.
+	 */
+	private static final String SYSCONFIG_CoalesceWindowMillis = "de.metas.cache.CacheInvalidationRemoteHandler.CoalesceWindowMillis";
+	private static final int DEFAULT_CoalesceWindowMillis = 0;
+
+	/**
+	 * If a broadcasted message would contain more record-level requests for one table than this, they are replaced by one request for the whole table. Zero or less means never.
+	 * Applies also if requests are not coalesced, because a single request can contain many records, too.
+	 */
+	private static final String SYSCONFIG_CollapseToTableThreshold = "de.metas.cache.CacheInvalidationRemoteHandler.CollapseToTableThreshold";
+	private static final int DEFAULT_CollapseToTableThreshold = 500;
+
 	private final AtomicBoolean _initalized = new AtomicBoolean(false);
 	private ImmutableTableNamesGroupsIndex _tableNamesToBroadcastIndex = ImmutableTableNamesGroupsIndex.EMPTY;
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final CacheInvalidationBroadcastBuffer broadcastBuffer = new CacheInvalidationBroadcastBuffer(this::broadcast);
+	private final AtomicLong messagesSentCount = new AtomicLong();
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -146,7 +165,21 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int coalesceWindowMillis = sysConfigBL.getIntValue(SYSCONFIG_CoalesceWindowMillis, DEFAULT_CoalesceWindowMillis);
+		final int collapseToTableThreshold = sysConfigBL.getIntValue(SYSCONFIG_CollapseToTableThreshold, DEFAULT_CollapseToTableThreshold);
+		if (coalesceWindowMillis <= 0)
+		{
+			broadcastBuffer.sendNow(request, collapseToTableThreshold);
+		}
+		else
+		{
+			broadcastBuffer.add(request, coalesceWindowMillis, collapseToTableThreshold);
+		}
+	}
+
+	private void broadcast(@NonNull final CacheInvalidateMultiRequest request)
+	{
 		final Event event = createEventFromRequest(request);
 		try (final MDCCloseable mdc = EventMDC.putEvent(event))
 		{
@@ -154,9 +187,28 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			Services.get(IEventBusFactory.class)
 					.getEventBus(TOPIC_CacheInvalidation)
 					.postEvent(event);
+			messagesSentCount.incrementAndGet();
 		}
 	}
 
+	/** @return how many remote cache invalidation messages were sent by this node */
+	public long getMessagesSentCount()
+	{
+		return messagesSentCount.get();
+	}
+
+	/** @return how many cache invalidation requests were merged into a message together with other requests, instead of being sent as a message of their own */
+	public long getRequestsCoalescedCount()
+	{
+		return broadcastBuffer.getRequestsCoalescedCount();
+	}
+
+	/** @return how many record-level requests were dropped because they were collapsed into table-level requests */
+	public long getRequestsCollapsedCount()
+	{
+		return broadcastBuffer.getRequestsCollapsedCount();
+	}
+
 	private boolean isAllowBroadcast(final CacheInvalidateMultiRequest multiRequest)
 	{
 		return multiRequest.getRequests().stream().anyMatch(this::isAllowBroadcast);
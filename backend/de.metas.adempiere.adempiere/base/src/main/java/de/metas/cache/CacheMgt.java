@@ -16,6 +16,7 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -43,10 +44,12 @@ import org.slf4j.MDC.MDCCloseable;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.logging.LogManager;
@@ -157,6 +160,23 @@ public final class CacheMgt
 		return ImmutableSet.copyOf(cachesByLabel.keySet());
 	}
 
+	/**
+	 * @return statistics (size, hits, misses, evictions, load times) of all registered {@link CCache}s, sorted by cache name
+	 */
+	public ImmutableList<CCacheStats> getCacheStats()
+	{
+		return cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.filter(cache -> cache instanceof CCache)
+				.map(cache -> (CCache<?, ?>)cache)
+				.collect(ImmutableMap.toImmutableMap(CCache::getCacheId, CCache::stats, (stats1, stats2) -> stats1)) // same cache can be registered for several labels
+				.values()
+				.stream()
+				.sorted(Comparator.comparing(CCacheStats::getName))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	public Set<String> getTableNamesToBroadcast()
 	{
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
@@ -626,7 +646,7 @@ public final class CacheMgt
 			}
 		}
 
-		private Stream<CacheInterface> streamCaches()
+		public Stream<CacheInterface> streamCaches()
 		{
 			return caches.values()
 					.stream()
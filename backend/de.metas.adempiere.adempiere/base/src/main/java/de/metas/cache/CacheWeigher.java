@@ -0,0 +1,35 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Computes the relative weight of a cache entry. Used together with {@link CCache}'s {@code maximumWeight} to bound a cache by e.g. the approximate memory it holds, rather than by its number of entries.
+ * <p>
+ * Note that the weight is computed only once, when the entry is added.
+ */
+@FunctionalInterface
+public interface CacheWeigher<K, V>
+{
+	/** @return the entry's weight; must be non-negative. */
+	int weigh(K key, V value);
+}
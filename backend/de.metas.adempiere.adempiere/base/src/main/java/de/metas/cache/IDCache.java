@@ -49,7 +49,10 @@ public class IDCache<V> extends CCache<Object, V>
 				cacheMapType,
 				KEYS_MAPPER,
 				(CacheRemovalListener<Object, V>)null,
-				(CacheAdditionListener<Object, V>)null);
+				(CacheAdditionListener<Object, V>)null,
+				null, // maximumSize
+				null, // maximumWeight
+				(CacheWeigher<Object, V>)null);
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
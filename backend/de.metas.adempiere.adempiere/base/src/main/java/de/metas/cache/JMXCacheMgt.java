@@ -68,6 +68,24 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 				.toArray(size -> new String[size]);
 	}
 
+	@Override
+	public String[] getCacheStats()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.map(stats -> String.format("%s (id=%d): size=%d, hitRate=%.3f, hits=%d, misses=%d, evictions=%d, avgLoadMillis=%.2f",
+						stats.getName(),
+						stats.getCacheId(),
+						stats.getSize(),
+						stats.getHitRate(),
+						stats.getHitCount(),
+						stats.getMissCount(),
+						stats.getEvictionCount(),
+						stats.getAverageLoadPenaltyMillis()))
+				.toArray(size -> new String[size]);
+	}
+
 	@Override
 	public String[] getTableNamesToBroadcast()
 	{
@@ -77,6 +95,24 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return tableNamesArray;
 	}
 
+	@Override
+	public long getBroadcastMessagesSentCount()
+	{
+		return CacheInvalidationRemoteHandler.instance.getMessagesSentCount();
+	}
+
+	@Override
+	public long getBroadcastRequestsCoalescedCount()
+	{
+		return CacheInvalidationRemoteHandler.instance.getRequestsCoalescedCount();
+	}
+
+	@Override
+	public long getBroadcastRequestsCollapsedCount()
+	{
+		return CacheInvalidationRemoteHandler.instance.getRequestsCollapsedCount();
+	}
+
 	@Override
 	public void enableRemoteCacheInvalidationForTableName(final String tableName)
 	{
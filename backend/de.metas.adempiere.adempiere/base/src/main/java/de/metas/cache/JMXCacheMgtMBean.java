@@ -16,8 +16,19 @@ public interface JMXCacheMgtMBean
 
 	String[] getCacheLabels();
 
+	/**
+	 * @return one line per cache, with its size, hit rate, hits, misses, evictions and average load time
+	 */
+	String[] getCacheStats();
+
 	String[] getTableNamesToBroadcast();
 
+	long getBroadcastMessagesSentCount();
+
+	long getBroadcastRequestsCoalescedCount();
+
+	long getBroadcastRequestsCollapsedCount();
+
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
 	long resetAll();
@@ -1,5 +1,7 @@
 package de.metas.impexp;
 
+import java.util.stream.Stream;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.service.ClientId;
 import org.adempiere.service.ISysConfigBL;
@@ -13,6 +15,7 @@ import com.google.common.base.Stopwatch;
 import de.metas.impexp.config.DataImportConfigId;
 import de.metas.impexp.format.ImpFormat;
 import de.metas.impexp.format.ImportTableDescriptor;
+import de.metas.impexp.parser.ImpDataLine;
 import de.metas.impexp.parser.ImpDataParser;
 import de.metas.impexp.parser.ImpDataParserFactory;
 import de.metas.impexp.processing.IImportProcessFactory;
@@ -59,6 +62,7 @@ final class DataImportCommand
 	private final ImpDataParserFactory parserFactory = new ImpDataParserFactory();
 
 	private static final String SYSCONFIG_InsertBatchSize = "de.metas.impexp.insertBatchSize";
+	private static final String SYSCONFIG_UseCopy = "de.metas.impexp.useCopy";
 
 	private final ClientId clientId;
 	private final OrgId orgId;
@@ -147,9 +151,13 @@ final class DataImportCommand
 				.dataImportRunId(dataImportRunId)
 				.dataImportConfigId(dataImportConfigId)
 				.insertBatchSize(getInsertBatchSize())
+				.useCopy(isUseCopy())
 				.build();
 
-		return importTableAppender.appendStream(sourceParser.streamDataLines(data));
+		try (final Stream<ImpDataLine> sourceLines = sourceParser.streamDataLines(data))
+		{
+			return importTableAppender.appendStream(sourceLines);
+		}
 	}
 
 	private int getInsertBatchSize()
@@ -157,6 +165,11 @@ final class DataImportCommand
 		return sysConfigBL.getIntValue(SYSCONFIG_InsertBatchSize, -1);
 	}
 
+	private boolean isUseCopy()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_UseCopy, false);
+	}
+
 	private ImportProcessResult validateImportRecords(@NonNull final PInstanceId selectionId)
 	{
 		final Stopwatch stopwatch = Stopwatch.createStarted();
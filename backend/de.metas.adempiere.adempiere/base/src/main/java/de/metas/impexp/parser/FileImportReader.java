@@ -3,17 +3,24 @@
  */
 package de.metas.impexp.parser;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
-import com.google.common.io.LineProcessor;
 
 import de.metas.util.Check;
 import lombok.NonNull;
@@ -51,33 +58,92 @@ final class FileImportReader
 	private static final char TEXT_DELIMITER = '"';
 	private static final int MAX_LOADED_LINES = 100;
 
-	private static final class SingleLineProcessor implements LineProcessor<List<String>>
+	/**
+	 * Lazily joins physical lines to logical lines, for files that have at least one field with multi-line text.
+	 * <br>
+	 * Only the logical line which is currently assembled is kept in memory.
+	 */
+	private static final class MultiLineIterator implements Iterator<String>
 	{
-		private final List<String> lines = new ArrayList<>();
+		private final BufferedReader reader;
+
+		private boolean openQuote = false;
+		private boolean closedQuote = false;
+		private boolean quoteOpenRightNow = false;
+
+		/** the logical line which is currently assembled; will be returned as soon as the next logical line starts */
+		private StringBuilder currentLine = null;
+		private boolean currentLineNotBlank = false;
+		private String nextLine = null;
+		private boolean eof = false;
+
+		private MultiLineIterator(@NonNull final BufferedReader reader)
+		{
+			this.reader = reader;
+		}
 
 		@Override
-		public boolean processLine(final String line) throws IOException
+		public boolean hasNext()
 		{
-			lines.add(line);
-			return true;
+			if (nextLine != null)
+			{
+				return true;
+			}
+
+			nextLine = computeNextLine();
+			return nextLine != null;
 		}
 
 		@Override
-		public List<String> getResult()
+		public String next()
 		{
-			return lines;
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+
+			final String line = nextLine;
+			nextLine = null;
+			return line;
 		}
-	}
 
-	final private static class MultiLineProcessor implements LineProcessor<List<String>>
-	{
-		private boolean openQuote = false;
-		private boolean closedQuote = false;
-		private boolean quoteOpenRightNow = false;
-		private final List<String> loadedDataLines = new ArrayList<>();
+		private String computeNextLine()
+		{
+			while (!eof)
+			{
+				final String physicalLine = readPhysicalLine();
+				if (physicalLine == null)
+				{
+					eof = true;
+					return flushCurrentLine();
+				}
 
-		@Override
-		public boolean processLine(final String line) throws IOException
+				final String completedLine = processLine(physicalLine);
+				if (completedLine != null)
+				{
+					return completedLine;
+				}
+			}
+
+			return null;
+		}
+
+		private String readPhysicalLine()
+		{
+			try
+			{
+				return reader.readLine();
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		/**
+		 * @return the previous logical line, if <code>line</code> starts a new one
+		 */
+		private String processLine(@NonNull final String line)
 		{
 			// if previous line had a " which is not closed, then add all to the previous line, until we meet next "
 			if (CharMatcher.anyOf(line).matches(TEXT_DELIMITER))
@@ -93,15 +159,19 @@ final class FileImportReader
 					quoteOpenRightNow = true;
 				}
 			}
+
 			//
 			// if open quote , add this line to the previous
-			if (openQuote && !quoteOpenRightNow && !loadedDataLines.isEmpty() && Check.isNotBlank(loadedDataLines.get(loadedDataLines.size() - 1)))
+			String completedLine = null;
+			if (openQuote && !quoteOpenRightNow && currentLine != null && currentLineNotBlank)
 			{
-				addLine(line);
+				currentLine.append("\n").append(line);
 			}
 			else
 			{
-				loadedDataLines.add(line);
+				completedLine = flushCurrentLine();
+				currentLine = new StringBuilder(line);
+				currentLineNotBlank = Check.isNotBlank(line);
 				quoteOpenRightNow = false;
 			}
 
@@ -113,35 +183,57 @@ final class FileImportReader
 				closedQuote = false;
 				quoteOpenRightNow = false;
 			}
-			return true;
+
+			return completedLine;
 		}
 
-		/**
-		 * add current line to the previous one
-		 *
-		 * @param line
-		 */
-		private void addLine(@NonNull final String line)
+		private String flushCurrentLine()
 		{
-			final StringBuilder previousLine = new StringBuilder();
-			final int index = loadedDataLines.size() - 1;
-			previousLine.append(loadedDataLines.get(index));
-			// append the new line, because the char exists
-			if (Check.isNotBlank(previousLine.toString()))
+			if (currentLine == null)
 			{
-				previousLine.append("\n");
+				return null;
 			}
-			previousLine.append(line);
-			//
-			// now remove the line and add the new line
-			loadedDataLines.remove(index);
-			loadedDataLines.add(previousLine.toString());
+
+			final String line = currentLine.toString();
+			currentLine = null;
+			return line;
 		}
+	}
 
-		@Override
-		public List<String> getResult()
+	/**
+	 * Lazily read the given reader's lines, joining the physical lines of multi-line text fields into one logical line.
+	 * <br>
+	 * Assumes the <code>TEXT_DELIMITER</code> is not encountered in the field.
+	 * <br>
+	 * The reader is closed when the returned stream is closed.
+	 */
+	public Stream<String> streamMultiLines(@NonNull final BufferedReader reader)
+	{
+		final Spliterator<String> spliterator = Spliterators.spliteratorUnknownSize(new MultiLineIterator(reader), Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false)
+				.onClose(() -> closeReader(reader));
+	}
+
+	/**
+	 * Lazily read the given reader's lines, for sources that have not any multi-line text.
+	 * <br>
+	 * The reader is closed when the returned stream is closed.
+	 */
+	public Stream<String> streamRegularLines(@NonNull final BufferedReader reader)
+	{
+		return reader.lines()
+				.onClose(() -> closeReader(reader));
+	}
+
+	private void closeReader(final BufferedReader reader)
+	{
+		try
 		{
-			return loadedDataLines;
+			reader.close();
+		}
+		catch (final IOException ex)
+		{
+			throw new UncheckedIOException(ex);
 		}
 	}
 
@@ -157,12 +249,12 @@ final class FileImportReader
 	 */
 	public List<String> readMultiLines(@NonNull final File file, @NonNull final Charset charset) throws IOException
 	{
-		return Files.readLines(file, charset, new MultiLineProcessor());
+		return readAll(streamMultiLines(Files.newReader(file, charset)));
 	}
 
 	public List<String> readMultiLines(@NonNull final byte[] data, @NonNull final Charset charset) throws IOException
 	{
-		return ByteSource.wrap(data).asCharSource(charset).readLines(new MultiLineProcessor());
+		return readAll(streamMultiLines(ByteSource.wrap(data).asCharSource(charset).openBufferedStream()));
 	}
 
 	/**
@@ -175,12 +267,24 @@ final class FileImportReader
 	 */
 	public List<String> readRegularLines(@NonNull final File file, @NonNull final Charset charset) throws IOException
 	{
-		return Files.readLines(file, charset, new SingleLineProcessor());
+		return readAll(streamRegularLines(Files.newReader(file, charset)));
 	}
 
 	public List<String> readRegularLines(@NonNull final byte[] data, @NonNull final Charset charset) throws IOException
 	{
-		return ByteSource.wrap(data).asCharSource(charset).readLines(new SingleLineProcessor());
+		return readAll(streamRegularLines(ByteSource.wrap(data).asCharSource(charset).openBufferedStream()));
+	}
+
+	private List<String> readAll(final Stream<String> lines) throws IOException
+	{
+		try (final Stream<String> stream = lines)
+		{
+			return stream.collect(Collectors.toCollection(ArrayList::new));
+		}
+		catch (final UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
 	}
 
 	/**
@@ -1,15 +1,19 @@
 package de.metas.impexp.parser;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.adempiere.exceptions.AdempiereException;
-import org.compiere.util.Util;
+import org.slf4j.Logger;
 import org.springframework.core.io.Resource;
 
+import de.metas.logging.LogManager;
+
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.ToString;
@@ -39,7 +43,10 @@ import lombok.ToString;
 @ToString
 public final class ImpDataParser
 {
+	private static final Logger logger = LogManager.getLogger(ImpDataParser.class);
+
 	private static final Charset CHARSET = StandardCharsets.UTF_8;
+	private static final int PROGRESS_LOG_EVERY_LINES = 10000;
 
 	private final boolean multiline;
 	private final ImpDataLineParser lineParser;
@@ -53,39 +60,40 @@ public final class ImpDataParser
 		this.lineParser = lineParser;
 	}
 
+	/**
+	 * Lazily parses the given resource.
+	 * <br>
+	 * The resource is read line by line, so only the lines which are currently processed are kept in memory.
+	 * The underlying input stream is closed when the returned stream is closed, so make sure you close it.
+	 */
 	public Stream<ImpDataLine> streamDataLines(final Resource resource)
 	{
 		final AtomicInteger nextLineNo = new AtomicInteger(1);
 
 		return streamSourceLines(resource)
-				.map(lineStr -> createImpDataLine(lineStr, nextLineNo));
+				.map(lineStr -> createImpDataLine(lineStr, nextLineNo))
+				.peek(line -> logProgress(resource, line))
+				.onClose(() -> logger.debug("Finished reading {} lines from {}", nextLineNo.get() - 1, resource));
 	}
 
 	private Stream<String> streamSourceLines(final Resource resource)
 	{
-		final byte[] data = toByteArray(resource);
-		try
+		final BufferedReader reader = openReader(resource);
+		if (multiline)
 		{
-			if (multiline)
-			{
-				return FileImportReader.readMultiLines(data, CHARSET).stream();
-			}
-			else
-			{
-				return FileImportReader.readRegularLines(data, CHARSET).stream();
-			}
+			return FileImportReader.streamMultiLines(reader);
 		}
-		catch (final IOException ex)
+		else
 		{
-			throw new AdempiereException("Failed reading resource: " + resource, ex);
+			return FileImportReader.streamRegularLines(reader);
 		}
 	}
 
-	private static byte[] toByteArray(final Resource resource)
+	private static BufferedReader openReader(final Resource resource)
 	{
 		try
 		{
-			return Util.readBytes(resource.getInputStream());
+			return new BufferedReader(new InputStreamReader(resource.getInputStream(), CHARSET));
 		}
 		catch (final IOException ex)
 		{
@@ -93,6 +101,14 @@ public final class ImpDataParser
 		}
 	}
 
+	private static void logProgress(final Resource resource, final ImpDataLine line)
+	{
+		if (line.getFileLineNo() % PROGRESS_LOG_EVERY_LINES == 0)
+		{
+			logger.info("Read {} lines from {}", line.getFileLineNo(), resource);
+		}
+	}
+
 	private ImpDataLine createImpDataLine(final String lineStr, final AtomicInteger nextLineNo)
 	{
 		try
@@ -129,6 +129,16 @@ public final class ImportProcessResult
 			countImportRecordsConsidered.add(count);
 		}
 
+		/**
+		 * Adds the inserts, updates and considered import records counters of the given collector to this one.
+		 */
+		public void addCounters(@NonNull final ImportProcessResultCollector other)
+		{
+			countInsertsIntoTargetTable.add(other.countInsertsIntoTargetTable);
+			countUpdatesIntoTargetTable.add(other.countUpdatesIntoTargetTable);
+			countImportRecordsConsidered.add(other.countImportRecordsConsidered);
+		}
+
 		public void setCountImportRecordsDeleted(final int countImportRecordsDeleted)
 		{
 			Check.assumeGreaterOrEqualToZero(countImportRecordsDeleted, "countImportRecordsDeleted");
@@ -165,6 +175,15 @@ public final class ImportProcessResult
 			set(this.value + valueToAdd);
 		}
 
+		public void add(@NonNull final Counter other)
+		{
+			if (other.unknownValue)
+			{
+				return;
+			}
+			add(other.value);
+		}
+
 		public OptionalInt toOptionalInt()
 		{
 			return unknownValue ? OptionalInt.empty() : OptionalInt.of(value);
@@ -3,6 +3,7 @@ package de.metas.impexp.processing;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -11,6 +12,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -22,7 +28,10 @@ import org.adempiere.db.util.AbstractPreparedStatementBlindIterator;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.api.IParams;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
@@ -66,6 +75,10 @@ import lombok.NonNull;
  */
 public abstract class ImportProcessTemplate<ImportRecordType> implements IImportProcess<ImportRecordType>
 {
+	public static final String SYSCONFIG_ParallelImportThreads = "de.metas.impexp.processing.ImportProcessTemplate.ParallelImportThreads";
+	public static final String SYSCONFIG_ParallelImportChunkSize = "de.metas.impexp.processing.ImportProcessTemplate.ParallelImportChunkSize";
+	private static final int DEFAULT_ParallelImportChunkSize = 500;
+
 	// services
 	private final transient Logger logger = LogManager.getLogger(getClass());
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
@@ -84,6 +97,7 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 	private TableRecordReferenceSet selectedRecordRefs;
 
 	private ImportProcessResultCollector resultCollector;
+	private boolean parallelImport = false;
 
 	private ImportTableDescriptor _importTableDescriptor; // lazy
 	private DBFunctions dbFunctions; // lazy
@@ -462,6 +476,26 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 	 * Actual data import.
 	 */
 	private final void importData()
+	{
+		final int parallelThreads = getParallelImportThreads();
+		parallelImport = parallelThreads > 1;
+		if (parallelImport)
+		{
+			importDataInParallel(parallelThreads);
+		}
+		else
+		{
+			importRecordsGroupByGroup(retrieveRecordsToImport(), getResultCollector());
+		}
+	}
+
+	/**
+	 * Imports the given records, group by group, each group in its own transaction.
+	 * If a group fails, its transaction is rolled back and its import records are marked as error.
+	 */
+	private void importRecordsGroupByGroup(
+			@NonNull final Iterator<ImportRecordType> importRecords,
+			@NonNull final ImportProcessResultCollector resultCollector)
 	{
 		final ITrxItemProcessorExecutorService trxItemProcessorExecutorService = Services.get(ITrxItemProcessorExecutorService.class);
 
@@ -515,7 +549,7 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 					public void completeChunk()
 					{
 						final ImportGroup<ImportRecordType> currentGroup = currentImportGroupHolder.getValue();
-						importGroup(currentGroup, stateHolder);
+						importGroup(currentGroup, stateHolder, resultCollector);
 					}
 
 					@Override
@@ -525,7 +559,147 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 					}
 				})
 				//
-				.process(retrieveRecordsToImport());
+				.process(importRecords);
+	}
+
+	/**
+	 * @return how many threads shall be used to import the data; a value less or equal to one means the data is imported sequentially, in the current thread.
+	 */
+	private int getParallelImportThreads()
+	{
+		if (!isParallelImportSupported())
+		{
+			return 1;
+		}
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return sysConfigBL.getIntValue(SYSCONFIG_ParallelImportThreads, 1, getClientId().getRepoId());
+	}
+
+	/**
+	 * @return <code>true</code> if the current import (including {@link #afterImport()}) imports the records in parallel, see {@link #isParallelImportSupported()}
+	 */
+	protected final boolean isParallelImport()
+	{
+		return parallelImport;
+	}
+
+	/**
+	 * Override and return <code>true</code> if the chunks built by {@link #extractParallelImportChunkKey(Object)} can be imported in any order and concurrently.
+	 * <p>
+	 * Don't do it if {@link #importRecords(List, IMutable)} relies on state it left in the state holder while importing records with another chunk key,
+	 * or if records with different chunk keys might create or update the same target record.
+	 */
+	protected boolean isParallelImportSupported()
+	{
+		return false;
+	}
+
+	/**
+	 * When importing in parallel, consecutive records with the same chunk key always end up in the same chunk and are imported in their original order, by the same thread.
+	 * <p>
+	 * By default the chunk key is the import group key. Override it if {@link #importRecords(List, IMutable)} reuses state from the previous import group.
+	 * The records of one import group must all have the same chunk key.
+	 */
+	protected Object extractParallelImportChunkKey(final ImportRecordType importRecord)
+	{
+		return extractImportGroupKey(importRecord);
+	}
+
+	/**
+	 * Reads the records to import in the current thread and splits them into chunks, without splitting records with the same chunk key.
+	 * Each chunk is imported by a worker thread, in the same way as the sequential import does it.
+	 * At most two chunks per thread are kept in memory.
+	 */
+	private void importDataInParallel(final int parallelThreads)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int chunkSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_ParallelImportChunkSize, DEFAULT_ParallelImportChunkSize, getClientId().getRepoId()), 1);
+		final int maxChunksInFlight = parallelThreads * 2;
+		final ImportProcessResultCollector overallResultCollector = getResultCollector();
+
+		final ExecutorService executor = createParallelImportExecutor(parallelThreads);
+		final ArrayDeque<Future<ImportProcessResultCollector>> chunksInFlight = new ArrayDeque<>();
+		try
+		{
+			final Iterator<ImportRecordType> importRecords = retrieveRecordsToImport();
+
+			List<ImportRecordType> chunk = new ArrayList<>();
+			Object previousChunkKey = null;
+			while (importRecords.hasNext())
+			{
+				final ImportRecordType importRecord = importRecords.next();
+				final Object chunkKey = extractParallelImportChunkKey(importRecord);
+				if (chunk.size() >= chunkSize && !Objects.equals(previousChunkKey, chunkKey))
+				{
+					if (chunksInFlight.size() >= maxChunksInFlight)
+					{
+						overallResultCollector.addCounters(waitForChunk(chunksInFlight.poll()));
+					}
+					chunksInFlight.add(executor.submit(createImportChunkTask(chunk)));
+					chunk = new ArrayList<>();
+				}
+
+				chunk.add(importRecord);
+				previousChunkKey = chunkKey;
+			}
+
+			if (!chunk.isEmpty())
+			{
+				chunksInFlight.add(executor.submit(createImportChunkTask(chunk)));
+			}
+
+			while (!chunksInFlight.isEmpty())
+			{
+				overallResultCollector.addCounters(waitForChunk(chunksInFlight.poll()));
+			}
+		}
+		finally
+		{
+			chunksInFlight.forEach(future -> future.cancel(false));
+			executor.shutdown();
+		}
+	}
+
+	@VisibleForTesting
+	protected ExecutorService createParallelImportExecutor(final int parallelThreads)
+	{
+		return Executors.newFixedThreadPool(
+				parallelThreads,
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(getClass().getSimpleName() + "-import")
+						.build());
+	}
+
+	private Callable<ImportProcessResultCollector> createImportChunkTask(@NonNull final List<ImportRecordType> chunk)
+	{
+		final Properties workerCtx = Env.copyCtx(getCtx());
+		return () -> {
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(workerCtx))
+			{
+				final ImportProcessResultCollector chunkResultCollector = ImportProcessResult.newCollector(getTargetTableName());
+				importRecordsGroupByGroup(chunk.iterator(), chunkResultCollector);
+				return chunkResultCollector;
+			}
+		};
+	}
+
+	private static ImportProcessResultCollector waitForChunk(@NonNull final Future<ImportProcessResultCollector> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
 	}
 
 	@VisibleForTesting
@@ -553,7 +727,8 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 
 	private void importGroup(
 			@NonNull final ImportGroup<ImportRecordType> importGroup,
-			@NonNull final IMutable<Object> stateHolder)
+			@NonNull final IMutable<Object> stateHolder,
+			@NonNull final ImportProcessResultCollector resultCollector)
 	{
 		// shall not happen
 		if (importGroup.isEmpty())
@@ -562,11 +737,10 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 			return;
 		}
 
-		final ImportProcessResultCollector overallResultCollector = getResultCollector();
 		try
 		{
 			final ImmutableList<ImportRecordType> importRecordsList = importGroup.getImportRecords();
-			overallResultCollector.addCountImportRecordsConsidered(importRecordsList.size());
+			resultCollector.addCountImportRecordsConsidered(importRecordsList.size());
 
 			final ImportGroupResult importGroupResult = importRecords(importRecordsList, stateHolder);
 
@@ -576,8 +750,8 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 				runSQLAfterRowImport(importRecord); // run after markImported because we need the recordId saved
 			}
 
-			overallResultCollector.addInsertsIntoTargetTable(importGroupResult.getCountInserted());
-			overallResultCollector.addUpdatesIntoTargetTable(importGroupResult.getCountUpdated());
+			resultCollector.addInsertsIntoTargetTable(importGroupResult.getCountInserted());
+			resultCollector.addUpdatesIntoTargetTable(importGroupResult.getCountUpdated());
 		}
 		catch (Exception ex)
 		{
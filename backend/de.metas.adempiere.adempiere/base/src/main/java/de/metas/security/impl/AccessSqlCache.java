@@ -0,0 +1,141 @@
+package de.metas.security.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_AD_Role;
+import org.compiere.model.I_AD_Role_Record_Access_Config;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CCache;
+import de.metas.security.permissions.Access;
+import de.metas.user.UserGroupId;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Bounded cache of SQLs to which {@link UserRolePermissionsSqlHelpers#addAccessSQL(String, String, boolean, Access)} already added the access where clauses,
+ * so we don't parse and rebuild the same SQL over and over again.
+ * <p>
+ * Entries are keyed by the permissions instance and the {@link UserRolePermissionsDAO#getCacheVersion()} they were built with.
+ * The cache is reset together with the permissions cache (i.e. on {@code AD_Role} cache reset) and on record access config changes.
+ */
+public final class AccessSqlCache
+{
+	public static final transient AccessSqlCache instance = new AccessSqlCache();
+
+	@VisibleForTesting
+	static final String SYSCONFIG_Enabled = "de.metas.security.impl.AccessSqlCache.Enabled";
+	private static final int MAX_SIZE = 2000;
+
+	private final CCache<AccessSqlKey, String> cache = CCache.<AccessSqlKey, String> builder()
+			.tableName(I_AD_Role.Table_Name)
+			.additionalTableNameToResetFor(I_AD_Role_Record_Access_Config.Table_Name)
+			.maximumSize(MAX_SIZE)
+			.build();
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder missesNanos = new LongAdder();
+
+	private AccessSqlCache()
+	{
+	}
+
+	public boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	String getOrBuild(@NonNull final AccessSqlKey key, @NonNull final Supplier<String> accessSqlBuilder)
+	{
+		final String accessSql = cache.getOrLoad(key, k -> {
+			final long startNanos = System.nanoTime();
+			final String builtAccessSql = accessSqlBuilder.get();
+			missesNanos.add(System.nanoTime() - startNanos);
+			misses.increment();
+			return builtAccessSql;
+		});
+
+		requests.increment();
+		return accessSql;
+	}
+
+	/**
+	 * @return statistics which also estimate how much CPU time was saved, assuming that a cache hit would have cost as much as an average cache miss.
+	 */
+	public AccessSqlCacheStats getStats()
+	{
+		final long missesCount = misses.sum();
+		final long hitsCount = Math.max(requests.sum() - missesCount, 0);
+		final long missesNanosTotal = missesNanos.sum();
+		final long avgMissMicros = missesCount > 0 ? missesNanosTotal / missesCount / 1000 : 0;
+
+		return AccessSqlCacheStats.builder()
+				.size(cache.size())
+				.hits(hitsCount)
+				.misses(missesCount)
+				.avgMissMicros(avgMissMicros)
+				.estimatedSavedMillis(missesCount > 0 ? hitsCount * missesNanosTotal / missesCount / 1_000_000 : 0)
+				.build();
+	}
+
+	@Value
+	@Builder
+	static class AccessSqlKey
+	{
+		/** Compared by identity; a new instance is created whenever the permissions cache is reset */
+		@NonNull
+		UserRolePermissions permissions;
+		long permissionsVersion;
+
+		/** The user's group assignments have validity dates and are not part of the permissions */
+		@NonNull
+		ImmutableSet<UserGroupId> userGroupIds;
+
+		@NonNull
+		String sql;
+		String tableName;
+		boolean fullyQualified;
+		@NonNull
+		Access access;
+	}
+
+	@Value
+	@Builder
+	public static class AccessSqlCacheStats
+	{
+		long size;
+		long hits;
+		long misses;
+		long avgMissMicros;
+		long estimatedSavedMillis;
+	}
+}
@@ -52,6 +52,7 @@ import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
@@ -65,6 +66,7 @@ import de.metas.logging.MetasfreshLastError;
 import de.metas.organization.OrgId;
 import de.metas.security.ISecurityRuleEngine;
 import de.metas.security.IUserRolePermissions;
+import de.metas.security.IUserRolePermissionsDAO;
 import de.metas.security.RoleId;
 import de.metas.security.TableAccessLevel;
 import de.metas.security.permissions.Access;
@@ -660,8 +662,33 @@ class UserRolePermissions implements IUserRolePermissions
 			final boolean fullyQualified,
 			final Access access)
 	{
-		return new UserRolePermissionsSqlHelpers(this)
-				.addAccessSQL(sql, tableNameIn, fullyQualified, access);
+		return addAccessSQL(sql, tableNameIn, fullyQualified, access, new UserRolePermissionsSqlHelpers(this));
+	}
+
+	@VisibleForTesting
+	String addAccessSQL(
+			final String sql,
+			final String tableNameIn,
+			final boolean fullyQualified,
+			final Access access,
+			@NonNull final UserRolePermissionsSqlHelpers sqlHelpers)
+	{
+		final AccessSqlCache accessSqlCache = AccessSqlCache.instance;
+		if (!accessSqlCache.isEnabled())
+		{
+			return sqlHelpers.addAccessSQL(sql, tableNameIn, fullyQualified, access);
+		}
+
+		final AccessSqlCache.AccessSqlKey key = AccessSqlCache.AccessSqlKey.builder()
+				.permissions(this)
+				.permissionsVersion(Services.get(IUserRolePermissionsDAO.class).getCacheVersion())
+				.userGroupIds(ImmutableSet.copyOf(sqlHelpers.getUserGroupIds()))
+				.sql(sql)
+				.tableName(tableNameIn)
+				.fullyQualified(fullyQualified)
+				.access(access)
+				.build();
+		return accessSqlCache.getOrBuild(key, () -> sqlHelpers.addAccessSQL(sql, tableNameIn, fullyQualified, access));
 	}
 
 	/**
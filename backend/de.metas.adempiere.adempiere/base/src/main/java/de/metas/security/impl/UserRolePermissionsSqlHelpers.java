@@ -42,7 +42,7 @@ import lombok.NonNull;
  * #L%
  */
 
-final class UserRolePermissionsSqlHelpers
+class UserRolePermissionsSqlHelpers
 {
 	private static final Logger logger = LogManager.getLogger(UserRolePermissionsSqlHelpers.class);
 
@@ -82,7 +82,7 @@ final class UserRolePermissionsSqlHelpers
 		return _role.isAccessAllOrgs();
 	}
 
-	private Set<UserGroupId> getUserGroupIds()
+	Set<UserGroupId> getUserGroupIds()
 	{
 		Set<UserGroupId> userGroupIds = this._userGroupIds;
 		if (userGroupIds == null)
@@ -0,0 +1,104 @@
+package de.metas.sequence;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.util.DB;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Supplies the IDs of a known number of new records of a table which uses native sequences.
+ * The IDs of all records are fetched from the table's sequence in one go, when the first one is needed.
+ */
+public class BatchInsertIdSupplier implements IntSupplier
+{
+	/**
+	 * @return supplier of the IDs for the given number of new records: if the table uses native sequences, a {@link BatchInsertIdSupplier};
+	 *         otherwise each ID is retrieved via {@link DB#getNextID(int, String, String)}, same as {@code PO} does when saving a single new record
+	 */
+	public static IntSupplier newInstance(
+			final int adClientId,
+			@NonNull final String tableName,
+			final int countToAllocate,
+			@Nullable final String trxName)
+	{
+		if (DB.isUseNativeSequences(adClientId, tableName))
+		{
+			return new BatchInsertIdSupplier(tableName, countToAllocate);
+		}
+
+		return () -> {
+			final int id = DB.getNextID(adClientId, tableName, trxName);
+			if (id <= 0)
+			{
+				throw new AdempiereException("No NextID (" + id + ") for " + tableName);
+			}
+			return id;
+		};
+	}
+
+	private final String tableName;
+	private final int countToAllocate;
+	private Iterator<Integer> ids = null;
+
+	public BatchInsertIdSupplier(@NonNull final String tableName, final int countToAllocate)
+	{
+		this.tableName = tableName;
+		this.countToAllocate = countToAllocate;
+	}
+
+	@Override
+	public int getAsInt()
+	{
+		if (ids == null)
+		{
+			ids = retrieveNextIds(tableName, countToAllocate).iterator();
+		}
+
+		if (!ids.hasNext())
+		{
+			throw new AdempiereException("All the " + countToAllocate + " allocated IDs were already used")
+					.setParameter("tableName", tableName);
+		}
+		return ids.next();
+	}
+
+	@VisibleForTesting
+	List<Integer> retrieveNextIds(@NonNull final String tableName, final int count)
+	{
+		return DB.retrieveRows(
+				"SELECT " + DB.TO_TABLESEQUENCE_NEXTVAL(tableName) + " FROM generate_series(1, ?)",
+				ImmutableList.<Object> of(count),
+				rs -> rs.getInt(1));
+	}
+}
@@ -0,0 +1,79 @@
+package de.metas.sequence;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX bean for {@link TableIDBlockAllocator} (implementation)
+ */
+public class JMXTableIDBlockAllocator implements JMXTableIDBlockAllocatorMBean, IJMXNameAware
+{
+	private final String jmxName;
+
+	JMXTableIDBlockAllocator()
+	{
+		this.jmxName = TableIDBlockAllocator.JMX_BASE_NAME + ":type=TableIDBlockAllocator";
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return jmxName;
+	}
+
+	private TableIDBlockAllocator getAllocator()
+	{
+		return TableIDBlockAllocator.instance;
+	}
+
+	@Override
+	public String[] getPoolInfos()
+	{
+		return getAllocator().getPoolInfos();
+	}
+
+	@Override
+	public long getRefillsCount()
+	{
+		return getAllocator().getRefillsCount();
+	}
+
+	@Override
+	public long getHandedOutCount()
+	{
+		return getAllocator().getHandedOutCount();
+	}
+
+	@Override
+	public long getWastedCount()
+	{
+		return getAllocator().getWastedCount();
+	}
+
+	@Override
+	public long discardAll()
+	{
+		return getAllocator().discardAll();
+	}
+}
@@ -0,0 +1,105 @@
+package de.metas.sequence;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.metas.util.Check;
+import lombok.Getter;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A range of table IDs which was reserved in {@code AD_Sequence} in one go and which is handed out by this JVM only.
+ * <p>
+ * Handing out IDs is lock-free. Once all IDs were handed out, {@link #nextIdOrNone()} returns {@link #NONE}.
+ */
+public final class TableIDBlock
+{
+	public static TableIDBlock of(final int firstId, final int incrementNo, final int size)
+	{
+		return new TableIDBlock(firstId, incrementNo, size);
+	}
+
+	public static final int NONE = -1;
+
+	/** An already exhausted block, used as initial value */
+	public static final TableIDBlock EMPTY = new TableIDBlock(0, 1, 0);
+
+	@Getter
+	private final int firstId;
+	@Getter
+	private final int incrementNo;
+	@Getter
+	private final int size;
+
+	/** index of the next ID to hand out; never exceeds {@link #size} */
+	private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+	private TableIDBlock(final int firstId, final int incrementNo, final int size)
+	{
+		Check.assume(size >= 0, "size >= 0 but it was {}", size);
+		Check.assume(incrementNo > 0, "incrementNo > 0 but it was {}", incrementNo);
+
+		this.firstId = firstId;
+		this.incrementNo = incrementNo;
+		this.size = size;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "TableIDBlock[firstId=" + firstId
+				+ ", incrementNo=" + incrementNo
+				+ ", size=" + size
+				+ ", remaining=" + getRemainingCount()
+				+ "]";
+	}
+
+	/**
+	 * @return next ID of this block or {@link #NONE} if the block is exhausted
+	 */
+	public int nextIdOrNone()
+	{
+		final int index = nextIndex.getAndUpdate(i -> i < size ? i + 1 : i);
+		if (index >= size)
+		{
+			return NONE;
+		}
+		return firstId + index * incrementNo;
+	}
+
+	public int getRemainingCount()
+	{
+		return size - nextIndex.get();
+	}
+
+	/**
+	 * Marks this block as exhausted.
+	 *
+	 * @return how many IDs were not handed out and are hence lost
+	 */
+	public int discard()
+	{
+		final int index = nextIndex.getAndSet(size);
+		return size - index;
+	}
+}
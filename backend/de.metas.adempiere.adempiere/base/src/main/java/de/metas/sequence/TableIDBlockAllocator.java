@@ -0,0 +1,278 @@
+package de.metas.sequence;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+import java.util.function.ToIntFunction;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+import org.compiere.model.MSequence;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out table IDs from blocks which are reserved in {@code AD_Sequence} with one round trip per block (see {@link MSequence#reserveIDBlock(int, String, int)}),
+ * instead of locking the {@code AD_Sequence} row for each single ID.
+ * <p>
+ * The block size is configured by the sysconfigs {@value #SYSCONFIG_BlockSize} (default for all tables) and {@value #SYSCONFIG_BlockSize}{@code .<TableName>}.
+ * A block size of 1 (which is the default) means that this allocator is not used for that table.
+ * <p>
+ * Blocks are kept per table and per ID range, because {@link MSequence} reserves system client IDs from {@code CurrentNextSys} and all other IDs from {@code CurrentNext}.
+ * <p>
+ * Note that IDs which were reserved but not handed out (e.g. when the JVM is stopped) are lost, i.e. the IDs of a table will have gaps and are not strictly increasing across multiple JVMs.
+ */
+public final class TableIDBlockAllocator
+{
+	public static final transient TableIDBlockAllocator instance = new TableIDBlockAllocator();
+
+	public static final String JMX_BASE_NAME = "de.metas.sequence";
+
+	@VisibleForTesting
+	static final String SYSCONFIG_BlockSize = "de.metas.sequence.TableIDBlockAllocator.BlockSize";
+	private static final int DEFAULT_BlockSize = 1;
+
+	/* package */ static final transient Logger logger = LogManager.getLogger(TableIDBlockAllocator.class);
+
+	@FunctionalInterface
+	@VisibleForTesting
+	interface TableIDBlockReserver
+	{
+		TableIDBlock reserveIDBlock(int adClientId, String tableName, int blockSize);
+	}
+
+	private final TableIDBlockReserver blockReserver;
+	private final ToIntFunction<String> blockSizeProvider;
+	private final IntPredicate systemIDRangeProvider;
+
+	private final ConcurrentHashMap<TableIDPoolKey, TableIDPool> pools = new ConcurrentHashMap<>();
+
+	private TableIDBlockAllocator()
+	{
+		this(MSequence::reserveIDBlock, TableIDBlockAllocator::retrieveBlockSize, MSequence::isAdempiereSys);
+		JMXRegistry.get().registerJMX(new JMXTableIDBlockAllocator(), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	/**
+	 * @param systemIDRangeProvider tells for a given {@code AD_Client_ID} if the IDs come from the system ID range; shall be consistent with {@code blockReserver}
+	 */
+	@VisibleForTesting
+	TableIDBlockAllocator(
+			@NonNull final TableIDBlockReserver blockReserver,
+			@NonNull final ToIntFunction<String> blockSizeProvider,
+			@NonNull final IntPredicate systemIDRangeProvider)
+	{
+		this.blockReserver = blockReserver;
+		this.blockSizeProvider = blockSizeProvider;
+		this.systemIDRangeProvider = systemIDRangeProvider;
+	}
+
+	private static int retrieveBlockSize(@NonNull final String tableName)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int defaultBlockSize = sysConfigBL.getIntValue(SYSCONFIG_BlockSize, DEFAULT_BlockSize);
+		return sysConfigBL.getIntValue(SYSCONFIG_BlockSize + "." + tableName, defaultBlockSize);
+	}
+
+	private int getBlockSize(@NonNull final String tableName)
+	{
+		return Math.max(blockSizeProvider.applyAsInt(tableName), 1);
+	}
+
+	/**
+	 * @return true if IDs for given table shall be handed out by this allocator
+	 */
+	public boolean isEnabledForTableName(@NonNull final String tableName)
+	{
+		return getBlockSize(tableName) > 1;
+	}
+
+	public int getNextID(final int adClientId, @NonNull final String tableName)
+	{
+		final TableIDPoolKey key = new TableIDPoolKey(tableName, systemIDRangeProvider.test(adClientId));
+		return pools
+				.computeIfAbsent(key, TableIDPool::new)
+				.nextId(adClientId);
+	}
+
+	/**
+	 * Discards all currently reserved blocks. Shall be called when the JVM is stopped, in order to have the number of lost IDs in the logs.
+	 *
+	 * @return how many IDs were reserved but not handed out
+	 */
+	public long discardAll()
+	{
+		long wastedCount = 0;
+		for (final TableIDPool pool : pools.values())
+		{
+			wastedCount += pool.discard();
+		}
+
+		logger.info("Discarded all ID blocks; {} IDs were reserved but not handed out", wastedCount);
+		return wastedCount;
+	}
+
+	public long getRefillsCount()
+	{
+		return pools.values().stream().mapToLong(TableIDPool::getRefillsCount).sum();
+	}
+
+	public long getHandedOutCount()
+	{
+		return pools.values().stream().mapToLong(TableIDPool::getHandedOutCount).sum();
+	}
+
+	public long getWastedCount()
+	{
+		return pools.values().stream().mapToLong(TableIDPool::getWastedCount).sum();
+	}
+
+	/**
+	 * @return one line per table, with the current block and the refills/handed out/wasted counters
+	 */
+	public String[] getPoolInfos()
+	{
+		return pools.values()
+				.stream()
+				.sorted(Comparator.comparing(TableIDPool::getTableName).thenComparing(TableIDPool::isSystemIDRange))
+				.map(TableIDPool::toString)
+				.toArray(String[]::new);
+	}
+
+	@Value
+	private static class TableIDPoolKey
+	{
+		@NonNull
+		String tableName;
+		boolean systemIDRange;
+	}
+
+	/** The ID blocks of one table and ID range */
+	private final class TableIDPool
+	{
+		private final String tableName;
+		private final boolean systemIDRange;
+		private final AtomicReference<TableIDBlock> currentBlock = new AtomicReference<>(TableIDBlock.EMPTY);
+
+		private final AtomicLong refillsCount = new AtomicLong();
+		private final AtomicLong handedOutCount = new AtomicLong();
+		private final AtomicLong wastedCount = new AtomicLong();
+
+		private TableIDPool(@NonNull final TableIDPoolKey key)
+		{
+			this.tableName = key.getTableName();
+			this.systemIDRange = key.isSystemIDRange();
+		}
+
+		@Override
+		public String toString()
+		{
+			return tableName + (systemIDRange ? " (system IDs)" : "")
+					+ ": refills=" + refillsCount.get()
+					+ ", handedOut=" + handedOutCount.get()
+					+ ", wasted=" + wastedCount.get()
+					+ ", currentBlock=" + currentBlock.get();
+		}
+
+		public String getTableName()
+		{
+			return tableName;
+		}
+
+		public boolean isSystemIDRange()
+		{
+			return systemIDRange;
+		}
+
+		public long getRefillsCount()
+		{
+			return refillsCount.get();
+		}
+
+		public long getHandedOutCount()
+		{
+			return handedOutCount.get();
+		}
+
+		public long getWastedCount()
+		{
+			return wastedCount.get();
+		}
+
+		public int nextId(final int adClientId)
+		{
+			while (true)
+			{
+				final TableIDBlock block = currentBlock.get();
+				final int id = block.nextIdOrNone();
+				if (id != TableIDBlock.NONE)
+				{
+					handedOutCount.incrementAndGet();
+					return id;
+				}
+
+				refill(block, adClientId);
+			}
+		}
+
+		private synchronized void refill(final TableIDBlock exhaustedBlock, final int adClientId)
+		{
+			// another thread already refilled while we were waiting for the monitor
+			if (currentBlock.get() != exhaustedBlock)
+			{
+				return;
+			}
+
+			final int blockSize = getBlockSize(tableName);
+			final TableIDBlock newBlock = blockReserver.reserveIDBlock(adClientId, tableName, blockSize);
+			currentBlock.set(newBlock);
+			refillsCount.incrementAndGet();
+
+			logger.debug("{}: reserved new ID block {}", tableName, newBlock);
+		}
+
+		public synchronized int discard()
+		{
+			final TableIDBlock block = currentBlock.getAndSet(TableIDBlock.EMPTY);
+			final int wasted = block.discard();
+			wastedCount.addAndGet(wasted);
+
+			if (wasted > 0)
+			{
+				logger.info("{}: discarded {} IDs of {}", tableName, wasted, block);
+			}
+			return wasted;
+		}
+	}
+}
@@ -22,22 +22,36 @@ package org.adempiere.ad.dao.impl;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.IQuery;
 import org.compiere.model.POInfo;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import lombok.NonNull;
 
 /**
  * Buffered {@link Iterator} over a {@link TypedSqlQuery} result.
+ * <p>
+ * If the query is ordered by its key columns (ascending), the pages are loaded using the last seen key (i.e. <code>WHERE (keyCols) > (lastKeyValues)</code>),
+ * so loading a page does not get slower the further we advance. Else, the pages are loaded using <code>OFFSET</code>.
  *
  * @author tsa
  *
@@ -51,10 +65,14 @@ import lombok.NonNull;
 	private final Class<ET> clazz;
 	private final String rowNumberColumn;
 
+	/** Key columns used to seek the next page, in ORDER BY order; empty if seeking is not possible */
+	private ImmutableList<String> seekColumnNames;
+
 	private int bufferSize = 50;
 	private int offset = 0; // in the DB, line is set via the row_number() window function wich starts at 1
 
 	private Iterator<ET> bufferIterator;
+	private ET lastModel;
 
 	/**
 	 * Buffer was fully loaded? True when buffer contains as much data as it was required. If this flag is false then it's a good indicator that we are on last page.
@@ -93,6 +111,84 @@ import lombok.NonNull;
 
 		this.clazz = clazz;
 		this.rowNumberColumn = rowNumberColumn;
+
+		if (Check.isEmpty(rowNumberColumn, true) && !this.query.hasUnions())
+		{
+			this.seekColumnNames = extractSeekColumnNames(this.query.getOrderBy(), this.query.getKeyColumnNames());
+		}
+		else
+		{
+			this.seekColumnNames = ImmutableList.of();
+		}
+		logger.trace("Using seek columns: {}", seekColumnNames);
+	}
+
+	private static final Pattern PATTERN_ColumnName = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+
+	/**
+	 * @return the ORDER BY's column names (in ORDER BY order) if the ORDER BY consists exactly of given key columns, all ascending; else empty list.
+	 */
+	@VisibleForTesting
+	static ImmutableList<String> extractSeekColumnNames(@Nullable final String orderBy, @Nullable final Collection<String> keyColumnNames)
+	{
+		if (Check.isEmpty(orderBy, true) || keyColumnNames == null || keyColumnNames.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList.Builder<String> seekColumnNames = ImmutableList.builder();
+		final Set<String> orderByColumnNamesUC = new TreeSet<>();
+		for (final String orderByItem : Splitter.on(',').trimResults().split(orderBy))
+		{
+			final List<String> tokens = Splitter.on(' ').trimResults().omitEmptyStrings().splitToList(orderByItem);
+			if (tokens.isEmpty())
+			{
+				return ImmutableList.of();
+			}
+
+			String columnName = tokens.get(0);
+			final int idx = columnName.lastIndexOf('.');
+			if (idx >= 0)
+			{
+				columnName = columnName.substring(idx + 1);
+			}
+			if (!PATTERN_ColumnName.matcher(columnName).matches())
+			{
+				return ImmutableList.of();
+			}
+
+			// accept only: [ASC] [NULLS FIRST|LAST] (key columns are never null, so the NULLS part does not matter)
+			int tokenIdx = 1;
+			if (tokenIdx < tokens.size() && "ASC".equalsIgnoreCase(tokens.get(tokenIdx)))
+			{
+				tokenIdx++;
+			}
+			if (tokenIdx + 1 < tokens.size()
+					&& "NULLS".equalsIgnoreCase(tokens.get(tokenIdx))
+					&& ("FIRST".equalsIgnoreCase(tokens.get(tokenIdx + 1)) || "LAST".equalsIgnoreCase(tokens.get(tokenIdx + 1))))
+			{
+				tokenIdx += 2;
+			}
+			if (tokenIdx != tokens.size())
+			{
+				return ImmutableList.of();
+			}
+
+			if (!orderByColumnNamesUC.add(columnName.toUpperCase()))
+			{
+				return ImmutableList.of();
+			}
+			seekColumnNames.add(columnName);
+		}
+
+		final Set<String> keyColumnNamesUC = new TreeSet<>();
+		keyColumnNames.forEach(keyColumnName -> keyColumnNamesUC.add(keyColumnName.toUpperCase()));
+		if (!orderByColumnNamesUC.equals(keyColumnNamesUC))
+		{
+			return ImmutableList.of();
+		}
+
+		return seekColumnNames.build();
 	}
 
 	/**
@@ -130,6 +226,7 @@ import lombok.NonNull;
 	{
 		final Iterator<ET> it = getBufferIterator();
 		final ET value = it.next();
+		lastModel = value;
 		return value;
 	}
 
@@ -163,7 +260,13 @@ import lombok.NonNull;
 		final TypedSqlQuery<T> queryToUse;
 
 		query.setLimit(bufferSize);
-		if (Check.isEmpty(rowNumberColumn, true))
+		final String seekWhereClause = buildSeekWhereClause();
+		if (seekWhereClause != null)
+		{
+			query.setLimit(bufferSize, IQuery.NO_LIMIT);
+			queryToUse = seekWhereClause.isEmpty() ? query : query.addWhereClause(true, seekWhereClause);
+		}
+		else if (Check.isEmpty(rowNumberColumn, true))
 		{
 			query.setLimit(bufferSize, offset);
 			queryToUse = query;
@@ -181,12 +284,84 @@ import lombok.NonNull;
 
 		if (logger.isDebugEnabled())
 		{
-			logger.debug("Loaded next page: bufferSize=" + bufferSize + ", offset=" + offset + " -> " + bufferSizeActual + " records (fullyLoaded=" + bufferFullyLoaded + ")");
+			logger.debug("Loaded next page: bufferSize=" + bufferSize + ", offset=" + offset + ", seek=" + seekWhereClause + " -> " + bufferSizeActual + " records (fullyLoaded=" + bufferFullyLoaded + ")");
 		}
 
 		offset += bufferSizeActual;
 	}
 
+	/**
+	 * @return <ul>
+	 *         <li><code>null</code> if we shall not seek but page by offset or row number
+	 *         <li>empty string if we shall seek but this is the first page
+	 *         <li>the where clause which selects the rows after the last seen one
+	 *         </ul>
+	 */
+	@Nullable
+	private String buildSeekWhereClause()
+	{
+		if (seekColumnNames.isEmpty())
+		{
+			return null;
+		}
+		if (lastModel == null)
+		{
+			return offset <= 0 ? "" : null;
+		}
+
+		final String seekWhereClause = buildSeekWhereClause(seekColumnNames, columnName -> InterfaceWrapperHelper.getValueOrNull(lastModel, columnName));
+		if (seekWhereClause == null)
+		{
+			// shall not happen for key columns, but if it does, continue by offset (which counts all rows loaded so far)
+			logger.warn("Got null key value for one of {} in {}. Continue paging by offset.", seekColumnNames, lastModel);
+			seekColumnNames = ImmutableList.of();
+			return null;
+		}
+
+		return seekWhereClause;
+	}
+
+	/**
+	 * @param lastValueGetter provides the last seen value for given seek column name
+	 * @return where clause which selects the rows after the last seen one or <code>null</code> if any of the last seen values is <code>null</code>
+	 */
+	@VisibleForTesting
+	@Nullable
+	static String buildSeekWhereClause(
+			@NonNull final List<String> seekColumnNames,
+			@NonNull final Function<String, Object> lastValueGetter)
+	{
+		Check.assumeNotEmpty(seekColumnNames, "seekColumnNames is not empty");
+
+		final StringBuilder columnsSql = new StringBuilder();
+		final StringBuilder valuesSql = new StringBuilder();
+		for (final String columnName : seekColumnNames)
+		{
+			final Object value = lastValueGetter.apply(columnName);
+			if (value == null)
+			{
+				return null;
+			}
+
+			if (columnsSql.length() > 0)
+			{
+				columnsSql.append(", ");
+				valuesSql.append(", ");
+			}
+			columnsSql.append(columnName);
+			valuesSql.append(DB.TO_SQL(value));
+		}
+
+		if (seekColumnNames.size() == 1)
+		{
+			return columnsSql + " > " + valuesSql;
+		}
+		else
+		{
+			return "(" + columnsSql + ") > (" + valuesSql + ")";
+		}
+	}
+
 	/**
 	 * Sets buffer/page size, i.e. the number of rows to be loaded by this iterator at a time.
 	 *
@@ -210,6 +385,7 @@ import lombok.NonNull;
 		return "POBufferedIterator [clazz=" + clazz
 				+ ", bufferSize=" + bufferSize
 				+ ", offset=" + offset
+				+ ", seekColumnNames=" + seekColumnNames
 				+ ", query=" + query
 				+ "]";
 	}
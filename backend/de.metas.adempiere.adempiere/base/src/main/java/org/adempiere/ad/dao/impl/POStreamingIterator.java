@@ -0,0 +1,241 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.ImmutablePair;
+import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/**
+ * {@link Iterator} over a {@link TypedSqlQuery} result which streams the rows using one server side cursor, fetching <code>fetchSize</code> rows at a time.
+ * <p>
+ * Only used for read-only records (see {@link IQuery#OPTION_IteratorFetchSize}).
+ * If the query's transaction is active, the cursor is opened in that transaction. Else a dedicated connection is used, which is kept open until the iterator is exhausted or closed.
+ * <p>
+ * The iterator always reads one row ahead, so it knows it's exhausted (and releases the cursor and connection) as soon as the last model was returned,
+ * also if the caller does not call {@link #hasNext()} or {@link #close()} afterwards.
+ *
+ * @param <ET> model interface
+ */
+/* package */class POStreamingIterator<T, ET extends T> implements Iterator<ET>, Closeable
+{
+	private static final transient Logger logger = LogManager.getLogger(POStreamingIterator.class);
+
+	private final TypedSqlQuery<T> query;
+	private final Class<ET> clazz;
+	private final int fetchSize;
+
+	private Connection conn;
+	private PreparedStatement pstmt;
+	private ResultSet rs;
+	private String sql;
+
+	private ET nextModel;
+	private boolean closed = false;
+	private int rowsFetched = 0;
+
+	/* package */ POStreamingIterator(
+			@NonNull final TypedSqlQuery<T> query,
+			final Class<ET> clazz,
+			final int fetchSize)
+	{
+		Check.assume(fetchSize > 0, "fetchSize > 0");
+
+		this.query = query.copy();
+		this.clazz = clazz;
+		this.fetchSize = fetchSize;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (nextModel != null)
+		{
+			return true;
+		}
+		if (closed)
+		{
+			return false;
+		}
+
+		nextModel = fetchNextModel();
+		return nextModel != null;
+	}
+
+	@Override
+	public ET next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		final ET model = nextModel;
+
+		// read ahead, see class javadoc
+		nextModel = fetchNextModel();
+
+		return model;
+	}
+
+	private ET fetchNextModel()
+	{
+		if (closed)
+		{
+			return null;
+		}
+
+		boolean keepOpen = false;
+		try
+		{
+			if (rs == null)
+			{
+				rs = openResultSet();
+			}
+
+			if (!rs.next())
+			{
+				return null;
+			}
+
+			final ET model = retrieveModel(rs);
+			rowsFetched++;
+
+			keepOpen = true;
+			return model;
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, query.getParametersEffective());
+		}
+		finally
+		{
+			if (!keepOpen)
+			{
+				close();
+			}
+		}
+	}
+
+	@VisibleForTesting
+	ET retrieveModel(final ResultSet rs) throws SQLException
+	{
+		final ET model = query.retrieveModel(rs, clazz);
+		InterfaceWrapperHelper.setSaveDeleteDisabled(model, true);
+		return model;
+	}
+
+	@VisibleForTesting
+	ResultSet openResultSet() throws SQLException
+	{
+		sql = query.buildSQL(null, null, null, true);
+		final List<Object> sqlParams = query.getParametersEffective();
+
+		final String trxName = query.getTrxName();
+		if (Services.get(ITrxManager.class).isActive(trxName))
+		{
+			// NOTE: the JDBC connection of an active transaction has autoCommit=false, so the fetch size is respected
+			pstmt = DB.prepareStatement(sql, trxName);
+			pstmt.setFetchSize(fetchSize);
+			DB.setParameters(pstmt, sqlParams);
+		}
+		else
+		{
+			final ImmutablePair<Connection, PreparedStatement> connAndStmt = DB.prepareConnectionAndStatementForDataExport(sql, sqlParams, fetchSize);
+			conn = connAndStmt.getLeft();
+			pstmt = connAndStmt.getRight();
+		}
+
+		logger.debug("Streaming with fetchSize={}: {}", fetchSize, sql);
+		return pstmt.executeQuery();
+	}
+
+	@Override
+	public void close()
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+
+		DB.close(rs, pstmt);
+		rs = null;
+		pstmt = null;
+
+		if (conn != null)
+		{
+			DB.close(conn);
+			conn = null;
+		}
+
+		logger.debug("Closed after fetching {} rows: {}", rowsFetched, this);
+	}
+
+	@VisibleForTesting
+	boolean isClosed()
+	{
+		return closed;
+	}
+
+	@Override
+	protected void finalize() throws Throwable
+	{
+		if (!closed)
+		{
+			logger.warn("Iterator was neither exhausted nor closed. Closing it now: {}", this);
+			close();
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "POStreamingIterator [clazz=" + clazz
+				+ ", fetchSize=" + fetchSize
+				+ ", rowsFetched=" + rowsFetched
+				+ ", closed=" + closed
+				+ ", query=" + query
+				+ "]";
+	}
+}
@@ -156,6 +156,16 @@ import lombok.NonNull;
 		execute(PointcutType.ModelChange, model, changeType.toInt());
 	}
 
+	@Override
+	public boolean isModelChangeHandled(@NonNull final String tableName, @NonNull final ModelChangeType changeType)
+	{
+		final PointcutKey key = PointcutKey.of(tableName, PointcutType.ModelChange);
+		final Integer timing = changeType.toInt();
+		return descriptor.getPointcuts(key)
+				.stream()
+				.anyMatch(pointcut -> pointcut.getTimings().contains(timing));
+	}
+
 	@Override
 	public final void onDocValidate(final Object model, final DocTimingType timing)
 	{
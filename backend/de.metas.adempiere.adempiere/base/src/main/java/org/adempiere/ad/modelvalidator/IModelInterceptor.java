@@ -73,6 +73,16 @@ public interface IModelInterceptor
 		// does nothing by default
 	}
 
+	/**
+	 * Used by the model validation engine to precompute which interceptors shall be called when a record of given table is changed.
+	 *
+	 * @return <code>false</code> if {@link #onModelChange(Object, ModelChangeType)} is known to do nothing for given table and change type
+	 */
+	default boolean isModelChangeHandled(String tableName, ModelChangeType changeType)
+	{
+		return true;
+	}
+
 	/**
 	 * Validate Document. Called as first step of DocAction.prepareIt or at the end of DocAction.completeIt when you called addDocValidate for the table. Note that totals, etc. may not be correct
 	 * before the prepare stage.
@@ -101,6 +101,24 @@ public final class ModelInterceptor2ModelValidatorWrapper implements ModelValida
 		return null;
 	}
 
+	/**
+	 * @see IModelInterceptor#isModelChangeHandled(String, ModelChangeType)
+	 */
+	public final boolean isModelChangeHandled(final String tableName, final ModelChangeType changeType)
+	{
+		return interceptor.isModelChangeHandled(tableName, changeType);
+	}
+
+	/**
+	 * @return name of the wrapped interceptor, which is the same for all its instances (e.g. one per client)
+	 */
+	public final String getInterceptorName()
+	{
+		return interceptor instanceof AnnotatedModelInterceptor
+				? interceptor.toString()
+				: interceptor.getClass().getName();
+	}
+
 	@Override
 	public final String docValidate(final PO po, final int timingCode) throws Exception
 	{
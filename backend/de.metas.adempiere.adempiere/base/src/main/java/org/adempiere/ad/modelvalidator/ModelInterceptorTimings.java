@@ -0,0 +1,175 @@
+package org.adempiere.ad.modelvalidator;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the execution times of model interceptors, per interceptor and timing (e.g. BEFORE_NEW).
+ * <p>
+ * Recording is lock free and cheap: a counter, a sum, a max and a log2-bucketed histogram (microseconds) from which the 99th percentile is estimated.
+ */
+public final class ModelInterceptorTimings
+{
+	private final ConcurrentHashMap<TimingKey, Recorder> recorders = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the recorder for given interceptor and timing. Callers are advised to keep the recorder instead of calling this method for each invocation.
+	 */
+	public Recorder getRecorder(@NonNull final String interceptorName, @NonNull final TimingType timing)
+	{
+		return recorders.computeIfAbsent(TimingKey.of(interceptorName, timing.toString()), Recorder::new);
+	}
+
+	/**
+	 * @return snapshot of all timings, the most expensive (by total time) first
+	 */
+	public ImmutableList<ModelInterceptorTiming> getSnapshot()
+	{
+		return recorders.values()
+				.stream()
+				.map(Recorder::toSnapshot)
+				.filter(timing -> timing.getCount() > 0)
+				.sorted(Comparator.comparing(ModelInterceptorTiming::getTotal).reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Resets all timings. Recorders which are already handed out remain valid.
+	 */
+	public void reset()
+	{
+		recorders.values().forEach(Recorder::reset);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class TimingKey
+	{
+		String interceptorName;
+		String timing;
+	}
+
+	public static final class Recorder
+	{
+		/** bucket i holds durations of less than 2^(i+1) microseconds */
+		private static final int BUCKETS_COUNT = 40;
+
+		private final TimingKey key;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_COUNT);
+
+		private Recorder(@NonNull final TimingKey key)
+		{
+			this.key = key;
+		}
+
+		public void record(final long durationNanos)
+		{
+			final long nanos = Math.max(durationNanos, 0);
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+			buckets.incrementAndGet(getBucketIndex(nanos));
+		}
+
+		private static int getBucketIndex(final long nanos)
+		{
+			final long micros = nanos / 1000;
+			final int index = micros <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+			return Math.min(index, BUCKETS_COUNT - 1);
+		}
+
+		private void reset()
+		{
+			count.reset();
+			totalNanos.reset();
+			maxNanos.set(0);
+			for (int i = 0; i < BUCKETS_COUNT; i++)
+			{
+				buckets.set(i, 0);
+			}
+		}
+
+		private ModelInterceptorTiming toSnapshot()
+		{
+			final long countValue = count.sum();
+			final long maxNanosValue = maxNanos.get();
+
+			return ModelInterceptorTiming.builder()
+					.interceptorName(key.getInterceptorName())
+					.timing(key.getTiming())
+					.count(countValue)
+					.total(Duration.ofNanos(totalNanos.sum()))
+					.p99(Duration.ofNanos(Math.min(computeP99Nanos(countValue), maxNanosValue)))
+					.max(Duration.ofNanos(maxNanosValue))
+					.build();
+		}
+
+		/** @return upper bound of the bucket which contains the 99th percentile */
+		private long computeP99Nanos(final long countValue)
+		{
+			final long rank = (long)Math.ceil(countValue * 0.99);
+			long cumulated = 0;
+			for (int i = 0; i < BUCKETS_COUNT; i++)
+			{
+				cumulated += buckets.get(i);
+				if (cumulated >= rank)
+				{
+					return (1L << (i + 1)) * 1000;
+				}
+			}
+			return Long.MAX_VALUE;
+		}
+	}
+
+	@Value
+	@Builder
+	public static class ModelInterceptorTiming
+	{
+		@NonNull
+		String interceptorName;
+		@NonNull
+		String timing;
+
+		long count;
+		@NonNull
+		Duration total;
+		@NonNull
+		Duration p99;
+		@NonNull
+		Duration max;
+	}
+}
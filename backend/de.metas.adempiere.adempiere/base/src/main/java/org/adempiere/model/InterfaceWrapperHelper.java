@@ -596,6 +596,33 @@ public class InterfaceWrapperHelper
 		models.forEach(InterfaceWrapperHelper::saveRecord);
 	}
 
+	/**
+	 * Same as {@link #saveAll(Collection)}, but if all models are new records of the same table and transaction,
+	 * their INSERT statements are sent to database in JDBC batches instead of one by one.
+	 * <p>
+	 * NOTE: the model interceptors are fired phase by phase, i.e. first BEFORE_NEW for all models, then AFTER_NEW for all models.
+	 * See {@link org.compiere.model.PO#saveAllNewInBatch(List)}.
+	 */
+	public static void saveAllNewInBatch(@NonNull final Collection<?> models)
+	{
+		if (models.isEmpty())
+		{
+			return;
+		}
+
+		final List<Object> modelsToSave = models.stream()
+				.map(InterfaceWrapperHelper::extractModelToSave)
+				.collect(Collectors.toList());
+		if (modelsToSave.size() > 1 && modelsToSave.stream().allMatch(model -> model != null && POWrapper.isHandled(model)))
+		{
+			POWrapper.saveAllNewInBatch(modelsToSave);
+		}
+		else
+		{
+			saveAll(models);
+		}
+	}
+
 	/**
 	 * Does the same as {@link #save(Object)},
 	 * but this method can be static-imported into repository implementations which usually have their own method named "save()".
@@ -0,0 +1,129 @@
+package org.adempiere.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs a bunch of independent tasks in parallel and waits for all of them.
+ */
+@UtilityClass
+public class ParallelTasks
+{
+	/**
+	 * @return fixed thread pool of daemon threads, to be used with {@link #callAll(ExecutorService, List)} or {@link #runAll(ExecutorService, List)}
+	 */
+	public static ExecutorService newFixedThreadPool(@NonNull final String threadNamePrefix, final int threadsCount)
+	{
+		return Executors.newFixedThreadPool(
+				threadsCount,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(threadNamePrefix)
+						.setDaemon(true)
+						.build());
+	}
+
+	/**
+	 * Submits the given tasks to the given executor and waits for all of them. The executor is shut down afterwards.
+	 *
+	 * @return the tasks' results, in the same order as the given tasks
+	 * @throws AdempiereException if any task failed; it wraps the first task's failure, the failures of the other tasks are added as suppressed
+	 */
+	public static <T> List<T> callAll(
+			@NonNull final ExecutorService executor,
+			@NonNull final List<? extends Callable<T>> tasks)
+	{
+		try
+		{
+			final List<Future<T>> futures = new ArrayList<>(tasks.size());
+			for (final Callable<T> task : tasks)
+			{
+				futures.add(executor.submit(task));
+			}
+
+			final List<T> results = new ArrayList<>(tasks.size());
+			AdempiereException exception = null;
+			for (final Future<T> future : futures)
+			{
+				try
+				{
+					results.add(future.get());
+				}
+				catch (final InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+					throw AdempiereException.wrapIfNeeded(ex);
+				}
+				catch (final ExecutionException ex)
+				{
+					final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+					if (exception == null)
+					{
+						exception = AdempiereException.wrapIfNeeded(cause);
+					}
+					else
+					{
+						exception.addSuppressed(cause);
+					}
+				}
+			}
+			if (exception != null)
+			{
+				throw exception;
+			}
+
+			return results;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Same as {@link #callAll(ExecutorService, List)}, for tasks without result.
+	 */
+	public static void runAll(
+			@NonNull final ExecutorService executor,
+			@NonNull final List<? extends Runnable> tasks)
+	{
+		final List<Callable<Object>> callables = new ArrayList<>(tasks.size());
+		for (final Runnable task : tasks)
+		{
+			callables.add(Executors.callable(task));
+		}
+
+		callAll(executor, callables);
+	}
+}
@@ -79,6 +79,17 @@ public interface IQuery<T>
 	 */
 	String OPTION_ReturnReadOnlyRecords = "ReturnReadOnlyRecords";
 
+	/**
+	 * Integer greater than zero. If set and the query returns read-only records (see {@link #OPTION_ReturnReadOnlyRecords}),
+	 * then {@link #iterate(Class)} will not load the records page by page but will stream them using one server side cursor, which fetches this many rows at a time.
+	 * <p>
+	 * NOTE: if the query's transaction is not active, a dedicated database connection is used, so only committed data is seen.
+	 * That connection is released when the iterator is exhausted or closed.
+	 *
+	 * @see #iterate(Class)
+	 */
+	String OPTION_IteratorFetchSize = "IteratorFetchSize";
+
 	/**
 	 * Default value for {@link #OPTION_GuaranteedIteratorRequired}.
 	 * <p>
@@ -29,11 +29,14 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import org.adempiere.exceptions.AdempiereException;
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableMap;
 
+import de.metas.cache.CCache.CCacheStats;
+
 public class CCacheTest
 {
 	public static class MyUncheckedException extends RuntimeException
@@ -244,4 +247,59 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_LRU_maximumSize()
+	{
+		final CCache<Integer, String> cache = CCache.newLRUCache("Test", 10, CCache.EXPIREMINUTES_Never);
+		for (int i = 1; i <= 100; i++)
+		{
+			cache.put(i, "v" + i);
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	public void test_LRU_maximumWeight()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("Test")
+				.cacheMapType(CCache.CacheMapType.LRU)
+				.maximumWeight(100L)
+				.weigher((key, value) -> value.length())
+				.build();
+
+		cache.put("small1", "12345");
+		cache.put("small2", "12345");
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.put("big", "1234567890123456789012345678901234567890123456789012345678901234567890123456789012345678901234567890"); // weight 100
+		assertThat(cache.stats().getEvictionCount()).isGreaterThan(0);
+	}
+
+	@Test(expected = AdempiereException.class)
+	public void test_maximumWeight_without_weigher()
+	{
+		CCache.<String, String> builder()
+				.cacheName("Test")
+				.cacheMapType(CCache.CacheMapType.LRU)
+				.maximumWeight(100L)
+				.build();
+	}
+
+	@Test
+	public void test_stats()
+	{
+		final CCache<String, String> cache = new CCache<>("Test", 10);
+
+		cache.getOrLoad("k1", key -> "v1"); // miss
+		cache.getOrLoad("k1", key -> "v1"); // hit
+		cache.get("k2"); // miss
+
+		final CCacheStats stats = cache.stats();
+		assertThat(stats.getHitCount()).isEqualTo(1);
+		assertThat(stats.getMissCount()).isEqualTo(2);
+		assertThat(stats.getHitRate()).isEqualTo(1d / 3d);
+	}
 }
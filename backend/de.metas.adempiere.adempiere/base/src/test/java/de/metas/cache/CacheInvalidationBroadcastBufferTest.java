@@ -0,0 +1,154 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheInvalidationBroadcastBuffer.CollapseResult;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class CacheInvalidationBroadcastBufferTest
+{
+	@Test
+	void collapse_belowThreshold()
+	{
+		final ImmutableList<CacheInvalidateRequest> requests = ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2),
+				CacheInvalidateRequest.rootRecord("T2", 1));
+
+		final CollapseResult result = CacheInvalidationBroadcastBuffer.collapse(requests, 2);
+
+		assertThat(result.getCollapsedCount()).isZero();
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrderElementsOf(requests);
+	}
+
+	@Test
+	void collapse_aboveThreshold()
+	{
+		final ImmutableList<CacheInvalidateRequest> requests = ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2),
+				CacheInvalidateRequest.rootRecord("T1", 3),
+				CacheInvalidateRequest.rootRecord("T2", 1));
+
+		final CollapseResult result = CacheInvalidationBroadcastBuffer.collapse(requests, 2);
+
+		assertThat(result.getCollapsedCount()).isEqualTo(2);
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("T1"),
+				CacheInvalidateRequest.rootRecord("T2", 1));
+	}
+
+	@Test
+	void collapse_childRecords_keepRootRecords()
+	{
+		final ImmutableList<CacheInvalidateRequest> requests = ImmutableList.of(
+				CacheInvalidateRequest.builder().rootRecord("Root", 1).childRecord("Child", 11).build(),
+				CacheInvalidateRequest.builder().rootRecord("Root", 1).childRecord("Child", 12).build(),
+				CacheInvalidateRequest.builder().rootRecord("Root", 2).childRecord("Child", 21).build());
+
+		final CollapseResult result = CacheInvalidationBroadcastBuffer.collapse(requests, 2);
+
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("Child"),
+				CacheInvalidateRequest.rootRecord("Root", 1),
+				CacheInvalidateRequest.rootRecord("Root", 2));
+	}
+
+	@Test
+	void collapse_all()
+	{
+		final ImmutableList<CacheInvalidateRequest> requests = ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.all());
+
+		final CollapseResult result = CacheInvalidationBroadcastBuffer.collapse(requests, 100);
+
+		assertThat(result.getMultiRequest().isResetAll()).isTrue();
+	}
+
+	@Test
+	void flush_sendsOneMessage()
+	{
+		final List<CacheInvalidateMultiRequest> sentRequests = new ArrayList<>();
+		final CacheInvalidationBroadcastBuffer buffer = new CacheInvalidationBroadcastBuffer(sentRequests::add);
+
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1), 60_000, 100);
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("T1", 2), 60_000, 100);
+		buffer.flush(100);
+
+		assertThat(sentRequests).hasSize(1);
+		assertThat(sentRequests.get(0).getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2));
+		assertThat(buffer.getRequestsCount()).isEqualTo(2);
+		assertThat(buffer.getRequestsCoalescedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void flush_singleMessage_nothingCoalesced()
+	{
+		final List<CacheInvalidateMultiRequest> sentRequests = new ArrayList<>();
+		final CacheInvalidationBroadcastBuffer buffer = new CacheInvalidationBroadcastBuffer(sentRequests::add);
+
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1), 60_000, 100);
+		buffer.flush(100);
+		buffer.flush(100); // nothing pending
+
+		assertThat(sentRequests).hasSize(1);
+		assertThat(buffer.getRequestsCoalescedCount()).isZero();
+	}
+
+	@Test
+	void sendNow_collapsesWithoutCoalescing()
+	{
+		final List<CacheInvalidateMultiRequest> sentRequests = new ArrayList<>();
+		final CacheInvalidationBroadcastBuffer buffer = new CacheInvalidationBroadcastBuffer(sentRequests::add);
+
+		buffer.sendNow(CacheInvalidateMultiRequest.of(ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2),
+				CacheInvalidateRequest.rootRecord("T1", 3),
+				CacheInvalidateRequest.rootRecord("T2", 1))),
+				2);
+		buffer.sendNow(CacheInvalidateMultiRequest.rootRecord("T1", 4), 2);
+
+		assertThat(sentRequests).hasSize(2);
+		assertThat(sentRequests.get(0).getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("T1"),
+				CacheInvalidateRequest.rootRecord("T2", 1));
+		assertThat(sentRequests.get(1).getRequests()).containsExactly(CacheInvalidateRequest.rootRecord("T1", 4));
+		assertThat(buffer.getRequestsCount()).isEqualTo(5);
+		assertThat(buffer.getRequestsCollapsedCount()).isEqualTo(2);
+		assertThat(buffer.getRequestsCoalescedCount()).isZero();
+	}
+}
@@ -0,0 +1,97 @@
+package de.metas.impexp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ImportTableAppenderTest
+{
+	private static String toCopyValue(final Object value)
+	{
+		final StringBuilder row = new StringBuilder();
+		ImportTableAppender.appendCopyValue(row, value);
+		return row.toString();
+	}
+
+	@Test
+	public void appendCopyValue_null()
+	{
+		assertThat(toCopyValue(null)).isEqualTo("\t\\N");
+	}
+
+	@Test
+	public void appendCopyValue_plainString()
+	{
+		assertThat(toCopyValue("abc")).isEqualTo("\tabc");
+		assertThat(toCopyValue("")).isEqualTo("\t");
+	}
+
+	@Test
+	public void appendCopyValue_tab()
+	{
+		assertThat(toCopyValue("a\tb")).isEqualTo("\ta\\tb");
+	}
+
+	@Test
+	public void appendCopyValue_newline()
+	{
+		assertThat(toCopyValue("a\nb")).isEqualTo("\ta\\nb");
+	}
+
+	@Test
+	public void appendCopyValue_carriageReturn()
+	{
+		assertThat(toCopyValue("a\r\nb")).isEqualTo("\ta\\r\\nb");
+	}
+
+	@Test
+	public void appendCopyValue_backslash()
+	{
+		assertThat(toCopyValue("C:\\temp\\N")).isEqualTo("\tC:\\\\temp\\\\N");
+	}
+
+	@Test
+	public void appendCopyValue_otherTypes()
+	{
+		assertThat(toCopyValue(true)).isEqualTo("\tY");
+		assertThat(toCopyValue(false)).isEqualTo("\tN");
+		assertThat(toCopyValue(new BigDecimal("1E+3"))).isEqualTo("\t1000");
+		assertThat(toCopyValue(Timestamp.valueOf("2020-01-02 03:04:05.0"))).isEqualTo("\t2020-01-02 03:04:05.0");
+	}
+
+	@Test
+	public void appendCopyValue_multipleValues()
+	{
+		final StringBuilder row = new StringBuilder();
+		ImportTableAppender.appendCopyValue(row, 1);
+		ImportTableAppender.appendCopyValue(row, null);
+		ImportTableAppender.appendCopyValue(row, "x\ty");
+
+		assertThat(row.toString()).isEqualTo("\t1\t\\N\tx\\ty");
+	}
+}
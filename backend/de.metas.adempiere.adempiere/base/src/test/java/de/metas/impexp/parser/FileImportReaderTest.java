@@ -1,16 +1,22 @@
 package de.metas.impexp.parser;
 
+import com.google.common.io.Files;
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -162,4 +168,66 @@ public class FileImportReaderTest
 		assertTrue(lines.get(1).endsWith("90"));
 		assertTrue(lines.get(2).endsWith("100"));
 	}
+
+	@Test
+	public void streamMultiLines_joinsQuotedLinesAndPreservesEmptyLines()
+	{
+		final BufferedReader reader = new BufferedReader(new StringReader("h1;h2\n"
+				+ "\n"
+				+ "1;\"x\n"
+				+ "y\";z\n"
+				+ "\n"
+				+ "2;w"));
+
+		try (final Stream<String> stream = FileImportReader.streamMultiLines(reader))
+		{
+			assertEquals(
+					Arrays.asList("h1;h2", "", "1;\"x\ny\";z", "", "2;w"),
+					stream.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void streamMultiLines_file() throws IOException
+	{
+		final URL url = getClass().getResource(packagePath + "/OnlyAppendIfInQuotesPreserveFirstLine.csv");
+		assertNotNull("url null", url);
+		final File file = FileUtils.toFile(url);
+		assertNotNull("file null", file);
+
+		final List<String> lines;
+		try (final Stream<String> stream = FileImportReader.streamMultiLines(Files.newReader(file, StandardCharsets.UTF_8)))
+		{
+			lines = stream.collect(Collectors.toList());
+		}
+
+		assertEquals(5, lines.size());
+		assertEquals("Buchungsdatum;Valuta;Buchungstext;Details;Detail;Belastung;Gutschrift;Saldo CHF", lines.get(0));
+		assertEquals("Umsatztotal;;;;;4420;2210;", lines.get(1));
+		assertEquals("33.03.3333;33.03.3333;cccccccccccccc;\"cccccccccccccccccc\n"
+				+ "cccccc c cccccccc  cc\";;2210;;", lines.get(4));
+	}
+
+	@Test
+	public void streamMultiLines_isLazyAndClosesReader()
+	{
+		final AtomicBoolean closed = new AtomicBoolean(false);
+		final BufferedReader reader = new BufferedReader(new StringReader("a;\"b1\nb2\";c\nd;e;f\ng;h;i"))
+		{
+			@Override
+			public void close() throws IOException
+			{
+				closed.set(true);
+				super.close();
+			}
+		};
+
+		try (final Stream<String> stream = FileImportReader.streamMultiLines(reader))
+		{
+			assertEquals(Arrays.asList("a;\"b1\nb2\";c", "d;e;f"), stream.limit(2).collect(Collectors.toList()));
+			assertFalse(closed.get());
+		}
+
+		assertTrue(closed.get());
+	}
 }
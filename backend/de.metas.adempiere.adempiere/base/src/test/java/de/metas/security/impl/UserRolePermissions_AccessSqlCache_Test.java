@@ -0,0 +1,208 @@
+package de.metas.security.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Role_Record_Access_Config;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CacheMgt;
+import de.metas.organization.OrgId;
+import de.metas.security.IUserRolePermissionsDAO;
+import de.metas.security.RoleId;
+import de.metas.security.TableAccessLevel;
+import de.metas.security.permissions.Access;
+import de.metas.security.permissions.Constraints;
+import de.metas.security.permissions.ElementPermissions;
+import de.metas.security.permissions.GenericPermissions;
+import de.metas.security.permissions.OrgPermissions;
+import de.metas.security.permissions.TableColumnPermissions;
+import de.metas.security.permissions.TablePermissions;
+import de.metas.security.permissions.UserMenuInfo;
+import de.metas.user.UserGroupId;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests how {@link UserRolePermissions#addAccessSQL(String, String, boolean, Access)} uses the {@link AccessSqlCache}.
+ * <p>
+ * The actual access SQL is built by a fake {@link UserRolePermissionsSqlHelpers}, because the real one needs the application dictionary from database.
+ */
+public class UserRolePermissions_AccessSqlCache_Test
+{
+	private static final String SQL = "SELECT * FROM C_BPartner WHERE IsActive='Y' ORDER BY Name";
+	private static final String TABLENAME = "C_BPartner";
+
+	private final AtomicLong permissionsCacheVersion = new AtomicLong(1);
+	private UserRolePermissionsDAO permissionsDAO;
+
+	private final AtomicInteger accessSqlBuilds = new AtomicInteger();
+	private Set<UserGroupId> userGroupIds = ImmutableSet.of();
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		permissionsDAO = new UserRolePermissionsDAO()
+		{
+			@Override
+			public long getCacheVersion()
+			{
+				return permissionsCacheVersion.get();
+			}
+		};
+		Services.registerService(IUserRolePermissionsDAO.class, permissionsDAO);
+
+		setCacheEnabled(true);
+	}
+
+	private void setCacheEnabled(final boolean enabled)
+	{
+		Services.get(ISysConfigBL.class).setValue(AccessSqlCache.SYSCONFIG_Enabled, enabled, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private UserRolePermissions newPermissions()
+	{
+		return new UserRolePermissionsBuilder(permissionsDAO)
+				.setRoleId(RoleId.ofRepoId(1000000))
+				.setName("test")
+				.setUserId(UserId.ofRepoId(1000001))
+				.setClientId(ClientId.ofRepoId(1000002))
+				.setUserLevel(TableAccessLevel.ClientPlusOrganization)
+				.setMenuInfo(UserMenuInfo.NONE)
+				.setOrgPermissions(OrgPermissions.builder(null).build())
+				.setTablePermissions(TablePermissions.builder().build())
+				.setColumnPermissions(TableColumnPermissions.builder().build())
+				.setWindowPermissions(ElementPermissions.builder().setElementTableName("AD_Window").build())
+				.setProcessPermissions(ElementPermissions.builder().setElementTableName("AD_Process").build())
+				.setTaskPermissions(ElementPermissions.builder().setElementTableName("AD_Task").build())
+				.setWorkflowPermissions(ElementPermissions.builder().setElementTableName("AD_Workflow").build())
+				.setFormPermissions(ElementPermissions.builder().setElementTableName("AD_Form").build())
+				.setMiscPermissions(GenericPermissions.builder().build())
+				.setConstraints(Constraints.builder().build())
+				.build();
+	}
+
+	private String addAccessSQL(final UserRolePermissions permissions)
+	{
+		final UserRolePermissionsSqlHelpers sqlHelpers = new UserRolePermissionsSqlHelpers(permissions)
+		{
+			@Override
+			public String addAccessSQL(final String sql, final String tableNameIn, final boolean fullyQualified, final Access access)
+			{
+				accessSqlBuilds.incrementAndGet();
+				return sql + " /* " + tableNameIn + ", fullyQualified=" + fullyQualified + ", " + access + ", userGroupIds=" + getUserGroupIds() + " */";
+			}
+
+			@Override
+			Set<UserGroupId> getUserGroupIds()
+			{
+				return userGroupIds;
+			}
+		};
+
+		return permissions.addAccessSQL(SQL, TABLENAME, true, Access.READ, sqlHelpers);
+	}
+
+	@Test
+	public void sameSqlAsWithoutCache()
+	{
+		final UserRolePermissions permissions = newPermissions();
+
+		setCacheEnabled(false);
+		final String uncachedSql = addAccessSQL(permissions);
+		assertThat(addAccessSQL(permissions)).isEqualTo(uncachedSql);
+		assertThat(accessSqlBuilds).hasValue(2);
+
+		setCacheEnabled(true);
+		assertThat(addAccessSQL(permissions)).isEqualTo(uncachedSql);
+		assertThat(addAccessSQL(permissions)).isEqualTo(uncachedSql);
+		assertThat(accessSqlBuilds).as("built once more, then taken from cache").hasValue(3);
+	}
+
+	@Test
+	public void rebuiltOnPermissionsCacheVersionChange()
+	{
+		final UserRolePermissions permissions = newPermissions();
+		addAccessSQL(permissions);
+		assertThat(accessSqlBuilds).hasValue(1);
+
+		permissionsCacheVersion.incrementAndGet();
+		addAccessSQL(permissions);
+		assertThat(accessSqlBuilds).hasValue(2);
+
+		addAccessSQL(permissions);
+		assertThat(accessSqlBuilds).hasValue(2);
+	}
+
+	@Test
+	public void rebuiltForOtherPermissionsInstance()
+	{
+		addAccessSQL(newPermissions());
+		addAccessSQL(newPermissions());
+		assertThat(accessSqlBuilds).as("permissions are equal, but not the same instance").hasValue(2);
+	}
+
+	@Test
+	public void rebuiltOnUserGroupIdsChange()
+	{
+		final UserRolePermissions permissions = newPermissions();
+		final String sqlWithoutGroups = addAccessSQL(permissions);
+
+		userGroupIds = ImmutableSet.of(UserGroupId.ofRepoId(1));
+		final String sqlWithGroup = addAccessSQL(permissions);
+
+		assertThat(accessSqlBuilds).hasValue(2);
+		assertThat(sqlWithGroup).isNotEqualTo(sqlWithoutGroups);
+
+		userGroupIds = ImmutableSet.of();
+		assertThat(addAccessSQL(permissions)).isEqualTo(sqlWithoutGroups);
+		assertThat(accessSqlBuilds).hasValue(2);
+	}
+
+	@Test
+	public void resetOnRoleRecordAccessConfigChange()
+	{
+		final UserRolePermissions permissions = newPermissions();
+		addAccessSQL(permissions);
+		addAccessSQL(permissions);
+		assertThat(accessSqlBuilds).hasValue(1);
+
+		CacheMgt.get().reset(I_AD_Role_Record_Access_Config.Table_Name);
+
+		addAccessSQL(permissions);
+		assertThat(accessSqlBuilds).hasValue(2);
+	}
+}
@@ -0,0 +1,83 @@
+package de.metas.sequence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BatchInsertIdSupplierTest
+{
+	private static final String TABLENAME = "Test_Table";
+
+	/** Counts how the IDs are retrieved from database */
+	private static class TestBatchInsertIdSupplier extends BatchInsertIdSupplier
+	{
+		private final List<Integer> retrievedCounts = new ArrayList<>();
+
+		private TestBatchInsertIdSupplier(final int countToAllocate)
+		{
+			super(TABLENAME, countToAllocate);
+		}
+
+		@Override
+		List<Integer> retrieveNextIds(final String tableName, final int count)
+		{
+			assertThat(tableName).isEqualTo(TABLENAME);
+			retrievedCounts.add(count);
+			return IntStream.rangeClosed(1001, 1000 + count).boxed().collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void allocatesExactlyOnceAllIds()
+	{
+		final TestBatchInsertIdSupplier idSupplier = new TestBatchInsertIdSupplier(3);
+		assertThat(idSupplier.retrievedCounts).as("nothing retrieved before the first ID is needed").isEmpty();
+
+		assertThat(idSupplier.getAsInt()).isEqualTo(1001);
+		assertThat(idSupplier.getAsInt()).isEqualTo(1002);
+		assertThat(idSupplier.getAsInt()).isEqualTo(1003);
+
+		assertThat(idSupplier.retrievedCounts).containsExactly(3);
+	}
+
+	@Test
+	public void failsWhenMoreIdsThanAllocatedAreNeeded()
+	{
+		final TestBatchInsertIdSupplier idSupplier = new TestBatchInsertIdSupplier(1);
+		idSupplier.getAsInt();
+
+		assertThatThrownBy(idSupplier::getAsInt)
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("allocated IDs were already used");
+		assertThat(idSupplier.retrievedCounts).as("not retrieved again").containsExactly(1);
+	}
+}
@@ -0,0 +1,180 @@
+package de.metas.sequence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TableIDBlockAllocatorTest
+{
+	/** Simulates the AD_Sequence record's CurrentNext and CurrentNextSys */
+	private int currentNext;
+	private int currentNextSys;
+	private int reservationsCount;
+
+	private TableIDBlockAllocator allocator;
+
+	@BeforeEach
+	public void init()
+	{
+		currentNext = 1000000;
+		currentNextSys = 100;
+		reservationsCount = 0;
+
+		allocator = new TableIDBlockAllocator(this::reserveIDBlock, tableName -> "Disabled_Table".equals(tableName) ? 1 : 10, TableIDBlockAllocatorTest::isSystemClient);
+	}
+
+	private static boolean isSystemClient(final int adClientId)
+	{
+		return adClientId <= 11;
+	}
+
+	private synchronized TableIDBlock reserveIDBlock(final int adClientId, final String tableName, final int blockSize)
+	{
+		reservationsCount++;
+		if (isSystemClient(adClientId))
+		{
+			final TableIDBlock block = TableIDBlock.of(currentNextSys, 1, blockSize);
+			currentNextSys += blockSize;
+			return block;
+		}
+		else
+		{
+			final TableIDBlock block = TableIDBlock.of(currentNext, 1, blockSize);
+			currentNext += blockSize;
+			return block;
+		}
+	}
+
+	@Test
+	public void isEnabledForTableName()
+	{
+		assertThat(allocator.isEnabledForTableName("Disabled_Table")).isFalse();
+		assertThat(allocator.isEnabledForTableName("Enabled_Table")).isTrue();
+	}
+
+	@Test
+	public void block_nextIdOrNone()
+	{
+		final TableIDBlock block = TableIDBlock.of(100, 2, 3);
+		assertThat(block.nextIdOrNone()).isEqualTo(100);
+		assertThat(block.nextIdOrNone()).isEqualTo(102);
+		assertThat(block.nextIdOrNone()).isEqualTo(104);
+		assertThat(block.nextIdOrNone()).isEqualTo(TableIDBlock.NONE);
+		assertThat(block.getRemainingCount()).isEqualTo(0);
+		assertThat(block.discard()).isEqualTo(0);
+	}
+
+	@Test
+	public void getNextID_refillsOncePerBlock()
+	{
+		for (int i = 0; i < 25; i++)
+		{
+			assertThat(allocator.getNextID(1000000, "Enabled_Table")).isEqualTo(1000000 + i);
+		}
+
+		assertThat(reservationsCount).isEqualTo(3);
+		assertThat(allocator.getRefillsCount()).isEqualTo(3);
+		assertThat(allocator.getHandedOutCount()).isEqualTo(25);
+	}
+
+	@Test
+	public void getNextID_systemAndNonSystemClients_rangesDontMix()
+	{
+		final List<Integer> systemIds = new ArrayList<>();
+		final List<Integer> clientIds = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+		{
+			systemIds.add(allocator.getNextID(0, "Enabled_Table"));
+			clientIds.add(allocator.getNextID(1000000, "Enabled_Table"));
+		}
+
+		assertThat(systemIds).allMatch(id -> id >= 100 && id < 1000000).doesNotHaveDuplicates();
+		assertThat(clientIds).allMatch(id -> id >= 1000000).doesNotHaveDuplicates();
+		assertThat(systemIds.get(0)).isEqualTo(100);
+		assertThat(clientIds.get(0)).isEqualTo(1000000);
+
+		// one pool per ID range, each refilled once per 10 IDs
+		assertThat(reservationsCount).isEqualTo(6);
+	}
+
+	@Test
+	public void discardAll_countsWastedIds()
+	{
+		for (int i = 0; i < 3; i++)
+		{
+			allocator.getNextID(1000000, "Enabled_Table");
+		}
+
+		assertThat(allocator.discardAll()).isEqualTo(7);
+		assertThat(allocator.getWastedCount()).isEqualTo(7);
+
+		// after discarding, a new block is reserved
+		assertThat(allocator.getNextID(1000000, "Enabled_Table")).isEqualTo(1000010);
+	}
+
+	@Test
+	public void getNextID_concurrently_noDuplicates() throws Exception
+	{
+		final int threadsCount = 8;
+		final int idsPerThread = 1000;
+		final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threadsCount; t++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < idsPerThread; i++)
+					{
+						ids.add(allocator.getNextID(1000000, "Enabled_Table"));
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get(10, TimeUnit.SECONDS);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(ids).hasSize(threadsCount * idsPerThread);
+		assertThat(reservationsCount).isEqualTo(threadsCount * idsPerThread / 10);
+	}
+}
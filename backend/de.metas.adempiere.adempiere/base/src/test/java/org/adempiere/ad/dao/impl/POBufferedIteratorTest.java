@@ -0,0 +1,100 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POBufferedIteratorTest
+{
+	@Test
+	public void extractSeekColumnNames_singleKey()
+	{
+		final ImmutableList<String> keyColumnNames = ImmutableList.of("C_Order_ID");
+
+		assertThat(POBufferedIterator.extractSeekColumnNames("C_Order_ID", keyColumnNames)).containsExactly("C_Order_ID");
+		assertThat(POBufferedIterator.extractSeekColumnNames("C_Order_ID ASC NULLS LAST", keyColumnNames)).containsExactly("C_Order_ID");
+		assertThat(POBufferedIterator.extractSeekColumnNames("C_Order.C_Order_ID", keyColumnNames)).containsExactly("C_Order_ID");
+		assertThat(POBufferedIterator.extractSeekColumnNames("c_order_id nulls first", keyColumnNames)).containsExactly("c_order_id");
+	}
+
+	@Test
+	public void extractSeekColumnNames_compositeKey()
+	{
+		final ImmutableList<String> keyColumnNames = ImmutableList.of("AD_Table_ID", "Record_ID");
+
+		assertThat(POBufferedIterator.extractSeekColumnNames("Record_ID, AD_Table_ID", keyColumnNames)).containsExactly("Record_ID", "AD_Table_ID");
+		assertThat(POBufferedIterator.extractSeekColumnNames("AD_Table_ID", keyColumnNames)).isEmpty();
+	}
+
+	@Test
+	public void extractSeekColumnNames_notSeekable()
+	{
+		final ImmutableList<String> keyColumnNames = ImmutableList.of("C_Order_ID");
+
+		assertThat(POBufferedIterator.extractSeekColumnNames(null, keyColumnNames)).isEmpty();
+		assertThat(POBufferedIterator.extractSeekColumnNames("C_Order_ID", ImmutableList.of())).isEmpty();
+		assertThat(POBufferedIterator.extractSeekColumnNames("C_Order_ID DESC", keyColumnNames)).isEmpty();
+		assertThat(POBufferedIterator.extractSeekColumnNames("DateOrdered, C_Order_ID", keyColumnNames)).isEmpty();
+		assertThat(POBufferedIterator.extractSeekColumnNames("COALESCE(C_Order_ID, 0)", keyColumnNames)).isEmpty();
+		assertThat(POBufferedIterator.extractSeekColumnNames("C_Order_ID, C_Order_ID", keyColumnNames)).isEmpty();
+	}
+
+	@Test
+	public void buildSeekWhereClause_singleKey()
+	{
+		final ImmutableMap<String, Object> lastValues = ImmutableMap.of("C_Order_ID", 123);
+
+		assertThat(POBufferedIterator.buildSeekWhereClause(ImmutableList.of("C_Order_ID"), lastValues::get)).isEqualTo("C_Order_ID > 123");
+	}
+
+	@Test
+	public void buildSeekWhereClause_compositeKey()
+	{
+		final ImmutableMap<String, Object> lastValues = ImmutableMap.of("AD_Table_ID", 259, "Record_ID", 1000);
+
+		assertThat(POBufferedIterator.buildSeekWhereClause(ImmutableList.of("Record_ID", "AD_Table_ID"), lastValues::get))
+				.as("in ORDER BY order")
+				.isEqualTo("(Record_ID, AD_Table_ID) > (1000, 259)");
+	}
+
+	@Test
+	public void buildSeekWhereClause_stringKey()
+	{
+		final ImmutableMap<String, Object> lastValues = ImmutableMap.of("Value", "it's");
+
+		assertThat(POBufferedIterator.buildSeekWhereClause(ImmutableList.of("Value"), lastValues::get)).isEqualTo("Value > 'it''s'");
+	}
+
+	@Test
+	public void buildSeekWhereClause_nullValue()
+	{
+		final ImmutableMap<String, Object> lastValues = ImmutableMap.of("AD_Table_ID", 259);
+
+		assertThat(POBufferedIterator.buildSeekWhereClause(ImmutableList.of("AD_Table_ID", "Record_ID"), lastValues::get)).isNull();
+	}
+}
@@ -0,0 +1,142 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests how {@link POStreamingIterator} walks the result set and when it releases it.
+ * <p>
+ * NOTE: the result set and the models are faked, because the JDBC part can't be tested without database.
+ */
+public class POStreamingIteratorTest
+{
+	private TypedSqlQuery<Object> query;
+	private ResultSet rs;
+	private final AtomicInteger openedResultSets = new AtomicInteger();
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void init()
+	{
+		query = mock(TypedSqlQuery.class);
+		when(query.copy()).thenReturn(query);
+
+		rs = mock(ResultSet.class);
+	}
+
+	private POStreamingIterator<Object, Object> newIterator()
+	{
+		final int fetchSize = 100;
+		return new POStreamingIterator<Object, Object>(query, Object.class, fetchSize)
+		{
+			@Override
+			ResultSet openResultSet()
+			{
+				openedResultSets.incrementAndGet();
+				return rs;
+			}
+
+			@Override
+			Object retrieveModel(final ResultSet rs) throws SQLException
+			{
+				return "row" + rs.getRow();
+			}
+		};
+	}
+
+	private void givenRows(final int count) throws SQLException
+	{
+		final AtomicInteger currentRow = new AtomicInteger(0);
+		when(rs.next()).thenAnswer(invocation -> currentRow.incrementAndGet() <= count);
+		when(rs.getRow()).thenAnswer(invocation -> currentRow.get());
+	}
+
+	@Test
+	public void releasedWhenLastModelIsReturned() throws SQLException
+	{
+		givenRows(2);
+		final POStreamingIterator<Object, Object> it = newIterator();
+
+		assertThat(it.hasNext()).isTrue();
+		assertThat(it.next()).isEqualTo("row1");
+		assertThat(it.isClosed()).isFalse();
+		verify(rs, never()).close();
+
+		assertThat(it.next()).isEqualTo("row2");
+		assertThat(it.isClosed()).as("released without calling hasNext() or close()").isTrue();
+		verify(rs).close();
+
+		assertThat(it.hasNext()).isFalse();
+		assertThat(openedResultSets).as("cursor is not opened again").hasValue(1);
+	}
+
+	@Test
+	public void emptyResult() throws SQLException
+	{
+		givenRows(0);
+		final POStreamingIterator<Object, Object> it = newIterator();
+
+		assertThat(it.hasNext()).isFalse();
+		assertThat(it.isClosed()).isTrue();
+		verify(rs).close();
+	}
+
+	@Test
+	public void resultSetIsOpenedLazily() throws SQLException
+	{
+		givenRows(1);
+		final POStreamingIterator<Object, Object> it = newIterator();
+		assertThat(openedResultSets).hasValue(0);
+
+		it.close();
+
+		assertThat(it.hasNext()).isFalse();
+		assertThat(openedResultSets).hasValue(0);
+	}
+
+	@Test
+	public void closeBeforeExhausted() throws SQLException
+	{
+		givenRows(10);
+		final POStreamingIterator<Object, Object> it = newIterator();
+		assertThat(it.next()).isEqualTo("row1");
+
+		it.close();
+
+		assertThat(it.isClosed()).isTrue();
+		verify(rs).close();
+		assertThat(it.hasNext()).isFalse();
+	}
+}
@@ -0,0 +1,83 @@
+package org.adempiere.ad.modelvalidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.adempiere.ad.modelvalidator.ModelInterceptorTimings.ModelInterceptorTiming;
+import org.adempiere.ad.modelvalidator.ModelInterceptorTimings.Recorder;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelInterceptorTimingsTest
+{
+	@Test
+	public void snapshot()
+	{
+		final ModelInterceptorTimings timings = new ModelInterceptorTimings();
+
+		final Recorder recorderA = timings.getRecorder("A", ModelChangeType.BEFORE_NEW);
+		for (int i = 0; i < 99; i++)
+		{
+			recorderA.record(Duration.ofNanos(10_000).toNanos());
+		}
+		recorderA.record(Duration.ofMillis(50).toNanos());
+
+		timings.getRecorder("B", ModelChangeType.AFTER_CHANGE).record(Duration.ofMillis(1).toNanos());
+		timings.getRecorder("C", ModelChangeType.AFTER_CHANGE); // never recorded
+
+		final ImmutableList<ModelInterceptorTiming> snapshot = timings.getSnapshot();
+		assertThat(snapshot).extracting(ModelInterceptorTiming::getInterceptorName).containsExactly("A", "B");
+
+		final ModelInterceptorTiming timingA = snapshot.get(0);
+		assertThat(timingA.getTiming()).isEqualTo("BEFORE_NEW");
+		assertThat(timingA.getCount()).isEqualTo(100);
+		assertThat(timingA.getTotal()).isEqualTo(Duration.ofMillis(50).plusNanos(99 * 10_000));
+		assertThat(timingA.getMax()).isEqualTo(Duration.ofMillis(50));
+		assertThat(timingA.getP99()).isEqualTo(Duration.ofNanos(16_000)); // upper bound of the 8..16 microseconds bucket
+	}
+
+	@Test
+	public void getRecorder_sameKey_sameRecorder()
+	{
+		final ModelInterceptorTimings timings = new ModelInterceptorTimings();
+		assertThat(timings.getRecorder("A", ModelChangeType.BEFORE_NEW)).isSameAs(timings.getRecorder("A", ModelChangeType.BEFORE_NEW));
+	}
+
+	@Test
+	public void reset()
+	{
+		final ModelInterceptorTimings timings = new ModelInterceptorTimings();
+		final Recorder recorder = timings.getRecorder("A", ModelChangeType.BEFORE_NEW);
+		recorder.record(1000);
+
+		timings.reset();
+		assertThat(timings.getSnapshot()).isEmpty();
+
+		recorder.record(1000);
+		assertThat(timings.getSnapshot()).hasSize(1);
+	}
+}
@@ -18,6 +18,8 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import com.google.common.collect.ImmutableList;
+
 public class InterfaceWrapperHelper_Tests
 {
 	public interface I_TestModel
@@ -246,4 +248,16 @@ public class InterfaceWrapperHelper_Tests
 		assertThatThrownBy(() -> InterfaceWrapperHelper.getTableName(ITaxAware.class, null))
 				.isInstanceOf(InterfaceWrapperHelper.MissingTableNameException.class);
 	}
+
+	@Test
+	public void test_saveAllNewInBatch_notPOs()
+	{
+		final I_TestModel testModel1 = InterfaceWrapperHelper.newInstance(I_TestModel.class, contextProvider);
+		final I_TestModel testModel2 = InterfaceWrapperHelper.newInstance(I_TestModel.class, contextProvider);
+
+		InterfaceWrapperHelper.saveAllNewInBatch(ImmutableList.of(testModel1, testModel2));
+
+		assertThat(InterfaceWrapperHelper.getId(testModel1) > 0, is(true));
+		assertThat(InterfaceWrapperHelper.getId(testModel2) > 0, is(true));
+	}
 }
@@ -0,0 +1,93 @@
+package org.adempiere.util.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ParallelTasksTest
+{
+	@Test
+	public void callAll_resultsInTaskOrder()
+	{
+		// the first task finishes last
+		final CountDownLatch secondTaskDone = new CountDownLatch(1);
+		final List<Callable<String>> tasks = ImmutableList.of(
+				() -> {
+					assertThat(secondTaskDone.await(10, TimeUnit.SECONDS)).isTrue();
+					return "first";
+				},
+				() -> {
+					secondTaskDone.countDown();
+					return "second";
+				});
+
+		final ExecutorService executor = ParallelTasks.newFixedThreadPool("test", 2);
+		assertThat(ParallelTasks.callAll(executor, tasks)).containsExactly("first", "second");
+		assertThat(executor.isShutdown()).isTrue();
+	}
+
+	@Test
+	public void callAll_failures()
+	{
+		final List<Callable<String>> tasks = ImmutableList.of(
+				() -> {
+					throw new AdempiereException("first failed");
+				},
+				() -> "second",
+				() -> {
+					throw new IllegalStateException("third failed");
+				});
+
+		final ExecutorService executor = ParallelTasks.newFixedThreadPool("test", 3);
+		assertThatThrownBy(() -> ParallelTasks.callAll(executor, tasks))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("first failed")
+				.satisfies(ex -> assertThat(ex.getSuppressed())
+						.hasSize(1)
+						.allSatisfy(suppressed -> assertThat(suppressed).hasMessage("third failed")));
+		assertThat(executor.isShutdown()).isTrue();
+	}
+
+	@Test
+	public void runAll()
+	{
+		final boolean[] ran = new boolean[2];
+		ParallelTasks.runAll(
+				ParallelTasks.newFixedThreadPool("test", 2),
+				ImmutableList.<Runnable> of(() -> ran[0] = true, () -> ran[1] = true));
+
+		assertThat(ran).containsExactly(true, true);
+	}
+}
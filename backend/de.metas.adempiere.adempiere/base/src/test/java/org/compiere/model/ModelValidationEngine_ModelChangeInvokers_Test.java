@@ -0,0 +1,177 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.adempiere.ad.modelvalidator.AbstractModelInterceptor;
+import org.adempiere.ad.modelvalidator.IModelValidationEngine;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests how {@link ModelValidationEngine} precomputes the model change interceptors to be invoked.
+ */
+public class ModelValidationEngine_ModelChangeInvokers_Test
+{
+	private static final String TABLENAME = "Test_Table";
+	private static final int AD_CLIENT_ID = 1000000;
+	private static final int AD_CLIENT_ID_OTHER = 1000001;
+
+	private ModelValidationEngine engine;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		engine = new ModelValidationEngine();
+	}
+
+	private static class TestInterceptor extends AbstractModelInterceptor
+	{
+		private final String name;
+		private final ImmutableSet<ModelChangeType> handledChangeTypes;
+
+		/**
+		 * @param handledChangeTypes change types which are handled; empty means all
+		 */
+		private TestInterceptor(final String name, final ModelChangeType... handledChangeTypes)
+		{
+			this.name = name;
+			this.handledChangeTypes = ImmutableSet.copyOf(handledChangeTypes);
+		}
+
+		@Override
+		protected void onInit(final IModelValidationEngine engine, final I_AD_Client client)
+		{
+			// nothing
+		}
+
+		@Override
+		public boolean isModelChangeHandled(final String tableName, final ModelChangeType changeType)
+		{
+			return handledChangeTypes.isEmpty() || handledChangeTypes.contains(changeType);
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	private TestInterceptor newClientInterceptor(final String name, final int adClientId)
+	{
+		final I_AD_Client client = mock(I_AD_Client.class);
+		when(client.getAD_Client_ID()).thenReturn(adClientId);
+
+		final TestInterceptor interceptor = new TestInterceptor(name);
+		interceptor.initialize(engine, client);
+		return interceptor;
+	}
+
+	private List<String> getInvokerNames(final String tableName, final int adClientId, final ModelChangeType changeType)
+	{
+		return engine.getModelChangeInvokers(tableName, adClientId, changeType)
+				.stream()
+				.map(invoker -> invoker.getValidator().toString())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void keepsRegistrationOrder_systemLevelFirst()
+	{
+		engine.addModelChange(TABLENAME, newClientInterceptor("client1", AD_CLIENT_ID));
+		engine.addModelChange(TABLENAME, new TestInterceptor("system1"));
+		engine.addModelChange(TABLENAME, newClientInterceptor("client2", AD_CLIENT_ID));
+		engine.addModelChange(TABLENAME, new TestInterceptor("system2"));
+		engine.addModelChange(TABLENAME, new TestInterceptor("system3"));
+
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW))
+				.containsExactly("system1", "system2", "system3", "client1", "client2");
+	}
+
+	@Test
+	public void filteredByTableName()
+	{
+		engine.addModelChange(TABLENAME, new TestInterceptor("system1"));
+		engine.addModelChange("Other_Table", new TestInterceptor("other"));
+
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system1");
+		assertThat(getInvokerNames("Other_Table", AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("other");
+		assertThat(getInvokerNames("Not_Intercepted_Table", AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).isEmpty();
+	}
+
+	@Test
+	public void filteredByClient()
+	{
+		engine.addModelChange(TABLENAME, new TestInterceptor("system1"));
+		engine.addModelChange(TABLENAME, newClientInterceptor("client1", AD_CLIENT_ID));
+		engine.addModelChange(TABLENAME, newClientInterceptor("otherClient1", AD_CLIENT_ID_OTHER));
+
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system1", "client1");
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID_OTHER, ModelChangeType.BEFORE_NEW)).containsExactly("system1", "otherClient1");
+		assertThat(getInvokerNames(TABLENAME, 0, ModelChangeType.BEFORE_NEW)).containsExactly("system1");
+	}
+
+	@Test
+	public void filteredByChangeType()
+	{
+		engine.addModelChange(TABLENAME, new TestInterceptor("beforeNew", ModelChangeType.BEFORE_NEW));
+		engine.addModelChange(TABLENAME, new TestInterceptor("all"));
+		engine.addModelChange(TABLENAME, new TestInterceptor("afterChange", ModelChangeType.AFTER_CHANGE));
+
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("beforeNew", "all");
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.AFTER_CHANGE)).containsExactly("all", "afterChange");
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_DELETE)).containsExactly("all");
+	}
+
+	@Test
+	public void invalidatedWhenInterceptorsAreAddedOrRemoved()
+	{
+		final TestInterceptor system1 = new TestInterceptor("system1");
+		engine.addModelChange(TABLENAME, system1);
+
+		final List<?> invokers = engine.getModelChangeInvokers(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW);
+		assertThat(engine.getModelChangeInvokers(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).as("precomputed").isSameAs(invokers);
+
+		final TestInterceptor system2 = new TestInterceptor("system2");
+		engine.addModelChange(TABLENAME, system2);
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system1", "system2");
+
+		engine.removeModelChange(TABLENAME, system1);
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system2");
+
+		engine.removeModelChange(TABLENAME, system2);
+		assertThat(getInvokerNames(TABLENAME, AD_CLIENT_ID, ModelChangeType.BEFORE_NEW)).isEmpty();
+	}
+}
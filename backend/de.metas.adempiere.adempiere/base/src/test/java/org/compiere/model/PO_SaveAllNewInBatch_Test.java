@@ -0,0 +1,91 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the JDBC part of {@link PO#saveAllNewInBatch(List)}.
+ * <p>
+ * NOTE: the POJO fallback is tested in {@code InterfaceWrapperHelper_Tests}; actual POs can't be created without database.
+ */
+public class PO_SaveAllNewInBatch_Test
+{
+	@Test
+	public void executeInsertsBatch_addsAllStatementsToOneBatch() throws SQLException
+	{
+		final List<String> sqls = ImmutableList.of(
+				"INSERT INTO Test_Table (Test_Table_ID) VALUES (1)",
+				"INSERT INTO Test_Table (Test_Table_ID) VALUES (2)",
+				"INSERT INTO Test_Table (Test_Table_ID) VALUES (3)");
+
+		final Statement stmt = mock(Statement.class);
+		when(stmt.executeBatch()).thenReturn(new int[] { 1, 1, 1 });
+
+		final boolean[] insertsOk = PO.executeInsertsBatch(stmt, sqls);
+
+		final InOrder inOrder = inOrder(stmt);
+		inOrder.verify(stmt).addBatch(sqls.get(0));
+		inOrder.verify(stmt).addBatch(sqls.get(1));
+		inOrder.verify(stmt).addBatch(sqls.get(2));
+		inOrder.verify(stmt).executeBatch();
+		inOrder.verifyNoMoreInteractions();
+
+		assertThat(insertsOk).containsExactly(true, true, true);
+	}
+
+	@Test
+	public void executeInsertsBatch_evaluatesUpdateCounts() throws SQLException
+	{
+		final Statement stmt = mock(Statement.class);
+		when(stmt.executeBatch()).thenReturn(new int[] { 1, Statement.SUCCESS_NO_INFO, 0 });
+
+		final boolean[] insertsOk = PO.executeInsertsBatch(stmt, ImmutableList.of("INSERT 1", "INSERT 2", "INSERT 3"));
+
+		assertThat(insertsOk).containsExactly(true, true, false);
+	}
+
+	@Test
+	public void executeInsertsBatch_failingBatch() throws SQLException
+	{
+		final Statement stmt = mock(Statement.class);
+		when(stmt.executeBatch()).thenThrow(new BatchUpdateException("duplicate key", new int[] { 1, Statement.EXECUTE_FAILED }));
+
+		assertThatThrownBy(() -> PO.executeInsertsBatch(stmt, ImmutableList.of("INSERT 1", "INSERT 2")))
+				.isInstanceOf(BatchUpdateException.class);
+	}
+}
@@ -87,6 +87,17 @@ public interface IWorkPackageQueue
 	 */
 	I_C_Queue_WorkPackage pollAndLock(long timeoutMillis);
 
+	/**
+	 * Unlocks the workpackages which were claimed in advance by {@link #pollAndLock(long)} but were not returned yet.
+	 * Shall be called when the queue processor is shut down.
+	 */
+	void unlockClaimedWorkPackages();
+
+	/**
+	 * @return statistics about how {@link #pollAndLock(long)} claimed workpackages so far
+	 */
+	WorkPackageClaimStatistics getClaimStatistics();
+
 	/**
 	 * Unlocks given package
 	 *
@@ -0,0 +1,49 @@
+package de.metas.async.api;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Statistics about how a {@link IWorkPackageQueue} claimed (i.e. retrieved and locked) its workpackages.
+ */
+@Value
+@Builder
+public class WorkPackageClaimStatistics
+{
+	/** how many claim round trips were made */
+	long claimsCount;
+
+	/** how many workpackages were claimed in total */
+	long claimedCount;
+
+	long claimTotalMillis;
+
+	long claimMaxMillis;
+
+	public long getClaimAvgMillis()
+	{
+		return claimsCount > 0 ? claimTotalMillis / claimsCount : 0;
+	}
+}
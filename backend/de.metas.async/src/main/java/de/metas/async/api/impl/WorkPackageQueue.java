@@ -27,7 +27,9 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -45,6 +47,8 @@ import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.async.AsyncBatchId;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchBL;
@@ -53,6 +57,7 @@ import de.metas.async.api.IWorkPackageBL;
 import de.metas.async.api.IWorkPackageBlockBuilder;
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.api.IWorkpackageProcessorContextFactory;
+import de.metas.async.api.WorkPackageClaimStatistics;
 import de.metas.async.model.I_C_Async_Batch;
 import de.metas.async.model.I_C_Queue_Block;
 import de.metas.async.model.I_C_Queue_Element;
@@ -68,6 +73,7 @@ import de.metas.async.processor.impl.SyncQueueProcessorListener;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
 import de.metas.async.spi.NullWorkpackagePrio;
 import de.metas.lock.api.ILockManager;
+import de.metas.lock.api.LockOwner;
 import de.metas.lock.exceptions.UnlockFailedException;
 import de.metas.logging.LogManager;
 import de.metas.logging.TableRecordMDC;
@@ -85,12 +91,20 @@ public class WorkPackageQueue implements IWorkPackageQueue
 {
 	private final static String SYSCONFIG_POLLINTERVAL = "de.metas.async.PollIntervallMillis";
 
+	/**
+	 * How many workpackages to claim in one round trip (using {@link ILockManager#retrieveAndLockMultipleIds(IQuery, Class, int)}).
+	 * The claimed workpackages are then handed out one by one by {@link #pollAndLock(long)}. 1 means that each workpackage is claimed individually.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_CLAIM_BATCH_SIZE = "de.metas.async.WorkPackageQueue.ClaimBatchSize";
+
 	private static final transient Logger logger = LogManager.getLogger(WorkPackageQueue.class);
 
 	private final transient IQueueDAO dao;
 	private final transient IWorkpackageProcessorContextFactory contextFactory = Services.get(IWorkpackageProcessorContextFactory.class);
 	private final transient IAsyncBatchBL asyncBatchBL = Services.get(IAsyncBatchBL.class);
 	private final transient IWorkPackageBL workPackageBL = Services.get(IWorkPackageBL.class);
+	private final transient WorkPackageReadyNotifier readyNotifier = WorkPackageReadyNotifier.instance;
 
 	private final Properties ctx;
 	private final List<Integer> packageProcessorIds;
@@ -116,6 +130,14 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	private final ReentrantLock mainLock = new ReentrantLock();
 
+	/** IDs of workpackages which were already claimed (i.e. locked) but not yet returned by {@link #pollAndLock(long)} */
+	private final ConcurrentLinkedDeque<Integer> claimedWorkPackageIds = new ConcurrentLinkedDeque<>();
+
+	private final AtomicLong claimsCount = new AtomicLong();
+	private final AtomicLong claimedCount = new AtomicLong();
+	private final AtomicLong claimTotalMillis = new AtomicLong();
+	private final AtomicLong claimMaxMillis = new AtomicLong();
+
 	private WorkPackageQueue(@NonNull final Properties ctx,
 			@NonNull final List<Integer> packageProcessorIds,
 			final String enquingPackageProcessorInternalName,
@@ -216,9 +238,16 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		final Properties workPackageCtx = Env.newTemporaryCtx();
 
 		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
+		final int claimBatchSize = timeoutMillis == TIMEOUT_OneTimeOnly ? 1 : getClaimBatchSize();
 
 		final long startTS = SystemTime.millis();
-		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
+
+		// NOTE: create the waiter before polling, so that we don't miss the notifications which arrive while we are polling
+		final WorkPackageReadyNotifier.Waiter readyWaiter = timeoutMillis != TIMEOUT_OneTimeOnly && readyNotifier.isEnabled()
+				? readyNotifier.newWaiter(packageProcessorIds)
+				: null;
+
+		I_C_Queue_WorkPackage workPackage = retrieveAndLock(workPackageCtx, query, claimBatchSize);
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
 			// We are running in one time only mode (synchronous mode) and we did not get the package from the first time
@@ -241,12 +270,20 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				}
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
+			// No workpackages were found. Wait until we get notified about new workpackages (if enabled) or sleep 1sec and then try again
 			try
 			{
-				// note: we always get the new service, because things might have changed since this method started
-				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
+				if (readyWaiter != null)
+				{
+					final long remainingMillis = timeoutMillis == TIMEOUT_Infinite ? 0 : timeoutMillis - (SystemTime.millis() - startTS);
+					readyWaiter.await(remainingMillis);
+				}
+				else
+				{
+					// note: we always get the new service, because things might have changed since this method started
+					final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
+					Thread.sleep(pollIntervalMs);
+				}
 			}
 			catch (final InterruptedException e)
 			{
@@ -256,7 +293,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 			// Try fetching the workpackage again
 			logger.debug("Retry retrieving next workpackage");
-			workPackage = retrieveAndLock(query);
+			workPackage = retrieveAndLock(workPackageCtx, query, claimBatchSize);
 		}
 
 		Check.assumeNotNull(workPackage, "workPackage not null");
@@ -334,9 +371,19 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		Env.setContext(workPackageCtx, Env.CTXNAME_AD_Session_ID, Env.CTXVALUE_AD_SESSION_ID_NONE);
 	}
 
-	private I_C_Queue_WorkPackage retrieveAndLock(final IQuery<I_C_Queue_WorkPackage> query)
+	private static int getClaimBatchSize()
 	{
-		I_C_Queue_WorkPackage workPackage = Services.get(ILockManager.class).retrieveAndLock(query, I_C_Queue_WorkPackage.class);
+		return Math.max(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_CLAIM_BATCH_SIZE, 1), 1);
+	}
+
+	private I_C_Queue_WorkPackage retrieveAndLock(
+			final Properties workPackageCtx,
+			final IQuery<I_C_Queue_WorkPackage> query,
+			final int claimBatchSize)
+	{
+		I_C_Queue_WorkPackage workPackage = claimBatchSize > 1
+				? pollClaimedOrClaimNext(workPackageCtx, query, claimBatchSize)
+				: Services.get(ILockManager.class).retrieveAndLock(query, I_C_Queue_WorkPackage.class);
 		if (workPackage != null && !isValid(workPackage))
 		{
 			final I_C_Queue_WorkPackage workpackageToUnlock = workPackage;
@@ -350,6 +397,76 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return workPackage;
 	}
 
+	private I_C_Queue_WorkPackage pollClaimedOrClaimNext(
+			final Properties workPackageCtx,
+			final IQuery<I_C_Queue_WorkPackage> query,
+			final int claimBatchSize)
+	{
+		if (claimedWorkPackageIds.isEmpty())
+		{
+			final long claimStartTS = SystemTime.millis();
+			final List<Integer> newlyClaimedIds = Services.get(ILockManager.class).retrieveAndLockMultipleIds(query, I_C_Queue_WorkPackage.class, claimBatchSize);
+			final long claimMillis = SystemTime.millis() - claimStartTS;
+
+			claimsCount.incrementAndGet();
+			claimedCount.addAndGet(newlyClaimedIds.size());
+			claimTotalMillis.addAndGet(claimMillis);
+			claimMaxMillis.accumulateAndGet(claimMillis, Math::max);
+			logger.debug("Claimed {} workpackages in {}ms", newlyClaimedIds.size(), claimMillis);
+
+			claimedWorkPackageIds.addAll(newlyClaimedIds);
+		}
+
+		final Integer workPackageId = claimedWorkPackageIds.poll();
+		if (workPackageId == null)
+		{
+			return null;
+		}
+
+		// load the workpackage with its own context, because that context will be set up for this particular workpackage and used by the workpackage processor
+		return InterfaceWrapperHelper.create(workPackageCtx, workPackageId, I_C_Queue_WorkPackage.class, ITrx.TRXNAME_None);
+	}
+
+	@Override
+	public void unlockClaimedWorkPackages()
+	{
+		boolean released = false;
+		Integer workPackageId;
+		while ((workPackageId = claimedWorkPackageIds.poll()) != null)
+		{
+			try
+			{
+				// release only the lock which we got when claiming; ILockManager.retrieveAndLockMultipleIds locks with LockOwner.NONE
+				Services.get(ILockManager.class).unlock()
+						.setOwner(LockOwner.NONE)
+						.setRecordByTableRecordId(I_C_Queue_WorkPackage.Table_Name, workPackageId)
+						.release();
+				released = true;
+			}
+			catch (final Exception e)
+			{
+				logger.warn("Got exception while unlocking claimed C_Queue_WorkPackage_ID={}", workPackageId, e);
+			}
+		}
+
+		// the released workpackages can be processed by other queue processors now
+		if (released && readyNotifier.isEnabled())
+		{
+			packageProcessorIds.forEach(readyNotifier::notifyReleased);
+		}
+	}
+
+	@Override
+	public WorkPackageClaimStatistics getClaimStatistics()
+	{
+		return WorkPackageClaimStatistics.builder()
+				.claimsCount(claimsCount.get())
+				.claimedCount(claimedCount.get())
+				.claimTotalMillis(claimTotalMillis.get())
+				.claimMaxMillis(claimMaxMillis.get())
+				.build();
+	}
+
 	@Override
 	public int size()
 	{
@@ -754,6 +871,12 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				workPackage.setIsReadyForProcessing(true);
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
+
+				// Wake up the queue processors which are waiting for this package processor
+				if (readyNotifier.isEnabled())
+				{
+					readyNotifier.notifyReadyForProcessing(workPackage.getC_Queue_Block_ID(), InterfaceWrapperHelper.getTrxName(workPackage));
+				}
 				success = true;
 			}
 			finally
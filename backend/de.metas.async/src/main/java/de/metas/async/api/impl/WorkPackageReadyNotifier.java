@@ -0,0 +1,409 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.util.DB;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.model.I_C_Queue_Block;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
+import lombok.NonNull;
+
+/**
+ * Push based wakeup of {@link WorkPackageQueue}s which are waiting for new workpackages.
+ * <p>
+ * When a workpackage is marked as ready for processing, a PostgreSQL {@code NOTIFY} is sent in the workpackage's transaction,
+ * having the {@code C_Queue_PackageProcessor_ID} as payload. The notification is delivered by the database only after that transaction was committed.
+ * <p>
+ * On the receiving side there is one {@code LISTEN} connection per JVM. It wakes up all queues that are waiting for one of the notified package processors.
+ * Waiting queues are still polling the database using {@value #SYSCONFIG_FallbackPollIntervalMillis}, so that notifications which were lost (e.g. while reconnecting) don't leave workpackages unprocessed.
+ * <p>
+ * Skipped workpackages become ready again when their skip timeout has passed, without anybody sending a notification.
+ * Therefore the skip timeouts which are known in this JVM (see {@link #notifySkipped(int, int)}) are also waking up the waiting queues.
+ * <p>
+ * The whole thing is enabled by {@value #SYSCONFIG_Enabled}. If not enabled, the queues are sleeping {@code de.metas.async.PollIntervallMillis} between two polls, like they always did.
+ */
+public final class WorkPackageReadyNotifier
+{
+	public static final transient WorkPackageReadyNotifier instance = new WorkPackageReadyNotifier();
+
+	private static final transient Logger logger = LogManager.getLogger(WorkPackageReadyNotifier.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.async.WorkPackageQueue.ListenNotify.Enabled";
+	@VisibleForTesting
+	static final String SYSCONFIG_FallbackPollIntervalMillis = "de.metas.async.WorkPackageQueue.ListenNotify.FallbackPollIntervalMillis";
+	private static final int DEFAULT_FallbackPollIntervalMillis = 30 * 1000;
+
+	private static final String CHANNEL_NAME = "metasfresh_async_workpackage_ready";
+	private static final int LISTENER_GET_NOTIFICATIONS_TIMEOUT_MILLIS = 10 * 1000;
+	private static final int LISTENER_RECONNECT_DELAY_MILLIS = 5 * 1000;
+
+	/** Added to the skip timeouts, because the database compares them with its own clock which might be a bit behind ours */
+	private static final int SKIP_TIMEOUT_SLACK_MILLIS = 100;
+
+	/** Counts the notifications received for each C_Queue_PackageProcessor_ID */
+	private final ConcurrentHashMap<Integer, AtomicLong> notificationsCountByPackageProcessorId = new ConcurrentHashMap<>();
+	/** Incremented each time the listener (re)connects, because we might have lost notifications in between */
+	private final AtomicLong listenerConnectCount = new AtomicLong();
+	/** The points in time (millis) at which skipped workpackages become ready again, for each C_Queue_PackageProcessor_ID */
+	private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<Long>> skipTimeoutsByPackageProcessorId = new ConcurrentHashMap<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notificationReceived = lock.newCondition();
+
+	private final AtomicBoolean listenerStarted = new AtomicBoolean(false);
+
+	@VisibleForTesting
+	WorkPackageReadyNotifier()
+	{
+	}
+
+	public boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false)
+				&& DB.isPostgreSQL();
+	}
+
+	private static int getFallbackPollIntervalMillis()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_FallbackPollIntervalMillis, DEFAULT_FallbackPollIntervalMillis);
+	}
+
+	/**
+	 * Sends the notification that there is a new workpackage for the package processor of given queue block.
+	 * The notification is sent when given transaction is committed.
+	 * <p>
+	 * The package processor is looked up by the database, so that we don't have to load the queue block.
+	 */
+	public void notifyReadyForProcessing(final int queueBlockId, final String trxName)
+	{
+		final String sql = "SELECT pg_notify(?, " + I_C_Queue_Block.COLUMNNAME_C_Queue_PackageProcessor_ID + "::text)"
+				+ " FROM " + I_C_Queue_Block.Table_Name
+				+ " WHERE " + I_C_Queue_Block.COLUMNNAME_C_Queue_Block_ID + "=?";
+		DB.executeFunctionCallEx(trxName, sql, new Object[] { CHANNEL_NAME, queueBlockId });
+	}
+
+	/**
+	 * Sends the notification that workpackages of given package processor are available again (e.g. because they were unlocked).
+	 * The notification is sent immediately, i.e. out of transaction.
+	 */
+	public void notifyReleased(final int packageProcessorId)
+	{
+		DB.executeFunctionCallEx(null, "SELECT pg_notify(?, ?)", new Object[] { CHANNEL_NAME, String.valueOf(packageProcessorId) });
+	}
+
+	/**
+	 * Remembers that a workpackage of given package processor was skipped, so that the waiting queues of this JVM poll again when the skip timeout has passed.
+	 */
+	public void notifySkipped(final int packageProcessorId, final int skipTimeoutMillis)
+	{
+		final long readyAtMillis = SystemTime.millis() + Math.max(skipTimeoutMillis, 0) + SKIP_TIMEOUT_SLACK_MILLIS;
+		skipTimeoutsByPackageProcessorId
+				.computeIfAbsent(packageProcessorId, k -> new ConcurrentSkipListSet<>())
+				.add(readyAtMillis);
+
+		// wake up the waiters, so that they consider the new skip timeout
+		signalAll();
+	}
+
+	/**
+	 * Creates a waiter for given package processors. Shall be called <b>before</b> polling the queue, so that notifications which arrive in the meantime are not missed.
+	 */
+	public Waiter newWaiter(@NonNull final List<Integer> packageProcessorIds)
+	{
+		startListenerIfNeeded();
+		return createWaiter(packageProcessorIds);
+	}
+
+	/**
+	 * Like {@link #newWaiter(List)}, but doesn't start listening on the database.
+	 */
+	@VisibleForTesting
+	Waiter createWaiter(@NonNull final List<Integer> packageProcessorIds)
+	{
+		return new Waiter(packageProcessorIds);
+	}
+
+	/**
+	 * Called when a notification for given package processor was received.
+	 */
+	@VisibleForTesting
+	void onNotification(final int packageProcessorId)
+	{
+		getNotificationsCounter(packageProcessorId).incrementAndGet();
+		signalAll();
+	}
+
+	/**
+	 * Called when the listener (re)connected. Wakes up all waiters, because we might have missed notifications while we were not listening.
+	 */
+	@VisibleForTesting
+	void onListenerConnected()
+	{
+		listenerConnectCount.incrementAndGet();
+		signalAll();
+	}
+
+	private Map<Integer, Long> snapshotCounts(final List<Integer> packageProcessorIds)
+	{
+		final Map<Integer, Long> counts = new HashMap<>(packageProcessorIds.size() + 1);
+		for (final Integer packageProcessorId : packageProcessorIds)
+		{
+			counts.put(packageProcessorId, getNotificationsCounter(packageProcessorId).get());
+		}
+		counts.put(-1, listenerConnectCount.get());
+		return counts;
+	}
+
+	private AtomicLong getNotificationsCounter(final int packageProcessorId)
+	{
+		return notificationsCountByPackageProcessorId.computeIfAbsent(packageProcessorId, k -> new AtomicLong());
+	}
+
+	private void signalAll()
+	{
+		lock.lock();
+		try
+		{
+			notificationReceived.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void startListenerIfNeeded()
+	{
+		if (listenerStarted.getAndSet(true))
+		{
+			return;
+		}
+
+		final Thread listenerThread = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix("async-WorkPackageReadyListener")
+				.setDaemon(true)
+				.build()
+				.newThread(this::listenLoop);
+		listenerThread.start();
+	}
+
+	private void listenLoop()
+	{
+		while (!Thread.currentThread().isInterrupted())
+		{
+			try
+			{
+				listen();
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Listening on channel {} failed. Reconnecting in {}ms", CHANNEL_NAME, LISTENER_RECONNECT_DELAY_MILLIS, ex);
+			}
+
+			try
+			{
+				Thread.sleep(LISTENER_RECONNECT_DELAY_MILLIS);
+			}
+			catch (final InterruptedException e)
+			{
+				logger.info("Listener thread was interrupted. Quit.");
+				return;
+			}
+		}
+	}
+
+	private void listen() throws Exception
+	{
+		try (final Connection conn = DB.getConnectionRW())
+		{
+			final PGConnection pgConn = conn.unwrap(PGConnection.class);
+			try (final Statement stmt = conn.createStatement())
+			{
+				stmt.execute("LISTEN " + CHANNEL_NAME);
+			}
+			logger.info("Listening on channel {}", CHANNEL_NAME);
+
+			onListenerConnected();
+
+			while (!Thread.currentThread().isInterrupted())
+			{
+				final PGNotification[] notifications = pgConn.getNotifications(LISTENER_GET_NOTIFICATIONS_TIMEOUT_MILLIS);
+				if (notifications == null || notifications.length == 0)
+				{
+					continue;
+				}
+
+				for (final PGNotification notification : notifications)
+				{
+					final int packageProcessorId = parsePackageProcessorId(notification.getParameter());
+					if (packageProcessorId > 0)
+					{
+						onNotification(packageProcessorId);
+					}
+				}
+			}
+		}
+	}
+
+	private static int parsePackageProcessorId(final String payload)
+	{
+		try
+		{
+			return Integer.parseInt(payload);
+		}
+		catch (final NumberFormatException ex)
+		{
+			logger.warn("Ignoring invalid notification payload: {}", payload);
+			return -1;
+		}
+	}
+
+	/**
+	 * Waits for notifications of a given set of package processors.
+	 * <p>
+	 * Not thread safe, each polling thread shall have its own instance.
+	 */
+	public final class Waiter
+	{
+		private final ImmutableList<Integer> packageProcessorIds;
+		private Map<Integer, Long> lastCounts;
+
+		private Waiter(final List<Integer> packageProcessorIds)
+		{
+			this.packageProcessorIds = ImmutableList.copyOf(packageProcessorIds);
+			this.lastCounts = snapshotCounts(this.packageProcessorIds);
+		}
+
+		/**
+		 * Waits until a notification for one of our package processors was received since this method was last called (resp. since this waiter was created)
+		 * or until the skip timeout of one of our package processors' skipped workpackages has passed,
+		 * but not longer than the fallback poll interval or given {@code maxWaitMillis}.
+		 *
+		 * @param maxWaitMillis max time to wait; if <= 0 then the fallback poll interval is used.
+		 * @return true if notified or a skip timeout has passed; false on timeout
+		 */
+		public boolean await(final long maxWaitMillis) throws InterruptedException
+		{
+			final long fallbackPollIntervalMillis = getFallbackPollIntervalMillis();
+			final long waitMillis = maxWaitMillis > 0 ? Math.min(maxWaitMillis, fallbackPollIntervalMillis) : fallbackPollIntervalMillis;
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+
+			lock.lock();
+			try
+			{
+				while (true)
+				{
+					final Map<Integer, Long> currentCounts = snapshotCounts(packageProcessorIds);
+					if (!currentCounts.equals(lastCounts))
+					{
+						lastCounts = currentCounts;
+						return true;
+					}
+					if (removePassedSkipTimeouts())
+					{
+						return true;
+					}
+					if (remainingNanos <= 0)
+					{
+						return false;
+					}
+
+					// don't wait longer than until the next skip timeout passes
+					final long nanosToWait = Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(getMillisUntilNextSkipTimeout()));
+					final long nanosNotWaited = notificationReceived.awaitNanos(nanosToWait);
+					remainingNanos -= nanosToWait - nanosNotWaited;
+				}
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return true if there were skip timeouts for our package processors which have passed
+		 */
+		private boolean removePassedSkipTimeouts()
+		{
+			final long nowMillis = SystemTime.millis();
+
+			boolean removed = false;
+			for (final Integer packageProcessorId : packageProcessorIds)
+			{
+				final ConcurrentSkipListSet<Long> skipTimeouts = skipTimeoutsByPackageProcessorId.get(packageProcessorId);
+				if (skipTimeouts == null)
+				{
+					continue;
+				}
+
+				while (!skipTimeouts.isEmpty() && skipTimeouts.first() <= nowMillis)
+				{
+					removed = skipTimeouts.pollFirst() != null || removed;
+				}
+			}
+			return removed;
+		}
+
+		/**
+		 * @return millis until the next skip timeout of our package processors passes, or {@link Long#MAX_VALUE} if there are no pending skip timeouts
+		 */
+		private long getMillisUntilNextSkipTimeout()
+		{
+			final long nowMillis = SystemTime.millis();
+
+			long minMillis = Long.MAX_VALUE;
+			for (final Integer packageProcessorId : packageProcessorIds)
+			{
+				final ConcurrentSkipListSet<Long> skipTimeouts = skipTimeoutsByPackageProcessorId.get(packageProcessorId);
+				if (skipTimeouts != null && !skipTimeouts.isEmpty())
+				{
+					minMillis = Math.min(minMillis, Math.max(skipTimeouts.first() - nowMillis, 1));
+				}
+			}
+			return minMillis;
+		}
+	}
+}
@@ -23,17 +23,21 @@ package de.metas.async.jmx;
  */
 
 
+import de.metas.async.api.WorkPackageClaimStatistics;
 import de.metas.async.processor.IQueueProcessor;
+import de.metas.util.time.SystemTime;
 
 public class JMXQueueProcessor implements JMXQueueProcessorMBean
 {
 	private final IQueueProcessor processor;
 	private final int queueProcessorId;
+	private final long createdMillis;
 
 	public JMXQueueProcessor(final IQueueProcessor processor, final int queueProcessorId)
 	{
 		this.processor = processor;
 		this.queueProcessorId = queueProcessorId;
+		this.createdMillis = SystemTime.millis();
 	}
 
 	@Override
@@ -77,4 +81,44 @@ public class JMXQueueProcessor implements JMXQueueProcessorMBean
 	{
 		return processor.getQueue().toString();
 	}
+
+	private WorkPackageClaimStatistics getClaimStatistics()
+	{
+		return processor.getQueue().getClaimStatistics();
+	}
+
+	@Override
+	public long getClaimsCount()
+	{
+		return getClaimStatistics().getClaimsCount();
+	}
+
+	@Override
+	public long getClaimedWorkPackagesCount()
+	{
+		return getClaimStatistics().getClaimedCount();
+	}
+
+	@Override
+	public long getClaimAvgMillis()
+	{
+		return getClaimStatistics().getClaimAvgMillis();
+	}
+
+	@Override
+	public long getClaimMaxMillis()
+	{
+		return getClaimStatistics().getClaimMaxMillis();
+	}
+
+	@Override
+	public double getThroughputPerSecond()
+	{
+		final long elapsedMillis = SystemTime.millis() - createdMillis;
+		if (elapsedMillis <= 0)
+		{
+			return 0;
+		}
+		return processor.getStatisticsSnapshot().getCountAll() * 1000.0 / elapsedMillis;
+	}
 }
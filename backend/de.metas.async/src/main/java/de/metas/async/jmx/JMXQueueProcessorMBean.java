@@ -38,4 +38,15 @@ public interface JMXQueueProcessorMBean
 	long getCountSkipped();
 
 	String getQueueInfo();
+
+	long getClaimsCount();
+
+	long getClaimedWorkPackagesCount();
+
+	long getClaimAvgMillis();
+
+	long getClaimMaxMillis();
+
+	/** @return processed workpackages per second, since this bean was created */
+	double getThroughputPerSecond();
 }
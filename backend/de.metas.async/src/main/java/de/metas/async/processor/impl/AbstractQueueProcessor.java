@@ -32,6 +32,7 @@ import org.slf4j.MDC.MDCCloseable;
 
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.api.IWorkpackageLogsRepository;
+import de.metas.async.api.impl.WorkPackageReadyNotifier;
 import de.metas.async.exceptions.ConfigurationException;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IMutableQueueProcessorStatistics;
@@ -159,6 +160,12 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 					{
 						logger.warn(error.getLocalizedMessage(), error);
 					}
+					else if (WorkPackageReadyNotifier.instance.isEnabled())
+					{
+						// the queue was already waiting for notifications about new workpackages, no need to sleep on top of that
+						logger.debug("Previous pollAndSubmit returned nothing. Polling again");
+						continue;
+					}
 					logger.info("Previous pollAndSubmit was not successful. Sleeping 1000ms");
 					try
 					{
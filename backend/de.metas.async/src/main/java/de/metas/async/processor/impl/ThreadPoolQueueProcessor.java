@@ -176,6 +176,9 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		}
 
 		executor.shutdownNow();
+
+		// release the workpackages which were claimed in advance but were not submitted to the executor
+		getQueue().unlockClaimedWorkPackages();
 		logger.info("Shutdown finished");
 
 		running.set(false);
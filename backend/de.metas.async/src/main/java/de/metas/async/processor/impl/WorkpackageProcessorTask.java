@@ -62,6 +62,7 @@ import de.metas.async.api.IQueueDAO;
 import de.metas.async.api.IWorkpackageLogsRepository;
 import de.metas.async.api.IWorkpackageParamDAO;
 import de.metas.async.api.IWorkpackageProcessorContextFactory;
+import de.metas.async.api.impl.WorkPackageReadyNotifier;
 import de.metas.async.exceptions.WorkpackageSkipRequestException;
 import de.metas.async.model.I_C_Queue_Block;
 import de.metas.async.model.I_C_Queue_PackageProcessor;
@@ -525,6 +526,13 @@ class WorkpackageProcessorTask implements Runnable
 		{
 			final I_C_Queue_PackageProcessor packageProcessor = queueBlock.getC_Queue_PackageProcessor();
 			processorName = CoalesceUtil.coalesce(packageProcessor.getInternalName(), packageProcessor.getClassname());
+
+			// the skipped workpackage will be ready again after the timeout, but nobody will notify the waiting queues about it
+			final WorkPackageReadyNotifier readyNotifier = WorkPackageReadyNotifier.instance;
+			if (readyNotifier.isEnabled())
+			{
+				readyNotifier.notifySkipped(queueBlock.getC_Queue_PackageProcessor_ID(), skipTimeoutMillis);
+			}
 		}
 		final String msg = StringUtils.formatMessage("Skipped while processing workpackage by processor {}; workpackage={}", processorName, workPackage);
 
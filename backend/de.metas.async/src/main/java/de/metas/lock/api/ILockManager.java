@@ -23,6 +23,8 @@ package de.metas.lock.api;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.compiere.model.IQuery;
@@ -94,6 +96,16 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Retrieves up to {@code limit} records from query and locks them (using {@link LockOwner#NONE}), preferably in one database round trip.
+	 * Records which are currently being locked by somebody else are skipped.
+	 * <p>
+	 * Only the IDs are returned, because the caller usually wants to load each record in its own context anyway.
+	 *
+	 * @return IDs of the retrieved records (already locked), in the query's order; never returns null
+	 */
+	<T> List<Integer> retrieveAndLockMultipleIds(IQuery<T> query, Class<T> clazz, int limit);
+
 	/**
 	 * Builds a SQL where clause to be used in other queries to filter the results.
 	 *
@@ -22,7 +22,9 @@ package de.metas.lock.api.impl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -271,8 +273,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		final IQuery<T> finalQuery = retrieveNotLockedQuery(query);
 
 		final int maxLockRetries = 50;
-		final ILockCommand lockCommand = new LockCommand(this)
-				.setOwner(LockOwner.NONE);
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
 
 		int retryCounter = 0;
 		while (retryCounter < maxLockRetries)
@@ -310,6 +311,38 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		return null;
 	}
 
+	@Override
+	public final <T> List<Integer> retrieveAndLockMultipleIds(final IQuery<T> query, final Class<T> clazz, final int limit)
+	{
+		Check.assume(limit > 0, "limit > 0 but it was {}", limit);
+
+		return retrieveAndLockMultipleIds(newRetrieveAndLockCommand(), query, clazz, limit);
+	}
+
+	/**
+	 * Default implementation: retrieves and locks the records one by one. Implementations which can do better shall override this method.
+	 */
+	protected <T> List<Integer> retrieveAndLockMultipleIds(final ILockCommand lockCommand, final IQuery<T> query, final Class<T> clazz, final int limit)
+	{
+		final List<Integer> result = new ArrayList<>(limit);
+		while (result.size() < limit)
+		{
+			final T model = retrieveAndLock(query, clazz);
+			if (model == null)
+			{
+				break;
+			}
+			result.add(InterfaceWrapperHelper.getId(model));
+		}
+		return result;
+	}
+
+	private ILockCommand newRetrieveAndLockCommand()
+	{
+		return new LockCommand(this)
+				.setOwner(LockOwner.NONE);
+	}
+
 	@Override
 	public final String getLockedWhereClause(final Class<?> modelClass, final String joinColumnNameFQ, final LockOwner lockOwner)
 	{
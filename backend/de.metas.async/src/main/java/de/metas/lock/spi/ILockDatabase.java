@@ -23,6 +23,8 @@ package de.metas.lock.spi;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.compiere.model.IQuery;
@@ -50,6 +52,8 @@ public interface ILockDatabase
 
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	<T> List<Integer> retrieveAndLockMultipleIds(IQuery<T> query, Class<T> clazz, int limit);
+
 	<T> IQueryFilter<T> getLockedByFilter(Class<T> modelClass, LockOwner lockOwner);
 
 	<T> IQueryFilter<T> getNotLockedFilter(Class<T> modelClass);
@@ -20,6 +20,8 @@ import org.compiere.model.IQuery;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.IUnlockCommand;
@@ -307,6 +309,80 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Selects the next records with {@code FOR UPDATE SKIP LOCKED} and inserts their {@link I_T_Lock} records, all in one statement.
+	 * Records which are currently claimed by a concurrent client are skipped instead of being waited for,
+	 * and records which were locked by a concurrent client in the meantime are skipped by {@code ON CONFLICT DO NOTHING}.
+	 * So we return exactly the IDs of those records for which our lock was inserted.
+	 */
+	@Override
+	protected <T> List<Integer> retrieveAndLockMultipleIds(final ILockCommand lockCommand, final IQuery<T> query, final Class<T> clazz, final int limit)
+	{
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		final TypedSqlQuery<T> sqlQuery = TypedSqlQuery.cast(retrieveNotLockedQuery(query));
+		final String tableName = sqlQuery.getTableName();
+		final String keyColumnName = sqlQuery.getKeyColumnName();
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+
+		final String sqlSelect = sqlQuery.buildSQL(
+				"SELECT " + tableName + "." + keyColumnName, // selectClause
+				null, // fromClause
+				null, // groupByClause
+				true); // useOrderByClause
+		final List<Object> sqlParams = new ArrayList<>(sqlQuery.getParametersEffective());
+
+		final String sql = "WITH claimed AS ("
+				+ sqlSelect
+				+ "\n LIMIT " + limit
+				+ "\n FOR UPDATE OF " + tableName + " SKIP LOCKED"
+				+ ")"
+				+ "\n INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", claimed." + keyColumnName // Record_ID
+				+ ", " + toSqlParam(lockOwner.getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(lockCommand.isAutoCleanup(), sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
+				+ " FROM claimed"
+				+ "\n ON CONFLICT DO NOTHING"
+				+ "\n RETURNING " + I_T_Lock.COLUMNNAME_Record_ID;
+
+		final List<Integer> lockedRecordIds = new ArrayList<>(limit);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				lockedRecordIds.add(rs.getInt(1));
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new LockFailedException("Failed retrieving and locking records from " + tableName, e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		// RETURNING yields the rows in the order in which they were inserted, i.e. in the query's order
+		return ImmutableList.copyOf(lockedRecordIds);
+	}
+
 	@Override
 	protected boolean changeLockRecord(final ILockCommand lockCommand, final TableRecordReference record)
 	{
@@ -0,0 +1,154 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.processor.impl.StaticMockedWorkpackageProcessor;
+import de.metas.lock.api.LockOwner;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests how {@link WorkPackageQueue#pollAndLock(long)} claims workpackages in batches of {@link WorkPackageQueue#SYSCONFIG_CLAIM_BATCH_SIZE}.
+ * <p>
+ * NOTE: the plain lock database claims the records one by one, but the queue shall behave the same way as with the SQL lock database.
+ */
+public class WorkPackageQueue_ClaimBatch_Test extends QueueProcessorTestBase
+{
+	private static final long POLL_TIMEOUT_MILLIS = 60 * 1000;
+
+	private WorkPackageQueue queueForProcessing;
+	private List<I_C_Queue_WorkPackage> workpackages;
+
+	@Override
+	protected void beforeTestCustomized()
+	{
+		final I_C_Queue_PackageProcessor packageProcessor = helper.createPackageProcessor(ctx, StaticMockedWorkpackageProcessor.class);
+
+		final IWorkPackageQueue queueForEnqueuing = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		workpackages = helper.createAndEnqueueWorkpackages(queueForEnqueuing, 5, true); // markReadyForProcessing=true
+
+		queueForProcessing = WorkPackageQueue.createForQueueProcessing(ctx,
+				ImmutableList.of(packageProcessor.getC_Queue_PackageProcessor_ID()),
+				null); // priorityFrom
+	}
+
+	private void setClaimBatchSize(final int claimBatchSize)
+	{
+		Services.get(ISysConfigBL.class).setValue(WorkPackageQueue.SYSCONFIG_CLAIM_BATCH_SIZE, claimBatchSize, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private int pollAndLockId()
+	{
+		final I_C_Queue_WorkPackage workpackage = queueForProcessing.pollAndLock(POLL_TIMEOUT_MILLIS);
+		assertThat(workpackage).isNotNull();
+		return workpackage.getC_Queue_WorkPackage_ID();
+	}
+
+	private int getWorkpackageId(final int index)
+	{
+		return workpackages.get(index).getC_Queue_WorkPackage_ID();
+	}
+
+	private boolean isLocked(final int index)
+	{
+		return lockManager.isLocked(I_C_Queue_WorkPackage.class, getWorkpackageId(index));
+	}
+
+	@Test
+	public void claimedWorkpackagesAreHandedOutOneByOne()
+	{
+		setClaimBatchSize(3);
+
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(0));
+		assertThat(queueForProcessing.getClaimStatistics().getClaimsCount()).isEqualTo(1);
+		assertThat(queueForProcessing.getClaimStatistics().getClaimedCount()).isEqualTo(3);
+		assertThat(isLocked(1)).as("claimed, but not handed out yet").isTrue();
+		assertThat(isLocked(2)).as("claimed, but not handed out yet").isTrue();
+		assertThat(isLocked(3)).isFalse();
+
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(1));
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(2));
+		assertThat(queueForProcessing.getClaimStatistics().getClaimsCount()).as("served from the claimed workpackages").isEqualTo(1);
+
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(3));
+		assertThat(queueForProcessing.getClaimStatistics().getClaimsCount()).isEqualTo(2);
+		assertThat(queueForProcessing.getClaimStatistics().getClaimedCount()).as("only 2 workpackages were left").isEqualTo(5);
+
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(4));
+		assertThat(queueForProcessing.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly)).isNull();
+	}
+
+	@Test
+	public void workpackagesLockedBySomebodyElseAreSkipped()
+	{
+		setClaimBatchSize(3);
+
+		final LockOwner otherOwner = LockOwner.newOwner("other");
+		lockManager.lock()
+				.setOwner(otherOwner)
+				.setRecordByModel(workpackages.get(1))
+				.acquire();
+
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(0));
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(2));
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(3));
+		assertThat(queueForProcessing.getClaimStatistics().getClaimsCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void unlockClaimedWorkPackages()
+	{
+		setClaimBatchSize(5);
+
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(0));
+		assertThat(isLocked(4)).isTrue();
+
+		queueForProcessing.unlockClaimedWorkPackages();
+
+		assertThat(isLocked(0)).as("handed out, so it's up to the processor to unlock it").isTrue();
+		assertThat(lockManager.isLocked(I_C_Queue_WorkPackage.class, getWorkpackageId(0), LockOwner.NONE)).isTrue();
+		assertThat(isLocked(1)).isFalse();
+		assertThat(isLocked(2)).isFalse();
+		assertThat(isLocked(3)).isFalse();
+		assertThat(isLocked(4)).isFalse();
+
+		// the released workpackages are claimed again
+		assertThat(pollAndLockId()).isEqualTo(getWorkpackageId(1));
+		assertThat(queueForProcessing.getClaimStatistics().getClaimsCount()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,178 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.api.impl.WorkPackageReadyNotifier.Waiter;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the {@link Waiter}s of {@link WorkPackageReadyNotifier}; the notifications are passed in directly, without listening on the database.
+ */
+public class WorkPackageReadyNotifierTest
+{
+	private static final int PACKAGE_PROCESSOR_ID = 10;
+	private static final int OTHER_PACKAGE_PROCESSOR_ID = 20;
+
+	/** Larger than any wait in this test, so it's clear when a waiter was not woken up as expected */
+	private static final int FALLBACK_POLL_INTERVAL_MILLIS = 60 * 1000;
+
+	private WorkPackageReadyNotifier notifier;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		Services.get(ISysConfigBL.class).setValue(WorkPackageReadyNotifier.SYSCONFIG_FallbackPollIntervalMillis, FALLBACK_POLL_INTERVAL_MILLIS, ClientId.SYSTEM, OrgId.ANY);
+
+		notifier = new WorkPackageReadyNotifier();
+	}
+
+	private Waiter newWaiter()
+	{
+		return notifier.createWaiter(ImmutableList.of(PACKAGE_PROCESSOR_ID));
+	}
+
+	@Test
+	public void notified() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+		notifier.onNotification(PACKAGE_PROCESSOR_ID);
+
+		final long startMillis = System.currentTimeMillis();
+		assertThat(waiter.await(5000)).isTrue();
+		assertThat(System.currentTimeMillis() - startMillis).isLessThan(1000);
+	}
+
+	@Test
+	public void notifiedFromOtherThread() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+
+		final Thread notifierThread = new Thread(() -> {
+			try
+			{
+				Thread.sleep(100);
+			}
+			catch (final InterruptedException e)
+			{
+				return;
+			}
+			notifier.onNotification(PACKAGE_PROCESSOR_ID);
+		});
+		final long startMillis = System.currentTimeMillis();
+		notifierThread.start();
+
+		assertThat(waiter.await(0)).isTrue();
+		assertThat(System.currentTimeMillis() - startMillis).isLessThan(5000);
+		notifierThread.join();
+	}
+
+	@Test
+	public void notificationForOtherPackageProcessor() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+		notifier.onNotification(OTHER_PACKAGE_PROCESSOR_ID);
+
+		assertThat(waiter.await(200)).isFalse();
+	}
+
+	@Test
+	public void notificationBeforeWaiterWasCreated() throws InterruptedException
+	{
+		notifier.onNotification(PACKAGE_PROCESSOR_ID);
+		final Waiter waiter = newWaiter();
+
+		assertThat(waiter.await(200)).isFalse();
+	}
+
+	@Test
+	public void notificationIsCountedOnlyOnce() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+		notifier.onNotification(PACKAGE_PROCESSOR_ID);
+		notifier.onNotification(PACKAGE_PROCESSOR_ID);
+
+		assertThat(waiter.await(5000)).isTrue();
+		assertThat(waiter.await(200)).as("both notifications were received before the first await returned").isFalse();
+
+		notifier.onNotification(PACKAGE_PROCESSOR_ID);
+		assertThat(waiter.await(5000)).isTrue();
+	}
+
+	@Test
+	public void listenerReconnectWakesUpAllWaiters() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+		final Waiter otherWaiter = notifier.createWaiter(ImmutableList.of(OTHER_PACKAGE_PROCESSOR_ID));
+		notifier.onListenerConnected();
+
+		assertThat(waiter.await(5000)).isTrue();
+		assertThat(otherWaiter.await(5000)).isTrue();
+	}
+
+	@Test
+	public void waitIsCappedBySkipTimeout() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+		notifier.notifySkipped(PACKAGE_PROCESSOR_ID, 300);
+
+		final long startMillis = System.currentTimeMillis();
+		assertThat(waiter.await(0)).isTrue();
+		final long waitedMillis = System.currentTimeMillis() - startMillis;
+		assertThat(waitedMillis).isGreaterThanOrEqualTo(300).isLessThan(FALLBACK_POLL_INTERVAL_MILLIS / 2);
+
+		assertThat(waiter.await(200)).as("the skip timeout was already considered").isFalse();
+	}
+
+	@Test
+	public void smallestSkipTimeoutIsUsed() throws InterruptedException
+	{
+		notifier.notifySkipped(PACKAGE_PROCESSOR_ID, 20 * 1000);
+		notifier.notifySkipped(PACKAGE_PROCESSOR_ID, 100);
+		final Waiter waiter = newWaiter();
+
+		final long startMillis = System.currentTimeMillis();
+		assertThat(waiter.await(0)).isTrue();
+		assertThat(System.currentTimeMillis() - startMillis).isLessThan(10 * 1000);
+	}
+
+	@Test
+	public void skipTimeoutOfOtherPackageProcessor() throws InterruptedException
+	{
+		final Waiter waiter = newWaiter();
+		notifier.notifySkipped(OTHER_PACKAGE_PROCESSOR_ID, 50);
+
+		assertThat(waiter.await(500)).isFalse();
+	}
+}
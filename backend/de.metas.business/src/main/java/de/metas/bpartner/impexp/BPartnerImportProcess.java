@@ -26,6 +26,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.getTableId;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Properties;
 
 import javax.annotation.Nullable;
@@ -108,6 +109,25 @@ public class BPartnerImportProcess extends SimpleImportProcessTemplate<I_I_BPart
 		BPartnerImportTableSqlUpdater.updateBPartnerImportTable(selection);
 	}
 
+	/**
+	 * Lines with different BPValue/GlobalId are independent of each other: each creates or updates its own BPartner, together with that BPartner's locations, contacts, bank accounts,
+	 * credit limits and print formats. Also the lookups that are shared between lines (groups, countries etc.) were already resolved by {@link #updateAndValidateImportRecords()}.
+	 * <p>
+	 * The only state carried from one line to the next is the {@link BPartnerImportContext}, which is used when consecutive lines have the same BPValue and GlobalId.
+	 * That's why {@link #extractParallelImportChunkKey(I_I_BPartner)} makes sure that such lines are always imported together, in their original order.
+	 */
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	@Override
+	protected Object extractParallelImportChunkKey(final I_I_BPartner importRecord)
+	{
+		return Arrays.asList(importRecord.getBPValue(), importRecord.getGlobalId());
+	}
+
 	@Override
 	protected ImportRecordResult importRecord(final IMutable<Object> state, final I_I_BPartner importRecord, final boolean insertOnly)
 	{
@@ -33,6 +33,7 @@ import java.util.Optional;
 import java.util.Properties;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IMutable;
@@ -195,10 +196,39 @@ public class ProductImportProcess extends SimpleImportProcessTemplate<I_I_Produc
 		ModelValidationEngine.get().fireImportValidate(this, importRecord, productRecord, IImportInterceptor.TIMING_AFTER_IMPORT);
 
 		// #3404 Create default product planning
-		Services.get(IProductPlanningSchemaBL.class).createDefaultProductPlanningsForAllProducts();
+		// when importing in parallel, the other threads would compete for the same products, so we do it only once, in afterImport()
+		if (!isParallelImport())
+		{
+			Services.get(IProductPlanningSchemaBL.class).createDefaultProductPlanningsForAllProducts();
+		}
+
 		return newProduct ? ImportRecordResult.Inserted : ImportRecordResult.Updated;
 	}
 
+	/**
+	 * Each line creates or updates only its own product and that product's price; the product categories, UOMs etc. were already resolved by {@link #updateAndValidateImportRecords()}.
+	 * When importing in parallel, the default product plannings, which are created for all products that don't have one yet, are created only once, in {@link #afterImport()}.
+	 */
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	@Override
+	protected void afterImport()
+	{
+		if (!isParallelImport())
+		{
+			return; // already created after each line
+		}
+
+		// #3404 Create default product planning
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			Services.get(IProductPlanningSchemaBL.class).createDefaultProductPlanningsForAllProducts();
+		});
+	}
+
 	private final void createUpdateProductPrice(final I_I_Product imp)
 	{
 		//
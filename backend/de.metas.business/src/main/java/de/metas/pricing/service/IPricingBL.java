@@ -23,6 +23,8 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import de.metas.bpartner.BPartnerId;
@@ -66,6 +68,16 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculates the prices of all given contexts, same as {@link #calculatePrice(IPricingContext)} would do for each of them.
+	 * <p>
+	 * The main product prices of all contexts are preloaded using one query.
+	 * If configured, and if there is no thread inherited transaction, the contexts are evaluated in parallel.
+	 *
+	 * @return pricing results, in the same order as the given contexts
+	 */
+	List<IPricingResult> calculatePrices(Collection<? extends IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
@@ -6,8 +6,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -15,14 +17,20 @@ import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -71,6 +79,8 @@ public class ProductPrices
 
 	private static final CopyOnWriteArrayList<IProductPriceQueryMatcher> MATCHERS_MainProductPrice = new CopyOnWriteArrayList<>();
 
+	private static final ThreadLocal<ProductPricesSnapshot> mainProductPricesSnapshot = new ThreadLocal<>();
+
 	private static final Logger logger = LogManager.getLogger(ProductPrices.class);
 
 	public static final ProductPriceQuery newQuery(@NonNull final I_M_PriceList_Version plv)
@@ -166,10 +176,87 @@ public class ProductPrices
 
 	public static final I_M_ProductPrice retrieveMainProductPriceOrNull(final I_M_PriceList_Version plv, final ProductId productId)
 	{
-		final List<I_M_ProductPrice> allMainPrices = retrieveAllMainPrices(plv, productId);
+		final List<I_M_ProductPrice> allMainPrices = getMainPricesFromSnapshot(plv, productId)
+				.orElseGet(() -> retrieveAllMainPrices(plv, productId));
 		return getFirstOrThrowExceptionIfMoreThanOne(allMainPrices);
 	}
 
+	private static Optional<List<I_M_ProductPrice>> getMainPricesFromSnapshot(
+			@NonNull final I_M_PriceList_Version plv,
+			@NonNull final ProductId productId)
+	{
+		final ProductPricesSnapshot snapshot = mainProductPricesSnapshot.get();
+		if (snapshot == null)
+		{
+			return Optional.empty();
+		}
+
+		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+		return snapshot.getMainProductPrices(priceListVersionId, productId);
+	}
+
+	/**
+	 * Loads the main product prices of all given price list version and product pairs, using one query.
+	 * <p>
+	 * Same filtering as {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)}, including the registered main product price matchers.
+	 */
+	public static ProductPricesSnapshot retrieveMainProductPricesSnapshot(@NonNull final Collection<ProductPricesSnapshot.Key> keys)
+	{
+		if (keys.isEmpty())
+		{
+			return ProductPricesSnapshot.EMPTY;
+		}
+
+		final ImmutableSet<ProductPricesSnapshot.Key> keysSet = ImmutableSet.copyOf(keys);
+		final ImmutableSet<PriceListVersionId> priceListVersionIds = keysSet.stream().map(ProductPricesSnapshot.Key::getPriceListVersionId).collect(ImmutableSet.toImmutableSet());
+		final ImmutableSet<ProductId> productIds = keysSet.stream().map(ProductPricesSnapshot.Key::getProductId).collect(ImmutableSet.toImmutableSet());
+
+		final IQueryBuilder<I_M_ProductPrice> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_ProductPrice.class)
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, priceListVersionIds)
+				.addInArrayFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, productIds)
+				.addNotEqualsFilter(I_M_ProductPrice.COLUMN_IsInvalidPrice, true)
+				.addEqualsFilter(I_M_ProductPrice.COLUMN_IsAttributeDependant, false);
+		MATCHERS_MainProductPrice.forEach(matcher -> queryBuilder.filter(matcher.getQueryFilter()));
+
+		final ImmutableListMultimap.Builder<ProductPricesSnapshot.Key, I_M_ProductPrice> mainProductPrices = ImmutableListMultimap.builder();
+		for (final I_M_ProductPrice productPrice : queryBuilder.create().list())
+		{
+			final ProductPricesSnapshot.Key key = ProductPricesSnapshot.Key.of(
+					PriceListVersionId.ofRepoId(productPrice.getM_PriceList_Version_ID()),
+					ProductId.ofRepoId(productPrice.getM_Product_ID()));
+
+			// the query is a cross product of price list versions and products, so skip what was not asked for
+			if (keysSet.contains(key))
+			{
+				mainProductPrices.put(key, productPrice);
+			}
+		}
+
+		return new ProductPricesSnapshot(keysSet, mainProductPrices.build());
+	}
+
+	/**
+	 * Makes {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)} use the given snapshot in current thread, until the returned closeable is closed.
+	 * Pairs which are not part of the snapshot are still retrieved from database.
+	 */
+	public static IAutoCloseable temporarySetMainProductPricesSnapshot(@NonNull final ProductPricesSnapshot snapshot)
+	{
+		final ProductPricesSnapshot previousSnapshot = mainProductPricesSnapshot.get();
+		mainProductPricesSnapshot.set(snapshot);
+		return () -> {
+			if (previousSnapshot != null)
+			{
+				mainProductPricesSnapshot.set(previousSnapshot);
+			}
+			else
+			{
+				mainProductPricesSnapshot.remove();
+			}
+		};
+	}
+
 	private static List<I_M_ProductPrice> retrieveAllMainPrices(
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
@@ -0,0 +1,91 @@
+package de.metas.pricing.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.compiere.model.I_M_ProductPrice;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.pricing.PriceListVersionId;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable snapshot of main product prices, indexed by price list version and product.
+ * <p>
+ * The snapshot knows which (price list version, product) pairs were loaded, so it can tell apart "there is no main price" from "not loaded".
+ *
+ * @see ProductPrices#retrieveMainProductPricesSnapshot(java.util.Collection)
+ * @see ProductPrices#temporarySetMainProductPricesSnapshot(ProductPricesSnapshot)
+ */
+public final class ProductPricesSnapshot
+{
+	public static final ProductPricesSnapshot EMPTY = new ProductPricesSnapshot(ImmutableSet.of(), ImmutableListMultimap.of());
+
+	private final ImmutableSet<Key> loadedKeys;
+	private final ImmutableListMultimap<Key, I_M_ProductPrice> mainProductPrices;
+
+	ProductPricesSnapshot(
+			@NonNull final ImmutableSet<Key> loadedKeys,
+			@NonNull final ImmutableListMultimap<Key, I_M_ProductPrice> mainProductPrices)
+	{
+		this.loadedKeys = loadedKeys;
+		this.mainProductPrices = mainProductPrices;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[loadedKeys=" + loadedKeys.size() + ", mainProductPrices=" + mainProductPrices.size() + "]";
+	}
+
+	/**
+	 * @return all main product prices of given price list version and product or {@link Optional#empty()} if the pair was not loaded into this snapshot.
+	 */
+	public Optional<List<I_M_ProductPrice>> getMainProductPrices(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+	{
+		final Key key = Key.of(priceListVersionId, productId);
+		if (!loadedKeys.contains(key))
+		{
+			return Optional.empty();
+		}
+
+		final ImmutableList<I_M_ProductPrice> productPrices = mainProductPrices.get(key);
+		return Optional.of(productPrices);
+	}
+
+	@Value(staticConstructor = "of")
+	public static class Key
+	{
+		@NonNull
+		PriceListVersionId priceListVersionId;
+		@NonNull
+		ProductId productId;
+	}
+}
@@ -24,23 +24,35 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.ParallelTasks;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_ProductPrice;
 import org.compiere.util.DisplayType;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
@@ -71,6 +83,7 @@ import de.metas.pricing.service.IPricingBL;
 import de.metas.pricing.service.IPricingDAO;
 import de.metas.pricing.service.PricingRuleDescriptor;
 import de.metas.pricing.service.ProductPrices;
+import de.metas.pricing.service.ProductPricesSnapshot;
 import de.metas.product.IProductBL;
 import de.metas.product.IProductDAO;
 import de.metas.product.ProductCategoryId;
@@ -91,6 +104,9 @@ public class PricingBL implements IPricingBL
 {
 	private static final Logger logger = LogManager.getLogger(PricingBL.class);
 
+	private static final String SYSCONFIG_CalculatePricesParallelThreads = "de.metas.pricing.service.impl.PricingBL.calculatePrices.ParallelThreads";
+	private static final int DEFAULT_CalculatePricesParallelThreads = 1;
+
 	private final CompositePriceLimitRule priceLimitRules = new CompositePriceLimitRule();
 
 	@Override
@@ -160,11 +176,17 @@ public class PricingBL implements IPricingBL
 
 	@Override
 	public IPricingResult calculatePrice(@NonNull final IPricingContext pricingCtx)
+	{
+		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
+		return calculatePriceForSetupContext(pricingCtxToUse);
+	}
+
+	private IPricingResult calculatePriceForSetupContext(@NonNull final IPricingContext pricingCtxToUse)
 	{
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
+			final IPricingResult result = calculatePrice0(pricingCtxToUse);
 			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
 		}
 		catch (final ProductNotOnPriceListException e)
@@ -173,9 +195,99 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(final IPricingContext pricingCtx)
+	@Override
+	public List<IPricingResult> calculatePrices(@NonNull final Collection<? extends IPricingContext> pricingCtxs)
+	{
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList<IPricingContext> pricingCtxsToUse = pricingCtxs.stream()
+				.map(this::setupPricingContext)
+				.collect(ImmutableList.toImmutableList());
+
+		final ProductPricesSnapshot mainProductPrices = ProductPrices.retrieveMainProductPricesSnapshot(extractMainProductPricesKeys(pricingCtxsToUse));
+
+		final int parallelThreads = Math.min(getCalculatePricesParallelThreads(), pricingCtxsToUse.size());
+		if (parallelThreads > 1 && isNoTrxInherited())
+		{
+			return calculatePricesInParallel(pricingCtxsToUse, mainProductPrices, parallelThreads);
+		}
+		else
+		{
+			return calculatePricesForSetupContexts(pricingCtxsToUse, mainProductPrices);
+		}
+	}
+
+	private static ImmutableSet<ProductPricesSnapshot.Key> extractMainProductPricesKeys(@NonNull final List<IPricingContext> pricingCtxs)
+	{
+		return pricingCtxs.stream()
+				.filter(pricingCtx -> pricingCtx.getPriceListVersionId() != null && pricingCtx.getProductId() != null)
+				.map(pricingCtx -> ProductPricesSnapshot.Key.of(pricingCtx.getPriceListVersionId(), pricingCtx.getProductId()))
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	private int getCalculatePricesParallelThreads()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_CalculatePricesParallelThreads, DEFAULT_CalculatePricesParallelThreads);
+	}
+
+	/**
+	 * Parallel evaluation is done out of transaction, so we do it only if the caller is not running in a transaction which might contain not yet committed price changes.
+	 */
+	private static boolean isNoTrxInherited()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		return trxManager.isNull(trxManager.getThreadInheritedTrxName());
+	}
+
+	private List<IPricingResult> calculatePricesForSetupContexts(
+			@NonNull final List<IPricingContext> pricingCtxsToUse,
+			@NonNull final ProductPricesSnapshot mainProductPrices)
+	{
+		try (final IAutoCloseable c = ProductPrices.temporarySetMainProductPricesSnapshot(mainProductPrices))
+		{
+			return pricingCtxsToUse.stream()
+					.map(this::calculatePriceForSetupContext)
+					.collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	/**
+	 * Splits the given contexts into contiguous chunks and evaluates each chunk in its own thread.
+	 *
+	 * @return pricing results, in the same order as the given contexts
+	 */
+	private List<IPricingResult> calculatePricesInParallel(
+			@NonNull final List<IPricingContext> pricingCtxsToUse,
+			@NonNull final ProductPricesSnapshot mainProductPrices,
+			final int parallelThreads)
+	{
+		final int chunkSize = (pricingCtxsToUse.size() + parallelThreads - 1) / parallelThreads;
+		final List<List<IPricingContext>> chunks = Lists.partition(pricingCtxsToUse, chunkSize);
+
+		final Properties ctx = Env.getCtx();
+		final List<Callable<List<IPricingResult>>> tasks = new ArrayList<>();
+		for (final List<IPricingContext> chunk : chunks)
+		{
+			tasks.add(() -> {
+				try (final IAutoCloseable ctxCloseable = Env.switchContext(Env.copyCtx(ctx)))
+				{
+					return calculatePricesForSetupContexts(chunk, mainProductPrices);
+				}
+			});
+		}
+
+		final ExecutorService executor = ParallelTasks.newFixedThreadPool(PricingBL.class.getSimpleName() + "-calculatePrices", chunks.size());
+		return ParallelTasks.callAll(executor, tasks)
+				.stream()
+				.flatMap(List::stream)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private IPricingResult calculatePrice0(final IPricingContext pricingCtxToUse)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -208,7 +320,7 @@ public class PricingBL implements IPricingBL
 		{
 			throw ProductNotOnPriceListException.builder()
 					.pricingCtx(pricingCtxToUse)
-					.productId(pricingCtx.getProductId())
+					.productId(pricingCtxToUse.getProductId())
 					.build()
 					.setParameter("pricingResult", result);
 		}
@@ -0,0 +1,265 @@
+package de.metas.bpartner.impexp;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.table.api.AdTableId;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_I_BPartner;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.bpartner.service.IBPartnerDAO;
+import de.metas.bpartner.service.impl.BPartnerBL;
+import de.metas.impexp.format.ImportTableDescriptor;
+import de.metas.impexp.format.ImportTableDescriptorRepository;
+import de.metas.impexp.processing.DBFunctions;
+import de.metas.impexp.processing.DBFunctionsRepository;
+import de.metas.impexp.processing.ImportGroup;
+import de.metas.impexp.processing.ImportProcessResult;
+import de.metas.impexp.processing.ImportProcessTemplate;
+import de.metas.organization.OrgId;
+import de.metas.user.UserRepository;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Makes sure that importing with {@link ImportProcessTemplate#SYSCONFIG_ParallelImportThreads} gives the same result as the sequential import.
+ * <p>
+ * The chunks are imported by a direct executor, because the in-memory database is not thread safe;
+ * what's tested here is how the records are split into chunks and how each chunk is imported.
+ */
+public class BPartnerImportProcess_Parallel_Test
+{
+	private Properties ctx;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		ctx = Env.getCtx();
+
+		Services.registerService(IBPartnerBL.class, new BPartnerBL(new UserRepository()));
+		setupDBFunctionsRepository();
+		setupImportTableDescriptorRepository();
+	}
+
+	private void setupDBFunctionsRepository()
+	{
+		SpringContextHolder.registerJUnitBean(DBFunctionsRepository.class, new DBFunctionsRepository()
+		{
+			@Override
+			public DBFunctions retrieveByTableName(@NonNull final String tableName)
+			{
+				return DBFunctions.builder().tableName(tableName).build();
+			}
+		});
+	}
+
+	private void setupImportTableDescriptorRepository()
+	{
+		final ImportTableDescriptor importTableDescriptor = ImportTableDescriptor.builder()
+				.tableName(I_I_BPartner.Table_Name)
+				.keyColumnName(I_I_BPartner.COLUMNNAME_I_BPartner_ID)
+				.build();
+
+		SpringContextHolder.registerJUnitBean(ImportTableDescriptorRepository.class, new ImportTableDescriptorRepository()
+		{
+			@Override
+			public ImportTableDescriptor getByTableId(final AdTableId adTableId)
+			{
+				return importTableDescriptor;
+			}
+
+			@Override
+			public ImportTableDescriptor getByTableName(@NonNull final String tableName)
+			{
+				return importTableDescriptor;
+			}
+		});
+	}
+
+	@Test
+	public void parallelImport_sameResultAsSequentialImport()
+	{
+		final ImportRunResult sequentialResult = importAll(1);
+
+		init();
+		final ImportRunResult parallelResult = importAll(4);
+
+		assertThat(parallelResult).isEqualTo(sequentialResult);
+
+		// guard against a test that compares nothing
+		assertThat(sequentialResult.getRows()).hasSize(7);
+		assertThat(sequentialResult.getRows()).filteredOn(ImportRowResult::isImported).hasSize(6);
+		assertThat(sequentialResult.getCountBPartners()).isEqualTo(6); // G0001..G0005 + the existing one
+	}
+
+	/**
+	 * Creates and imports the test lines, with a chunk size of one, so that a chunk boundary is tried between every two lines.
+	 */
+	private ImportRunResult importAll(final int parallelThreads)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(ImportProcessTemplate.SYSCONFIG_ParallelImportThreads, parallelThreads, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(ImportProcessTemplate.SYSCONFIG_ParallelImportChunkSize, 1, ClientId.SYSTEM, OrgId.ANY);
+
+		final I_C_BPartner existingBPartner = newInstance(I_C_BPartner.class);
+		existingBPartner.setValue("existing");
+		existingBPartner.setName("existing");
+		saveRecord(existingBPartner);
+
+		final I_I_BPartner lineWithOtherBPartner = importLine("G0002", "FN3", "LN3");
+		lineWithOtherBPartner.setC_BPartner_ID(existingBPartner.getC_BPartner_ID());
+		saveRecord(lineWithOtherBPartner);
+
+		// ordered like BPartnerImportProcess.getImportOrderBySql() would order them
+		final ImmutableList<I_I_BPartner> lines = ImmutableList.of(
+				importLine("G0001", "FN1", "LN1"),
+				importLine("G0001", "FN2", "LN2"),
+				importLine("G0002", "FN4", "LN4"),
+				lineWithOtherBPartner, // same BPValue as previous line but not same BPartner linked => error
+				importLine("G0003", "FN5", "LN5"),
+				importLine("G0004", "FN6", "LN6"),
+				importLine("G0005", "FN7", "LN7"));
+
+		final ImportProcessResult result = newImportProcess(lines).run();
+
+		final IBPartnerDAO bpartnersRepo = Services.get(IBPartnerDAO.class);
+		final ImmutableList<ImportRowResult> rows = lines.stream()
+				.map(line -> new ImportRowResult(
+						line.getBPValue(),
+						line.isI_IsImported(),
+						line.getI_ErrorMsg(),
+						line.getC_BPartner_ID() > 0 ? bpartnersRepo.getById(BPartnerId.ofRepoId(line.getC_BPartner_ID())).getValue() : null))
+				.collect(ImmutableList.toImmutableList());
+
+		return new ImportRunResult(
+				rows,
+				Services.get(IQueryBL.class).createQueryBuilder(I_C_BPartner.class).create().count(),
+				result.getCountImportRecordsConsidered().orElse(-1),
+				result.getCountInsertsIntoTargetTable().orElse(-1),
+				result.getCountUpdatesIntoTargetTable().orElse(-1));
+	}
+
+	private I_I_BPartner importLine(final String bpValue, final String firstName, final String lastName)
+	{
+		return IBPartnerFactory.builder()
+				.ctx(ctx)
+				.value(bpValue)
+				.groupValue("Standard")
+				.language("de_CH")
+				.firstName(firstName).lastName(lastName)
+				.shipToContact(true).billToContact(false)
+				.address1("street " + firstName).city("Berlin").region("").countryCode("DE")
+				.shipToDefaultAddress(false).billToDefaultAddress(true)
+				.build();
+	}
+
+	private BPartnerImportProcess newImportProcess(final List<I_I_BPartner> lines)
+	{
+		final BPartnerImportProcess importProcess = new BPartnerImportProcess()
+		{
+			@Override
+			protected void updateAndValidateImportRecords()
+			{
+				// the lines are already complete; the SQL based validation can't run in unit test mode
+			}
+
+			@Override
+			protected void resetStandardColumns()
+			{
+				// the SQL based reset can't run in unit test mode
+			}
+
+			@Override
+			protected Iterator<I_I_BPartner> retrieveRecordsToImport()
+			{
+				return lines.iterator();
+			}
+
+			@Override
+			protected ExecutorService createParallelImportExecutor(final int parallelThreads)
+			{
+				return MoreExecutors.newDirectExecutorService();
+			}
+
+			@Override
+			protected void markAsError(
+					@NonNull final ImportGroup<I_I_BPartner> importGroup,
+					@NonNull final Throwable exception)
+			{
+				for (final I_I_BPartner importRecord : importGroup.getImportRecords())
+				{
+					importRecord.setI_IsImported(false);
+					importRecord.setI_ErrorMsg(AdempiereException.extractMessage(exception));
+					saveRecord(importRecord);
+				}
+			}
+		};
+
+		importProcess.setCtx(ctx);
+		return importProcess;
+	}
+
+	@Value
+	private static class ImportRunResult
+	{
+		List<ImportRowResult> rows;
+		int countBPartners;
+
+		int countImportRecordsConsidered;
+		int countInserts;
+		int countUpdates;
+	}
+
+	@Value
+	private static class ImportRowResult
+	{
+		String bpValue;
+		boolean imported;
+		String errorMsg;
+		String bpartnerValue;
+	}
+}
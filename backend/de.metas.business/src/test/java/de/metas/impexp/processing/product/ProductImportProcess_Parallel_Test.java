@@ -0,0 +1,202 @@
+package de.metas.impexp.processing.product;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.table.api.AdTableId;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.I_I_Product;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
+import org.eevolution.model.I_PP_Product_Planning;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import de.metas.impexp.format.ImportTableDescriptor;
+import de.metas.impexp.format.ImportTableDescriptorRepository;
+import de.metas.impexp.processing.DBFunctions;
+import de.metas.impexp.processing.DBFunctionsRepository;
+import de.metas.impexp.processing.ImportProcessResult;
+import de.metas.impexp.processing.ImportProcessTemplate;
+import de.metas.organization.OrgId;
+import de.metas.product.IProductPlanningSchemaBL;
+import de.metas.product.impl.ProductPlanningSchemaBL;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Makes sure that the sequential product import creates the default product plannings after each line, like it always did,
+ * and that the parallel import creates them once, after all lines were imported.
+ * <p>
+ * The chunks are imported by a direct executor, because the in-memory database is not thread safe.
+ */
+public class ProductImportProcess_Parallel_Test
+{
+	private Properties ctx;
+
+	/** how many products existed each time the default product plannings were created */
+	private final List<Integer> productsCountOnCreateDefaultProductPlannings = new ArrayList<>();
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		ctx = Env.getCtx();
+
+		productsCountOnCreateDefaultProductPlannings.clear();
+		Services.registerService(IProductPlanningSchemaBL.class, new ProductPlanningSchemaBL()
+		{
+			@Override
+			public List<I_PP_Product_Planning> createDefaultProductPlanningsForAllProducts()
+			{
+				productsCountOnCreateDefaultProductPlannings.add(Services.get(IQueryBL.class).createQueryBuilder(I_M_Product.class).create().count());
+				return ImmutableList.of();
+			}
+		});
+
+		SpringContextHolder.registerJUnitBean(DBFunctionsRepository.class, new DBFunctionsRepository()
+		{
+			@Override
+			public DBFunctions retrieveByTableName(@NonNull final String tableName)
+			{
+				return DBFunctions.builder().tableName(tableName).build();
+			}
+		});
+
+		final ImportTableDescriptor importTableDescriptor = ImportTableDescriptor.builder()
+				.tableName(I_I_Product.Table_Name)
+				.keyColumnName(I_I_Product.COLUMNNAME_I_Product_ID)
+				.build();
+		SpringContextHolder.registerJUnitBean(ImportTableDescriptorRepository.class, new ImportTableDescriptorRepository()
+		{
+			@Override
+			public ImportTableDescriptor getByTableId(final AdTableId adTableId)
+			{
+				return importTableDescriptor;
+			}
+
+			@Override
+			public ImportTableDescriptor getByTableName(@NonNull final String tableName)
+			{
+				return importTableDescriptor;
+			}
+		});
+	}
+
+	@Test
+	public void sequentialImport_createsDefaultProductPlanningsAfterEachLine()
+	{
+		final ImportProcessResult result = importAll(1);
+
+		assertThat(result.getCountInsertsIntoTargetTable().orElse(-1)).isEqualTo(3);
+		assertThat(productsCountOnCreateDefaultProductPlannings).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void parallelImport_createsDefaultProductPlanningsOnceAfterImport()
+	{
+		final ImportProcessResult result = importAll(4);
+
+		assertThat(result.getCountInsertsIntoTargetTable().orElse(-1)).isEqualTo(3);
+		assertThat(productsCountOnCreateDefaultProductPlannings).containsExactly(3);
+	}
+
+	/**
+	 * Creates and imports the test lines, with a chunk size of one.
+	 */
+	private ImportProcessResult importAll(final int parallelThreads)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(ImportProcessTemplate.SYSCONFIG_ParallelImportThreads, parallelThreads, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(ImportProcessTemplate.SYSCONFIG_ParallelImportChunkSize, 1, ClientId.SYSTEM, OrgId.ANY);
+
+		final ImmutableList<I_I_Product> lines = ImmutableList.of(
+				importLine("P1"),
+				importLine("P2"),
+				importLine("P3"));
+
+		final ImportProcessResult result = newImportProcess(lines).run();
+
+		assertThat(lines).allMatch(I_I_Product::isI_IsImported);
+		assertThat(lines).allMatch(line -> line.getM_Product_ID() > 0);
+		return result;
+	}
+
+	private I_I_Product importLine(final String value)
+	{
+		final I_I_Product line = newInstance(I_I_Product.class);
+		line.setValue(value);
+		line.setName(value);
+		saveRecord(line);
+		return line;
+	}
+
+	private ProductImportProcess newImportProcess(final List<I_I_Product> lines)
+	{
+		final ProductImportProcess importProcess = new ProductImportProcess()
+		{
+			@Override
+			protected void updateAndValidateImportRecords()
+			{
+				// the lines are already complete; the SQL based validation can't run in unit test mode
+			}
+
+			@Override
+			protected void resetStandardColumns()
+			{
+				// the SQL based reset can't run in unit test mode
+			}
+
+			@Override
+			protected Iterator<I_I_Product> retrieveRecordsToImport()
+			{
+				return lines.iterator();
+			}
+
+			@Override
+			protected ExecutorService createParallelImportExecutor(final int parallelThreads)
+			{
+				return MoreExecutors.newDirectExecutorService();
+			}
+		};
+
+		importProcess.setCtx(ctx);
+		return importProcess;
+	}
+}
@@ -1,19 +1,28 @@
 package de.metas.pricing.service.impl;
 
+import static org.adempiere.model.InterfaceWrapperHelper.load;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.model.I_C_UOM;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.adempiere.model.I_M_Product;
 import de.metas.pricing.IEditablePricingContext;
 import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -95,4 +104,28 @@ public class PricingTest
 			Assert.assertThat("Bio PriceStd\n" + result, result.getPriceStd(), Matchers.comparesEqualTo(BigDecimal.valueOf(3)));
 		}
 	}
+
+	@Test
+	public void test_calculatePrices_sameResultsAsCalculatePrice()
+	{
+		helper.newProductPriceBuilder()
+				.setPrice(5)
+				.build();
+
+		final I_M_Product productWithoutPrice = helper.createProduct("ProductWithoutPrice", load(helper.getDefaultProduct().getC_UOM_ID(), I_C_UOM.class));
+
+		final IEditablePricingContext pricingCtx1 = helper.createPricingContext();
+		final IEditablePricingContext pricingCtx2 = helper.createPricingContext();
+		pricingCtx2.setProductId(ProductId.ofRepoId(productWithoutPrice.getM_Product_ID()));
+
+		final List<IPricingResult> results = Services.get(IPricingBL.class).calculatePrices(ImmutableList.of(pricingCtx1, pricingCtx2));
+		assertThat(results).hasSize(2);
+
+		assertThat(results.get(0).isCalculated()).isTrue();
+		assertThat(results.get(0).getPriceStd()).isEqualByComparingTo(helper.calculatePrice(pricingCtx1).getPriceStd());
+		assertThat(results.get(0).getPriceStd()).isEqualByComparingTo("5");
+
+		assertThat(results.get(1).isCalculated()).isFalse();
+		assertThat(results.get(1).isCalculated()).isEqualTo(helper.calculatePrice(pricingCtx2).isCalculated());
+	}
 }
@@ -82,6 +82,11 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 
 	private IterateResultHandlerSupport handlerSupport = new IterateResultHandlerSupport();
 
+	/**
+	 * Set by {@link SetBasedRecordCrawler} which does not invoke the handlers for each record.
+	 */
+	private boolean signaledToStop = false;
+
 	public CreatePartitionIterateResult(
 			final Iterator<WorkQueue> initialQueue,
 			final IContextAware ctxAware)
@@ -224,6 +229,26 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 		return queueItemsToProcess.removeFirst();
 	}
 
+	/**
+	 * Removes all items from this instance's queue and returns them, without loading their records and without adding them to this instance.
+	 * <p>
+	 * Intended for {@link SetBasedRecordCrawler} which loads and processes the queue's records in bulk and also takes care of the queue items that are stored as {@link de.metas.dlm.model.I_DLM_Partition_Workqueue} records.
+	 */
+	/* package */ List<WorkQueue> drainQueue()
+	{
+		final List<WorkQueue> result = new ArrayList<>();
+		iterator.forEachRemaining(result::add);
+		result.addAll(queueItemsToProcess);
+		queueItemsToProcess.clear();
+
+		return result;
+	}
+
+	/* package */ void signalStop()
+	{
+		signaledToStop = true;
+	}
+
 	@Override
 	public List<WorkQueue> getQueueRecordsToStore()
 	{
@@ -260,7 +285,7 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 	@Override
 	public boolean isHandlerSignaledToStop()
 	{
-		return handlerSupport.isHandlerSignaledToStop();
+		return signaledToStop || handlerSupport.isHandlerSignaledToStop();
 	}
 
 	@Override
@@ -92,6 +92,8 @@ public class PartitionerService implements IPartitionerService
 
 	private final transient Logger logger = LogManager.getLogger(getClass());
 
+	private final SetBasedRecordCrawler setBasedRecordCrawler = new SetBasedRecordCrawler();
+
 	@Override
 	public List<Partition> createPartition(final CreatePartitionRequest request)
 	{
@@ -508,6 +510,12 @@ public class PartitionerService implements IPartitionerService
 	{
 		final PlainContextAware ctxAware = PlainContextAware.newWithThreadInheritedTrx(Env.getCtx());
 
+		if (setBasedRecordCrawler.isApplicable(initialResult))
+		{
+			setBasedRecordCrawler.crawlAndStore(config, initialResult, ctxAware);
+			return initialResult;
+		}
+
 		final IRecordCrawlerService recordCrawlerService = Services.get(IRecordCrawlerService.class);
 
 		final IIterateResult result = recordCrawlerService.crawl(
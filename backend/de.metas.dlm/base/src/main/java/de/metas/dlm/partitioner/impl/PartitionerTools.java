@@ -6,15 +6,22 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.model.PlainContextAware;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
+import org.slf4j.Logger;
 
+import ch.qos.logback.classic.Level;
+import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition.WorkQueue;
 import de.metas.dlm.model.IDLMAware;
+import de.metas.dlm.model.I_DLM_Partition;
 import de.metas.dlm.model.I_DLM_Partition_Workqueue;
+import de.metas.logging.LogManager;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 
 /*
@@ -41,6 +48,8 @@ import de.metas.util.Services;
 
 public class PartitionerTools
 {
+	private static final transient Logger logger = LogManager.getLogger(PartitionerTools.class);
+
 	// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(records)
 	public static void dumpHistogram(final Map<String, Set<ITableRecordReference>> result)
 	{
@@ -93,4 +102,41 @@ public class PartitionerTools
 			}
 		};
 	}
+
+	/**
+	 * Moves all records and {@link I_DLM_Partition_Workqueue} records of the given {@code dlmPartitionId} to the given {@code targetDlmPartitionId} and deletes the then empty partition.
+	 */
+	public static void mergePartition(final IContextAware ctxAware, final int dlmPartitionId, final int targetDlmPartitionId)
+	{
+		Services.get(IDLMService.class).directUpdateDLMColumn(ctxAware, dlmPartitionId, IDLMAware.COLUMNNAME_DLM_Partition_ID, targetDlmPartitionId);
+
+		// reassign DLM_Partition_Workqueue records
+		Services.get(IQueryBL.class).createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
+				.addEqualsFilter(I_DLM_Partition_Workqueue.COLUMN_DLM_Partition_ID, dlmPartitionId)
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_ID, targetDlmPartitionId)
+				.execute();
+
+		// we know that the partitition with dlmPartitionId is now empty, so let's delete it
+		final I_DLM_Partition emptyPartitionDB = InterfaceWrapperHelper.create(ctxAware.getCtx(), dlmPartitionId, I_DLM_Partition.class, ctxAware.getTrxName());
+		if (emptyPartitionDB != null)
+		{
+			InterfaceWrapperHelper.delete(emptyPartitionDB);
+		}
+		Loggables.withLogger(logger, Level.INFO).addLog("Deleted DLM_Partition_ID={} after merge with DLM_Partition_ID={}", dlmPartitionId, targetDlmPartitionId);
+	}
+
+	/**
+	 * @return the given partition's size as computed by {@link IDLMService#updatePartitionSize(I_DLM_Partition)}, or zero if there is no such partition
+	 */
+	public static int getPartitionSize(final IContextAware ctxAware, final int dlmPartitionId)
+	{
+		final I_DLM_Partition partitionDB = InterfaceWrapperHelper.create(ctxAware.getCtx(), dlmPartitionId, I_DLM_Partition.class, ctxAware.getTrxName());
+		if (partitionDB == null)
+		{
+			return 0; // guard against NPE
+		}
+		return partitionDB.getPartitionSize();
+	}
 }
@@ -29,7 +29,6 @@ import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
 import de.metas.dlm.migrator.IMigratorService;
 import de.metas.dlm.model.IDLMAware;
-import de.metas.dlm.model.I_DLM_Partition;
 import de.metas.dlm.model.I_DLM_Partition_Workqueue;
 import de.metas.dlm.partitioner.IIterateResult;
 import de.metas.dlm.partitioner.IIterateResultHandler.AddResult;
@@ -362,7 +361,7 @@ public class RecordCrawlerService implements IRecordCrawlerService
 
 			// commpares dlmPartitionIds by the size of there respective DLM_Partition records
 			final Comparator<Integer> c = Comparator
-					.comparing(dlmPartitionId -> getPartitionSize(ctxAware, dlmPartitionId));
+					.comparing(dlmPartitionId -> PartitionerTools.getPartitionSize(ctxAware, dlmPartitionId));
 
 			final Optional<Integer> firstKeyIfAny = keySet
 					.stream()
@@ -405,25 +404,7 @@ public class RecordCrawlerService implements IRecordCrawlerService
 					.filter(dlmPartitionId -> dlmPartitionId > 0)
 
 					// for each partition ID, update the records that reference it to now reference "our" partittion
-					.forEach(dlmPartitionId -> {
-						dlmService.directUpdateDLMColumn(ctxAware, dlmPartitionId, IDLMAware.COLUMNNAME_DLM_Partition_ID, firstKey);
-
-						// reassign DLM_Partition_Workqueue records
-						queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
-								.addEqualsFilter(I_DLM_Partition_Workqueue.COLUMN_DLM_Partition_ID, dlmPartitionId)
-								.create()
-								.updateDirectly()
-								.addSetColumnValue(I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_ID, firstKey)
-								.execute();
-
-						// we know that the partitition with dlmPartitionId is now empty, so let's delete it
-						final I_DLM_Partition emptyPartitionDB = InterfaceWrapperHelper.create(ctxAware.getCtx(), dlmPartitionId, I_DLM_Partition.class, ctxAware.getTrxName());
-						if (emptyPartitionDB != null)
-						{
-							InterfaceWrapperHelper.delete(emptyPartitionDB);
-						}
-						Loggables.withLogger(logger, Level.INFO).addLog("Deleted DLM_Partition_ID={} after merge with DLM_Partition_ID={}", dlmPartitionId, firstKey);
-					});
+					.forEach(dlmPartitionId -> PartitionerTools.mergePartition(ctxAware, dlmPartitionId, firstKey));
 		}
 
 		// store and delete DLM_Partition_Workqueue records according to the records we processed and the records we newly added since the last time this method was called.
@@ -467,14 +448,4 @@ public class RecordCrawlerService implements IRecordCrawlerService
 		result.clearAfterPartitionStored(storedPartition);
 	}
 
-	private int getPartitionSize(final IContextAware ctxAware, Integer dlmPartitionId)
-	{
-		final I_DLM_Partition partitionDB = InterfaceWrapperHelper.create(ctxAware.getCtx(), dlmPartitionId, I_DLM_Partition.class, ctxAware.getTrxName());
-		if (partitionDB == null)
-		{
-			return 0; // guard against NPE
-		}
-		return partitionDB.getPartitionSize();
-	}
-
 }
@@ -0,0 +1,690 @@
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.dlm.partitioner.impl;
+
+import ch.qos.logback.classic.Level;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import de.metas.adempiere.service.IColumnBL;
+import de.metas.dlm.IDLMService;
+import de.metas.dlm.Partition;
+import de.metas.dlm.Partition.WorkQueue;
+import de.metas.dlm.migrator.IMigratorService;
+import de.metas.dlm.model.IDLMAware;
+import de.metas.dlm.model.I_DLM_Partition;
+import de.metas.dlm.model.I_DLM_Partition_Workqueue;
+import de.metas.dlm.partitioner.IIterateResultHandler;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+import de.metas.dlm.partitioner.config.PartitionerConfigLine;
+import de.metas.dlm.partitioner.config.PartitionerConfigReference;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IContextAware;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.compiere.util.TrxRunnable;
+import org.slf4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Alternative to {@link RecordCrawlerService} which expands a partition table by table instead of record by record.
+ * <p>
+ * For the current frontier of each table, it selects the records that are referenced by resp. are referencing the frontier's records with one SQL per {@link PartitionerConfigReference} and chunk of IDs.
+ * The IDs that were already visited are kept in one {@link SparseIdSet} per table; at the end, the {@code DLM_Partition_ID} is assigned with one UPDATE per table and chunk of IDs,
+ * and the number of records per second is logged for each table.
+ * <p>
+ * Note that it does not invoke the {@link IIterateResultHandler}s for each record, because they would load each record.
+ * Instead it checks the found records for the mix of sales, purchase and HU records that {@link SalesPurchaseWatchDog} is about in bulk,
+ * so it's only applicable if no other handlers are registered.
+ */
+/* package */ class SetBasedRecordCrawler
+{
+	private static final String SYSCONFIG_ENABLED = "de.metas.dlm.partitioner.impl.SetBasedRecordCrawler.enabled";
+
+	/**
+	 * Max number of IDs per {@code IN (...)} list. The IDs are embedded into the SQL, so we are not bound by the JDBC driver's max number of parameters,
+	 * but we still don't want to send overly large statements.
+	 */
+	@VisibleForTesting
+	static final int CHUNK_SIZE = 10000;
+
+	private final transient Logger logger = LogManager.getLogger(getClass());
+
+	public boolean isApplicable(final CreatePartitionIterateResult result)
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return false; // we need a real database for our SQLs
+		}
+		if (!Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ENABLED, false))
+		{
+			return false;
+		}
+		return result.getRegisteredHandlers().stream().allMatch(handler -> handler instanceof SalesPurchaseWatchDog);
+	}
+
+	/**
+	 * Crawls from the records of the given {@code result}'s queue, stores the partition and updates the found records' {@code DLM_Partition_ID}s.
+	 * <p>
+	 * If the records which were found do not fit together, then nothing is stored and {@link CreatePartitionIterateResult#isHandlerSignaledToStop()} will return {@code true}.
+	 * Otherwise, {@link CreatePartitionIterateResult#getPartition()} will return the stored and complete partition.
+	 */
+	public void crawlAndStore(
+			final PartitionConfig config,
+			final CreatePartitionIterateResult result,
+			final IContextAware ctxAware)
+	{
+		final List<WorkQueue> initialQueue = result.drainQueue();
+
+		final Crawl crawl = crawl(config, initialQueue, ctxAware);
+		if (crawl.isStopped())
+		{
+			result.signalStop();
+			return;
+		}
+
+		Services.get(ITrxManager.class).runInNewTrx((TrxRunnable)localTrxName -> {
+			final Partition storedPartition = store(
+					config,
+					result.getPartition(),
+					crawl,
+					initialQueue,
+					PlainContextAware.newWithTrxName(ctxAware.getCtx(), localTrxName));
+			result.clearAfterPartitionStored(storedPartition);
+		});
+
+		crawl.logStats();
+	}
+
+	/**
+	 * Crawls from the records of the given {@code initialQueue}, but doesn't store anything.
+	 */
+	@VisibleForTesting
+	Crawl crawl(
+			final PartitionConfig config,
+			final List<WorkQueue> initialQueue,
+			final IContextAware ctxAware)
+	{
+		final Crawl crawl = new Crawl(config, createRecordsRetriever(ctxAware));
+		crawl.run(initialQueue);
+		return crawl;
+	}
+
+	@VisibleForTesting
+	RecordsRetriever createRecordsRetriever(final IContextAware ctxAware)
+	{
+		return new SqlRecordsRetriever(ctxAware);
+	}
+
+	private Partition store(
+			final PartitionConfig config,
+			final Partition resultPartition,
+			final Crawl crawl,
+			final List<WorkQueue> initialQueue,
+			final IContextAware ctxAware)
+	{
+		final IDLMService dlmService = Services.get(IDLMService.class);
+
+		// as in RecordCrawlerService, keep the biggest already existing partition and merge all others into it
+		final Set<Integer> dlmPartitionIds = new HashSet<>(crawl.getDlmPartitionIds());
+		if (resultPartition.getDLM_Partition_ID() > 0)
+		{
+			dlmPartitionIds.add(resultPartition.getDLM_Partition_ID());
+		}
+
+		final Optional<Integer> biggestDlmPartitionId = dlmPartitionIds.stream()
+				.max(Comparator.comparing(dlmPartitionId -> PartitionerTools.getPartitionSize(ctxAware, dlmPartitionId)));
+
+		final Partition partitionToStore = resultPartition
+				.withConfig(config)
+				.withComplete(true);
+
+		final Partition storedPartition;
+		if (biggestDlmPartitionId.isPresent())
+		{
+			storedPartition = dlmService.storePartition(
+					partitionToStore
+							.withDLM_Partition_ID(biggestDlmPartitionId.get())
+							.withTargetDLMLevel(IMigratorService.DLM_Level_NOT_SET)
+							.withNextInspectionDate(null),
+					false); // runInOwnTrx=false because we are already running in our own transaction
+		}
+		else
+		{
+			storedPartition = dlmService.storePartition(partitionToStore, false);
+		}
+		final int targetDlmPartitionId = storedPartition.getDLM_Partition_ID();
+
+		dlmPartitionIds.stream()
+				.filter(dlmPartitionId -> dlmPartitionId != targetDlmPartitionId)
+				.forEach(dlmPartitionId -> PartitionerTools.mergePartition(ctxAware, dlmPartitionId, targetDlmPartitionId));
+
+		crawl.updateDLMPartitionIds(targetDlmPartitionId, ctxAware);
+
+		deleteQueueRecords(initialQueue, ctxAware);
+
+		final I_DLM_Partition partitionDB = InterfaceWrapperHelper.create(ctxAware.getCtx(), targetDlmPartitionId, I_DLM_Partition.class, ctxAware.getTrxName());
+		dlmService.updatePartitionSize(partitionDB);
+
+		return storedPartition;
+	}
+
+	private void deleteQueueRecords(final List<WorkQueue> queue, final IContextAware ctxAware)
+	{
+		final List<Integer> queueRecordIds = new ArrayList<>();
+		for (final WorkQueue queueItem : queue)
+		{
+			if (queueItem.getDLM_Partition_Workqueue_ID() > 0)
+			{
+				queueRecordIds.add(queueItem.getDLM_Partition_Workqueue_ID());
+			}
+		}
+
+		int deletedSum = 0;
+		for (final List<Integer> chunk : Lists.partition(queueRecordIds, CHUNK_SIZE))
+		{
+			deletedSum += Services.get(IQueryBL.class).createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
+					.addInArrayFilter(I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID, chunk)
+					.create()
+					.deleteDirectly();
+		}
+		logger.debug("Deleted {} DLM_Partition_Workqueue records", deletedSum);
+	}
+
+	/**
+	 * The state of one breadth-first search, where each step processes the whole frontier, table by table.
+	 */
+	@VisibleForTesting
+	final class Crawl
+	{
+		private final IColumnBL columnBL = Services.get(IColumnBL.class);
+
+		private final PartitionConfig config;
+		private final RecordsRetriever recordsRetriever;
+
+		/** all records we found, including those which already belong to another partition */
+		private final Map<String, SparseIdSet> tableName2VisitedIds = new LinkedHashMap<>();
+
+		/** the records we found which don't yet belong to any partition; these are the ones we need to update */
+		private final Map<String, SparseIdSet> tableName2UnpartitionedIds = new LinkedHashMap<>();
+
+		/** the records we crawl from in the current step */
+		private Map<String, SparseIdSet> tableName2FrontierIds = new LinkedHashMap<>();
+
+		/** the records we found in the current step and which don't yet belong to any partition, so we need to crawl from them in the next step */
+		private Map<String, SparseIdSet> tableName2NextFrontierIds = new LinkedHashMap<>();
+
+		/** the records we found in the current step, including those which already belong to another partition */
+		private Map<String, SparseIdSet> tableName2NewlyVisitedIds = new LinkedHashMap<>();
+
+		/** the partitions of the records we found, which need to be merged into one partition */
+		private final Set<Integer> dlmPartitionIds = new TreeSet<>();
+
+		private final Map<String, TableStats> tableName2Stats = new LinkedHashMap<>();
+
+		private boolean hasSalesRecords = false;
+		private boolean hasPurchaseRecords = false;
+		private boolean hasHURecords = false;
+		private boolean stopped = false;
+
+		private Crawl(final PartitionConfig config, final RecordsRetriever recordsRetriever)
+		{
+			this.config = config;
+			this.recordsRetriever = recordsRetriever;
+		}
+
+		public void run(final List<WorkQueue> initialQueue)
+		{
+			// crawl from all the initial records, also from those which already belong to a partition
+			final Map<String, SparseIdSet> tableName2InitialIds = new LinkedHashMap<>();
+			for (final WorkQueue queueItem : initialQueue)
+			{
+				final ITableRecordReference tableRecordReference = queueItem.getTableRecordReference();
+				tableName2InitialIds
+						.computeIfAbsent(tableRecordReference.getTableName(), k -> new SparseIdSet())
+						.add(tableRecordReference.getRecord_ID());
+			}
+			tableName2InitialIds.forEach((tableName, ids) -> retrieveAndAdd(
+					tableName,
+					true,
+					recordConsumer -> recordsRetriever.retrieveRecords(tableName, ids, recordConsumer)));
+			checkNewlyVisitedRecordsFitTogether();
+
+			while (!tableName2FrontierIds.isEmpty() && !stopped)
+			{
+				tableName2FrontierIds.forEach(this::crawlFrom);
+				checkNewlyVisitedRecordsFitTogether();
+
+				tableName2FrontierIds = tableName2NextFrontierIds;
+				tableName2NextFrontierIds = new LinkedHashMap<>();
+			}
+
+			final int visitedCount = tableName2VisitedIds.values().stream().mapToInt(SparseIdSet::size).sum();
+			logger.info("Found {} records via config.name={}; stopped={}", visitedCount, config.getName(), stopped);
+		}
+
+		public boolean isStopped()
+		{
+			return stopped;
+		}
+
+		public Set<Integer> getDlmPartitionIds()
+		{
+			return dlmPartitionIds;
+		}
+
+		/**
+		 * @return all records we found, including those which already belong to another partition
+		 */
+		@VisibleForTesting
+		Set<ITableRecordReference> getVisitedRecords()
+		{
+			return toTableRecordReferences(tableName2VisitedIds);
+		}
+
+		/**
+		 * @return the records we found which don't yet belong to any partition
+		 */
+		@VisibleForTesting
+		Set<ITableRecordReference> getUnpartitionedRecords()
+		{
+			return toTableRecordReferences(tableName2UnpartitionedIds);
+		}
+
+		private void crawlFrom(final String tableName, final SparseIdSet ids)
+		{
+			// look FORWARD, i.e. select the records which are referenced by the current table's frontier records
+			final Optional<PartitionerConfigLine> line = config.getLine(tableName);
+			if (line.isPresent())
+			{
+				for (final PartitionerConfigReference forwardRef : line.get().getReferences())
+				{
+					if (forwardRef.isPartitionBoundary())
+					{
+						continue; // don't follow it
+					}
+
+					retrieveAndAdd(
+							forwardRef.getReferencedTableName(),
+							false,
+							recordConsumer -> recordsRetriever.retrieveReferencedRecords(tableName, ids, forwardRef, recordConsumer));
+				}
+			}
+
+			// look BACKWARD, i.e. select the records which reference the current table's frontier records
+			for (final PartitionerConfigReference backwardRef : config.getReferences(tableName))
+			{
+				if (backwardRef.isPartitionBoundary())
+				{
+					continue;
+				}
+
+				retrieveAndAdd(
+						backwardRef.getParent().getTableName(),
+						false,
+						recordConsumer -> recordsRetriever.retrieveReferencingRecords(tableName, ids, backwardRef, recordConsumer));
+			}
+		}
+
+		/**
+		 * Invokes the given retrieval, which shall pass the records' IDs and {@code DLM_Partition_ID}s to its consumer, and adds the records which we did not yet visit.
+		 *
+		 * @param tableName the table of the records which are retrieved
+		 * @param crawlFromPartitioned if {@code true}, then also records that already belong to a partition are added to the next frontier.
+		 */
+		private void retrieveAndAdd(
+				final String tableName,
+				final boolean crawlFromPartitioned,
+				final Consumer<RecordConsumer> retrieval)
+		{
+			final SparseIdSet visitedIds = tableName2VisitedIds.computeIfAbsent(tableName, k -> new SparseIdSet());
+			final TableStats stats = tableName2Stats.computeIfAbsent(tableName, k -> new TableStats());
+			final long startNanos = System.nanoTime();
+
+			retrieval.accept((id, dlmPartitionId) -> {
+				if (id <= 0 || !visitedIds.add(id))
+				{
+					return;
+				}
+				tableName2NewlyVisitedIds.computeIfAbsent(tableName, k -> new SparseIdSet()).add(id);
+				stats.found++;
+
+				if (dlmPartitionId > 0)
+				{
+					// the record marks the "border" to an already existing partition; that partition will be merged with ours
+					dlmPartitionIds.add(dlmPartitionId);
+				}
+				else
+				{
+					tableName2UnpartitionedIds.computeIfAbsent(tableName, k -> new SparseIdSet()).add(id);
+				}
+
+				if (dlmPartitionId <= 0 || crawlFromPartitioned)
+				{
+					final Map<String, SparseIdSet> frontier = crawlFromPartitioned ? tableName2FrontierIds : tableName2NextFrontierIds;
+					frontier.computeIfAbsent(tableName, k -> new SparseIdSet()).add(id);
+				}
+			});
+
+			stats.crawlNanos += System.nanoTime() - startNanos;
+		}
+
+		/**
+		 * Bulk-variant of {@link SalesPurchaseWatchDog}: stops the crawl if sales, purchase and HU records were added to the same partition.
+		 */
+		private void checkNewlyVisitedRecordsFitTogether()
+		{
+			final Map<String, SparseIdSet> tableName2Ids = tableName2NewlyVisitedIds;
+			tableName2NewlyVisitedIds = new LinkedHashMap<>();
+
+			for (final Map.Entry<String, SparseIdSet> tableNameAndIds : tableName2Ids.entrySet())
+			{
+				final String tableName = tableNameAndIds.getKey();
+				if (tableName.startsWith("M_HU") && !tableName.startsWith("M_HU_Assign"))
+				{
+					hasHURecords = true;
+				}
+				else
+				{
+					final String soTrxValues = recordsRetriever.retrieveSOTrxValues(tableName, tableNameAndIds.getValue());
+					hasSalesRecords = hasSalesRecords || soTrxValues.contains("Y");
+					hasPurchaseRecords = hasPurchaseRecords || soTrxValues.contains("N");
+				}
+
+				final int kindsCount = (hasSalesRecords ? 1 : 0) + (hasPurchaseRecords ? 1 : 0) + (hasHURecords ? 1 : 0);
+				if (kindsCount > 1)
+				{
+					Loggables.withLogger(logger, Level.WARN).addLog("Records which do not fit together were found when crawling table {} via config.name={}; stopping now.\n"
+							+ "sales records: {}; purchase records: {}; HU-records: {}",
+							tableName, config.getName(), hasSalesRecords, hasPurchaseRecords, hasHURecords);
+					stopped = true;
+					return;
+				}
+			}
+		}
+
+		public void updateDLMPartitionIds(final int dlmPartitionId, final IContextAware localCtxAware)
+		{
+			tableName2UnpartitionedIds.forEach((tableName, ids) -> {
+				final String keyColumnName = columnBL.getSingleKeyColumn(tableName);
+				final TableStats stats = tableName2Stats.computeIfAbsent(tableName, k -> new TableStats());
+				final long startNanos = System.nanoTime();
+
+				forEachChunk(ids, idsSql -> {
+					final String sql = "UPDATE " + tableName
+							+ " SET " + IDLMAware.COLUMNNAME_DLM_Partition_ID + " = ?"
+							+ " WHERE " + keyColumnName + " IN " + idsSql
+							+ " AND " + IDLMAware.COLUMNNAME_DLM_Partition_ID + " IS NULL"; // don't take away records which were added to another partition meanwhile
+					stats.updated += DB.executeUpdateEx(sql, new Object[] { dlmPartitionId }, localCtxAware.getTrxName());
+				});
+
+				stats.updateNanos += System.nanoTime() - startNanos;
+				logger.debug("Table {}: updated {} record(s) to {}={} (but not yet committed!)", tableName, stats.updated, IDLMAware.COLUMNNAME_DLM_Partition_ID, dlmPartitionId);
+			});
+		}
+
+		public void logStats()
+		{
+			tableName2Stats.forEach((tableName, stats) -> Loggables.withLogger(logger, Level.INFO).addLog(
+					"Table {}: found {} records in {}ms ({} records/s); updated {} records in {}ms ({} records/s)",
+					tableName,
+					stats.found, TimeUnit.NANOSECONDS.toMillis(stats.crawlNanos), recordsPerSecond(stats.found, stats.crawlNanos),
+					stats.updated, TimeUnit.NANOSECONDS.toMillis(stats.updateNanos), recordsPerSecond(stats.updated, stats.updateNanos)));
+		}
+	}
+
+	@FunctionalInterface
+	@VisibleForTesting
+	interface RecordConsumer
+	{
+		void accept(int id, int dlmPartitionId);
+	}
+
+	/**
+	 * Retrieves records' IDs and {@code DLM_Partition_ID}s for a {@link Crawl}. Records might be passed to the consumer more than once.
+	 */
+	@VisibleForTesting
+	interface RecordsRetriever
+	{
+		/** Retrieves the given records of the given table. */
+		void retrieveRecords(String tableName, SparseIdSet ids, RecordConsumer recordConsumer);
+
+		/** Retrieves the records which are referenced by the given records of the given table via the given {@code forwardRef}. */
+		void retrieveReferencedRecords(String tableName, SparseIdSet ids, PartitionerConfigReference forwardRef, RecordConsumer recordConsumer);
+
+		/** Retrieves the records which reference the given records of the given table via the given {@code backwardRef}. */
+		void retrieveReferencingRecords(String tableName, SparseIdSet ids, PartitionerConfigReference backwardRef, RecordConsumer recordConsumer);
+
+		/**
+		 * @return the given records' {@code IsSOTrx} resp. {@code SOTrx} values, i.e. a string that contains {@code Y} if there are sales records and {@code N} if there are purchase records.
+		 *         Empty if the table has no such column.
+		 */
+		String retrieveSOTrxValues(String tableName, SparseIdSet ids);
+	}
+
+	/**
+	 * Selects the records with one SQL per chunk of IDs.
+	 */
+	private static final class SqlRecordsRetriever implements RecordsRetriever
+	{
+		private final IColumnBL columnBL = Services.get(IColumnBL.class);
+		private final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+
+		private final IContextAware ctxAware;
+
+		private SqlRecordsRetriever(final IContextAware ctxAware)
+		{
+			this.ctxAware = ctxAware;
+		}
+
+		@Override
+		public void retrieveRecords(final String tableName, final SparseIdSet ids, final RecordConsumer recordConsumer)
+		{
+			final String keyColumnName = columnBL.getSingleKeyColumn(tableName);
+			forEachChunk(ids, idsSql -> {
+				final String sql = "SELECT s." + keyColumnName + ", s." + IDLMAware.COLUMNNAME_DLM_Partition_ID
+						+ " FROM " + tableName + " s"
+						+ " WHERE s." + keyColumnName + " IN " + idsSql;
+				retrieve(sql, recordConsumer);
+			});
+		}
+
+		@Override
+		public void retrieveReferencedRecords(final String tableName, final SparseIdSet ids, final PartitionerConfigReference forwardRef, final RecordConsumer recordConsumer)
+		{
+			final String keyColumnName = columnBL.getSingleKeyColumn(tableName);
+			final String forwardTableName = forwardRef.getReferencedTableName();
+			final String forwardKeyColumnName = columnBL.getSingleKeyColumn(forwardTableName);
+			final String forwardColumnName = forwardRef.getReferencingColumnName();
+
+			final String whereTableId = mkWhereTableId("s", tableName, forwardColumnName, forwardTableName);
+
+			forEachChunk(ids, idsSql -> {
+				final String sql = "SELECT DISTINCT t." + forwardKeyColumnName + ", t." + IDLMAware.COLUMNNAME_DLM_Partition_ID
+						+ " FROM " + tableName + " s"
+						+ " INNER JOIN " + forwardTableName + " t ON t." + forwardKeyColumnName + " = s." + forwardColumnName
+						+ " WHERE s." + keyColumnName + " IN " + idsSql
+						+ whereTableId;
+				retrieve(sql, recordConsumer);
+			});
+		}
+
+		@Override
+		public void retrieveReferencingRecords(final String tableName, final SparseIdSet ids, final PartitionerConfigReference backwardRef, final RecordConsumer recordConsumer)
+		{
+			final String backwardTableName = backwardRef.getParent().getTableName();
+			final String backwardKeyColumnName = columnBL.getSingleKeyColumn(backwardTableName);
+			final String backwardColumnName = backwardRef.getReferencingColumnName();
+
+			final String whereTableId = mkWhereTableId("s", backwardTableName, backwardColumnName, tableName);
+
+			forEachChunk(ids, idsSql -> {
+				final String sql = "SELECT s." + backwardKeyColumnName + ", s." + IDLMAware.COLUMNNAME_DLM_Partition_ID
+						+ " FROM " + backwardTableName + " s"
+						+ " WHERE s." + backwardColumnName + " IN " + idsSql
+						+ whereTableId;
+				retrieve(sql, recordConsumer);
+			});
+		}
+
+		@Override
+		public String retrieveSOTrxValues(final String tableName, final SparseIdSet ids)
+		{
+			final String soTrxColumnName = adTableDAO.hasColumnName(tableName, "IsSOTrx") ? "IsSOTrx"
+					: adTableDAO.hasColumnName(tableName, "SOTrx") ? "SOTrx"
+							: null;
+			if (soTrxColumnName == null)
+			{
+				return "";
+			}
+
+			final String keyColumnName = columnBL.getSingleKeyColumn(tableName);
+			final StringBuilder soTrxValues = new StringBuilder();
+			forEachChunk(ids, idsSql -> {
+				final String sql = "SELECT string_agg(DISTINCT " + soTrxColumnName + "::text, '') FROM " + tableName + " WHERE " + keyColumnName + " IN " + idsSql;
+				final String chunkSOTrxValues = DB.getSQLValueStringEx(ctxAware.getTrxName(), sql);
+				if (chunkSOTrxValues != null)
+				{
+					soTrxValues.append(chunkSOTrxValues);
+				}
+			});
+			return soTrxValues.toString();
+		}
+
+		/**
+		 * If we have a case of AD_Table_ID/Record_ID, then we need to make sure to only follow the references which point to the given {@code referencedTableName}.
+		 */
+		private String mkWhereTableId(
+				final String alias,
+				final String referencingTableName,
+				final String referencingColumnName,
+				final String referencedTableName)
+		{
+			if (!columnBL.isRecordIdColumnName(referencingColumnName))
+			{
+				return "";
+			}
+
+			final String tableIdColumnName = columnBL.getTableIdColumnName(referencingTableName, referencingColumnName)
+					.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", referencingTableName, referencingColumnName));
+			final int referencedTableId = adTableDAO.retrieveTableId(referencedTableName);
+
+			return " AND " + alias + "." + tableIdColumnName + " = " + referencedTableId;
+		}
+
+		/**
+		 * Runs the given SQL, which shall select the records' IDs and {@code DLM_Partition_ID}s.
+		 */
+		private void retrieve(final String sql, final RecordConsumer recordConsumer)
+		{
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ctxAware.getTrxName());
+				rs = pstmt.executeQuery();
+				while (rs.next())
+				{
+					recordConsumer.accept(rs.getInt(1), rs.getInt(2));
+				}
+			}
+			catch (final SQLException e)
+			{
+				throw new DBException(e, sql);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+	}
+
+	private static final class TableStats
+	{
+		private int found = 0;
+		private long crawlNanos = 0;
+		private int updated = 0;
+		private long updateNanos = 0;
+	}
+
+	private static long recordsPerSecond(final int records, final long nanos)
+	{
+		return nanos > 0 ? records * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+	}
+
+	private static Set<ITableRecordReference> toTableRecordReferences(final Map<String, SparseIdSet> tableName2Ids)
+	{
+		final Set<ITableRecordReference> records = new HashSet<>();
+		tableName2Ids.forEach((tableName, ids) -> ids.forEach(id -> records.add(TableRecordReference.of(tableName, id))));
+		return records;
+	}
+
+	/**
+	 * Invokes the given consumer with {@code (id1,id2,...)} SQL lists of at most {@link #CHUNK_SIZE} of the given IDs each.
+	 */
+	@VisibleForTesting
+	static void forEachChunk(final SparseIdSet ids, final Consumer<String> idsSqlConsumer)
+	{
+		final StringBuilder idsSql = new StringBuilder();
+		final int[] idsCount = { 0 };
+		ids.forEach(id -> {
+			idsSql.append(idsCount[0] == 0 ? "(" : ",").append(id);
+			idsCount[0]++;
+			if (idsCount[0] >= CHUNK_SIZE)
+			{
+				idsSqlConsumer.accept(idsSql.append(")").toString());
+				idsSql.setLength(0);
+				idsCount[0] = 0;
+			}
+		});
+		if (idsCount[0] > 0)
+		{
+			idsSqlConsumer.accept(idsSql.append(")").toString());
+		}
+	}
+}
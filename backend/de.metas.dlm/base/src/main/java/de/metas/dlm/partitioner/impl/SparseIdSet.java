@@ -0,0 +1,214 @@
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.dlm.partitioner.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import de.metas.util.Check;
+
+/**
+ * Set of non-negative record IDs, as used by {@link SetBasedRecordCrawler}.
+ * <p>
+ * Unlike a {@link java.util.BitSet}, whose size depends on the biggest ID, the memory needed depends on the number of IDs.
+ * Like in a roaring bitmap, the IDs are grouped by their upper 16 bits.
+ * Each group is a sorted array of the lower 16 bits while it contains at most {@value #ARRAY_MAX_SIZE} IDs, and a bitmap of 8KB afterwards.
+ */
+/* package */ final class SparseIdSet
+{
+	private static final int ARRAY_MAX_SIZE = 4096;
+	private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+	private final TreeMap<Integer, Container> high2container = new TreeMap<>();
+	private int size = 0;
+
+	public static SparseIdSet of(final int... ids)
+	{
+		final SparseIdSet result = new SparseIdSet();
+		for (final int id : ids)
+		{
+			result.add(id);
+		}
+		return result;
+	}
+
+	/**
+	 * @return {@code true} if the given ID was not yet contained
+	 */
+	public boolean add(final int id)
+	{
+		Check.assume(id >= 0, "id={} shall not be negative", id);
+
+		final boolean added = high2container.computeIfAbsent(id >>> 16, k -> new Container()).add((char)id);
+		if (added)
+		{
+			size++;
+		}
+		return added;
+	}
+
+	public boolean contains(final int id)
+	{
+		if (id < 0)
+		{
+			return false;
+		}
+
+		final Container container = high2container.get(id >>> 16);
+		return container != null && container.contains((char)id);
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Invokes the given action for each ID, in ascending order.
+	 */
+	public void forEach(final IntConsumer action)
+	{
+		for (final Map.Entry<Integer, Container> highAndContainer : high2container.entrySet())
+		{
+			highAndContainer.getValue().forEach(highAndContainer.getKey() << 16, action);
+		}
+	}
+
+	/**
+	 * @return the IDs, in ascending order
+	 */
+	public IntStream stream()
+	{
+		final IntStream.Builder ids = IntStream.builder();
+		forEach(ids);
+		return ids.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SparseIdSet[size=" + size + "]";
+	}
+
+	/**
+	 * The lower 16 bits of the IDs which share the same upper 16 bits.
+	 */
+	private static final class Container
+	{
+		/** sorted lower bits, as long as there are at most {@link #ARRAY_MAX_SIZE} */
+		private char[] array = new char[4];
+
+		/** one bit per lower bits value, once there are more than {@link #ARRAY_MAX_SIZE} */
+		private long[] bitmap = null;
+
+		private int cardinality = 0;
+
+		public boolean contains(final char low)
+		{
+			if (bitmap != null)
+			{
+				return (bitmap[low >>> 6] & (1L << low)) != 0;
+			}
+			return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+		}
+
+		public boolean add(final char low)
+		{
+			if (bitmap != null)
+			{
+				final int wordIndex = low >>> 6;
+				final long mask = 1L << low;
+				if ((bitmap[wordIndex] & mask) != 0)
+				{
+					return false;
+				}
+				bitmap[wordIndex] |= mask;
+				cardinality++;
+				return true;
+			}
+
+			final int index = Arrays.binarySearch(array, 0, cardinality, low);
+			if (index >= 0)
+			{
+				return false;
+			}
+			if (cardinality >= ARRAY_MAX_SIZE)
+			{
+				convertToBitmap();
+				return add(low);
+			}
+
+			final int insertionIndex = -index - 1;
+			if (cardinality == array.length)
+			{
+				array = Arrays.copyOf(array, Math.min(array.length * 2, ARRAY_MAX_SIZE));
+			}
+			System.arraycopy(array, insertionIndex, array, insertionIndex + 1, cardinality - insertionIndex);
+			array[insertionIndex] = low;
+			cardinality++;
+			return true;
+		}
+
+		private void convertToBitmap()
+		{
+			bitmap = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; i++)
+			{
+				final char low = array[i];
+				bitmap[low >>> 6] |= 1L << low;
+			}
+			array = null;
+		}
+
+		public void forEach(final int high, final IntConsumer action)
+		{
+			if (bitmap != null)
+			{
+				for (int wordIndex = 0; wordIndex < bitmap.length; wordIndex++)
+				{
+					long word = bitmap[wordIndex];
+					while (word != 0)
+					{
+						action.accept(high | wordIndex << 6 | Long.numberOfTrailingZeros(word));
+						word &= word - 1; // clear the lowest set bit
+					}
+				}
+			}
+			else
+			{
+				for (int i = 0; i < cardinality; i++)
+				{
+					action.accept(high | array[i]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package de.metas.dlm.partitioner.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IContextAware;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_AD_Element;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.model.I_C_Payment;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.dlm.Partition;
+import de.metas.dlm.Partition.WorkQueue;
+import de.metas.dlm.model.IDLMAware;
+import de.metas.dlm.partitioner.PartitionRequestFactory;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+import de.metas.dlm.partitioner.config.PartitionerConfigReference;
+import de.metas.dlm.partitioner.impl.SetBasedRecordCrawler.Crawl;
+import de.metas.dlm.partitioner.impl.SetBasedRecordCrawler.RecordConsumer;
+import de.metas.dlm.partitioner.impl.SetBasedRecordCrawler.RecordsRetriever;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests {@link SetBasedRecordCrawler} with a {@link RecordsRetriever} that works on the in-memory database instead of the real one's SQL.
+ */
+public class SetBasedRecordCrawlerTests
+{
+	private IContextAware ctxAware;
+
+	private final SetBasedRecordCrawler crawler = new SetBasedRecordCrawler()
+	{
+		@Override
+		RecordsRetriever createRecordsRetriever(final IContextAware ctxAware)
+		{
+			return new PlainRecordsRetriever(ctxAware);
+		}
+	};
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		ctxAware = PlainContextAware.newOutOfTrx(Env.getCtx());
+
+		// create two AD_Elements required by the IDLMService implementation
+		for (final String columnName : ImmutableList.of(IDLMAware.COLUMNNAME_DLM_Level, IDLMAware.COLUMNNAME_DLM_Partition_ID))
+		{
+			final I_AD_Element element = InterfaceWrapperHelper.newInstance(I_AD_Element.class);
+			element.setColumnName(columnName);
+			InterfaceWrapperHelper.save(element);
+		}
+	}
+
+	@Test
+	public void forEachChunk_noIds()
+	{
+		assertThat(chunksOf(new SparseIdSet())).isEmpty();
+	}
+
+	@Test
+	public void forEachChunk_exactlyOneChunk()
+	{
+		final SparseIdSet ids = idsInRange(1, SetBasedRecordCrawler.CHUNK_SIZE + 1);
+
+		final List<String> chunks = chunksOf(ids);
+
+		assertThat(chunks).hasSize(1);
+		assertThat(chunks.get(0)).startsWith("(1,2,").endsWith("," + SetBasedRecordCrawler.CHUNK_SIZE + ")");
+		assertThat(idsOf(chunks)).containsExactlyElementsOf(ids.stream().boxed().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void forEachChunk_oneMoreThanOneChunk()
+	{
+		final SparseIdSet ids = idsInRange(1, SetBasedRecordCrawler.CHUNK_SIZE + 1);
+		ids.add(SetBasedRecordCrawler.CHUNK_SIZE + 10);
+
+		final List<String> chunks = chunksOf(ids);
+
+		assertThat(chunks).hasSize(2);
+		assertThat(chunks.get(0).split(",")).hasSize(SetBasedRecordCrawler.CHUNK_SIZE);
+		assertThat(chunks.get(1)).isEqualTo("(" + (SetBasedRecordCrawler.CHUNK_SIZE + 10) + ")");
+		assertThat(idsOf(chunks)).containsExactlyElementsOf(ids.stream().boxed().collect(Collectors.toList()));
+	}
+
+	private static SparseIdSet idsInRange(final int fromInclusive, final int toExclusive)
+	{
+		final SparseIdSet ids = new SparseIdSet();
+		for (int id = fromInclusive; id < toExclusive; id++)
+		{
+			ids.add(id);
+		}
+		return ids;
+	}
+
+	private static List<String> chunksOf(final SparseIdSet ids)
+	{
+		final List<String> chunks = new ArrayList<>();
+		SetBasedRecordCrawler.forEachChunk(ids, chunks::add);
+		return chunks;
+	}
+
+	private static List<Integer> idsOf(final List<String> chunks)
+	{
+		final List<Integer> ids = new ArrayList<>();
+		for (final String chunk : chunks)
+		{
+			assertThat(chunk).startsWith("(").endsWith(")");
+			for (final String id : chunk.substring(1, chunk.length() - 1).split(","))
+			{
+				ids.add(Integer.parseInt(id));
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * The initial records are crawled from even if they already belong to a partition, but their partition is remembered for merging.
+	 */
+	@Test
+	public void crawlFromPartitionedInitialRecord()
+	{
+		final PartitionConfig config = PartitionConfig.builder()
+				.line(I_C_Invoice.Table_Name)
+				.ref().setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).setReferencedTableName(I_C_Order.Table_Name).endRef()
+				.endLine().build();
+
+		final I_C_Order order = newOrder();
+		setDLM_Partition_ID(order, 10);
+		final I_C_Invoice invoice = newInvoice(order);
+
+		final Crawl crawl = crawler.crawl(config, initialQueue(order), ctxAware);
+
+		assertThat(crawl.isStopped()).isFalse();
+		assertThat(crawl.getVisitedRecords()).containsExactlyInAnyOrder(ref(order), ref(invoice));
+		assertThat(crawl.getUnpartitionedRecords()).containsExactly(ref(invoice));
+		assertThat(crawl.getDlmPartitionIds()).containsExactly(10);
+	}
+
+	/**
+	 * A record which is found later and already belongs to a partition is the "border" to that partition; we don't crawl from it.
+	 */
+	@Test
+	public void dontCrawlFromPartitionedRecordFoundLater()
+	{
+		final PartitionConfig config = PartitionConfig.builder()
+				.line(I_C_Invoice.Table_Name)
+				.ref().setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).setReferencedTableName(I_C_Order.Table_Name).endRef()
+				.line(I_C_Payment.Table_Name)
+				.ref().setReferencingColumnName(I_C_Payment.COLUMNNAME_C_Invoice_ID).setReferencedTableName(I_C_Invoice.Table_Name).endRef()
+				.endLine().build();
+
+		final I_C_Order order = newOrder();
+		final I_C_Invoice invoice = newInvoice(order);
+		setDLM_Partition_ID(invoice, 20);
+		newPayment(invoice);
+
+		final Crawl crawl = crawler.crawl(config, initialQueue(order), ctxAware);
+
+		assertThat(crawl.isStopped()).isFalse();
+		assertThat(crawl.getVisitedRecords()).containsExactlyInAnyOrder(ref(order), ref(invoice));
+		assertThat(crawl.getUnpartitionedRecords()).containsExactly(ref(order));
+		assertThat(crawl.getDlmPartitionIds()).containsExactly(20);
+	}
+
+	@Test
+	public void stopOnSalesAndPurchaseRecords()
+	{
+		final PartitionConfig config = PartitionConfig.builder()
+				.line(I_C_Invoice.Table_Name)
+				.ref().setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).setReferencedTableName(I_C_Order.Table_Name).endRef()
+				.line(I_C_Payment.Table_Name)
+				.ref().setReferencingColumnName(I_C_Payment.COLUMNNAME_C_Invoice_ID).setReferencedTableName(I_C_Invoice.Table_Name).endRef()
+				.endLine().build();
+
+		final I_C_Order salesOrder = newOrder();
+		salesOrder.setIsSOTrx(true);
+		InterfaceWrapperHelper.save(salesOrder);
+
+		final I_C_Invoice purchaseInvoice = newInvoice(salesOrder);
+		purchaseInvoice.setIsSOTrx(false);
+		InterfaceWrapperHelper.save(purchaseInvoice);
+
+		newPayment(purchaseInvoice);
+
+		final Crawl crawl = crawler.crawl(config, initialQueue(salesOrder), ctxAware);
+
+		assertThat(crawl.isStopped()).isTrue();
+		assertThat(crawl.getVisitedRecords()).as("stopped before crawling from the purchase invoice").containsExactlyInAnyOrder(ref(salesOrder), ref(purchaseInvoice));
+	}
+
+	@Test
+	public void dontStopOnSalesRecordsOnly()
+	{
+		final PartitionConfig config = PartitionConfig.builder()
+				.line(I_C_Invoice.Table_Name)
+				.ref().setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).setReferencedTableName(I_C_Order.Table_Name).endRef()
+				.endLine().build();
+
+		final I_C_Order salesOrder = newOrder();
+		salesOrder.setIsSOTrx(true);
+		InterfaceWrapperHelper.save(salesOrder);
+
+		final I_C_Invoice salesInvoice = newInvoice(salesOrder);
+		salesInvoice.setIsSOTrx(true);
+		InterfaceWrapperHelper.save(salesInvoice);
+
+		final Crawl crawl = crawler.crawl(config, initialQueue(salesOrder), ctxAware);
+
+		assertThat(crawl.isStopped()).isFalse();
+		assertThat(crawl.getVisitedRecords()).containsExactlyInAnyOrder(ref(salesOrder), ref(salesInvoice));
+	}
+
+	/**
+	 * Crawls forward and backward over some steps and makes sure that {@link RecordCrawlerService} finds the same records.
+	 */
+	@Test
+	public void sameRecordsAsRecordCrawlerService()
+	{
+		final PartitionConfig config = PartitionConfig.builder()
+
+				// invoice -> order
+				.line(I_C_Invoice.Table_Name)
+				.ref().setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).setReferencedTableName(I_C_Order.Table_Name).endRef()
+
+				// orderLine -> order
+				.line(I_C_OrderLine.Table_Name)
+				.ref().setReferencingColumnName(I_C_OrderLine.COLUMNNAME_C_Order_ID).setReferencedTableName(I_C_Order.Table_Name).endRef()
+
+				// payment -> invoice
+				.line(I_C_Payment.Table_Name)
+				.ref().setReferencingColumnName(I_C_Payment.COLUMNNAME_C_Invoice_ID).setReferencedTableName(I_C_Invoice.Table_Name).endRef()
+
+				.endLine().build();
+
+		final I_C_Order order = newOrder();
+		newOrderLine(order);
+		newOrderLine(order);
+		final I_C_Invoice invoice1 = newInvoice(order);
+		final I_C_Invoice invoice2 = newInvoice(order);
+		newPayment(invoice2);
+
+		// an unrelated order with an invoice, which shall not end up in the partition
+		final I_C_Order otherOrder = newOrder();
+		newInvoice(otherOrder);
+
+		// crawl first, because RecordCrawlerService stores the partition
+		final Set<ITableRecordReference> setBasedRecords = crawler.crawl(config, initialQueue(invoice1), ctxAware).getVisitedRecords();
+
+		final List<Partition> partitions = new PartitionerService().createPartition0(PartitionRequestFactory.builder().setConfig(config).build());
+		final Set<ITableRecordReference> recordCrawlerServiceRecords = partitions.stream()
+				.map(Partition::getRecordsFlat)
+				.filter(records -> records.contains(ref(invoice1)))
+				.flatMap(List::stream)
+				.collect(ImmutableSet.toImmutableSet());
+
+		assertThat(setBasedRecords).hasSize(6); // guard against a test that compares nothing
+		assertThat(setBasedRecords).isEqualTo(recordCrawlerServiceRecords);
+	}
+
+	private List<WorkQueue> initialQueue(final Object model)
+	{
+		return ImmutableList.of(WorkQueue.of(ref(model)));
+	}
+
+	private static TableRecordReference ref(final Object model)
+	{
+		return TableRecordReference.of(model);
+	}
+
+	private static void setDLM_Partition_ID(final Object model, final int dlmPartitionId)
+	{
+		final IDLMAware dlmAware = InterfaceWrapperHelper.create(model, IDLMAware.class);
+		dlmAware.setDLM_Partition_ID(dlmPartitionId);
+		InterfaceWrapperHelper.save(dlmAware);
+	}
+
+	private static I_C_Order newOrder()
+	{
+		final I_C_Order order = InterfaceWrapperHelper.newInstance(I_C_Order.class);
+		InterfaceWrapperHelper.save(order);
+		return order;
+	}
+
+	private static I_C_OrderLine newOrderLine(final I_C_Order order)
+	{
+		final I_C_OrderLine orderLine = InterfaceWrapperHelper.newInstance(I_C_OrderLine.class);
+		orderLine.setC_Order_ID(order.getC_Order_ID());
+		InterfaceWrapperHelper.save(orderLine);
+		return orderLine;
+	}
+
+	private static I_C_Invoice newInvoice(final I_C_Order order)
+	{
+		final I_C_Invoice invoice = InterfaceWrapperHelper.newInstance(I_C_Invoice.class);
+		invoice.setC_Order_ID(order.getC_Order_ID());
+		InterfaceWrapperHelper.save(invoice);
+		return invoice;
+	}
+
+	private static I_C_Payment newPayment(final I_C_Invoice invoice)
+	{
+		final I_C_Payment payment = InterfaceWrapperHelper.newInstance(I_C_Payment.class);
+		payment.setC_Invoice_ID(invoice.getC_Invoice_ID());
+		InterfaceWrapperHelper.save(payment);
+		return payment;
+	}
+
+	/**
+	 * Loads the records one by one like {@link RecordCrawlerService} does. AD_Table_ID/Record_ID references are not supported.
+	 */
+	private static class PlainRecordsRetriever implements RecordsRetriever
+	{
+		private final IContextAware ctxAware;
+
+		private PlainRecordsRetriever(final IContextAware ctxAware)
+		{
+			this.ctxAware = ctxAware;
+		}
+
+		@Override
+		public void retrieveRecords(final String tableName, final SparseIdSet ids, final RecordConsumer recordConsumer)
+		{
+			ids.forEach(id -> {
+				final IDLMAware record = load(tableName, id);
+				if (record != null)
+				{
+					recordConsumer.accept(id, record.getDLM_Partition_ID());
+				}
+			});
+		}
+
+		@Override
+		public void retrieveReferencedRecords(final String tableName, final SparseIdSet ids, final PartitionerConfigReference forwardRef, final RecordConsumer recordConsumer)
+		{
+			ids.forEach(id -> {
+				final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(load(tableName, id), forwardRef.getReferencingColumnName());
+				if (forwardKey != null && forwardKey > 0)
+				{
+					retrieveRecords(forwardRef.getReferencedTableName(), SparseIdSet.of(forwardKey), recordConsumer);
+				}
+			});
+		}
+
+		@Override
+		public void retrieveReferencingRecords(final String tableName, final SparseIdSet ids, final PartitionerConfigReference backwardRef, final RecordConsumer recordConsumer)
+		{
+			Services.get(IQueryBL.class)
+					.createQueryBuilder(IDLMAware.class, backwardRef.getParent().getTableName(), ctxAware)
+					.addInArrayFilter(backwardRef.getReferencingColumnName(), ids.stream().boxed().collect(Collectors.toList()))
+					.create()
+					.list()
+					.forEach(record -> recordConsumer.accept(InterfaceWrapperHelper.getId(record), record.getDLM_Partition_ID()));
+		}
+
+		@Override
+		public String retrieveSOTrxValues(final String tableName, final SparseIdSet ids)
+		{
+			final StringBuilder soTrxValues = new StringBuilder();
+			ids.forEach(id -> {
+				final Boolean soTrx = InterfaceWrapperHelper.getValueOrNull(load(tableName, id), "IsSOTrx");
+				if (soTrx != null)
+				{
+					soTrxValues.append(soTrx ? "Y" : "N");
+				}
+			});
+			return soTrxValues.toString();
+		}
+
+		private IDLMAware load(final String tableName, final int id)
+		{
+			return TableRecordReference.of(tableName, id).getModel(ctxAware, IDLMAware.class);
+		}
+	}
+}
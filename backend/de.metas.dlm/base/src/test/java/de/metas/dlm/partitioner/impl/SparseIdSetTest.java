@@ -0,0 +1,102 @@
+package de.metas.dlm.partitioner.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SparseIdSetTest
+{
+	@Test
+	public void empty()
+	{
+		final SparseIdSet ids = new SparseIdSet();
+
+		assertThat(ids.isEmpty()).isTrue();
+		assertThat(ids.size()).isZero();
+		assertThat(ids.contains(1)).isFalse();
+		assertThat(ids.stream()).isEmpty();
+	}
+
+	@Test
+	public void add_ascendingOrderAcrossGroups()
+	{
+		final SparseIdSet ids = SparseIdSet.of(1_000_000_000, 7, 65_536, 65_535, 0, Integer.MAX_VALUE, 7);
+
+		assertThat(ids.size()).isEqualTo(6);
+		assertThat(ids.stream()).containsExactly(0, 7, 65_535, 65_536, 1_000_000_000, Integer.MAX_VALUE);
+		assertThat(ids.contains(65_536)).isTrue();
+		assertThat(ids.contains(65_537)).isFalse();
+		assertThat(ids.contains(-1)).isFalse();
+	}
+
+	@Test
+	public void add_returnsIfAdded()
+	{
+		final SparseIdSet ids = new SparseIdSet();
+
+		assertThat(ids.add(12)).isTrue();
+		assertThat(ids.add(12)).isFalse();
+		assertThat(ids.size()).isEqualTo(1);
+	}
+
+	/**
+	 * Adds so many IDs with the same upper bits that they are switching from a sorted array to a bitmap.
+	 */
+	@Test
+	public void add_denseGroup()
+	{
+		final SparseIdSet ids = new SparseIdSet();
+		final TreeSet<Integer> expectedIds = new TreeSet<>();
+		for (int i = 0; i < 10_000; i++)
+		{
+			final int id = 3 * 65_536 + (i * 7919) % 65_536; // 7919 is prime, so all values are distinct
+			assertThat(ids.add(id)).isTrue();
+			expectedIds.add(id);
+		}
+		assertThat(ids.add(3 * 65_536)).as("already contained").isFalse();
+
+		assertThat(ids.size()).isEqualTo(10_000);
+		assertThat(ids.stream().boxed().collect(Collectors.toList())).isEqualTo(new ArrayList<>(expectedIds));
+		for (final int id : expectedIds)
+		{
+			assertThat(ids.contains(id)).isTrue();
+		}
+		assertThat(ids.contains(3 * 65_536 + 1)).isEqualTo(expectedIds.contains(3 * 65_536 + 1));
+	}
+
+	@Test
+	public void forEach()
+	{
+		final List<Integer> result = new ArrayList<>();
+		SparseIdSet.of(5, 200_000, 3).forEach(result::add);
+
+		assertThat(result).containsExactly(3, 5, 200_000);
+	}
+}
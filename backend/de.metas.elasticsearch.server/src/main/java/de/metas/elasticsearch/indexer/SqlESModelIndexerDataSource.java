@@ -49,14 +49,19 @@ public class SqlESModelIndexerDataSource implements ESModelIndexerDataSource
 	private final String sqlWhereClause;
 	private final String sqlOrderByClause;
 	private final int limit;
+	private final int fetchSize;
 
+	/**
+	 * @param fetchSize if greater than zero, the models are streamed as read-only records using a server side cursor which fetches this many rows at a time
+	 */
 	@Builder
 	private SqlESModelIndexerDataSource(
 			@NonNull final String modelTableName,
 			@NonNull final List<IESModelIndexerTrigger> triggers,
 			final String sqlWhereClause,
 			final String sqlOrderByClause,
-			final int limit)
+			final int limit,
+			final int fetchSize)
 	{
 		Check.assumeNotEmpty(triggers, "triggers is not empty");
 
@@ -65,6 +70,7 @@ public class SqlESModelIndexerDataSource implements ESModelIndexerDataSource
 		this.sqlWhereClause = sqlWhereClause;
 		this.sqlOrderByClause = sqlOrderByClause;
 		this.limit = limit;
+		this.fetchSize = fetchSize;
 	}
 
 	@Override
@@ -105,6 +111,12 @@ public class SqlESModelIndexerDataSource implements ESModelIndexerDataSource
 			query.setOrderBy(queryBL.createSqlQueryOrderBy(sqlOrderByClause));
 		}
 
+		if (fetchSize > 0)
+		{
+			query.setOption(IQuery.OPTION_ReturnReadOnlyRecords, true);
+			query.setOption(IQuery.OPTION_IteratorFetchSize, fetchSize);
+		}
+
 		//
 		// Execute query
 		return query.iterate(Object.class);
@@ -0,0 +1,113 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.util.List;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.elasticsearch.indexer.impl.ESBulkIndexer.Document;
+import de.metas.elasticsearch.indexer.impl.ESBulkIndexer.DocumentResult;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Executes bulk index requests using the elasticsearch {@link Client}.
+ * <p>
+ * Documents failed with {@link RestStatus#TOO_MANY_REQUESTS} and bulks rejected as a whole are reported as {@link DocumentResult#REJECTED}, so they will be retried.
+ */
+/* package */final class ClientESBulkExecutor implements ESBulkIndexer.ESBulkExecutor
+{
+	private static final Logger logger = LogManager.getLogger(ClientESBulkExecutor.class);
+
+	private final Client elasticsearchClient;
+	private final String indexName;
+	private final String indexType;
+
+	@Builder
+	private ClientESBulkExecutor(
+			@NonNull final Client elasticsearchClient,
+			@NonNull final String indexName,
+			@NonNull final String indexType)
+	{
+		this.elasticsearchClient = elasticsearchClient;
+		this.indexName = indexName;
+		this.indexType = indexType;
+	}
+
+	@Override
+	public List<DocumentResult> execute(@NonNull final List<Document> documents)
+	{
+		final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
+		for (final Document document : documents)
+		{
+			bulkRequest.add(elasticsearchClient.prepareIndex(indexName, indexType, document.getId())
+					.setSource(document.getSourceJson()));
+		}
+
+		final BulkResponse bulkResponse;
+		try
+		{
+			bulkResponse = bulkRequest.execute().actionGet();
+		}
+		catch (final EsRejectedExecutionException ex)
+		{
+			logger.debug("Bulk of {} documents was rejected. Will retry.", documents.size(), ex);
+			return documents.stream()
+					.map(document -> DocumentResult.REJECTED)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		final ImmutableList.Builder<DocumentResult> results = ImmutableList.builder();
+		for (final BulkItemResponse itemResponse : bulkResponse.getItems())
+		{
+			results.add(toDocumentResult(itemResponse));
+		}
+		return results.build();
+	}
+
+	private static DocumentResult toDocumentResult(@NonNull final BulkItemResponse itemResponse)
+	{
+		if (!itemResponse.isFailed())
+		{
+			return DocumentResult.OK;
+		}
+		else if (itemResponse.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS)
+		{
+			return DocumentResult.REJECTED;
+		}
+		else
+		{
+			return DocumentResult.failed(itemResponse.getFailureMessage());
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Streams documents to elasticsearch in bulks.
+ * <p>
+ * The documents are consumed from the given iterator in the caller's thread and collected into bulks which are limited by size in bytes and by number of documents.
+ * Up to <code>maxBulksInFlight</code> bulks are executed at the same time; when that limit is reached, reading further documents blocks until one of the bulks is done.
+ * Documents which were rejected by elasticsearch (e.g. because its bulk queue is full) are retried, with an exponential backoff.
+ */
+final class ESBulkIndexer
+{
+	private static final Logger logger = LogManager.getLogger(ESBulkIndexer.class);
+
+	private final ESBulkExecutor bulkExecutor;
+	private final long maxBulkBytes;
+	private final int maxBulkActions;
+	private final int maxBulksInFlight;
+	private final int maxRetries;
+	private final long retryBackoffMillis;
+	private final String threadNamePrefix;
+
+	@Builder
+	private ESBulkIndexer(
+			@NonNull final ESBulkExecutor bulkExecutor,
+			final long maxBulkBytes,
+			final int maxBulkActions,
+			final int maxBulksInFlight,
+			final int maxRetries,
+			final long retryBackoffMillis,
+			@Nullable final String threadNamePrefix)
+	{
+		Check.assumeGreaterThanZero(maxBulkBytes, "maxBulkBytes");
+		Check.assumeGreaterThanZero(maxBulkActions, "maxBulkActions");
+		Check.assumeGreaterThanZero(maxBulksInFlight, "maxBulksInFlight");
+		Check.assume(maxRetries >= 0, "maxRetries >= 0 but it was {}", maxRetries);
+
+		this.bulkExecutor = bulkExecutor;
+		this.maxBulkBytes = maxBulkBytes;
+		this.maxBulkActions = maxBulkActions;
+		this.maxBulksInFlight = maxBulksInFlight;
+		this.maxRetries = maxRetries;
+		this.retryBackoffMillis = Math.max(retryBackoffMillis, 0);
+		this.threadNamePrefix = threadNamePrefix != null ? threadNamePrefix : ESBulkIndexer.class.getSimpleName();
+	}
+
+	public ESBulkIndexerResult index(@NonNull final Iterator<Document> documents)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ESBulkIndexerResult.Collector result = ESBulkIndexerResult.collector();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				maxBulksInFlight,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(threadNamePrefix)
+						.setDaemon(true)
+						.build());
+		final Semaphore bulksInFlight = new Semaphore(maxBulksInFlight);
+		final List<Future<?>> futures = new ArrayList<>();
+		try
+		{
+			List<Document> bulk = new ArrayList<>();
+			long bulkBytes = 0;
+			while (documents.hasNext())
+			{
+				final Document document = documents.next();
+				bulk.add(document);
+				bulkBytes += document.getSizeInBytes();
+
+				if (bulk.size() >= maxBulkActions || bulkBytes >= maxBulkBytes)
+				{
+					futures.add(submitBulk(executor, bulksInFlight, bulk, result));
+					futures.removeIf(future -> future.isDone() && checkNoFailure(future));
+
+					bulk = new ArrayList<>();
+					bulkBytes = 0;
+				}
+			}
+
+			if (!bulk.isEmpty())
+			{
+				futures.add(submitBulk(executor, bulksInFlight, bulk, result));
+			}
+
+			futures.forEach(this::checkNoFailure);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return result.build(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	private Future<?> submitBulk(
+			@NonNull final ExecutorService executor,
+			@NonNull final Semaphore bulksInFlight,
+			@NonNull final List<Document> bulk,
+			@NonNull final ESBulkIndexerResult.Collector result)
+	{
+		try
+		{
+			bulksInFlight.acquire();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+
+		try
+		{
+			return executor.submit(() -> {
+				try
+				{
+					executeBulkWithRetries(bulk, result);
+				}
+				finally
+				{
+					bulksInFlight.release();
+				}
+			});
+		}
+		catch (final RuntimeException ex)
+		{
+			bulksInFlight.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Waits for the given bulk to be done.
+	 *
+	 * @return always true
+	 * @throws AdempiereException if the bulk execution failed
+	 */
+	private boolean checkNoFailure(@NonNull final Future<?> future)
+	{
+		try
+		{
+			future.get();
+			return true;
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause() != null ? ex.getCause() : ex);
+		}
+	}
+
+	private void executeBulkWithRetries(
+			@NonNull final List<Document> bulk,
+			@NonNull final ESBulkIndexerResult.Collector result)
+	{
+		List<Document> documentsToIndex = bulk;
+		for (int retry = 0; !documentsToIndex.isEmpty(); retry++)
+		{
+			if (retry > 0)
+			{
+				result.addRetried(documentsToIndex.size());
+				sleepBeforeRetry(retry);
+			}
+
+			final List<DocumentResult> documentResults = bulkExecutor.execute(documentsToIndex);
+			Check.assumeEquals(documentResults.size(), documentsToIndex.size(), "one result for each document");
+
+			final List<Document> rejectedDocuments = new ArrayList<>();
+			for (int i = 0; i < documentResults.size(); i++)
+			{
+				final Document document = documentsToIndex.get(i);
+				final DocumentResult documentResult = documentResults.get(i);
+				switch (documentResult.getStatus())
+				{
+					case OK:
+						result.addOK(document);
+						break;
+					case REJECTED:
+						rejectedDocuments.add(document);
+						break;
+					case FAILED:
+					default:
+						result.addFailed(document, documentResult.getFailureMessage());
+						break;
+				}
+			}
+
+			if (!rejectedDocuments.isEmpty() && retry >= maxRetries)
+			{
+				rejectedDocuments.forEach(document -> result.addFailed(document, "Still rejected after " + maxRetries + " retries"));
+				return;
+			}
+
+			documentsToIndex = rejectedDocuments;
+		}
+	}
+
+	private void sleepBeforeRetry(final int retry)
+	{
+		final long sleepMillis = retryBackoffMillis << Math.min(retry - 1, 16);
+		if (sleepMillis <= 0)
+		{
+			return;
+		}
+
+		logger.debug("Sleeping {}ms before retry {}", sleepMillis, retry);
+		try
+		{
+			Thread.sleep(sleepMillis);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	@FunctionalInterface
+	interface ESBulkExecutor
+	{
+		/**
+		 * @return one result for each given document, in the same order
+		 */
+		List<DocumentResult> execute(List<Document> documents);
+	}
+
+	@Value
+	static class Document
+	{
+		@NonNull
+		String id;
+		@NonNull
+		String sourceJson;
+		int sizeInBytes;
+
+		@Builder
+		private Document(@NonNull final String id, @NonNull final String sourceJson)
+		{
+			this.id = id;
+			this.sourceJson = sourceJson;
+			this.sizeInBytes = sourceJson.getBytes(StandardCharsets.UTF_8).length;
+		}
+	}
+
+	enum DocumentResultStatus
+	{
+		OK, REJECTED, FAILED
+	}
+
+	@Value
+	static class DocumentResult
+	{
+		public static final DocumentResult OK = new DocumentResult(DocumentResultStatus.OK, null);
+		public static final DocumentResult REJECTED = new DocumentResult(DocumentResultStatus.REJECTED, null);
+
+		public static DocumentResult failed(@Nullable final String failureMessage)
+		{
+			return new DocumentResult(DocumentResultStatus.FAILED, failureMessage);
+		}
+
+		@NonNull
+		DocumentResultStatus status;
+		@Nullable
+		String failureMessage;
+	}
+}
@@ -0,0 +1,193 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.elasticsearch.ElasticsearchException;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Result of {@link ESBulkIndexer#index(java.util.Iterator)}.
+ */
+/* package */final class ESBulkIndexerResult implements IESIndexerResult
+{
+	public static Collector collector()
+	{
+		return new Collector();
+	}
+
+	private static final int MAX_FAILURE_MESSAGES = 20;
+
+	private final int okCount;
+	private final int failuresCount;
+	private final int retriedCount;
+	private final long sizeInBytes;
+	private final long durationMillis;
+	private final ImmutableList<String> failureMessages;
+
+	private ESBulkIndexerResult(@NonNull final Collector collector, final long durationMillis)
+	{
+		this.okCount = collector.okCount.intValue();
+		this.failuresCount = collector.failuresCount.intValue();
+		this.retriedCount = collector.retriedCount.intValue();
+		this.sizeInBytes = collector.sizeInBytes.sum();
+		this.durationMillis = durationMillis;
+		this.failureMessages = ImmutableList.copyOf(collector.failureMessages);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getSummary();
+	}
+
+	@Override
+	public String getSummary()
+	{
+		return MoreObjects.toStringHelper(this)
+				.omitNullValues()
+				.add("TotalCount", getTotalCount())
+				.add("FailuresCount", getFailuresCount())
+				.add("RetriedCount", retriedCount > 0 ? retriedCount : null)
+				.add("ErrorMsg", hasFailures() ? getFailureMessage() : null)
+				.add("Bytes", sizeInBytes)
+				.add("Duration", durationMillis + "ms")
+				.add("DocsPerSecond", getDocsPerSecond())
+				.toString();
+	}
+
+	@Override
+	public long getDurationInMillis()
+	{
+		return durationMillis;
+	}
+
+	public long getDocsPerSecond()
+	{
+		return getTotalCount() * 1000L / Math.max(durationMillis, 1);
+	}
+
+	public int getRetriedCount()
+	{
+		return retriedCount;
+	}
+
+	@Override
+	public int getTotalCount()
+	{
+		return okCount + failuresCount;
+	}
+
+	@Override
+	public int getOKCount()
+	{
+		return okCount;
+	}
+
+	@Override
+	public int getFailuresCount()
+	{
+		return failuresCount;
+	}
+
+	@Override
+	public boolean hasFailures()
+	{
+		return failuresCount > 0;
+	}
+
+	@Override
+	public String getFailureMessage()
+	{
+		if (!hasFailures())
+		{
+			return null;
+		}
+
+		final String message = Joiner.on("\n").join(failureMessages);
+		return failuresCount > failureMessages.size()
+				? message + "\n... and " + (failuresCount - failureMessages.size()) + " more"
+				: message;
+	}
+
+	@Override
+	public void throwExceptionIfAnyFailure()
+	{
+		if (hasFailures())
+		{
+			throw new ElasticsearchException(getFailureMessage());
+		}
+	}
+
+	/**
+	 * Thread-safe collector of the outcome of each document.
+	 */
+	static final class Collector
+	{
+		private final LongAdder okCount = new LongAdder();
+		private final LongAdder failuresCount = new LongAdder();
+		private final LongAdder retriedCount = new LongAdder();
+		private final LongAdder sizeInBytes = new LongAdder();
+		private final Queue<String> failureMessages = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger failureMessagesCount = new AtomicInteger();
+
+		private Collector()
+		{
+		}
+
+		public void addOK(@NonNull final ESBulkIndexer.Document document)
+		{
+			okCount.increment();
+			sizeInBytes.add(document.getSizeInBytes());
+		}
+
+		public void addFailed(@NonNull final ESBulkIndexer.Document document, final String failureMessage)
+		{
+			failuresCount.increment();
+			if (failureMessagesCount.incrementAndGet() <= MAX_FAILURE_MESSAGES)
+			{
+				failureMessages.add(document.getId() + ": " + failureMessage);
+			}
+		}
+
+		public void addRetried(final int count)
+		{
+			retriedCount.add(count);
+		}
+
+		public ESBulkIndexerResult build(final long durationMillis)
+		{
+			return new ESBulkIndexerResult(this, durationMillis);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package de.metas.elasticsearch.indexer.impl;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,6 +14,7 @@ import javax.annotation.concurrent.Immutable;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
@@ -29,6 +31,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 
 import de.metas.elasticsearch.config.ESModelIndexerId;
 import de.metas.elasticsearch.config.ESModelIndexerProfile;
@@ -76,6 +79,20 @@ public final class ESModelIndexer implements IESModelIndexer
 {
 	// services
 	private static final transient Logger logger = LogManager.getLogger(ESModelIndexer.class);
+
+	private static final String SYSCONFIG_StreamingBulk = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.StreamingBulk";
+	private static final boolean DEFAULT_StreamingBulk = false;
+	private static final String SYSCONFIG_StreamingBulk_MaxBulkBytes = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.StreamingBulk.MaxBulkBytes";
+	private static final int DEFAULT_StreamingBulk_MaxBulkBytes = 5 * 1024 * 1024;
+	private static final String SYSCONFIG_StreamingBulk_MaxBulkActions = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.StreamingBulk.MaxBulkActions";
+	private static final int DEFAULT_StreamingBulk_MaxBulkActions = 1000;
+	private static final String SYSCONFIG_StreamingBulk_MaxBulksInFlight = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.StreamingBulk.MaxBulksInFlight";
+	private static final int DEFAULT_StreamingBulk_MaxBulksInFlight = 2;
+	private static final String SYSCONFIG_StreamingBulk_MaxRetries = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.StreamingBulk.MaxRetries";
+	private static final int DEFAULT_StreamingBulk_MaxRetries = 3;
+	private static final String SYSCONFIG_StreamingBulk_RetryBackoffMillis = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.StreamingBulk.RetryBackoffMillis";
+	private static final int DEFAULT_StreamingBulk_RetryBackoffMillis = 100;
+
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final Client elasticsearchClient;
 	private final ObjectMapper jsonObjectMapper;
@@ -376,6 +393,15 @@ public final class ESModelIndexer implements IESModelIndexer
 	}
 
 	private IndexRequestBuilder createIndexRequestForModel(final Object model)
+	{
+		final ESBulkIndexer.Document document = createDocumentForModel(model);
+
+		final IndexRequestBuilder indexRequestBuilder = elasticsearchClient.prepareIndex(getIndexName(), getIndexType(), document.getId());
+		indexRequestBuilder.setSource(document.getSourceJson());
+		return indexRequestBuilder;
+	}
+
+	private ESBulkIndexer.Document createDocumentForModel(final Object model)
 	{
 		final IESModelDenormalizer modelDenormalizer = getModelDenormalizer();
 
@@ -395,9 +421,10 @@ public final class ESModelIndexer implements IESModelIndexer
 
 			esDocumentJson = jsonObjectMapper.writeValueAsString(esDocument);
 
-			final IndexRequestBuilder indexRequestBuilder = elasticsearchClient.prepareIndex(getIndexName(), getIndexType(), esDocumentId);
-			indexRequestBuilder.setSource(esDocumentJson);
-			return indexRequestBuilder;
+			return ESBulkIndexer.Document.builder()
+					.id(esDocumentId)
+					.sourceJson(esDocumentJson)
+					.build();
 		}
 		catch (final Exception e)
 		{
@@ -431,6 +458,12 @@ public final class ESModelIndexer implements IESModelIndexer
 	@Override
 	public IESIndexerResult addToIndex(@NonNull final ESModelIndexerDataSource dataSource)
 	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (sysConfigBL.getBooleanValue(SYSCONFIG_StreamingBulk, DEFAULT_StreamingBulk))
+		{
+			return addToIndexUsingStreamingBulks(dataSource);
+		}
+
 		final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
 
 		try
@@ -463,6 +496,40 @@ public final class ESModelIndexer implements IESModelIndexer
 		}
 	}
 
+	/**
+	 * Streams the models to index in bulks, see {@link ESBulkIndexer}.
+	 */
+	private IESIndexerResult addToIndexUsingStreamingBulks(@NonNull final ESModelIndexerDataSource dataSource)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final ESBulkIndexer bulkIndexer = ESBulkIndexer.builder()
+				.bulkExecutor(ClientESBulkExecutor.builder()
+						.elasticsearchClient(elasticsearchClient)
+						.indexName(getIndexName())
+						.indexType(getIndexType())
+						.build())
+				.maxBulkBytes(sysConfigBL.getIntValue(SYSCONFIG_StreamingBulk_MaxBulkBytes, DEFAULT_StreamingBulk_MaxBulkBytes))
+				.maxBulkActions(sysConfigBL.getIntValue(SYSCONFIG_StreamingBulk_MaxBulkActions, DEFAULT_StreamingBulk_MaxBulkActions))
+				.maxBulksInFlight(sysConfigBL.getIntValue(SYSCONFIG_StreamingBulk_MaxBulksInFlight, DEFAULT_StreamingBulk_MaxBulksInFlight))
+				.maxRetries(sysConfigBL.getIntValue(SYSCONFIG_StreamingBulk_MaxRetries, DEFAULT_StreamingBulk_MaxRetries))
+				.retryBackoffMillis(sysConfigBL.getIntValue(SYSCONFIG_StreamingBulk_RetryBackoffMillis, DEFAULT_StreamingBulk_RetryBackoffMillis))
+				.threadNamePrefix("ESBulkIndexer-" + getIndexName())
+				.build();
+
+		final Iterator<Object> models = dataSource.getModelsToIndex();
+		try
+		{
+			final ESBulkIndexerResult esResponse = bulkIndexer.index(Iterators.transform(models, this::createDocumentForModel));
+
+			logger.debug("Added {}", esResponse);
+			return esResponse;
+		}
+		finally
+		{
+			IteratorUtils.closeQuietly(models);
+		}
+	}
+
 	@Override
 	public IESIndexerResult removeFromIndexByIds(final Collection<String> ids)
 	{
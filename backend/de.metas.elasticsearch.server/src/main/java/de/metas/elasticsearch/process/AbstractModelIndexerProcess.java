@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
 
 import com.google.common.base.Stopwatch;
@@ -44,6 +45,10 @@ public abstract class AbstractModelIndexerProcess extends JavaProcess
 {
 	// services
 	protected final transient IESModelIndexersRegistry modelIndexingService = Services.get(IESModelIndexersRegistry.class);
+	private final transient ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private static final String SYSCONFIG_FetchSize = "de.metas.elasticsearch.process.AbstractModelIndexerProcess.FetchSize";
+	private static final int DEFAULT_FetchSize = 0;
 
 	@Param(parameterName = "WhereClause")
 	private String p_WhereClause = null;
@@ -114,6 +119,7 @@ public abstract class AbstractModelIndexerProcess extends JavaProcess
 				.sqlWhereClause(p_WhereClause)
 				.sqlOrderByClause(p_OrderByClause)
 				.limit(p_Limit)
+				.fetchSize(sysConfigBL.getIntValue(SYSCONFIG_FetchSize, DEFAULT_FetchSize))
 				.build();
 		final IESIndexerResult result = modelIndexer.addToIndex(modelsToIndex);
 
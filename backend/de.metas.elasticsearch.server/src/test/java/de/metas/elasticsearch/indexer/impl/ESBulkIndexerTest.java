@@ -0,0 +1,159 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.elasticsearch.indexer.impl.ESBulkIndexer.Document;
+import de.metas.elasticsearch.indexer.impl.ESBulkIndexer.DocumentResult;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESBulkIndexerTest
+{
+	/**
+	 * In-process stand-in for elasticsearch: remembers the indexed documents and rejects the first attempt of documents with an even ID.
+	 */
+	private static class InMemoryBulkExecutor implements ESBulkIndexer.ESBulkExecutor
+	{
+		private final Set<String> indexedIds = ConcurrentHashMap.newKeySet();
+		private final Set<String> rejectedOnceIds = ConcurrentHashMap.newKeySet();
+		private final List<Integer> bulkSizes = Collections.synchronizedList(new ArrayList<>());
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		@Override
+		public List<DocumentResult> execute(final List<Document> documents)
+		{
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try
+			{
+				bulkSizes.add(documents.size());
+				Thread.sleep(5);
+
+				final List<DocumentResult> results = new ArrayList<>();
+				for (final Document document : documents)
+				{
+					final boolean reject = Integer.parseInt(document.getId()) % 2 == 0 && rejectedOnceIds.add(document.getId());
+					if (reject)
+					{
+						results.add(DocumentResult.REJECTED);
+					}
+					else
+					{
+						indexedIds.add(document.getId());
+						results.add(DocumentResult.OK);
+					}
+				}
+				return results;
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+			finally
+			{
+				inFlight.decrementAndGet();
+			}
+		}
+	}
+
+	private static List<Document> documents(final int count)
+	{
+		return IntStream.rangeClosed(1, count)
+				.mapToObj(id -> Document.builder().id(String.valueOf(id)).sourceJson("{\"value\":\"0123456789\"}").build())
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void indexesAllDocuments_retryingRejectedOnes()
+	{
+		final InMemoryBulkExecutor bulkExecutor = new InMemoryBulkExecutor();
+		final ESBulkIndexer bulkIndexer = ESBulkIndexer.builder()
+				.bulkExecutor(bulkExecutor)
+				.maxBulkBytes(Long.MAX_VALUE)
+				.maxBulkActions(10)
+				.maxBulksInFlight(3)
+				.maxRetries(1)
+				.retryBackoffMillis(0)
+				.build();
+
+		final ESBulkIndexerResult result = bulkIndexer.index(documents(100).iterator());
+
+		assertEquals(100, result.getTotalCount());
+		assertEquals(100, result.getOKCount());
+		assertFalse(result.hasFailures());
+		assertEquals(50, result.getRetriedCount());
+		assertEquals(100, bulkExecutor.indexedIds.size());
+		assertTrue(bulkExecutor.maxInFlight.get() <= 3, "max bulks in flight: " + bulkExecutor.maxInFlight.get());
+	}
+
+	@Test
+	public void bulksAreLimitedByBytes()
+	{
+		final List<Document> documents = documents(20);
+		final int documentSize = documents.get(0).getSizeInBytes();
+
+		final InMemoryBulkExecutor bulkExecutor = new InMemoryBulkExecutor();
+		ESBulkIndexer.builder()
+				.bulkExecutor(bulkExecutor)
+				.maxBulkBytes(documentSize * 4)
+				.maxBulkActions(1000)
+				.maxBulksInFlight(1)
+				.maxRetries(0)
+				.build()
+				.index(documents.iterator());
+
+		assertEquals(Collections.nCopies(5, 4), bulkExecutor.bulkSizes);
+	}
+
+	@Test
+	public void stillRejectedAfterMaxRetries_reportedAsFailed()
+	{
+		final ESBulkIndexer bulkIndexer = ESBulkIndexer.builder()
+				.bulkExecutor(documents -> documents.stream().map(document -> DocumentResult.REJECTED).collect(Collectors.toList()))
+				.maxBulkBytes(Long.MAX_VALUE)
+				.maxBulkActions(10)
+				.maxBulksInFlight(2)
+				.maxRetries(2)
+				.retryBackoffMillis(1)
+				.build();
+
+		final ESBulkIndexerResult result = bulkIndexer.index(documents(15).iterator());
+
+		assertEquals(15, result.getFailuresCount());
+		assertEquals(0, result.getOKCount());
+		assertEquals(30, result.getRetriedCount());
+	}
+}
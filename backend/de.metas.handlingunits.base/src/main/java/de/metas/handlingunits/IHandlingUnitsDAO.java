@@ -88,6 +88,17 @@ public interface IHandlingUnitsDAO extends ISingletonService
 
 	List<I_M_HU> getByIdsOutOfTrx(Collection<HuId> huIds);
 
+	/**
+	 * Loads the given top level HUs together with all their included HUs, HU items, storages and attributes, using a few queries per tree level instead of a few queries per HU.
+	 * <p>
+	 * The loaded records are put into the transaction level caches, so walking the HU trees afterwards (e.g. using {@link de.metas.handlingunits.impl.HUIterator}) does not hit the database anymore.
+	 * Records which are already cached in the current transaction are not replaced.
+	 * If there is no thread inherited transaction, nothing is cached.
+	 *
+	 * @return the top level HUs, ordered by M_HU_ID
+	 */
+	List<I_M_HU> retrieveAndCacheHUTrees(Collection<HuId> topLevelHuIds);
+
 	/**
 	 * Save the given {@code hu}
 	 *
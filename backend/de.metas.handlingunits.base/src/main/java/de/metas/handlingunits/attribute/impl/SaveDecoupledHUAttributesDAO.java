@@ -41,6 +41,7 @@ import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /**
  * {@link IHUAttributesDAO} implementation which acts like a save buffer:
@@ -285,6 +286,14 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 		return _hu2huAttributes.computeIfAbsent(huId, k -> loader.apply(hu));
 	}
 
+	/**
+	 * Puts the given, already loaded HU attributes into this cache, unless the HU's attributes are already cached.
+	 */
+	public synchronized void addToCacheIfAbsent(@NonNull final I_M_HU hu, @NonNull final List<I_M_HU_Attribute> huAttributes)
+	{
+		getHUAttributesMap(hu, k -> HUAttributesMap.of(huAttributes));
+	}
+
 	@Override
 	public synchronized I_M_HU_Attribute retrieveAttribute(final I_M_HU hu, final AttributeId attributeId)
 	{
@@ -463,7 +472,11 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 	{
 		public static HUAttributesMap of(final HUAndPIAttributes huAndPIAttributes)
 		{
-			final ImmutableList<I_M_HU_Attribute> huAttributesList = huAndPIAttributes.getHuAttributes();
+			return of(huAndPIAttributes.getHuAttributes());
+		}
+
+		public static HUAttributesMap of(final List<I_M_HU_Attribute> huAttributesList)
+		{
 			final HashMap<AttributeId, I_M_HU_Attribute> huAttributes = new HashMap<>(huAttributesList.size());
 			for (final I_M_HU_Attribute huAttribute : huAttributesList)
 			{
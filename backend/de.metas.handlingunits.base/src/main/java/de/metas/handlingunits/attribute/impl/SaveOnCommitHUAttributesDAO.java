@@ -1,5 +1,7 @@
 package de.metas.handlingunits.attribute.impl;
 
+import java.util.List;
+
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -103,6 +105,15 @@ public class SaveOnCommitHUAttributesDAO implements IHUAttributesDAO
 		return delegate.retrieveAttribute(hu, attributeId);
 	}
 
+	/**
+	 * @see SaveDecoupledHUAttributesDAO#addToCacheIfAbsent(I_M_HU, List)
+	 */
+	public void addToCacheIfAbsent(final I_M_HU hu, final List<I_M_HU_Attribute> huAttributes)
+	{
+		final SaveDecoupledHUAttributesDAO delegate = getDelegate(hu);
+		delegate.addToCacheIfAbsent(hu, huAttributes);
+	}
+
 	/**
 	 * @return {@link NullAutoCloseable} always
 	 */
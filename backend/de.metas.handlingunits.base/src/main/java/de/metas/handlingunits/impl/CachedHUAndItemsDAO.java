@@ -330,6 +330,47 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 		return new ArrayList<>(huItems);
 	}
 
+	/**
+	 * Puts the already loaded HU trees into this cache.
+	 * If an HU's items are already cached, that HU and its whole subtree are skipped, because the cached ones might be more recent than the given ones.
+	 */
+	public void addToCacheIfAbsent(@NonNull final HUTrees huTrees)
+	{
+		for (final I_M_HU topLevelHU : huTrees.getTopLevelHUs())
+		{
+			addToCacheIfAbsent(huTrees, topLevelHU);
+		}
+	}
+
+	private void addToCacheIfAbsent(@NonNull final HUTrees huTrees, @NonNull final I_M_HU hu)
+	{
+		final Object huKey = mkHUKey(hu);
+		if (huKey2huItems.containsKey(huKey))
+		{
+			return;
+		}
+
+		final List<I_M_HU_Item> huItems = huTrees.getItems(hu);
+		huKey2huItems.put(huKey, new ArrayList<>(huItems));
+
+		for (final I_M_HU_Item huItem : huItems)
+		{
+			final Object huItemKey = mkHUItemKey(huItem);
+			if (huItemKey2includedHUs.containsKey(huItemKey))
+			{
+				continue;
+			}
+
+			final List<I_M_HU> includedHUs = huTrees.getIncludedHUs(huItem);
+			huItemKey2includedHUs.put(huItemKey, new ArrayList<>(includedHUs));
+
+			for (final I_M_HU includedHU : includedHUs)
+			{
+				addToCacheIfAbsent(huTrees, includedHU);
+			}
+		}
+	}
+
 	@Override
 	public I_M_HU retrieveParent(final I_M_HU hu)
 	{
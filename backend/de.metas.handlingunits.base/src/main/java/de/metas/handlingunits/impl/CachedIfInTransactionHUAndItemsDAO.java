@@ -103,6 +103,24 @@ public class CachedIfInTransactionHUAndItemsDAO implements IHUAndItemsDAO
 		return trx;
 	}
 
+	/**
+	 * Puts the given HU trees into the transaction level cache.
+	 * If the HUs were not loaded in the thread inherited transaction, this method does nothing.
+	 */
+	public void addToCacheIfAbsent(@NonNull final HUTrees huTrees)
+	{
+		if (huTrees.getTopLevelHUs().isEmpty())
+		{
+			return;
+		}
+
+		final IHUAndItemsDAO delegate = getDelegate(huTrees.getTopLevelHUs().get(0));
+		if (delegate instanceof CachedHUAndItemsDAO)
+		{
+			((CachedHUAndItemsDAO)delegate).addToCacheIfAbsent(huTrees);
+		}
+	}
+
 	@Override
 	public void saveHU(final I_M_HU hu)
 	{
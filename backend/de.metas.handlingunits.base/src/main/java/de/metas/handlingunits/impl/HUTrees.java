@@ -0,0 +1,105 @@
+package de.metas.handlingunits.impl;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Some top level HUs, together with all their included HUs, HU items, storages and attributes.
+ * <p>
+ * All multimaps are indexed by the parent's ID. A parent which has no children is not contained in the respective multimap, so for it an empty list is returned.
+ *
+ * @see HUTreesLoader
+ */
+@Value
+@Builder
+/* package */ class HUTrees
+{
+	@NonNull
+	ImmutableList<I_M_HU> topLevelHUs;
+
+	/** all HUs (top level and included) */
+	@NonNull
+	ImmutableList<I_M_HU> hus;
+
+	/** all HU items */
+	@NonNull
+	ImmutableList<I_M_HU_Item> items;
+
+	/** M_HU_ID to active HU items, sorted by {@link de.metas.handlingunits.IHandlingUnitsDAO#HU_ITEMS_COMPARATOR} */
+	@NonNull
+	ImmutableListMultimap<Integer, I_M_HU_Item> itemsByHUId;
+
+	/** M_HU_Item_ID to included HUs (also the inactive ones), sorted by M_HU_ID */
+	@NonNull
+	ImmutableListMultimap<Integer, I_M_HU> includedHUsByItemId;
+
+	/** M_HU_ID to active HU storages */
+	@NonNull
+	ImmutableListMultimap<Integer, I_M_HU_Storage> storagesByHUId;
+
+	/** M_HU_Item_ID to active HU item storages, sorted by M_HU_Item_Storage_ID */
+	@NonNull
+	ImmutableListMultimap<Integer, I_M_HU_Item_Storage> itemStoragesByItemId;
+
+	/** M_HU_ID to active HU attributes */
+	@NonNull
+	ImmutableListMultimap<Integer, I_M_HU_Attribute> attributesByHUId;
+
+	public List<I_M_HU_Item> getItems(@NonNull final I_M_HU hu)
+	{
+		return itemsByHUId.get(hu.getM_HU_ID());
+	}
+
+	public List<I_M_HU> getIncludedHUs(@NonNull final I_M_HU_Item item)
+	{
+		return includedHUsByItemId.get(item.getM_HU_Item_ID());
+	}
+
+	public List<I_M_HU_Storage> getStorages(@NonNull final I_M_HU hu)
+	{
+		return storagesByHUId.get(hu.getM_HU_ID());
+	}
+
+	public List<I_M_HU_Item_Storage> getItemStorages(@NonNull final I_M_HU_Item item)
+	{
+		return itemStoragesByItemId.get(item.getM_HU_Item_ID());
+	}
+
+	public List<I_M_HU_Attribute> getAttributes(@NonNull final I_M_HU hu)
+	{
+		return attributesByHUId.get(hu.getM_HU_ID());
+	}
+}
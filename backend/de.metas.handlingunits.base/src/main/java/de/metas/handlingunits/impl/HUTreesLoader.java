@@ -0,0 +1,249 @@
+package de.metas.handlingunits.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.adempiere.ad.dao.IQueryBL;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.IHandlingUnitsDAO;
+import de.metas.handlingunits.exceptions.HUException;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Loads whole HU trees using a number of queries which depends only on the depth of the trees and not on the number of HUs.
+ * <p>
+ * The trees are loaded level by level: for each level we load the HU items of all HUs of that level with one query and then the included HUs of all those items with another query.
+ * At the end, the storages, item storages and attributes of all HUs are loaded with one query each.
+ * So for the usual LU/TU/VHU trees we need 9 queries, no matter how many TUs there are on a pallet.
+ * <p>
+ * All records are loaded in the thread inherited transaction and they are linked to their loaded parents (e.g. {@link I_M_HU_Item#getM_HU()}).
+ */
+/* package */ final class HUTreesLoader
+{
+	/** Safety net against corrupted data (i.e. cycles) */
+	private static final int MAX_DEPTH = 20;
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	public HUTrees load(@NonNull final Collection<HuId> topLevelHuIds)
+	{
+		final ImmutableList<I_M_HU> topLevelHUs = retrieveHUsByIds(topLevelHuIds);
+
+		final Map<Integer, I_M_HU> husById = new LinkedHashMap<>();
+		topLevelHUs.forEach(hu -> husById.put(hu.getM_HU_ID(), hu));
+		final List<I_M_HU_Item> allItems = new ArrayList<>();
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Item> itemsByHUId = ImmutableListMultimap.builder();
+		final ImmutableListMultimap.Builder<Integer, I_M_HU> includedHUsByItemId = ImmutableListMultimap.builder();
+
+		List<I_M_HU> currentLevelHUs = topLevelHUs;
+		for (int depth = 0; !currentLevelHUs.isEmpty(); depth++)
+		{
+			if (depth > MAX_DEPTH)
+			{
+				throw new HUException("HU trees are deeper than " + MAX_DEPTH + " levels. Check for cycles: " + topLevelHuIds);
+			}
+
+			final List<I_M_HU_Item> items = retrieveItems(currentLevelHUs);
+			allItems.addAll(items);
+			for (final I_M_HU_Item item : items)
+			{
+				final I_M_HU hu = husById.get(item.getM_HU_ID());
+				item.setM_HU(hu); // make sure item.getM_HU() will return our HU
+				itemsByHUId.put(hu.getM_HU_ID(), item);
+			}
+
+			final Map<Integer, I_M_HU_Item> itemsById = indexById(items, I_M_HU_Item::getM_HU_Item_ID);
+			final List<I_M_HU> nextLevelHUs = new ArrayList<>();
+			for (final I_M_HU includedHU : retrieveIncludedHUs(itemsById.keySet()))
+			{
+				if (husById.putIfAbsent(includedHU.getM_HU_ID(), includedHU) != null)
+				{
+					throw new HUException("HU " + includedHU.getM_HU_ID() + " was already loaded. Check for cycles: " + topLevelHuIds);
+				}
+
+				final I_M_HU_Item parentItem = itemsById.get(includedHU.getM_HU_Item_Parent_ID());
+				includedHU.setM_HU_Item_Parent(parentItem); // make sure hu.getM_HU_Item_Parent() returns our parentItem
+				includedHUsByItemId.put(parentItem.getM_HU_Item_ID(), includedHU);
+				nextLevelHUs.add(includedHU);
+			}
+
+			currentLevelHUs = nextLevelHUs;
+		}
+
+		final ImmutableList<I_M_HU> allHUs = ImmutableList.copyOf(husById.values());
+		final ImmutableSet<Integer> allHUIds = ImmutableSet.copyOf(husById.keySet());
+		final Map<Integer, I_M_HU_Item> allItemsById = indexById(allItems, I_M_HU_Item::getM_HU_Item_ID);
+
+		return HUTrees.builder()
+				.topLevelHUs(topLevelHUs)
+				.hus(allHUs)
+				.items(ImmutableList.copyOf(allItems))
+				.itemsByHUId(sortValues(itemsByHUId.build(), IHandlingUnitsDAO.HU_ITEMS_COMPARATOR))
+				.includedHUsByItemId(includedHUsByItemId.build())
+				.storagesByHUId(retrieveStorages(allHUIds, husById))
+				.itemStoragesByItemId(retrieveItemStorages(allItemsById))
+				.attributesByHUId(retrieveAttributes(allHUIds, husById))
+				.build();
+	}
+
+	private ImmutableList<I_M_HU> retrieveHUsByIds(@NonNull final Collection<HuId> huIds)
+	{
+		if (huIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return queryBL.createQueryBuilder(I_M_HU.class)
+				.addInArrayFilter(I_M_HU.COLUMNNAME_M_HU_ID, ImmutableSet.copyOf(huIds))
+				.orderBy(I_M_HU.COLUMNNAME_M_HU_ID)
+				.create()
+				.listImmutable(I_M_HU.class);
+	}
+
+	private List<I_M_HU_Item> retrieveItems(@NonNull final List<I_M_HU> hus)
+	{
+		final ImmutableSet<Integer> huIds = hus.stream().map(I_M_HU::getM_HU_ID).collect(ImmutableSet.toImmutableSet());
+		return queryBL.createQueryBuilder(I_M_HU_Item.class)
+				.addInArrayFilter(I_M_HU_Item.COLUMNNAME_M_HU_ID, huIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list();
+	}
+
+	private List<I_M_HU> retrieveIncludedHUs(@NonNull final Set<Integer> parentItemIds)
+	{
+		if (parentItemIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		// Retrieve all HUs, even if they are not active (same as IncludedHUsLocalCache does)
+		return queryBL.createQueryBuilder(I_M_HU.class)
+				.addInArrayFilter(I_M_HU.COLUMNNAME_M_HU_Item_Parent_ID, parentItemIds)
+				.orderBy(I_M_HU.COLUMNNAME_M_HU_ID)
+				.create()
+				.list();
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Storage> retrieveStorages(
+			@NonNull final Set<Integer> huIds,
+			@NonNull final Map<Integer, I_M_HU> husById)
+	{
+		if (huIds.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Storage> result = ImmutableListMultimap.builder();
+		queryBL.createQueryBuilder(I_M_HU_Storage.class)
+				.addInArrayFilter(I_M_HU_Storage.COLUMNNAME_M_HU_ID, huIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list()
+				.forEach(storage -> {
+					storage.setM_HU(husById.get(storage.getM_HU_ID()));
+					result.put(storage.getM_HU_ID(), storage);
+				});
+		return result.build();
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Item_Storage> retrieveItemStorages(@NonNull final Map<Integer, I_M_HU_Item> itemsById)
+	{
+		if (itemsById.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Item_Storage> result = ImmutableListMultimap.builder();
+		queryBL.createQueryBuilder(I_M_HU_Item_Storage.class)
+				.addInArrayFilter(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_ID, itemsById.keySet())
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_Storage_ID) // predictive order
+				.create()
+				.list()
+				.forEach(itemStorage -> {
+					itemStorage.setM_HU_Item(itemsById.get(itemStorage.getM_HU_Item_ID()));
+					result.put(itemStorage.getM_HU_Item_ID(), itemStorage);
+				});
+		return result.build();
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Attribute> retrieveAttributes(
+			@NonNull final Set<Integer> huIds,
+			@NonNull final Map<Integer, I_M_HU> husById)
+	{
+		if (huIds.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Attribute> result = ImmutableListMultimap.builder();
+		queryBL.createQueryBuilder(I_M_HU_Attribute.class)
+				.addInArrayFilter(I_M_HU_Attribute.COLUMNNAME_M_HU_ID, huIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list()
+				.forEach(huAttribute -> {
+					huAttribute.setM_HU(husById.get(huAttribute.getM_HU_ID()));
+					result.put(huAttribute.getM_HU_ID(), huAttribute);
+				});
+		return result.build();
+	}
+
+	private static <T> Map<Integer, T> indexById(@NonNull final Collection<T> models, @NonNull final Function<T, Integer> idFunction)
+	{
+		final Map<Integer, T> result = new HashMap<>(models.size());
+		models.forEach(model -> result.put(idFunction.apply(model), model));
+		return result;
+	}
+
+	private static <K, V> ImmutableListMultimap<K, V> sortValues(
+			@NonNull final ImmutableListMultimap<K, V> multimap,
+			@NonNull final Comparator<? super V> comparator)
+	{
+		final ImmutableListMultimap.Builder<K, V> result = ImmutableListMultimap.builder();
+		result.orderValuesBy(comparator);
+		result.putAll(multimap);
+		return result.build();
+	}
+}
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPartnerId;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.cache.annotation.CacheTrx;
+import de.metas.handlingunits.HUConstants;
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.HuPackingInstructionsId;
 import de.metas.handlingunits.HuPackingInstructionsItemId;
@@ -38,6 +39,7 @@ import de.metas.handlingunits.IHUContext;
 import de.metas.handlingunits.IHUQueryBuilder;
 import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.IHandlingUnitsDAO;
+import de.metas.handlingunits.attribute.impl.SaveOnCommitHUAttributesDAO;
 import de.metas.handlingunits.exceptions.HUException;
 import de.metas.handlingunits.inout.IHUPackingMaterialDAO;
 import de.metas.handlingunits.model.I_DD_NetworkDistribution;
@@ -50,6 +52,7 @@ import de.metas.handlingunits.model.I_M_HU_PackingMaterial;
 import de.metas.handlingunits.model.X_M_HU_Item;
 import de.metas.handlingunits.model.X_M_HU_PI_Item;
 import de.metas.handlingunits.reservation.HUReservationRepository;
+import de.metas.handlingunits.storage.impl.SaveOnCommitHUStorageDAO;
 import de.metas.logging.LogManager;
 import de.metas.organization.ClientAndOrgId;
 import de.metas.organization.OrgId;
@@ -64,6 +67,7 @@ import org.adempiere.ad.dao.IQueryOrderBy.Direction;
 import org.adempiere.ad.dao.IQueryOrderBy.Nulls;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IContextAware;
@@ -103,7 +107,7 @@ public class HandlingUnitsDAO implements IHandlingUnitsDAO
 {
 	private static final transient Logger logger = LogManager.getLogger(HandlingUnitsDAO.class);
 
-	private final IHUAndItemsDAO defaultHUAndItemsDAO;
+	private final CachedIfInTransactionHUAndItemsDAO defaultHUAndItemsDAO;
 
 	public HandlingUnitsDAO()
 	{
@@ -146,6 +150,41 @@ public class HandlingUnitsDAO implements IHandlingUnitsDAO
 		return loadByRepoIdAwaresOutOfTrx(ImmutableSet.copyOf(huIds), I_M_HU.class);
 	}
 
+	@Override
+	public List<I_M_HU> retrieveAndCacheHUTrees(@NonNull final Collection<HuId> topLevelHuIds)
+	{
+		final HUTrees huTrees = new HUTreesLoader().load(topLevelHuIds);
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		if (!trxManager.isNull(trxManager.getThreadInheritedTrxName()))
+		{
+			defaultHUAndItemsDAO.addToCacheIfAbsent(huTrees);
+
+			// the storages and attributes are cached only if the HU contexts are configured to use the transaction level caches (see HUContextFactory)
+			if (HUConstants.isUseCacheWhenCreatingHUs())
+			{
+				addStoragesAndAttributesToCache(huTrees);
+			}
+		}
+
+		return huTrees.getTopLevelHUs();
+	}
+
+	private static void addStoragesAndAttributesToCache(@NonNull final HUTrees huTrees)
+	{
+		final SaveOnCommitHUStorageDAO storageDAO = new SaveOnCommitHUStorageDAO();
+		final SaveOnCommitHUAttributesDAO attributesDAO = new SaveOnCommitHUAttributesDAO();
+		for (final I_M_HU hu : huTrees.getHus())
+		{
+			storageDAO.addToCacheIfAbsent(hu, huTrees.getStorages(hu));
+			attributesDAO.addToCacheIfAbsent(hu, huTrees.getAttributes(hu));
+		}
+		for (final I_M_HU_Item item : huTrees.getItems())
+		{
+			storageDAO.addToCacheIfAbsent(item, huTrees.getItemStorages(item));
+		}
+	}
+
 	@Override
 	@Cached
 	public I_M_HU_PI_Item retrievePackingItemTemplatePIItem(@CacheCtx final Properties ctx)
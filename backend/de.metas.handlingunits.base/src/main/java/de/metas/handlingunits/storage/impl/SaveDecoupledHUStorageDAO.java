@@ -178,6 +178,22 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 		return huStorages;
 	}
 
+	/**
+	 * Puts the given, already loaded HU storages into this cache, unless the HU's storages are already cached.
+	 */
+	public void addToCacheIfAbsent(@NonNull final I_M_HU hu, @NonNull final List<I_M_HU_Storage> huStoragesList)
+	{
+		_hu2storage.computeIfAbsent(mkHUKey(hu), huKey -> {
+			final Map<Object, I_M_HU_Storage> huStorages = new HashMap<>(huStoragesList.size());
+			for (final I_M_HU_Storage huStorage : huStoragesList)
+			{
+				huStorages.put(mkHUStorageKey(huStorage), huStorage);
+				setReadonly(huStorage);
+			}
+			return huStorages;
+		});
+	}
+
 	@Override
 	public void save(final I_M_HU_Storage huStorage)
 	{
@@ -229,6 +245,22 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 		return result;
 	}
 
+	/**
+	 * Puts the given, already loaded HU item storages into this cache, unless the item's storages are already cached.
+	 */
+	public void addToCacheIfAbsent(@NonNull final I_M_HU_Item item, @NonNull final List<I_M_HU_Item_Storage> huItemStoragesList)
+	{
+		_item2itemStorage.computeIfAbsent(mkHUItemKey(item), itemKey -> {
+			final Map<Object, I_M_HU_Item_Storage> huItemStorages = new HashMap<>(huItemStoragesList.size());
+			for (final I_M_HU_Item_Storage huItemStorage : huItemStoragesList)
+			{
+				huItemStorages.put(mkHUItemStorageKey(huItemStorage), huItemStorage);
+				setReadonly(huItemStorage);
+			}
+			return huItemStorages;
+		});
+	}
+
 	@Override
 	public void save(final I_M_HU_Item_Storage huItemStorage)
 	{
@@ -118,6 +118,24 @@ public class SaveOnCommitHUStorageDAO implements IHUStorageDAO
 		return delegate.retrieveStorage(hu, productId);
 	}
 
+	/**
+	 * @see SaveDecoupledHUStorageDAO#addToCacheIfAbsent(I_M_HU, List)
+	 */
+	public void addToCacheIfAbsent(final I_M_HU hu, final List<I_M_HU_Storage> huStorages)
+	{
+		final SaveDecoupledHUStorageDAO delegate = getDelegate(hu);
+		delegate.addToCacheIfAbsent(hu, huStorages);
+	}
+
+	/**
+	 * @see SaveDecoupledHUStorageDAO#addToCacheIfAbsent(I_M_HU_Item, List)
+	 */
+	public void addToCacheIfAbsent(final I_M_HU_Item item, final List<I_M_HU_Item_Storage> huItemStorages)
+	{
+		final SaveDecoupledHUStorageDAO delegate = getDelegate(item);
+		delegate.addToCacheIfAbsent(item, huItemStorages);
+	}
+
 	@Override
 	public void save(final I_M_HU_Storage storage)
 	{
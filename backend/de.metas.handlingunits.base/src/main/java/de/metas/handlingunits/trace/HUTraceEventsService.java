@@ -233,7 +233,7 @@ public class HUTraceEventsService
 			builderSetVhuProductAndQty(builder, vhu)
 					.vhuStatus(vhu.getHUStatus());
 
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 		}
 	}
 
@@ -454,11 +454,11 @@ public class HUTraceEventsService
 					.productId(productAndQty.get().getLeft())
 					.topLevelHuId(oldTopLevelHuId)
 					.qty(productAndQty.get().getRight().toBigDecimal().negate());
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 
 			builder.topLevelHuId(newTopLevelHuId)
 					.qty(productAndQty.get().getRight().toBigDecimal());
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 		}
 	}
 
@@ -523,7 +523,7 @@ public class HUTraceEventsService
 					builderSetVhuProductAndQty(builder, vhu)
 							.vhuStatus(vhu.getHUStatus());
 
-					huTraceRepository.addEvent(builder.build());
+					huTraceRepository.addEventOnCommit(builder.build());
 				}
 			}
 		}
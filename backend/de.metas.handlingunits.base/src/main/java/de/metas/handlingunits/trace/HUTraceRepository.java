@@ -3,18 +3,30 @@ package de.metas.handlingunits.trace;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.handlingunits.trace.repository.BulkInsertDbRecordsUtil;
 import de.metas.handlingunits.trace.repository.HuTraceEventToDbRecordUtil;
 import de.metas.handlingunits.trace.repository.RetrieveDbRecordsUtil;
 import de.metas.logging.LogManager;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -43,6 +55,11 @@ public class HUTraceRepository
 {
 	private static final Logger logger = LogManager.getLogger(HUTraceRepository.class);
 
+	@VisibleForTesting
+	static final String SYSCONFIG_BULK_INSERT_ON_COMMIT = "de.metas.handlingunits.trace.HUTraceRepository.BulkInsertOnCommit";
+
+	private static final String TRX_PROPERTY_PENDING_EVENTS = HUTraceRepository.class.getName() + ".PendingEvents";
+
 	/**
 	 * Persists the given event.<br>
 	 * If an event with the same properties was already persisted earlier,
@@ -78,6 +95,71 @@ public class HUTraceRepository
 		return inserted;
 	}
 
+	/**
+	 * Like {@link #addEvent(HUTraceEvent)}, but if enabled via {@value #SYSCONFIG_BULK_INSERT_ON_COMMIT}, the event is collected
+	 * and inserted together with all other events of the current transaction, right before that transaction is committed.
+	 * <p>
+	 * Use this method if you don't need to know whether the event was actually inserted.
+	 * Without a thread-inherited transaction, the event is added immediately.
+	 *
+	 * @see BulkInsertDbRecordsUtil
+	 */
+	public void addEventOnCommit(@NonNull final HUTraceEvent huTraceEvent)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx) || !isBulkInsertOnCommit())
+		{
+			addEvent(huTraceEvent);
+			return;
+		}
+
+		final List<HUTraceEvent> pendingEvents = trx.getProperty(TRX_PROPERTY_PENDING_EVENTS, () -> {
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.BEFORE_COMMIT)
+					.invokeMethodJustOnce(false) // we need this to happen on every last single commit
+					.registerHandlingMethod(innerTrx -> {
+						final List<HUTraceEvent> innerPendingEvents = innerTrx.setProperty(TRX_PROPERTY_PENDING_EVENTS, null);
+						if (innerPendingEvents == null || innerPendingEvents.isEmpty())
+						{
+							return;
+						}
+
+						final int insertedCount = insertPendingEvents(innerPendingEvents, innerTrx.getTrxName());
+						logger.debug("Inserted {} M_HU_Trace records for {} pending events; trx={}", insertedCount, innerPendingEvents.size(), innerTrx);
+					});
+
+			return new ArrayList<>();
+		});
+		pendingEvents.add(huTraceEvent);
+	}
+
+	private boolean isBulkInsertOnCommit()
+	{
+		if (!isBulkInsertSupported())
+		{
+			return false;
+		}
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return sysConfigBL.getBooleanValue(SYSCONFIG_BULK_INSERT_ON_COMMIT, false, Env.getAD_Client_ID(Env.getCtx()), Env.getAD_Org_ID(Env.getCtx()));
+	}
+
+	/**
+	 * @return {@code false} in unit test mode, because the bulk insert uses native SQL
+	 */
+	@VisibleForTesting
+	boolean isBulkInsertSupported()
+	{
+		return !Adempiere.isUnitTestMode();
+	}
+
+	@VisibleForTesting
+	int insertPendingEvents(@NonNull final List<HUTraceEvent> pendingEvents, final String trxName)
+	{
+		return BulkInsertDbRecordsUtil.insertIfNotExists(pendingEvents, trxName);
+	}
+
 	/**
 	 * Return records according to the given specification.
 	 * <p>
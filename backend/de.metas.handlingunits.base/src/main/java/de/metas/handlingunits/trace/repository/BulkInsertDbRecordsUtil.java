@@ -0,0 +1,201 @@
+package de.metas.handlingunits.trace.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import de.metas.document.DocTypeId;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.handlingunits.trace.HUTraceEvent;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.sequence.BatchInsertIdSupplier;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inserts {@link HUTraceEvent}s with multi-row {@code INSERT ... ON CONFLICT (<natural key>) DO NOTHING} statements.
+ * <p>
+ * Events which were already persisted are skipped by the database, thanks to the {@code M_HU_Trace_NaturalKey_UQ} unique index.
+ * Note that this is a stricter notion of "already persisted" than the one of {@link RetrieveDbRecordsUtil#query(de.metas.handlingunits.trace.HUTraceEventQuery)},
+ * where unset event properties act as wildcards.
+ * <p>
+ * Does not work with the in-memory persistence used by unit tests.
+ */
+@UtilityClass
+public class BulkInsertDbRecordsUtil
+{
+	/** Rows per statement; keeps the number of parameters well below the JDBC driver's limit of 32767. */
+	private static final int ROWS_PER_STATEMENT = 500;
+
+	private static final String SQL_INSERT_INTO = "INSERT INTO " + I_M_HU_Trace.Table_Name + " ("
+			+ I_M_HU_Trace.COLUMNNAME_M_HU_Trace_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_AD_Client_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_AD_Org_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_IsActive
+			+ ", " + I_M_HU_Trace.COLUMNNAME_Created
+			+ ", " + I_M_HU_Trace.COLUMNNAME_CreatedBy
+			+ ", " + I_M_HU_Trace.COLUMNNAME_Updated
+			+ ", " + I_M_HU_Trace.COLUMNNAME_UpdatedBy
+			+ ", " + I_M_HU_Trace.COLUMNNAME_C_DocType_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_DocStatus
+			+ ", " + I_M_HU_Trace.COLUMNNAME_EventTime
+			+ ", " + I_M_HU_Trace.COLUMNNAME_HUTraceType
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHU_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_Product_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_Qty
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHUStatus
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_HU_Trx_Line_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_HU_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHU_Source_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_InOut_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_Movement_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_ShipmentSchedule_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_PP_Cost_Collector_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_PP_Order_ID
+			+ ") VALUES ";
+
+	@VisibleForTesting
+	static final String SQL_VALUES_ROW = "(?, ?, ?, 'Y', now(), ?, now(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	/**
+	 * Same expressions as the {@code M_HU_Trace_NaturalKey_UQ} unique index, so that only natural key duplicates are skipped.
+	 * Any other unique constraint violation, e.g. of the primary key, still fails the insert.
+	 */
+	@VisibleForTesting
+	static final String SQL_ON_CONFLICT = " ON CONFLICT ("
+			+ I_M_HU_Trace.COLUMNNAME_HUTraceType
+			+ ", " + I_M_HU_Trace.COLUMNNAME_EventTime
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHU_ID
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_M_Product_ID + ", 0))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_Qty + ", 0))"
+			+ ", " + I_M_HU_Trace.COLUMNNAME_AD_Org_ID
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_VHUStatus + ", ''))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_M_InOut_ID + ", 0))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_M_ShipmentSchedule_ID + ", 0))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_M_Movement_ID + ", 0))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_PP_Cost_Collector_ID + ", 0))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_PP_Order_ID + ", 0))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_DocStatus + ", ''))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_C_DocType_ID + ", -1))"
+			+ ", (COALESCE(" + I_M_HU_Trace.COLUMNNAME_M_HU_Trx_Line_ID + ", 0))"
+			+ ") DO NOTHING";
+
+	/**
+	 * @return the number of actually inserted records
+	 */
+	public int insertIfNotExists(@NonNull final Collection<HUTraceEvent> huTraceEvents, final String trxName)
+	{
+		final ImmutableSet<HUTraceEvent> distinctEvents = ImmutableSet.copyOf(huTraceEvents);
+		if (distinctEvents.isEmpty())
+		{
+			return 0;
+		}
+
+		final int adClientId = Env.getAD_Client_ID(Env.getCtx());
+		final int adUserId = Env.getAD_User_ID(Env.getCtx());
+
+		// one ID per event, allocated the same way as PO does; the IDs of skipped duplicates are lost, like the ones of rolled back inserts
+		final IntSupplier idSupplier = BatchInsertIdSupplier.newInstance(adClientId, I_M_HU_Trace.Table_Name, distinctEvents.size(), trxName);
+
+		int insertedCount = 0;
+		for (final List<HUTraceEvent> chunk : Iterables.partition(distinctEvents, ROWS_PER_STATEMENT))
+		{
+			final InsertStatement insertStatement = createInsertStatement(chunk, idSupplier, adClientId, adUserId);
+			insertedCount += DB.executeUpdateEx(insertStatement.getSql(), insertStatement.getSqlParams().toArray(), trxName);
+		}
+		return insertedCount;
+	}
+
+	@Value
+	@VisibleForTesting
+	static class InsertStatement
+	{
+		String sql;
+		List<Object> sqlParams;
+	}
+
+	@VisibleForTesting
+	static InsertStatement createInsertStatement(
+			@NonNull final List<HUTraceEvent> huTraceEvents,
+			@NonNull final IntSupplier idSupplier,
+			final int adClientId,
+			final int adUserId)
+	{
+		final StringBuilder sql = new StringBuilder(SQL_INSERT_INTO);
+		final List<Object> sqlParams = new ArrayList<>(huTraceEvents.size() * 21);
+		for (final HUTraceEvent huTraceEvent : huTraceEvents)
+		{
+			if (!sqlParams.isEmpty())
+			{
+				sql.append(", ");
+			}
+			sql.append(SQL_VALUES_ROW);
+
+			// same values as HuTraceEventToDbRecordUtil.copyToDbRecord()
+			sqlParams.add(idSupplier.getAsInt());
+			sqlParams.add(adClientId);
+			sqlParams.add(OrgId.toRepoIdOrAny(huTraceEvent.getOrgId()));
+			sqlParams.add(adUserId); // CreatedBy
+			sqlParams.add(adUserId); // UpdatedBy
+			sqlParams.add(huTraceEvent.getDocTypeId().map(DocTypeId::getRepoId).orElse(null));
+			sqlParams.add(huTraceEvent.getDocStatus());
+			sqlParams.add(TimeUtil.asTimestamp(huTraceEvent.getEventTime()));
+			sqlParams.add(huTraceEvent.getType().toString());
+			sqlParams.add(huTraceEvent.getVhuId().getRepoId());
+			sqlParams.add(idOrNull(ProductId.toRepoId(huTraceEvent.getProductId())));
+			sqlParams.add(huTraceEvent.getQty());
+			sqlParams.add(huTraceEvent.getVhuStatus());
+			sqlParams.add(idOrNull(huTraceEvent.getHuTrxLineId()));
+			sqlParams.add(huTraceEvent.getTopLevelHuId().getRepoId());
+			sqlParams.add(idOrNull(HuId.toRepoId(huTraceEvent.getVhuSourceId())));
+			sqlParams.add(idOrNull(huTraceEvent.getInOutId()));
+			sqlParams.add(idOrNull(huTraceEvent.getMovementId()));
+			sqlParams.add(idOrNull(ShipmentScheduleId.toRepoId(huTraceEvent.getShipmentScheduleId())));
+			sqlParams.add(idOrNull(huTraceEvent.getPpCostCollectorId()));
+			sqlParams.add(idOrNull(huTraceEvent.getPpOrderId()));
+		}
+		sql.append(SQL_ON_CONFLICT);
+
+		return new InsertStatement(sql.toString(), sqlParams);
+	}
+
+	private static Integer idOrNull(final int repoId)
+	{
+		return repoId > 0 ? repoId : null;
+	}
+}
@@ -0,0 +1,53 @@
+--
+-- unique index on the columns which HUTraceRepository.addEvent() uses to find an already existing M_HU_Trace record;
+-- needed by BulkInsertDbRecordsUtil's INSERT ... ON CONFLICT (<these index expressions>) DO NOTHING
+--
+
+-- remove duplicates, keeping the oldest record
+DELETE FROM M_HU_Trace
+WHERE M_HU_Trace_ID IN (
+	SELECT d.M_HU_Trace_ID
+	FROM (
+		SELECT t.M_HU_Trace_ID,
+			ROW_NUMBER() OVER (PARTITION BY
+				t.HUTraceType,
+				t.EventTime,
+				t.VHU_ID,
+				COALESCE(t.M_Product_ID, 0),
+				COALESCE(t.Qty, 0),
+				t.AD_Org_ID,
+				COALESCE(t.VHUStatus, ''),
+				COALESCE(t.M_InOut_ID, 0),
+				COALESCE(t.M_ShipmentSchedule_ID, 0),
+				COALESCE(t.M_Movement_ID, 0),
+				COALESCE(t.PP_Cost_Collector_ID, 0),
+				COALESCE(t.PP_Order_ID, 0),
+				COALESCE(t.DocStatus, ''),
+				COALESCE(t.C_DocType_ID, -1),
+				COALESCE(t.M_HU_Trx_Line_ID, 0)
+				ORDER BY t.M_HU_Trace_ID) AS rn
+		FROM M_HU_Trace t
+	) d
+	WHERE d.rn > 1)
+;
+
+DROP INDEX IF EXISTS M_HU_Trace_NaturalKey_UQ
+;
+
+CREATE UNIQUE INDEX M_HU_Trace_NaturalKey_UQ ON M_HU_Trace (
+	HUTraceType,
+	EventTime,
+	VHU_ID,
+	COALESCE(M_Product_ID, 0),
+	COALESCE(Qty, 0),
+	AD_Org_ID,
+	COALESCE(VHUStatus, ''),
+	COALESCE(M_InOut_ID, 0),
+	COALESCE(M_ShipmentSchedule_ID, 0),
+	COALESCE(M_Movement_ID, 0),
+	COALESCE(PP_Cost_Collector_ID, 0),
+	COALESCE(PP_Order_ID, 0),
+	COALESCE(DocStatus, ''),
+	COALESCE(C_DocType_ID, -1),
+	COALESCE(M_HU_Trx_Line_ID, 0))
+;
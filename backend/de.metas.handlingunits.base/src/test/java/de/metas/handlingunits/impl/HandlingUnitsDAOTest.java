@@ -29,16 +29,24 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.junit.Assert;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.handlingunits.AbstractHUTest;
+import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.IHandlingUnitsDAO;
 import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Storage;
 import de.metas.handlingunits.model.I_M_HU_PI;
 import de.metas.handlingunits.model.I_M_HU_PI_Item;
+import de.metas.handlingunits.model.X_M_HU_Item;
 import de.metas.handlingunits.model.X_M_HU_PI_Version;
 import de.metas.util.Services;
 import org.junit.jupiter.api.Test;
@@ -70,6 +78,160 @@ public class HandlingUnitsDAOTest extends AbstractHUTest
 		Assert.assertEquals("Invalid item: " + items, huItem.getM_HU_Item_ID(), items.get(0).getM_HU_Item_ID());
 	}
 
+	@Test
+	public void test_HUTreesLoader_load()
+	{
+		final I_M_HU lu = newHU(null);
+		final I_M_HU_Item luItem = newHUItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu1 = newHU(luItem);
+		final I_M_HU_Item tu1Item = newHUItem(tu1, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU vhu = newHU(tu1Item);
+		final I_M_HU tu2 = newHU(luItem);
+		final I_M_HU_Item tu2Item = newHUItem(tu2, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU otherLU = newHU(null);
+
+		final I_M_HU_Storage vhuStorage = InterfaceWrapperHelper.newInstance(I_M_HU_Storage.class, helper.contextProvider);
+		vhuStorage.setM_HU_ID(vhu.getM_HU_ID());
+		InterfaceWrapperHelper.save(vhuStorage);
+
+		final I_M_HU_Attribute tu2Attribute = InterfaceWrapperHelper.newInstance(I_M_HU_Attribute.class, helper.contextProvider);
+		tu2Attribute.setM_HU_ID(tu2.getM_HU_ID());
+		InterfaceWrapperHelper.save(tu2Attribute);
+
+		final HUTrees huTrees = new HUTreesLoader().load(ImmutableList.of(HuId.ofRepoId(lu.getM_HU_ID())));
+
+		Assert.assertEquals(ImmutableList.of(lu.getM_HU_ID()), extractIds(huTrees.getTopLevelHUs()));
+		Assert.assertEquals(ImmutableSet.of(lu.getM_HU_ID(), tu1.getM_HU_ID(), tu2.getM_HU_ID(), vhu.getM_HU_ID()), ImmutableSet.copyOf(extractIds(huTrees.getHus())));
+		Assert.assertFalse(extractIds(huTrees.getHus()).contains(otherLU.getM_HU_ID()));
+
+		final I_M_HU luLoaded = huTrees.getTopLevelHUs().get(0);
+		final List<I_M_HU_Item> luItemsLoaded = huTrees.getItems(luLoaded);
+		Assert.assertEquals(1, luItemsLoaded.size());
+		Assert.assertSame(luLoaded, luItemsLoaded.get(0).getM_HU());
+
+		final List<I_M_HU> tusLoaded = huTrees.getIncludedHUs(luItemsLoaded.get(0));
+		Assert.assertEquals(ImmutableList.of(tu1.getM_HU_ID(), tu2.getM_HU_ID()), extractIds(tusLoaded));
+		Assert.assertSame(luItemsLoaded.get(0), tusLoaded.get(0).getM_HU_Item_Parent());
+
+		final I_M_HU_Item tu1ItemLoaded = huTrees.getItems(tusLoaded.get(0)).get(0);
+		final List<I_M_HU> vhusLoaded = huTrees.getIncludedHUs(tu1ItemLoaded);
+		Assert.assertEquals(ImmutableList.of(vhu.getM_HU_ID()), extractIds(vhusLoaded));
+		Assert.assertEquals(1, huTrees.getStorages(vhusLoaded.get(0)).size());
+		Assert.assertTrue(huTrees.getItems(vhusLoaded.get(0)).isEmpty());
+
+		final I_M_HU tu2Loaded = tusLoaded.get(1);
+		Assert.assertEquals(1, huTrees.getAttributes(tu2Loaded).size());
+		Assert.assertTrue(huTrees.getIncludedHUs(huTrees.getItems(tu2Loaded).get(0)).isEmpty());
+		Assert.assertEquals(tu2Item.getM_HU_Item_ID(), huTrees.getItems(tu2Loaded).get(0).getM_HU_Item_ID());
+	}
+
+	/**
+	 * The HU trees are loaded through the DAO; afterwards the HU items and included HUs shall be served from the transaction level cache.
+	 * To prove that no query is executed anymore, some records are added directly in database, bypassing the cache: a query would find them.
+	 */
+	@Test
+	public void test_retrieveAndCacheHUTrees()
+	{
+		final I_M_HU lu = newHU(null);
+		final I_M_HU_Item luItem = newHUItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu1 = newHU(luItem);
+		final I_M_HU_Item tu1Item = newHUItem(tu1, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU vhu = newHU(tu1Item);
+		final I_M_HU tu2 = newHU(luItem);
+		newHUItem(tu2, X_M_HU_Item.ITEMTYPE_Material);
+
+		final List<I_M_HU> topLevelHUs = dao.retrieveAndCacheHUTrees(ImmutableList.of(HuId.ofRepoId(lu.getM_HU_ID())));
+		Assert.assertEquals(ImmutableList.of(lu.getM_HU_ID()), extractIds(topLevelHUs));
+
+		// added after the trees were cached
+		newHUItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		newHU(luItem);
+		newHU(tu1Item);
+		newHUItem(vhu, X_M_HU_Item.ITEMTYPE_Material);
+		Assert.assertEquals("added in database", 2, countItems(lu));
+
+		final I_M_HU luLoaded = topLevelHUs.get(0);
+		final List<I_M_HU_Item> luItemsLoaded = dao.retrieveItems(luLoaded);
+		Assert.assertEquals("served from cache", 1, luItemsLoaded.size());
+		Assert.assertEquals(luItem.getM_HU_Item_ID(), luItemsLoaded.get(0).getM_HU_Item_ID());
+
+		final List<I_M_HU> tusLoaded = dao.retrieveIncludedHUs(luItemsLoaded.get(0));
+		Assert.assertEquals("served from cache", ImmutableList.of(tu1.getM_HU_ID(), tu2.getM_HU_ID()), extractIds(tusLoaded));
+
+		final List<I_M_HU_Item> tu1ItemsLoaded = dao.retrieveItems(tusLoaded.get(0));
+		Assert.assertEquals(1, tu1ItemsLoaded.size());
+		final List<I_M_HU> vhusLoaded = dao.retrieveIncludedHUs(tu1ItemsLoaded.get(0));
+		Assert.assertEquals("served from cache", ImmutableList.of(vhu.getM_HU_ID()), extractIds(vhusLoaded));
+		Assert.assertTrue("served from cache", dao.retrieveItems(vhusLoaded.get(0)).isEmpty());
+
+		final List<I_M_HU_Item> tu2ItemsLoaded = dao.retrieveItems(tusLoaded.get(1));
+		Assert.assertEquals(1, tu2ItemsLoaded.size());
+		Assert.assertTrue(dao.retrieveIncludedHUs(tu2ItemsLoaded.get(0)).isEmpty());
+	}
+
+	/**
+	 * If an HU's items were already cached, the HU and its subtree shall be kept as they are.
+	 */
+	@Test
+	public void test_retrieveAndCacheHUTrees_alreadyCachedHUsAreKept()
+	{
+		final I_M_HU lu = newHU(null);
+		final I_M_HU_Item luItem = newHUItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu = newHU(luItem);
+		final I_M_HU_Item tuItem = newHUItem(tu, X_M_HU_Item.ITEMTYPE_Material);
+
+		final List<I_M_HU_Item> tuItemsCached = dao.retrieveItems(tu);
+		Assert.assertEquals(1, tuItemsCached.size());
+
+		// added after the TU's items were cached
+		newHUItem(tu, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU vhu = newHU(tuItem);
+
+		final List<I_M_HU> topLevelHUs = dao.retrieveAndCacheHUTrees(ImmutableList.of(HuId.ofRepoId(lu.getM_HU_ID())));
+
+		final List<I_M_HU_Item> luItemsLoaded = dao.retrieveItems(topLevelHUs.get(0));
+		Assert.assertEquals(1, luItemsLoaded.size());
+		final List<I_M_HU> tusLoaded = dao.retrieveIncludedHUs(luItemsLoaded.get(0));
+		Assert.assertEquals(ImmutableList.of(tu.getM_HU_ID()), extractIds(tusLoaded));
+
+		final List<I_M_HU_Item> tuItemsLoaded = dao.retrieveItems(tusLoaded.get(0));
+		Assert.assertEquals("the already cached items are kept", 1, tuItemsLoaded.size());
+		Assert.assertSame(tuItemsCached.get(0), tuItemsLoaded.get(0));
+
+		// the TU's subtree was not cached, so it's loaded from database
+		Assert.assertEquals(ImmutableList.of(vhu.getM_HU_ID()), extractIds(dao.retrieveIncludedHUs(tuItemsLoaded.get(0))));
+	}
+
+	private int countItems(final I_M_HU hu)
+	{
+		return Services.get(IQueryBL.class).createQueryBuilder(I_M_HU_Item.class)
+				.addEqualsFilter(I_M_HU_Item.COLUMNNAME_M_HU_ID, hu.getM_HU_ID())
+				.create()
+				.count();
+	}
+
+	private I_M_HU newHU(final I_M_HU_Item parentItem)
+	{
+		final I_M_HU hu = InterfaceWrapperHelper.newInstance(I_M_HU.class, helper.contextProvider);
+		hu.setM_HU_Item_Parent(parentItem);
+		InterfaceWrapperHelper.save(hu);
+		return hu;
+	}
+
+	private I_M_HU_Item newHUItem(final I_M_HU hu, final String itemType)
+	{
+		final I_M_HU_Item huItem = InterfaceWrapperHelper.newInstance(I_M_HU_Item.class, helper.contextProvider);
+		huItem.setM_HU(hu);
+		huItem.setItemType(itemType);
+		InterfaceWrapperHelper.save(huItem);
+		return huItem;
+	}
+
+	private static List<Integer> extractIds(final List<I_M_HU> hus)
+	{
+		return hus.stream().map(I_M_HU::getM_HU_ID).collect(ImmutableList.toImmutableList());
+	}
+
 	@Test
 	public void test_retrivePIItems()
 	{
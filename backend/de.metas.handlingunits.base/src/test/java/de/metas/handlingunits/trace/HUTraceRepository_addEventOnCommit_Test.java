@@ -0,0 +1,176 @@
+package de.metas.handlingunits.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests {@link HUTraceRepository#addEventOnCommit(HUTraceEvent)}.
+ * <p>
+ * The bulk insert itself uses native SQL, so it's replaced by a recorder; the generated SQL is tested in {@code BulkInsertDbRecordsUtilTest}.
+ */
+@ExtendWith(AdempiereTestWatcher.class)
+public class HUTraceRepository_addEventOnCommit_Test
+{
+	private ITrxManager trxManager;
+
+	/** if null, the actual {@link HUTraceRepository#isBulkInsertSupported()} is used */
+	private Boolean bulkInsertSupported;
+	private final List<List<HUTraceEvent>> bulkInserts = new ArrayList<>();
+	private HUTraceRepository huTraceRepository;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		trxManager = Services.get(ITrxManager.class);
+
+		bulkInsertSupported = Boolean.TRUE;
+		huTraceRepository = new HUTraceRepository()
+		{
+			@Override
+			boolean isBulkInsertSupported()
+			{
+				return bulkInsertSupported != null ? bulkInsertSupported : super.isBulkInsertSupported();
+			}
+
+			@Override
+			int insertPendingEvents(final List<HUTraceEvent> pendingEvents, final String trxName)
+			{
+				bulkInserts.add(ImmutableList.copyOf(pendingEvents));
+				return pendingEvents.size();
+			}
+		};
+	}
+
+	private static void setBulkInsertOnCommit(final boolean bulkInsertOnCommit)
+	{
+		Services.get(ISysConfigBL.class).setValue(HUTraceRepository.SYSCONFIG_BULK_INSERT_ON_COMMIT, bulkInsertOnCommit, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private static HUTraceEvent createEvent(final int vhuId)
+	{
+		return HUTraceRepositoryTests.createCommonEventBuilder()
+				.eventTime(Instant.now())
+				.vhuId(HuId.ofRepoId(vhuId))
+				.topLevelHuId(HuId.ofRepoId(vhuId))
+				.build();
+	}
+
+	private static int countTraceRecords()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_M_HU_Trace.class)
+				.create()
+				.count();
+	}
+
+	@Test
+	public void eventsOfOneTrxAreInsertedTogetherBeforeCommit()
+	{
+		setBulkInsertOnCommit(true);
+
+		final HUTraceEvent event1 = createEvent(11);
+		final HUTraceEvent event2 = createEvent(12);
+		final HUTraceEvent event3 = createEvent(13);
+		trxManager.runInNewTrx(() -> {
+			huTraceRepository.addEventOnCommit(event1);
+			huTraceRepository.addEventOnCommit(event2);
+			huTraceRepository.addEventOnCommit(event3);
+
+			assertThat(bulkInserts).as("nothing inserted before commit").isEmpty();
+		});
+
+		assertThat(bulkInserts).containsExactly(ImmutableList.of(event1, event2, event3));
+		assertThat(countTraceRecords()).as("no per-event insert").isZero();
+
+		// the next transaction collects its own events
+		final HUTraceEvent event4 = createEvent(14);
+		trxManager.runInNewTrx(() -> huTraceRepository.addEventOnCommit(event4));
+
+		assertThat(bulkInserts).containsExactly(ImmutableList.of(event1, event2, event3), ImmutableList.of(event4));
+	}
+
+	@Test
+	public void sysConfigOff_eventsAreAddedImmediately()
+	{
+		setBulkInsertOnCommit(false);
+
+		trxManager.runInNewTrx(() -> {
+			huTraceRepository.addEventOnCommit(createEvent(11));
+			huTraceRepository.addEventOnCommit(createEvent(12));
+
+			assertThat(countTraceRecords()).isEqualTo(2);
+		});
+
+		assertThat(bulkInserts).isEmpty();
+	}
+
+	@Test
+	public void unitTestMode_eventsAreAddedImmediately()
+	{
+		setBulkInsertOnCommit(true);
+		bulkInsertSupported = null;
+
+		trxManager.runInNewTrx(() -> {
+			huTraceRepository.addEventOnCommit(createEvent(11));
+			huTraceRepository.addEventOnCommit(createEvent(12));
+
+			assertThat(countTraceRecords()).isEqualTo(2);
+		});
+
+		assertThat(bulkInserts).isEmpty();
+	}
+
+	@Test
+	public void noThreadInheritedTrx_eventIsAddedImmediately()
+	{
+		setBulkInsertOnCommit(true);
+
+		huTraceRepository.addEventOnCommit(createEvent(11));
+
+		assertThat(countTraceRecords()).isEqualTo(1);
+		assertThat(bulkInserts).isEmpty();
+	}
+}
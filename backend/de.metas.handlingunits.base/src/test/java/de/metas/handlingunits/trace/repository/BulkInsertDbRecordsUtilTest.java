@@ -0,0 +1,145 @@
+package de.metas.handlingunits.trace.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.document.DocTypeId;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.X_M_HU;
+import de.metas.handlingunits.trace.HUTraceEvent;
+import de.metas.handlingunits.trace.HUTraceType;
+import de.metas.handlingunits.trace.repository.BulkInsertDbRecordsUtil.InsertStatement;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkInsertDbRecordsUtilTest
+{
+	private static final int AD_CLIENT_ID = 1000000;
+	private static final int AD_USER_ID = 100;
+
+	private final Instant eventTime = Instant.parse("2020-03-12T10:15:30.00Z");
+
+	private HUTraceEvent createMinimalEvent()
+	{
+		return HUTraceEvent.builder()
+				.orgId(OrgId.ofRepoId(10))
+				.type(HUTraceType.TRANSFORM_LOAD)
+				.eventTime(eventTime)
+				.vhuId(HuId.ofRepoId(12))
+				.qty(BigDecimal.TEN)
+				.vhuStatus(X_M_HU.HUSTATUS_Active)
+				.topLevelHuId(HuId.ofRepoId(2))
+				.build();
+	}
+
+	private HUTraceEvent createCompleteEvent()
+	{
+		return HUTraceEvent.builder()
+				.orgId(OrgId.ofRepoId(11))
+				.type(HUTraceType.MATERIAL_SHIPMENT)
+				.eventTime(eventTime)
+				.vhuId(HuId.ofRepoId(13))
+				.productId(ProductId.ofRepoId(23))
+				.qty(BigDecimal.ONE)
+				.vhuStatus(X_M_HU.HUSTATUS_Shipped)
+				.topLevelHuId(HuId.ofRepoId(3))
+				.vhuSourceId(HuId.ofRepoId(14))
+				.inOutId(31)
+				.shipmentScheduleId(ShipmentScheduleId.ofRepoId(32))
+				.movementId(33)
+				.ppCostCollectorId(34)
+				.ppOrderId(35)
+				.docStatus("CO")
+				.docTypeId(Optional.of(DocTypeId.ofRepoId(36)))
+				.huTrxLineId(37)
+				.build();
+	}
+
+	@Test
+	public void createInsertStatement_sql()
+	{
+		final InsertStatement insertStatement = BulkInsertDbRecordsUtil.createInsertStatement(
+				ImmutableList.of(createMinimalEvent(), createCompleteEvent()),
+				new AtomicInteger(1000)::incrementAndGet,
+				AD_CLIENT_ID,
+				AD_USER_ID);
+
+		assertThat(insertStatement.getSql())
+				.startsWith("INSERT INTO M_HU_Trace (M_HU_Trace_ID, AD_Client_ID, AD_Org_ID, IsActive, Created, CreatedBy, Updated, UpdatedBy, C_DocType_ID, DocStatus, EventTime, HUTraceType, VHU_ID, M_Product_ID, Qty, VHUStatus, M_HU_Trx_Line_ID, M_HU_ID, VHU_Source_ID, M_InOut_ID, M_Movement_ID, M_ShipmentSchedule_ID, PP_Cost_Collector_ID, PP_Order_ID) VALUES ")
+				.endsWith(" VALUES "
+						+ BulkInsertDbRecordsUtil.SQL_VALUES_ROW + ", " + BulkInsertDbRecordsUtil.SQL_VALUES_ROW
+						+ BulkInsertDbRecordsUtil.SQL_ON_CONFLICT)
+				.doesNotContain("nextval");
+
+		final long placeholdersCount = insertStatement.getSql().chars().filter(ch -> ch == '?').count();
+		assertThat(insertStatement.getSqlParams()).hasSize((int)placeholdersCount);
+	}
+
+	/**
+	 * The conflict target shall be the same as the {@code M_HU_Trace_NaturalKey_UQ} index, see {@code 5562370_sys_M_HU_Trace_NaturalKey_UQ.sql}.
+	 */
+	@Test
+	public void onConflictTargetIsTheNaturalKey()
+	{
+		assertThat(BulkInsertDbRecordsUtil.SQL_ON_CONFLICT).isEqualTo(" ON CONFLICT ("
+				+ "HUTraceType, EventTime, VHU_ID, (COALESCE(M_Product_ID, 0)), (COALESCE(Qty, 0)), AD_Org_ID, (COALESCE(VHUStatus, '')),"
+				+ " (COALESCE(M_InOut_ID, 0)), (COALESCE(M_ShipmentSchedule_ID, 0)), (COALESCE(M_Movement_ID, 0)), (COALESCE(PP_Cost_Collector_ID, 0)),"
+				+ " (COALESCE(PP_Order_ID, 0)), (COALESCE(DocStatus, '')), (COALESCE(C_DocType_ID, -1)), (COALESCE(M_HU_Trx_Line_ID, 0))"
+				+ ") DO NOTHING");
+	}
+
+	@Test
+	public void createInsertStatement_sqlParams()
+	{
+		final InsertStatement insertStatement = BulkInsertDbRecordsUtil.createInsertStatement(
+				ImmutableList.of(createMinimalEvent(), createCompleteEvent()),
+				new AtomicInteger(1000)::incrementAndGet,
+				AD_CLIENT_ID,
+				AD_USER_ID);
+
+		final Timestamp eventTimestamp = TimeUtil.asTimestamp(eventTime);
+		assertThat(insertStatement.getSqlParams()).containsExactlyElementsOf(Arrays.asList(
+				// minimal event
+				1001, AD_CLIENT_ID, 10, AD_USER_ID, AD_USER_ID,
+				null, null, eventTimestamp, HUTraceType.TRANSFORM_LOAD.toString(), 12, null, BigDecimal.TEN, X_M_HU.HUSTATUS_Active,
+				null, 2, null, null, null, null, null, null,
+				// complete event
+				1002, AD_CLIENT_ID, 11, AD_USER_ID, AD_USER_ID,
+				36, "CO", eventTimestamp, HUTraceType.MATERIAL_SHIPMENT.toString(), 13, 23, BigDecimal.ONE, X_M_HU.HUSTATUS_Shipped,
+				37, 3, 14, 31, 33, 32, 34, 35));
+	}
+}
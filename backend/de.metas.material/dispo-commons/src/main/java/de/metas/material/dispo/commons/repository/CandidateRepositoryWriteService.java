@@ -11,12 +11,16 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdater;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.ISqlQueryUpdater;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
@@ -119,6 +123,94 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code qtyDelta} to all candidates matched by the given {@code query}, using one set-based UPDATE.
+	 * <p>
+	 * Unlike {@link #updateCandidateById(Candidate)}, this method does not load the matching records and also does not touch their detail records.
+	 * So it's only intended for candidates (like stock candidates) whose only changing properties are their {@code Qty}, {@code MD_Candidate_Status} and {@code MD_Candidate_GroupId}.
+	 *
+	 * @param groupId if not {@code null}, then the matching candidates' groupId is set to this value.
+	 * @return the number of updated records
+	 */
+	public int addQtyToMatchingCandidates(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal qtyDelta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		final boolean qtyUnchanged = qtyDelta.signum() == 0;
+		if (qtyUnchanged && groupId == null)
+		{
+			return 0;
+		}
+
+		final ICompositeQueryUpdater<I_MD_Candidate> updater = Services.get(IQueryBL.class).createCompositeQueryUpdater(I_MD_Candidate.class);
+		if (!qtyUnchanged)
+		{
+			updater.addQueryUpdater(new AddToQtyAndUpdateStatusQueryUpdater(qtyDelta));
+		}
+		if (groupId != null)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId.toInt());
+		}
+
+		final int updatedCount = RepositoryCommons
+				.mkQueryBuilder(query)
+				.create()
+				.updateDirectly(updater);
+
+		Loggables.addLog(
+				"addQtyToMatchingCandidates - updated {} candidates; qtyDelta={}; groupId={};\nquery={}",
+				updatedCount, qtyDelta, groupId, query);
+
+		return updatedCount;
+	}
+
+	/**
+	 * Adds a delta to {@code MD_Candidate.Qty} and re-evaluates {@code MD_Candidate_Status} like {@link CandidateRepositoryWriteService#updateCandidateRecordFromCandidate(I_MD_Candidate, Candidate, boolean)} does.
+	 * <p>
+	 * Note that within an SQL UPDATE, all SET expressions see the old column values; that's why the status expression adds the delta again.
+	 */
+	private static final class AddToQtyAndUpdateStatusQueryUpdater implements ISqlQueryUpdater<I_MD_Candidate>
+	{
+		private final BigDecimal qtyDelta;
+
+		private AddToQtyAndUpdateStatusQueryUpdater(@NonNull final BigDecimal qtyDelta)
+		{
+			this.qtyDelta = qtyDelta;
+		}
+
+		@Override
+		public String getSql(final Properties ctx, final List<Object> params)
+		{
+			params.add(qtyDelta);
+			params.add(qtyDelta);
+			params.add(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+			params.add(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+
+			return I_MD_Candidate.COLUMNNAME_Qty + "=" + I_MD_Candidate.COLUMNNAME_Qty + " + ?"
+					+ ", " + I_MD_Candidate.COLUMNNAME_MD_Candidate_Status + "=(CASE"
+					+ " WHEN COALESCE(" + I_MD_Candidate.COLUMNNAME_QtyFulfilled + ", 0) >= " + I_MD_Candidate.COLUMNNAME_Qty + " + ?"
+					+ " THEN ? ELSE ? END)";
+		}
+
+		@Override
+		public boolean update(@NonNull final I_MD_Candidate candidateRecord)
+		{
+			final BigDecimal newQty = candidateRecord.getQty().add(qtyDelta);
+			candidateRecord.setQty(stripZerosAfterTheDigit(newQty));
+
+			if (candidateRecord.getQtyFulfilled().compareTo(newQty) >= 0)
+			{
+				candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+			}
+			else
+			{
+				candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+			}
+			return MODEL_UPDATED;
+		}
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
@@ -440,7 +532,7 @@ public class CandidateRepositoryWriteService
 		}
 	}
 
-	private BigDecimal stripZerosAfterTheDigit(final BigDecimal quantity)
+	private static BigDecimal stripZerosAfterTheDigit(final BigDecimal quantity)
 	{
 		final BigDecimal stripTrailingZeros = quantity.stripTrailingZeros();
 		if (stripTrailingZeros.scale() < 0)
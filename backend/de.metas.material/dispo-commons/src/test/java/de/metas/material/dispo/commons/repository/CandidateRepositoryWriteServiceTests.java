@@ -48,6 +48,7 @@ import de.metas.material.dispo.model.I_MD_Candidate_Transaction_Detail;
 import de.metas.material.dispo.model.X_MD_Candidate;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.pporder.MaterialDispoGroupId;
 import de.metas.organization.ClientAndOrgId;
 import de.metas.product.ResourceId;
 import de.metas.util.Services;
@@ -427,4 +428,35 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(transactionDetailRecord.getMovementQty()).isEqualByComparingTo("1");
 		assertThat(transactionDetailRecord.getM_Transaction_ID()).isEqualTo(33);
 	}
+
+	@Test
+	public void addQtyToMatchingCandidates()
+	{
+		final Candidate stockCandidate = repositoryTestHelper.stockCandidate;
+		final Candidate laterStockCandidate = repositoryTestHelper.laterStockCandidate;
+		final CandidatesQuery query = repositoryTestHelper.mkQueryForStockFromDate(AFTER_NOW);
+
+		final int updatedCount = candidateRepositoryWriteService.addQtyToMatchingCandidates(query, new BigDecimal("-12"), MaterialDispoGroupId.ofInt(77));
+
+		assertThat(updatedCount).isEqualTo(1);
+
+		final I_MD_Candidate laterStockRecord = load(laterStockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(laterStockRecord.getQty()).isEqualByComparingTo("-2");
+		assertThat(laterStockRecord.getMD_Candidate_GroupId()).isEqualTo(77);
+		assertThat(laterStockRecord.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed); // qtyFulfilled=0 >= qty=-2
+
+		final I_MD_Candidate stockRecord = load(stockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(stockRecord.getQty()).as("earlier stock candidate shall be untouched").isEqualByComparingTo("11");
+		assertThat(stockRecord.getMD_Candidate_GroupId()).isEqualTo(stockCandidate.getGroupId().toInt());
+	}
+
+	@Test
+	public void addQtyToMatchingCandidates_nothing_to_do()
+	{
+		final CandidatesQuery query = repositoryTestHelper.mkQueryForStockFromDate(NOW);
+
+		final int updatedCount = candidateRepositoryWriteService.addQtyToMatchingCandidates(query, ZERO, null);
+
+		assertThat(updatedCount).isZero();
+	}
 }
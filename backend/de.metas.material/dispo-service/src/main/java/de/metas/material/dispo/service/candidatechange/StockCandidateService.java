@@ -5,7 +5,6 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.List;
 
 import org.compiere.util.TimeUtil;
 import org.springframework.context.annotation.Profile;
@@ -164,7 +163,7 @@ public class StockCandidateService
 
 	/**
 	 * Selects all stock candidates which have the same product and locator but a later timestamp than the one from the given {@code materialDescriptor}.
-	 * Iterate them and add the given {@code delta} to their quantity.
+	 * Add the given {@code delta} to their quantity, using one set-based update per affected time range (i.e. independent of the number of matched candidates).
 	 * <p>
 	 *
 	 * @param materialDescriptor the product to match against
@@ -197,15 +196,10 @@ public class StockCandidateService
 			deltaAfterRangeEnd = null;
 		}
 
-		final List<Candidate> candidatesToUpdateWithinRange = candidateRepositoryRetrieval.retrieveOrderedByDateAndSeqNo(query);
-		for (final Candidate candidate : candidatesToUpdateWithinRange)
-		{
-			final BigDecimal newQty = candidate.getQuantity().add(deltaUntilRangeEnd);
+		final MaterialDispoGroupId groupId = stockWithDelta.getCandidate().getGroupId();
+
+		candidateRepositoryWriteService.addQtyToMatchingCandidates(query, deltaUntilRangeEnd, groupId);
 
-			candidateRepositoryWriteService.updateCandidateById(candidate
-					.withQuantity(newQty)
-					.withGroupId(stockWithDelta.getCandidate().getGroupId()));
-		}
 		if (deltaAfterRangeEnd == null || deltaAfterRangeEnd.signum() == 0)
 		{
 			return; // we are done
@@ -217,15 +211,8 @@ public class StockCandidateService
 				.timeRangeEnd(null)
 				.build();
 		final CandidatesQuery queryAfterRange = query.withMaterialDescriptorQuery(materialDescriptToQueryAfterRange);
-		final List<Candidate> candidatesToUpdateAfterRange = candidateRepositoryRetrieval.retrieveOrderedByDateAndSeqNo(queryAfterRange);
-		for (final Candidate candidate : candidatesToUpdateAfterRange)
-		{
-			final BigDecimal newQty = candidate.getQuantity().add(deltaAfterRangeEnd);
 
-			candidateRepositoryWriteService.updateCandidateById(candidate
-					.withQuantity(newQty)
-					.withGroupId(stockWithDelta.getCandidate().getGroupId()));
-		}
+		candidateRepositoryWriteService.addQtyToMatchingCandidates(queryAfterRange, deltaAfterRangeEnd, groupId);
 	}
 
 	private CandidatesQuery createStockQueryUntilDate(
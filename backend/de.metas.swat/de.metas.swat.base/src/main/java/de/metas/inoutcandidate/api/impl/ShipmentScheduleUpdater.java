@@ -26,13 +26,22 @@ import java.time.ZonedDateTime;
  */
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import org.adempiere.ad.trx.api.ITrxManager;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.inout.util.DeliveryGroupCandidate;
 import org.adempiere.inout.util.DeliveryGroupCandidateGroupId;
@@ -44,6 +53,9 @@ import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorage;
 import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorageFactory;
 import org.adempiere.inout.util.ShipmentSchedulesDuringUpdate;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.ParallelTasks;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ImmutablePair;
 import org.adempiere.warehouse.LocatorId;
@@ -51,7 +63,10 @@ import org.adempiere.warehouse.WarehouseId;
 import org.adempiere.warehouse.api.IWarehouseDAO;
 import org.compiere.model.I_C_BPartner_Product;
 import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util.ArrayKey;
+import org.eevolution.api.IPPOrderBL;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 import org.springframework.stereotype.Service;
@@ -91,6 +106,9 @@ import de.metas.inoutcandidate.spi.impl.ShipmentScheduleOrderReferenceProvider;
 import de.metas.lang.SOTrx;
 import de.metas.logging.LogManager;
 import de.metas.material.cockpit.stock.StockRepository;
+import de.metas.material.planning.pporder.PPOrderId;
+import de.metas.material.planning.pporder.impl.QtyCalculationsBOM;
+import de.metas.material.planning.pporder.impl.QtyCalculationsBOMLine;
 import de.metas.order.DeliveryRule;
 import de.metas.organization.OrgId;
 import de.metas.process.PInstanceId;
@@ -127,6 +145,13 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 	private static final String DYNATTR_ProcessedByBackgroundProcess = IShipmentScheduleUpdater.class.getName() + "#ProcessedByBackgroundProcess";
 
+	/**
+	 * If greater than one, the invalid schedules are split into independent partitions which are updated in (at most) that many threads,
+	 * each partition in its own transaction.
+	 */
+	private static final String SYSCONFIG_ParallelThreads = "de.metas.inoutcandidate.api.impl.ShipmentScheduleUpdater.ParallelThreads";
+	private static final int DEFAULT_ParallelThreads = 1;
+
 	private static final Logger logger = LogManager.getLogger(ShipmentScheduleUpdater.class);
 	private final IShipmentScheduleHandlerBL shipmentScheduleHandlerBL = Services.get(IShipmentScheduleHandlerBL.class);
 	private final IShipmentScheduleInvalidateRepository invalidSchedulesRepo = Services.get(IShipmentScheduleInvalidateRepository.class);
@@ -146,6 +171,9 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	private final IUOMConversionBL uomConversionBL = Services.get(IUOMConversionBL.class);
 	private final IProductBL productsService = Services.get(IProductBL.class);
 	private final IBPartnerProductDAO bpartnerProductDAO = Services.get(IBPartnerProductDAO.class);
+	private final IPPOrderBL ppOrdersBL = Services.get(IPPOrderBL.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
 	private final CompositeCandidateProcessor candidateProcessors = new CompositeCandidateProcessor();
 
@@ -211,7 +239,16 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 			invalidatePickingBOMProducts(olsAndScheds, selectionId);
 
-			updateSchedules(request.getCtx(), olsAndScheds);
+			// NOTE: newly created schedules might not be committed yet, so in that case we stay in the current transaction
+			final int parallelThreads = request.isCreateMissingShipmentSchedules() ? 1 : getParallelThreads();
+			if (parallelThreads > 1)
+			{
+				updateSchedulesInParallel(request.getCtx(), olsAndScheds, parallelThreads);
+			}
+			else
+			{
+				updateSchedules(request.getCtx(), olsAndScheds);
+			}
 
 			// cleanup the marker/pointer tables
 			invalidSchedulesRepo.deleteRecomputeMarkersOutOfTrx(selectionId);
@@ -266,10 +303,18 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return;
 		}
 
-		//
-		// Briefly update our shipment schedules:
-		// * set BPartnerAddress_Override if was not set before
-		// * update HeaderAggregationKey
+		prepareSchedules(olsAndScheds);
+		updatePreparedSchedules(ctx, olsAndScheds);
+	}
+
+	/**
+	 * Briefly update our shipment schedules:
+	 * <li>set BPartnerAddress_Override if was not set before
+	 * <li>update HeaderAggregationKey
+	 */
+	@VisibleForTesting
+	void prepareSchedules(final List<OlAndSched> olsAndScheds)
+	{
 		for (final OlAndSched olAndSched : olsAndScheds)
 		{
 			try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleId(olAndSched.getShipmentScheduleId()))
@@ -287,8 +332,16 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				updateShipmentConstraints(sched);
 			}
 		}
+	}
 
-		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds);
+	private void updatePreparedSchedules(final Properties ctx, final List<OlAndSched> olsAndScheds)
+	{
+		//
+		// Load stock and allocations only once; both runs and the final update are working on them
+		final ShipmentScheduleQtyOnHandStorage firstRunQtyOnHands = shipmentScheduleQtyOnHandStorageFactory.ofOlAndScheds(olsAndScheds);
+		final ShipmentSchedulesAllocations allocations = new ShipmentSchedulesAllocations();
+
+		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds, firstRunQtyOnHands, allocations);
 		firstRun.updateCompleteStatusAndSetQtyToZeroWhereNeeded();
 
 		applyCandidateProcessors(ctx, firstRun);
@@ -310,10 +363,21 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			}
 		}
 
-		// make the second run
-		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun);
+		// make the second run, starting again from the stock as it was loaded for the first run
+		final ShipmentScheduleQtyOnHandStorage secondRunQtyOnHands = shipmentScheduleQtyOnHandStorageFactory.ofStockSnapshot(firstRunQtyOnHands.getStockSnapshot());
+		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun, secondRunQtyOnHands, allocations);
 
 		// finally update the shipment schedule entries
+		updateSchedulesFromSecondRun(ctx, olsAndScheds, secondRun, allocations);
+	}
+
+	@VisibleForTesting
+	void updateSchedulesFromSecondRun(
+			final Properties ctx,
+			final List<OlAndSched> olsAndScheds,
+			final IShipmentSchedulesDuringUpdate secondRun,
+			final ShipmentSchedulesAllocations allocations)
+	{
 		for (final OlAndSched olAndSched : olsAndScheds)
 		{
 			final I_M_ShipmentSchedule sched = olAndSched.getSched();
@@ -330,7 +394,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 			// task 09358: ol.qtyReserved should be as correct as QtyOrdered and QtyDelivered, but in some cases isn't. this here is a workaround to the problem
 			// task 09869: don't rely on ol anyways
-			final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+			final BigDecimal qtyDelivered = allocations.getQtyDelivered(sched);
 			sched.setQtyDelivered(qtyDelivered);
 			sched.setQtyReserved(BigDecimal.ZERO.max(olAndSched.getQtyOrdered().subtract(sched.getQtyDelivered())));
 
@@ -422,38 +486,54 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 	}
 
+	@VisibleForTesting
 	ShipmentSchedulesDuringUpdate generate_FirstRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines)
+	{
+		return generate_FirstRun(
+				ctx,
+				lines,
+				shipmentScheduleQtyOnHandStorageFactory.ofOlAndScheds(lines),
+				new ShipmentSchedulesAllocations());
+	}
+
+	private ShipmentSchedulesDuringUpdate generate_FirstRun(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> lines,
+			@NonNull final ShipmentScheduleQtyOnHandStorage qtyOnHands,
+			@NonNull final ShipmentSchedulesAllocations allocations)
 	{
 		try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(1))
 		{
 			final ShipmentSchedulesDuringUpdate firstRun = new ShipmentSchedulesDuringUpdate();
-			return generate(ctx, lines, firstRun);
+			return generate(ctx, lines, firstRun, qtyOnHands, allocations);
 		}
 	}
 
-	ShipmentSchedulesDuringUpdate generate_SecondRun(
+	private ShipmentSchedulesDuringUpdate generate_SecondRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate firstRun)
+			@NonNull final ShipmentSchedulesDuringUpdate firstRun,
+			@NonNull final ShipmentScheduleQtyOnHandStorage qtyOnHands,
+			@NonNull final ShipmentSchedulesAllocations allocations)
 	{
 		try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(2))
 		{
-			return generate(ctx, lines, firstRun);
+			return generate(ctx, lines, firstRun, qtyOnHands, allocations);
 		}
 	}
 
+	/**
+	 * @param qtyOnHands QtyOnHand in scope for our lines; the quantities which are allocated to our lines are subtracted from it
+	 */
 	private ShipmentSchedulesDuringUpdate generate(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate candidates)
+			@NonNull final ShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentScheduleQtyOnHandStorage qtyOnHands,
+			@NonNull final ShipmentSchedulesAllocations allocations)
 	{
-		//
-		// Load QtyOnHand in scope for our lines
-		// i.e. iterate all lines to cache the required storage info and to subtract the quantities that can't be allocated from the storage allocation.
-		final ShipmentScheduleQtyOnHandStorage qtyOnHands = shipmentScheduleQtyOnHandStorageFactory.ofOlAndScheds(lines);
-
 		//
 		// Iterate and try to allocate the QtyOnHand
 		for (final OlAndSched olAndSched : lines)
@@ -481,7 +561,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				}
 				else
 				{
-					final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+					final BigDecimal qtyDelivered = allocations.getQtyDelivered(sched);
 					qtyRequired = olAndSched.getQtyOrdered().subtract(qtyDelivered);
 					logger.debug("QtyOrdered={}; QtyDelivered={}; => qtyRequired={}", olAndSched.getQtyOrdered(), qtyDelivered, qtyRequired);
 				}
@@ -493,7 +573,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				final BigDecimal qtyPickedOrOnDraftShipment;
 				{
 					// task 08123: we also take those numbers into account that are *not* on an M_InOutLine yet, but are nonetheless picked
-					final Quantity qtyPickedAndUnconfirmed = shipmentScheduleAllocBL.retrieveQtyPickedAndUnconfirmed(sched);
+					final Quantity qtyPickedAndUnconfirmed = allocations.getQtyPickedAndUnconfirmed(sched);
 					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedAndUnconfirmed);
 					qtyPickedOrOnDraftShipment = qtyPickedAndUnconfirmed.toBigDecimal();
 
@@ -942,4 +1022,219 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return segments.stream();
 		}
 	}
+
+	private int getParallelThreads()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_ParallelThreads, DEFAULT_ParallelThreads);
+	}
+
+	/**
+	 * Splits the given schedules into partitions which don't share any stock or delivery group and updates each partition in its own thread and transaction.
+	 * Because the partitions are independent and each of them keeps the original order, the outcome is the same as when updating all schedules in one pass.
+	 */
+	@VisibleForTesting
+	void updateSchedulesInParallel(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> olsAndScheds,
+			final int parallelThreads)
+	{
+		if (olsAndScheds.isEmpty())
+		{
+			return;
+		}
+
+		// the partitioning relies on the effective warehouse and BPartnerAddress_Override, so prepare the schedules first
+		prepareSchedules(olsAndScheds);
+
+		final List<List<OlAndSched>> partitions = partitionIndependent(olsAndScheds, parallelThreads, this::extractPartitionLinkKeys);
+		if (partitions.size() <= 1)
+		{
+			updatePreparedSchedules(ctx, olsAndScheds);
+			return;
+		}
+		Loggables.withLogger(logger, Level.DEBUG).addLog("Updating {} shipment schedules in {} partitions", olsAndScheds.size(), partitions.size());
+
+		final List<Runnable> tasks = partitions.stream()
+				.map(partition -> (Runnable)() -> updatePartition(ctx, partition))
+				.collect(ImmutableList.toImmutableList());
+		ParallelTasks.runAll(createPartitionsExecutor(partitions.size()), tasks);
+	}
+
+	@VisibleForTesting
+	ExecutorService createPartitionsExecutor(final int threadsCount)
+	{
+		return ParallelTasks.newFixedThreadPool(ShipmentScheduleUpdater.class.getSimpleName() + "-Partition", threadsCount);
+	}
+
+	private void updatePartition(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> partition)
+	{
+		this.running.set(true);
+
+		final Properties partitionCtx = Env.copyCtx(ctx);
+		try (final IAutoCloseable ctxCloseable = Env.switchContext(partitionCtx))
+		{
+			trxManager.runInNewTrx(() -> updatePreparedSchedules(partitionCtx, partition));
+			logger.debug("Updated partition of {} shipment schedules", partition.size());
+		}
+		finally
+		{
+			this.running.set(false);
+		}
+	}
+
+	/**
+	 * @return keys which are shared by two schedules if they might affect each other during an update, i.e. if they could
+	 *         <li>allocate the same stock (same product and warehouse picking group, including the components of picking BOMs)
+	 *         <li>end up in the same {@link DeliveryGroupCandidate}
+	 */
+	private List<Object> extractPartitionLinkKeys(@NonNull final OlAndSched olAndSched)
+	{
+		final I_M_ShipmentSchedule sched = olAndSched.getSched();
+		final WarehouseId warehouseId = shipmentScheduleEffectiveBL.getWarehouseId(sched);
+		final String bpartnerAddress = sched.getBPartnerAddress_Override();
+		final ShipmentScheduleReferencedLine scheduleSourceDoc = shipmentScheduleReferencedLineFactory.createFor(sched);
+
+		final List<Object> keys = new ArrayList<>();
+		keys.add(ArrayKey.of("DeliveryGroupByShipper", scheduleSourceDoc.getShipperId().orElse(null), warehouseId, bpartnerAddress));
+		keys.add(ArrayKey.of("DeliveryGroupByRecord", scheduleSourceDoc.getRecordRef(), warehouseId, bpartnerAddress));
+
+		final Set<WarehouseId> pickingGroupWarehouseIds = warehousesRepo.getWarehouseIdsOfSamePickingGroup(warehouseId);
+		keys.add(ArrayKey.of("Stock", pickingGroupWarehouseIds, olAndSched.getProductId()));
+
+		final PPOrderId pickFromOrderId = PPOrderId.ofRepoIdOrNull(sched.getPickFrom_Order_ID());
+		final QtyCalculationsBOM pickingBOM = pickFromOrderId != null ? ppOrdersBL.getOpenPickingOrderBOM(pickFromOrderId).orElse(null) : null;
+		if (pickingBOM != null)
+		{
+			for (final QtyCalculationsBOMLine bomLine : pickingBOM.getLines())
+			{
+				keys.add(ArrayKey.of("Stock", pickingGroupWarehouseIds, bomLine.getProductId()));
+			}
+		}
+
+		return keys;
+	}
+
+	/**
+	 * Groups the given items into connected components (two items are connected if they share at least one link key)
+	 * and distributes those components over at most <code>maxPartitions</code> partitions.
+	 *
+	 * @return non-empty partitions; within each partition, the items keep their original order
+	 */
+	@VisibleForTesting
+	static <T> List<List<T>> partitionIndependent(
+			@NonNull final List<T> items,
+			final int maxPartitions,
+			@NonNull final Function<T, ? extends Collection<?>> linkKeysExtractor)
+	{
+		//
+		// Union-find over the item indices
+		final int[] parents = new int[items.size()];
+		final Map<Object, Integer> firstItemIndexByKey = new HashMap<>();
+		for (int itemIndex = 0; itemIndex < items.size(); itemIndex++)
+		{
+			parents[itemIndex] = itemIndex;
+			for (final Object key : linkKeysExtractor.apply(items.get(itemIndex)))
+			{
+				final Integer otherItemIndex = firstItemIndexByKey.putIfAbsent(key, itemIndex);
+				if (otherItemIndex != null)
+				{
+					union(parents, itemIndex, otherItemIndex);
+				}
+			}
+		}
+
+		final LinkedHashMap<Integer, List<Integer>> componentsByRootIndex = new LinkedHashMap<>();
+		for (int itemIndex = 0; itemIndex < items.size(); itemIndex++)
+		{
+			componentsByRootIndex.computeIfAbsent(findRoot(parents, itemIndex), rootIndex -> new ArrayList<>()).add(itemIndex);
+		}
+
+		//
+		// Distribute the components, biggest first, always to the smallest partition
+		final int partitionsCount = Math.max(1, Math.min(maxPartitions, componentsByRootIndex.size()));
+		final List<List<Integer>> partitionsOfIndexes = new ArrayList<>(partitionsCount);
+		for (int i = 0; i < partitionsCount; i++)
+		{
+			partitionsOfIndexes.add(new ArrayList<>());
+		}
+
+		componentsByRootIndex.values()
+				.stream()
+				.sorted(Comparator.comparingInt((List<Integer> component) -> component.size()).reversed()) // stable
+				.forEach(component -> partitionsOfIndexes.stream()
+						.min(Comparator.comparingInt(List::size))
+						.get()
+						.addAll(component));
+
+		final List<List<T>> partitions = new ArrayList<>(partitionsCount);
+		for (final List<Integer> partitionOfIndexes : partitionsOfIndexes)
+		{
+			if (partitionOfIndexes.isEmpty())
+			{
+				continue;
+			}
+
+			partitionOfIndexes.sort(Comparator.naturalOrder());
+
+			final List<T> partition = new ArrayList<>(partitionOfIndexes.size());
+			partitionOfIndexes.forEach(itemIndex -> partition.add(items.get(itemIndex)));
+			partitions.add(partition);
+		}
+		return partitions;
+	}
+
+	private static int findRoot(final int[] parents, final int index)
+	{
+		int root = index;
+		while (parents[root] != root)
+		{
+			root = parents[root];
+		}
+
+		// path compression
+		int current = index;
+		while (parents[current] != root)
+		{
+			final int next = parents[current];
+			parents[current] = root;
+			current = next;
+		}
+		return root;
+	}
+
+	private static void union(final int[] parents, final int index1, final int index2)
+	{
+		final int root1 = findRoot(parents, index1);
+		final int root2 = findRoot(parents, index2);
+		if (root1 != root2)
+		{
+			parents[Math.max(root1, root2)] = Math.min(root1, root2);
+		}
+	}
+
+	/**
+	 * Delivered and picked quantities of the schedules which are currently updated.
+	 * They don't change during an update, so they are retrieved only once per schedule.
+	 */
+	final class ShipmentSchedulesAllocations
+	{
+		private final Map<ShipmentScheduleId, BigDecimal> qtyDeliveredBySchedId = new HashMap<>();
+		private final Map<ShipmentScheduleId, Quantity> qtyPickedAndUnconfirmedBySchedId = new HashMap<>();
+
+		public BigDecimal getQtyDelivered(@NonNull final I_M_ShipmentSchedule sched)
+		{
+			return qtyDeliveredBySchedId.computeIfAbsent(
+					ShipmentScheduleId.ofRepoId(sched.getM_ShipmentSchedule_ID()),
+					schedId -> shipmentScheduleAllocDAO.retrieveQtyDelivered(sched));
+		}
+
+		public Quantity getQtyPickedAndUnconfirmed(@NonNull final I_M_ShipmentSchedule sched)
+		{
+			return qtyPickedAndUnconfirmedBySchedId.computeIfAbsent(
+					ShipmentScheduleId.ofRepoId(sched.getM_ShipmentSchedule_ID()),
+					schedId -> shipmentScheduleAllocBL.retrieveQtyPickedAndUnconfirmed(sched));
+		}
+	}
 }
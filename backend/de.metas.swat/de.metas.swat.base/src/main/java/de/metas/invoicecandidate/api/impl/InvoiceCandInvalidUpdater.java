@@ -23,7 +23,14 @@
 package de.metas.invoicecandidate.api.impl;
 
 import ch.qos.logback.classic.Level;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.MultimapBuilder;
 import de.metas.inout.IInOutDAO;
+import de.metas.invoicecandidate.InvoiceCandidateId;
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
 import de.metas.invoicecandidate.api.IInvoiceCandInvalidUpdater;
@@ -52,9 +59,11 @@ import org.adempiere.ad.trx.processor.spi.TrxItemChunkProcessorAdapter;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.ParallelTasks;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 import org.compiere.SpringContextHolder;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
@@ -63,7 +72,9 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 
 import static java.math.BigDecimal.ONE;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
@@ -84,6 +95,11 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
 	private static final int DEFAULT_ItemsPerBatch = 100;
 
+	/** If greater than one, the tagged invoice candidates are partitioned by bill partner and updated in that many threads. */
+	@VisibleForTesting
+	static final String SYSCONFIG_ParallelThreads = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ParallelThreads";
+	private static final int DEFAULT_ParallelThreads = 1;
+
 	//
 	// Parameters
 	private Properties _ctx;
@@ -160,89 +176,214 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 			return;
 		}
 
+		final int parallelThreads = getParallelThreads();
+		if (processInBatches && parallelThreads > 1 && isNoTrxInherited())
+		{
+			updateTaggedInParallel(candidatesToUpdate, itemsPerBatch, parallelThreads);
+			return;
+		}
+
 		//
 		// Update invoice candidates in chunks
 		final ICUpdateResult result = new ICUpdateResult();
 		try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
 		{
-			trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
-					.setContext(getCtx(), getTrxName()) // if called from process or wp-processor then getTrxName() is null because *we* want to manage the trx => commit after each chunk
-					.setItemsPerBatch(itemsPerBatch)
+			updateInChunks(candidatesToUpdate, itemsPerBatch, getCtx(), getTrxName(), result);
+		}
 
-					// Don't use trx savepoints because they are expensive and we are not going to rollback anyways (OnItemErrorPolicy.ContinueChunkAndCommit)
-					// Note that if our trx is null, then this doesn't matter anyways.
-					.setUseTrxSavepoints(false)
+		//
+		// Log the result
+		Loggables.addLog("Update invalid result: {}", result.getSummary());
+	}
 
-					.setExceptionHandler(new ICTrxItemExceptionHandler(result))
+	private boolean isNoTrxInherited()
+	{
+		return trxManager.isNull(_trxName) && trxManager.isNull(trxManager.getThreadInheritedTrxName());
+	}
 
-					// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
-					.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
+	/**
+	 * Splits the given invoice candidates by their bill partner into independent partitions and updates each partition in its own thread.
+	 * <p>
+	 * Candidates of the same bill partner end up in the same partition, so the relative order from {@link IInvoiceCandRecomputeTagger#retrieveInvoiceCandidates()}
+	 * (i.e. non-manual candidates before manual ones) is preserved among them.
+	 * Each partition is processed in chunks of <code>itemsPerBatch</code>, each chunk in its own transaction.
+	 */
+	private void updateTaggedInParallel(
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidatesToUpdate,
+			final int itemsPerBatch,
+			final int parallelThreads)
+	{
+		final ListMultimap<Integer, InvoiceCandidateId> icIdsByPartitionNo = partitionByBillBPartner(candidatesToUpdate, parallelThreads);
 
-					.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
-					{
-						/** the invoice candidates which were updated in current batch/chunk */
-						final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
+		if (icIdsByPartitionNo.isEmpty())
+		{
+			return;
+		}
 
-						@Override
-						public void process(final I_C_Invoice_Candidate icRecord)
-						{
-							try (final MDCCloseable icMDC = TableRecordMDC.putTableRecordReference(icRecord))
-							{
-								chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
-
-								updateInvalid(icRecord);
-								if (!icRecord.isError())
-								{
-									logger.debug("Updated invoice canddiate");
-									result.addInvoiceCandidate(icRecord);
-								}
-								else
-								{
-									Loggables.withLogger(logger, Level.DEBUG)
-											.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
-									result.incrementErrorsCount();
-								}
-							}
-						}
+		final Properties ctx = getCtx();
+		final List<ICUpdateResult> results = new ArrayList<>();
+		final List<Runnable> tasks = new ArrayList<>();
+		for (final int partitionNo : icIdsByPartitionNo.keySet())
+		{
+			final List<InvoiceCandidateId> icIds = icIdsByPartitionNo.get(partitionNo);
+			final ICUpdateResult result = new ICUpdateResult("partition " + partitionNo, icIds.size());
+			results.add(result);
 
-						@Override
-						public ICUpdateResult getResult()
-						{
-							return result;
-						}
+			tasks.add(() -> updatePartition(icIds, itemsPerBatch, ctx, result));
+		}
 
-						/**
-						 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
-						 * We do this because in fact, each IC is independent from each other.
-						 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
-						 */
-						@Override
-						public boolean isSameChunk(final I_C_Invoice_Candidate item)
-						{
-							return true;
-						}
+		try
+		{
+			ParallelTasks.runAll(createPartitionsExecutor(Math.min(parallelThreads, tasks.size())), tasks);
+		}
+		finally
+		{
+			results.forEach(result -> Loggables.addLog("Update invalid result: {}", result.getSummary()));
+		}
+	}
 
-						@Override
-						public void newChunk(final I_C_Invoice_Candidate item)
-						{
-							chunkInvoiceCandidateIds.clear(); // better safe than sorry
-						}
+	/**
+	 * @return the IDs of the given invoice candidates by partition number; within a partition, the IDs are in the same order as the given candidates
+	 */
+	@VisibleForTesting
+	static ListMultimap<Integer, InvoiceCandidateId> partitionByBillBPartner(
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidates,
+			final int partitionsCount)
+	{
+		final ListMultimap<Integer, InvoiceCandidateId> icIdsByPartitionNo = MultimapBuilder.treeKeys().arrayListValues().build();
+		while (candidates.hasNext())
+		{
+			final I_C_Invoice_Candidate icRecord = candidates.next();
+			icIdsByPartitionNo.put(computePartitionNo(icRecord, partitionsCount), InvoiceCandidateId.ofRepoId(icRecord.getC_Invoice_Candidate_ID()));
+		}
+		return icIdsByPartitionNo;
+	}
+
+	@VisibleForTesting
+	static int computePartitionNo(@NonNull final I_C_Invoice_Candidate icRecord, final int partitionsCount)
+	{
+		return Math.floorMod(icRecord.getBill_BPartner_ID(), partitionsCount);
+	}
+
+	@VisibleForTesting
+	ExecutorService createPartitionsExecutor(final int threadsCount)
+	{
+		return ParallelTasks.newFixedThreadPool(InvoiceCandInvalidUpdater.class.getSimpleName() + "-Partition", threadsCount);
+	}
 
-						/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
-						@Override
-						public void completeChunk()
+	private void updatePartition(
+			@NonNull final List<InvoiceCandidateId> icIds,
+			final int itemsPerBatch,
+			@NonNull final Properties ctx,
+			@NonNull final ICUpdateResult result)
+	{
+		result.markStarted();
+		try (final IAutoCloseable ctxCloseable = Env.switchContext(Env.copyCtx(ctx));
+				final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+		{
+			// load the candidates chunk by chunk, in the order they were tagged
+			final Iterator<I_C_Invoice_Candidate> candidates = Iterators.concat(Iterators.transform(
+					Iterators.partition(icIds.iterator(), itemsPerBatch),
+					this::retrieveInvoiceCandidatesInOrder));
+
+			updateInChunks(candidates, itemsPerBatch, ctx, ITrx.TRXNAME_ThreadInherited, result);
+		}
+		finally
+		{
+			result.markDone();
+			logger.info("Update invalid result: {}", result.getSummary());
+		}
+	}
+
+	private Iterator<I_C_Invoice_Candidate> retrieveInvoiceCandidatesInOrder(@NonNull final List<InvoiceCandidateId> icIds)
+	{
+		final ImmutableMap<Integer, I_C_Invoice_Candidate> icRecordsById = Maps.uniqueIndex(invoiceCandDAO.getByIds(icIds), I_C_Invoice_Candidate::getC_Invoice_Candidate_ID);
+		return icIds.stream()
+				.map(icId -> icRecordsById.get(icId.getRepoId()))
+				.filter(Objects::nonNull) // deleted in meantime
+				.iterator();
+	}
+
+	private void updateInChunks(
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidatesToUpdate,
+			final int itemsPerBatch,
+			@NonNull final Properties ctx,
+			final String trxName,
+			@NonNull final ICUpdateResult result)
+	{
+		trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
+				.setContext(ctx, trxName) // if called from process or wp-processor then trxName is null because *we* want to manage the trx => commit after each chunk
+				.setItemsPerBatch(itemsPerBatch)
+
+				// Don't use trx savepoints because they are expensive and we are not going to rollback anyways (OnItemErrorPolicy.ContinueChunkAndCommit)
+				// Note that if our trx is null, then this doesn't matter anyways.
+				.setUseTrxSavepoints(false)
+
+				.setExceptionHandler(new ICTrxItemExceptionHandler(result))
+
+				// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
+				.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
+
+				.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
+				{
+					/** the invoice candidates which were updated in current batch/chunk */
+					final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
+
+					@Override
+					public void process(final I_C_Invoice_Candidate icRecord)
+					{
+						try (final MDCCloseable icMDC = TableRecordMDC.putTableRecordReference(icRecord))
 						{
-							icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
-							chunkInvoiceCandidateIds.clear();
+							chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
+
+							updateInvalid(icRecord);
+							if (!icRecord.isError())
+							{
+								logger.debug("Updated invoice canddiate");
+								result.addInvoiceCandidate(icRecord);
+							}
+							else
+							{
+								Loggables.withLogger(logger, Level.DEBUG)
+										.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
+								result.incrementErrorsCount();
+							}
 						}
-					})
-					//
-					.process(candidatesToUpdate);
-		}
+					}
 
-		//
-		// Log the result
-		Loggables.addLog("Update invalid result: {}", result.getSummary());
+					@Override
+					public ICUpdateResult getResult()
+					{
+						return result;
+					}
+
+					/**
+					 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
+					 * We do this because in fact, each IC is independent from each other.
+					 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
+					 */
+					@Override
+					public boolean isSameChunk(final I_C_Invoice_Candidate item)
+					{
+						return true;
+					}
+
+					@Override
+					public void newChunk(final I_C_Invoice_Candidate item)
+					{
+						chunkInvoiceCandidateIds.clear(); // better safe than sorry
+					}
+
+					/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
+					@Override
+					public void completeChunk()
+					{
+						icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
+						chunkInvoiceCandidateIds.clear();
+					}
+				})
+				//
+				.process(candidatesToUpdate);
 	}
 
 	private void updateInvalid(@NonNull final I_C_Invoice_Candidate icRecord)
@@ -479,6 +620,11 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		return sysConfigBL.getIntValue(SYSCONFIG_ItemsPerBatch, DEFAULT_ItemsPerBatch);
 	}
 
+	private int getParallelThreads()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_ParallelThreads, DEFAULT_ParallelThreads);
+	}
+
 	/**
 	 * IC update result.
 	 *
@@ -486,8 +632,25 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	 */
 	private static final class ICUpdateResult
 	{
-		private int countOk = 0;
-		private int countErrors = 0;
+		private final String partitionName;
+		private final int countTotal;
+		private volatile long startMillis = System.currentTimeMillis();
+		private volatile long durationMillis = -1;
+
+		// NOTE: each result is updated by only one thread; volatile because the summary might be read by another one
+		private volatile int countOk = 0;
+		private volatile int countErrors = 0;
+
+		public ICUpdateResult()
+		{
+			this(null, -1);
+		}
+
+		public ICUpdateResult(@Nullable final String partitionName, final int countTotal)
+		{
+			this.partitionName = partitionName;
+			this.countTotal = countTotal;
+		}
 
 		public void addInvoiceCandidate(final I_C_Invoice_Candidate ic)
 		{
@@ -499,6 +662,16 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 			countErrors++;
 		}
 
+		public void markStarted()
+		{
+			startMillis = System.currentTimeMillis();
+		}
+
+		public void markDone()
+		{
+			durationMillis = System.currentTimeMillis() - startMillis;
+		}
+
 		@Override
 		public String toString()
 		{
@@ -507,7 +680,14 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		public String getSummary()
 		{
-			return "Updated " + countOk + " invoice candidates, " + countErrors + " errors";
+			if (partitionName == null)
+			{
+				return "Updated " + countOk + " invoice candidates, " + countErrors + " errors";
+			}
+
+			return partitionName + ": "
+					+ "Updated " + countOk + "/" + countTotal + " invoice candidates, " + countErrors + " errors"
+					+ (durationMillis >= 0 ? ", took " + durationMillis + "ms" : ", still running");
 		}
 	}
 
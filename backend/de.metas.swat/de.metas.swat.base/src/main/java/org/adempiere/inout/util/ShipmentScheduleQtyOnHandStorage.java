@@ -37,6 +37,7 @@ import de.metas.material.planning.pporder.PPOrderId;
 import de.metas.material.planning.pporder.impl.QtyCalculationsBOM;
 import de.metas.material.planning.pporder.impl.QtyCalculationsBOMLine;
 import de.metas.product.ProductId;
+import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.ToString;
@@ -48,11 +49,8 @@ import lombok.ToString;
 @ToString(of = "stockDetails")
 public class ShipmentScheduleQtyOnHandStorage
 {
-	// services
-	private final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
-	private final IWarehouseDAO warehouseDAO = Services.get(IWarehouseDAO.class);
-	private final IPPOrderBL ppOrdersBL = Services.get(IPPOrderBL.class);
-
+	@Nullable
+	private final ShipmentScheduleStockSnapshot stockSnapshot;
 	private final ImmutableList<ShipmentScheduleAvailableStockDetail> stockDetails;
 	private final Map<ArrayKey, StockDataQuery> cachedMaterialQueries = new HashMap<>();
 	private final Map<PPOrderId, Optional<QtyCalculationsBOM>> cachedPickingBOMs = new HashMap<>();
@@ -61,41 +59,57 @@ public class ShipmentScheduleQtyOnHandStorage
 			@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules,
 			@NonNull final StockRepository stockRepository)
 	{
-		this.stockDetails = toStockDetails(shipmentSchedules, stockRepository);
+		this(loadStockSnapshot(shipmentSchedules, stockRepository));
+	}
+
+	ShipmentScheduleQtyOnHandStorage(@NonNull final ShipmentScheduleStockSnapshot stockSnapshot)
+	{
+		this.stockSnapshot = stockSnapshot;
+		this.stockDetails = toStockDetails(stockSnapshot.getStockDataItems());
 	}
 
 	@VisibleForTesting
 	ShipmentScheduleQtyOnHandStorage(@NonNull final List<ShipmentScheduleAvailableStockDetail> stockDetails)
 	{
+		this.stockSnapshot = null;
 		this.stockDetails = ImmutableList.copyOf(stockDetails);
 	}
 
-	private final ImmutableList<ShipmentScheduleAvailableStockDetail> toStockDetails(
+	private static ShipmentScheduleStockSnapshot loadStockSnapshot(
 			final List<I_M_ShipmentSchedule> shipmentSchedules,
 			final StockRepository stockRepository)
 	{
 		if (shipmentSchedules.isEmpty())
 		{
-			return ImmutableList.of();
+			return ShipmentScheduleStockSnapshot.EMPTY;
 		}
 		final StockDataMultiQuery multiQuery = toMultiQueryOrNull(shipmentSchedules);
 		if (multiQuery == null)
 		{
-			return ImmutableList.of();
+			return ShipmentScheduleStockSnapshot.EMPTY;
 		}
 
 		final List<StockDataItem> stockResult = stockRepository
 				.streamStockDataItems(multiQuery)
 				.collect(ImmutableList.toImmutableList());
 
-		return toStockDetails(stockResult);
+		return ShipmentScheduleStockSnapshot.of(stockResult);
 	}
 
-	private StockDataMultiQuery toMultiQueryOrNull(@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules)
+	/**
+	 * @return the stock as it was loaded, i.e. without the in-memory changes made on this storage
+	 */
+	public ShipmentScheduleStockSnapshot getStockSnapshot()
 	{
+		return Check.assumeNotNull(stockSnapshot, "stockSnapshot shall be available for {}", this);
+	}
+
+	private static StockDataMultiQuery toMultiQueryOrNull(@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules)
+	{
+		final Map<PPOrderId, Optional<QtyCalculationsBOM>> pickingBOMs = new HashMap<>();
 		final Set<StockDataQuery> stockDataQueries = shipmentSchedules
 				.stream()
-				.flatMap(this::getMaterialQueriesIncludingPickingBOMComponents)
+				.flatMap(sched -> getMaterialQueriesIncludingPickingBOMComponents(sched, pickingBOMs))
 				.collect(ImmutableSet.toImmutableSet());
 		if (stockDataQueries.isEmpty())
 		{
@@ -128,10 +142,10 @@ public class ShipmentScheduleQtyOnHandStorage
 		return cachedMaterialQueries.computeIfAbsent(materialQueryCacheKey, k -> toQuery0(sched));
 	}
 
-	private StockDataQuery toQuery0(@NonNull final I_M_ShipmentSchedule sched)
+	private static StockDataQuery toQuery0(@NonNull final I_M_ShipmentSchedule sched)
 	{
-		final WarehouseId shipmentScheduleWarehouseId = shipmentScheduleEffectiveBL.getWarehouseId(sched);
-		final Set<WarehouseId> warehouseIds = warehouseDAO.getWarehouseIdsOfSamePickingGroup(shipmentScheduleWarehouseId);
+		final WarehouseId shipmentScheduleWarehouseId = Services.get(IShipmentScheduleEffectiveBL.class).getWarehouseId(sched);
+		final Set<WarehouseId> warehouseIds = Services.get(IWarehouseDAO.class).getWarehouseIdsOfSamePickingGroup(shipmentScheduleWarehouseId);
 
 		final ProductId productId = ProductId.ofRepoId(sched.getM_Product_ID());
 
@@ -152,13 +166,16 @@ public class ShipmentScheduleQtyOnHandStorage
 
 	}
 
-	private Stream<StockDataQuery> getMaterialQueriesIncludingPickingBOMComponents(@NonNull final I_M_ShipmentSchedule shipmentScheduleRecord)
+	private static Stream<StockDataQuery> getMaterialQueriesIncludingPickingBOMComponents(
+			@NonNull final I_M_ShipmentSchedule shipmentScheduleRecord,
+			@NonNull final Map<PPOrderId, Optional<QtyCalculationsBOM>> pickingBOMs)
 	{
 		try (final MDCCloseable shipmentScheduleMDC = TableRecordMDC.putTableRecordReference(shipmentScheduleRecord))
 		{
-			final StockDataQuery query = toQuery(shipmentScheduleRecord);
+			final StockDataQuery query = toQuery0(shipmentScheduleRecord);
 
-			final QtyCalculationsBOM bom = getPickingBOM(shipmentScheduleRecord).orElse(null);
+			final PPOrderId pickingOrderId = PPOrderId.ofRepoIdOrNull(shipmentScheduleRecord.getPickFrom_Order_ID());
+			final QtyCalculationsBOM bom = getPickingBOM(pickingOrderId, pickingBOMs).orElse(null);
 			if (bom == null)
 			{
 				return Stream.of(query);
@@ -174,18 +191,17 @@ public class ShipmentScheduleQtyOnHandStorage
 		}
 	}
 
-	private Optional<QtyCalculationsBOM> getPickingBOM(@NonNull final I_M_ShipmentSchedule sched)
+	private Optional<QtyCalculationsBOM> getPickingBOM(@Nullable final PPOrderId pickingOrderId)
 	{
-		final PPOrderId pickingOrderId = PPOrderId.ofRepoIdOrNull(sched.getPickFrom_Order_ID());
-		return pickingOrderId != null
-				? getPickingBOM(pickingOrderId)
-				: Optional.empty();
+		return getPickingBOM(pickingOrderId, cachedPickingBOMs);
 	}
 
-	private Optional<QtyCalculationsBOM> getPickingBOM(@Nullable final PPOrderId pickingOrderId)
+	private static Optional<QtyCalculationsBOM> getPickingBOM(
+			@Nullable final PPOrderId pickingOrderId,
+			@NonNull final Map<PPOrderId, Optional<QtyCalculationsBOM>> pickingBOMs)
 	{
 		return pickingOrderId != null
-				? cachedPickingBOMs.computeIfAbsent(pickingOrderId, ppOrdersBL::getOpenPickingOrderBOM)
+				? pickingBOMs.computeIfAbsent(pickingOrderId, Services.get(IPPOrderBL.class)::getOpenPickingOrderBOM)
 				: Optional.empty();
 	}
 
@@ -58,4 +58,12 @@ public class ShipmentScheduleQtyOnHandStorageFactory
 
 		return new ShipmentScheduleQtyOnHandStorage(shipmentSchedules, stockRepository);
 	}
+
+	/**
+	 * @return a new storage, initialized with the given stock and without querying the database
+	 */
+	public final ShipmentScheduleQtyOnHandStorage ofStockSnapshot(@NonNull final ShipmentScheduleStockSnapshot stockSnapshot)
+	{
+		return new ShipmentScheduleQtyOnHandStorage(stockSnapshot);
+	}
 }
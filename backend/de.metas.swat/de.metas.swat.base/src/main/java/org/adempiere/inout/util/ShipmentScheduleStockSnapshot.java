@@ -0,0 +1,58 @@
+package org.adempiere.inout.util;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.cockpit.stock.StockDataItem;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable stock data, as loaded for a given set of shipment schedules.
+ * <p>
+ * Use {@link ShipmentScheduleQtyOnHandStorageFactory#ofStockSnapshot(ShipmentScheduleStockSnapshot)} to get a fresh (mutable) {@link ShipmentScheduleQtyOnHandStorage}
+ * without loading the stock again.
+ */
+@ToString
+public final class ShipmentScheduleStockSnapshot
+{
+	static ShipmentScheduleStockSnapshot of(@NonNull final List<StockDataItem> stockDataItems)
+	{
+		return stockDataItems.isEmpty() ? EMPTY : new ShipmentScheduleStockSnapshot(stockDataItems);
+	}
+
+	public static final ShipmentScheduleStockSnapshot EMPTY = new ShipmentScheduleStockSnapshot(ImmutableList.of());
+
+	@Getter(AccessLevel.PACKAGE)
+	private final ImmutableList<StockDataItem> stockDataItems;
+
+	private ShipmentScheduleStockSnapshot(@NonNull final List<StockDataItem> stockDataItems)
+	{
+		this.stockDataItems = ImmutableList.copyOf(stockDataItems);
+	}
+}
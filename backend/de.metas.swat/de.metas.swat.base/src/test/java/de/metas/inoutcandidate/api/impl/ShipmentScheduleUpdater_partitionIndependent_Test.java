@@ -0,0 +1,78 @@
+package de.metas.inoutcandidate.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ShipmentScheduleUpdater_partitionIndependent_Test
+{
+	/** item => link keys */
+	private static final ImmutableListMultimap<String, String> LINK_KEYS = ImmutableListMultimap.<String, String> builder()
+			.putAll("order1-productA", "order1", "productA")
+			.putAll("order2-productB", "order2", "productB")
+			.putAll("order3-productA", "order3", "productA")
+			.putAll("order1-productC", "order1", "productC")
+			.putAll("order4-productD", "order4", "productD")
+			.build();
+
+	private static List<List<String>> partition(final List<String> items, final int maxPartitions)
+	{
+		return ShipmentScheduleUpdater.partitionIndependent(items, maxPartitions, LINK_KEYS::get);
+	}
+
+	@Test
+	public void connectedItemsStayTogetherInOriginalOrder()
+	{
+		final List<List<String>> partitions = partition(LINK_KEYS.keySet().asList(), 10);
+
+		assertThat(partitions).containsExactlyInAnyOrder(
+				ImmutableList.of("order1-productA", "order3-productA", "order1-productC"),
+				ImmutableList.of("order2-productB"),
+				ImmutableList.of("order4-productD"));
+	}
+
+	@Test
+	public void componentsAreDistributedOverMaxPartitions()
+	{
+		final List<List<String>> partitions = partition(LINK_KEYS.keySet().asList(), 2);
+
+		assertThat(partitions).containsExactlyInAnyOrder(
+				ImmutableList.of("order1-productA", "order3-productA", "order1-productC"),
+				ImmutableList.of("order2-productB", "order4-productD"));
+	}
+
+	@Test
+	public void singlePartition()
+	{
+		final List<String> items = LINK_KEYS.keySet().asList();
+
+		assertThat(partition(items, 1)).containsExactly(items);
+	}
+}
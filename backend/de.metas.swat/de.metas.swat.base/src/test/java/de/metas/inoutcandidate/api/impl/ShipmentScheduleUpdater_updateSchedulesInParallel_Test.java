@@ -0,0 +1,229 @@
+package de.metas.inoutcandidate.api.impl;
+
+import static java.math.BigDecimal.TEN;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.adempiere.inout.util.DeliveryLineCandidate;
+import org.adempiere.inout.util.IShipmentSchedulesDuringUpdate;
+import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorageFactory;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.bpartner.service.impl.BPartnerBL;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderLineSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.ProductSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.ShipmentScheduleSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.StockSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpecHelper;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.UomSpec;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.inoutcandidate.picking_bom.PickingBOMService;
+import de.metas.inoutcandidate.spi.ShipmentScheduleReferencedLineFactory;
+import de.metas.inoutcandidate.spi.impl.ShipmentScheduleOrderReferenceProvider;
+import de.metas.material.cockpit.stock.StockDataItem;
+import de.metas.material.cockpit.stock.StockDataMultiQuery;
+import de.metas.material.cockpit.stock.StockRepository;
+import de.metas.order.DeliveryRule;
+import de.metas.user.UserRepository;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Verifies that {@link ShipmentScheduleUpdater#updateSchedulesInParallel(Properties, List, int)} computes the same quantities to deliver as the sequential update.
+ * <p>
+ * The schedules are not actually saved; the test records the second run's quantities instead.
+ */
+@ExtendWith(AdempiereTestWatcher.class)
+public class ShipmentScheduleUpdater_updateSchedulesInParallel_Test
+{
+	private final AtomicInteger stockQueriesCount = new AtomicInteger();
+	private final AtomicInteger partitionExecutorsCreated = new AtomicInteger();
+	private final Map<ShipmentScheduleId, BigDecimal> qtysToDeliver = new HashMap<>();
+
+	private ShipmentScheduleUpdater shipmentScheduleUpdater;
+	private List<OlAndSched> olAndScheds;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		Services.registerService(IBPartnerBL.class, new BPartnerBL(new UserRepository()));
+
+		final StockRepository stockRepository = new StockRepository()
+		{
+			@Override
+			public Stream<StockDataItem> streamStockDataItems(@NonNull final StockDataMultiQuery multiQuery)
+			{
+				stockQueriesCount.incrementAndGet();
+				return super.streamStockDataItems(multiQuery);
+			}
+		};
+
+		shipmentScheduleUpdater = new ShipmentScheduleUpdater(
+				new ShipmentScheduleQtyOnHandStorageFactory(stockRepository),
+				new ShipmentScheduleReferencedLineFactory(Optional.of(ImmutableList.of(new ShipmentScheduleOrderReferenceProvider()))),
+				new PickingBOMService())
+		{
+			@Override
+			void prepareSchedules(final List<OlAndSched> olsAndScheds)
+			{
+				// nothing to prepare; the schedules are set up with their warehouse and BPartnerAddress_Override
+			}
+
+			@Override
+			void updateSchedulesFromSecondRun(
+					final Properties ctx,
+					final List<OlAndSched> olsAndScheds,
+					final IShipmentSchedulesDuringUpdate secondRun,
+					final ShipmentSchedulesAllocations allocations)
+			{
+				for (final OlAndSched olAndSched : olsAndScheds)
+				{
+					final DeliveryLineCandidate line = secondRun.getLineCandidateForShipmentScheduleId(olAndSched.getShipmentScheduleId());
+					qtysToDeliver.put(olAndSched.getShipmentScheduleId(), line != null ? line.getQtyToDeliver() : BigDecimal.ZERO);
+				}
+			}
+
+			@Override
+			ExecutorService createPartitionsExecutor(final int threadsCount)
+			{
+				partitionExecutorsCreated.incrementAndGet();
+				return MoreExecutors.newDirectExecutorService();
+			}
+		};
+
+		olAndScheds = setupSchedules();
+	}
+
+	/**
+	 * order1 and order2 are sharing the stock of productA, order3 is independent
+	 */
+	private static List<OlAndSched> setupSchedules()
+	{
+		final TestSetupSpec spec = TestSetupSpec.builder()
+				.uom(UomSpec.builder().name("Each").build())
+				.product(ProductSpec.builder().value("productA").uomValue("Each").stocked(true).build())
+				.product(ProductSpec.builder().value("productB").uomValue("Each").stocked(true).build())
+				.product(ProductSpec.builder().value("productC").uomValue("Each").stocked(true).build())
+				//
+				.stock(StockSpec.builder().product("productA").qtyStock(new BigDecimal("12")).build())
+				.stock(StockSpec.builder().product("productB").qtyStock(new BigDecimal("3")).build())
+				.stock(StockSpec.builder().product("productC").qtyStock(new BigDecimal("20")).build())
+				//
+				.order(OrderSpec.builder().value("order1").build())
+				.order(OrderSpec.builder().value("order2").build())
+				.order(OrderSpec.builder().value("order3").build())
+				.orderLine(OrderLineSpec.builder().value("ol11").product("productA").order("order1").qtyOrdered(TEN).build())
+				.orderLine(OrderLineSpec.builder().value("ol12").product("productB").order("order1").qtyOrdered(TEN).build())
+				.orderLine(OrderLineSpec.builder().value("ol21").product("productA").order("order2").qtyOrdered(TEN).build())
+				.orderLine(OrderLineSpec.builder().value("ol31").product("productC").order("order3").qtyOrdered(TEN).build())
+				//
+				.shipmentSchedule(ShipmentScheduleSpec.builder().product("productA").order("order1").orderLine("ol11").qtyOrdered(TEN).deliveryRule(DeliveryRule.AVAILABILITY).build())
+				.shipmentSchedule(ShipmentScheduleSpec.builder().product("productB").order("order1").orderLine("ol12").qtyOrdered(TEN).deliveryRule(DeliveryRule.AVAILABILITY).build())
+				.shipmentSchedule(ShipmentScheduleSpec.builder().product("productA").order("order2").orderLine("ol21").qtyOrdered(TEN).deliveryRule(DeliveryRule.AVAILABILITY).build())
+				.shipmentSchedule(ShipmentScheduleSpec.builder().product("productC").order("order3").orderLine("ol31").qtyOrdered(TEN).deliveryRule(DeliveryRule.AVAILABILITY).build())
+				.build();
+
+		final ImmutableList<OlAndSched> olAndScheds = TestSetupSpecHelper.setup(spec);
+
+		// one address per order, so that only the shared stock links the orders
+		for (final OlAndSched olAndSched : olAndScheds)
+		{
+			final I_M_ShipmentSchedule sched = olAndSched.getSched();
+			sched.setBPartnerAddress_Override("address of order " + sched.getC_Order_ID());
+			saveRecord(sched);
+		}
+
+		return olAndScheds;
+	}
+
+	private Map<ShipmentScheduleId, BigDecimal> getAndResetQtysToDeliver()
+	{
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> result = ImmutableMap.copyOf(qtysToDeliver);
+		qtysToDeliver.clear();
+		return result;
+	}
+
+	@Test
+	public void sequentialUpdate_loadsStockOnlyOnce()
+	{
+		shipmentScheduleUpdater.updateSchedules(Env.getCtx(), olAndScheds);
+
+		assertThat(stockQueriesCount).as("the second run shall start from the first run's stock snapshot").hasValue(1);
+		assertThat(getAndResetQtysToDeliver()).hasSize(olAndScheds.size());
+	}
+
+	@Test
+	public void parallelUpdate_sameResultsAsSequentialUpdate()
+	{
+		shipmentScheduleUpdater.updateSchedules(Env.getCtx(), olAndScheds);
+		final Map<ShipmentScheduleId, BigDecimal> sequentialQtysToDeliver = getAndResetQtysToDeliver();
+		assertThat(sequentialQtysToDeliver.values()).anySatisfy(qtyToDeliver -> assertThat(qtyToDeliver).isPositive());
+
+		stockQueriesCount.set(0);
+		shipmentScheduleUpdater.updateSchedulesInParallel(Env.getCtx(), olAndScheds, 3);
+		final Map<ShipmentScheduleId, BigDecimal> parallelQtysToDeliver = getAndResetQtysToDeliver();
+
+		assertThat(partitionExecutorsCreated).hasValue(1);
+		assertThat(stockQueriesCount).as("stock loaded once for each of the 2 partitions").hasValue(2);
+
+		assertThat(parallelQtysToDeliver).hasSameSizeAs(sequentialQtysToDeliver);
+		final List<String> differences = new ArrayList<>();
+		sequentialQtysToDeliver.forEach((schedId, sequentialQtyToDeliver) -> {
+			final BigDecimal parallelQtyToDeliver = parallelQtysToDeliver.get(schedId);
+			if (parallelQtyToDeliver == null || parallelQtyToDeliver.compareTo(sequentialQtyToDeliver) != 0)
+			{
+				differences.add(schedId + ": sequential=" + sequentialQtyToDeliver + ", parallel=" + parallelQtyToDeliver);
+			}
+		});
+		assertThat(differences).isEmpty();
+	}
+}
@@ -0,0 +1,206 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.Env;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import de.metas.ShutdownListener;
+import de.metas.StartupListener;
+import de.metas.currency.CurrencyRepository;
+import de.metas.invoicecandidate.AbstractICTestSupport;
+import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.invoicecandidate.api.IInvoiceCandBL;
+import de.metas.invoicecandidate.internalbusinesslogic.InvoiceCandidateRecordService;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate_Recompute;
+import de.metas.money.MoneyService;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { StartupListener.class, ShutdownListener.class, MoneyService.class, CurrencyRepository.class, InvoiceCandidateRecordService.class })
+public class InvoiceCandInvalidUpdaterTest extends AbstractICTestSupport
+{
+	private I_C_Invoice_Candidate newICRecord(final int billBPartnerId)
+	{
+		final I_C_Invoice_Candidate icRecord = newInstance(I_C_Invoice_Candidate.class);
+		icRecord.setBill_BPartner_ID(billBPartnerId);
+		saveRecord(icRecord);
+		return icRecord;
+	}
+
+	private static InvoiceCandidateId extractId(final I_C_Invoice_Candidate icRecord)
+	{
+		return InvoiceCandidateId.ofRepoId(icRecord.getC_Invoice_Candidate_ID());
+	}
+
+	@Test
+	public void partitionByBillBPartner()
+	{
+		final int partitionsCount = 3;
+		final int[] billBPartnerIds = { 1, 2, 3, 4, 5, 1000001, 1000002 };
+
+		final List<I_C_Invoice_Candidate> icRecords = new ArrayList<>();
+		for (int i = 0; i < 30; i++)
+		{
+			icRecords.add(newICRecord(billBPartnerIds[i % billBPartnerIds.length]));
+		}
+
+		final ListMultimap<Integer, InvoiceCandidateId> icIdsByPartitionNo = InvoiceCandInvalidUpdater.partitionByBillBPartner(icRecords.iterator(), partitionsCount);
+
+		// every IC is assigned exactly once
+		assertThat(icIdsByPartitionNo.values())
+				.containsExactlyInAnyOrderElementsOf(icRecords.stream().map(InvoiceCandInvalidUpdaterTest::extractId).collect(ImmutableList.toImmutableList()));
+		assertThat(icIdsByPartitionNo.keySet()).allSatisfy(partitionNo -> assertThat(partitionNo).isBetween(0, partitionsCount - 1));
+
+		for (final int partitionNo : icIdsByPartitionNo.keySet())
+		{
+			// all ICs of one bill partner are in the same partition, in their original order
+			final ImmutableList<InvoiceCandidateId> expectedIcIds = icRecords.stream()
+					.filter(icRecord -> InvoiceCandInvalidUpdater.computePartitionNo(icRecord, partitionsCount) == partitionNo)
+					.map(InvoiceCandInvalidUpdaterTest::extractId)
+					.collect(ImmutableList.toImmutableList());
+			assertThat(icIdsByPartitionNo.get(partitionNo)).containsExactlyElementsOf(expectedIcIds);
+		}
+
+		for (final int billBPartnerId : billBPartnerIds)
+		{
+			final long partitionsOfBillBPartner = icRecords.stream()
+					.filter(icRecord -> icRecord.getBill_BPartner_ID() == billBPartnerId)
+					.map(icRecord -> InvoiceCandInvalidUpdater.computePartitionNo(icRecord, partitionsCount))
+					.distinct()
+					.count();
+			assertThat(partitionsOfBillBPartner).as("partitions of Bill_BPartner_ID=%s", billBPartnerId).isEqualTo(1);
+		}
+	}
+
+	/**
+	 * The partitions are updated by a direct executor, because the in-memory database is not thread safe.
+	 */
+	@Test
+	public void updateInParallel_sameResultAsSequentialUpdate()
+	{
+		createInvoiceCandidates();
+		final List<ICState> sequentialResult = updateAndGetStates(1);
+
+		initStuff();
+		createInvoiceCandidates();
+		final List<ICState> parallelResult = updateAndGetStates(4);
+
+		assertThat(parallelResult).isEqualTo(sequentialResult);
+		assertThat(sequentialResult).hasSize(12);
+	}
+
+	private void createInvoiceCandidates()
+	{
+		for (int i = 0; i < 12; i++)
+		{
+			createInvoiceCandidate()
+					.setBillBPartnerId(1 + i % 5)
+					.setPriceEntered(10 + i)
+					.setQtyOrdered(1 + i)
+					.setSOTrx(true)
+					.build();
+		}
+	}
+
+	private List<ICState> updateAndGetStates(final int parallelThreads)
+	{
+		Services.get(ISysConfigBL.class).setValue(InvoiceCandInvalidUpdater.SYSCONFIG_ParallelThreads, parallelThreads, ClientId.SYSTEM, OrgId.ANY);
+
+		final AtomicInteger partitionExecutorsCreated = new AtomicInteger();
+		final InvoiceCandInvalidUpdater updater = new InvoiceCandInvalidUpdater((InvoiceCandBL)Services.get(IInvoiceCandBL.class))
+		{
+			@Override
+			ExecutorService createPartitionsExecutor(final int threadsCount)
+			{
+				partitionExecutorsCreated.incrementAndGet();
+				return MoreExecutors.newDirectExecutorService();
+			}
+		};
+		updater.setContext(Env.getCtx(), ITrx.TRXNAME_None)
+				.setTaggedWithAnyTag()
+				.update();
+
+		assertThat(partitionExecutorsCreated.get()).isEqualTo(parallelThreads > 1 ? 1 : 0);
+		assertThat(Services.get(IQueryBL.class).createQueryBuilder(I_C_Invoice_Candidate_Recompute.class).create().anyMatch()).isFalse();
+
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Invoice_Candidate.class)
+				.orderBy(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID)
+				.create()
+				.list()
+				.stream()
+				.map(ICState::of)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Value
+	private static class ICState
+	{
+		int billBPartnerId;
+		BigDecimal qtyOrdered;
+		BigDecimal qtyDelivered;
+		BigDecimal qtyToInvoice;
+		BigDecimal priceActual;
+		boolean error;
+		String errorMsg;
+
+		static ICState of(final I_C_Invoice_Candidate icRecord)
+		{
+			InterfaceWrapperHelper.refresh(icRecord);
+			return new ICState(
+					icRecord.getBill_BPartner_ID(),
+					icRecord.getQtyOrdered(),
+					icRecord.getQtyDelivered(),
+					icRecord.getQtyToInvoice(),
+					icRecord.getPriceActual(),
+					icRecord.isError(),
+					icRecord.getErrorMsg());
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Thread-safe PZN to quantity hash map which stores its keys and values in primitive arrays (open addressing, linear probing).
+ * <p>
+ * Lookups are optimistic and lock free as long as there is no concurrent write; writes are serialized.
+ * PZNs have to be > 0 and quantities have to be >= 0, because {@code 0} is used as empty key and {@link #NO_QTY} as "not found".
+ * <p>
+ * Each PZN also keeps the MSV3 event version of its last change, and changes with an older event version are discarded,
+ * like {@code StockAvailabilityService} does on the database. That's needed because the changes of concurrent transactions are applied after commit, i.e. not necessarily in event version order.
+ * For the same reason a removed PZN stays in the map as a "removed" entry (with quantity {@link #NO_QTY}) which remembers the version of the removal.
+ */
+/* package */ final class PznToQtyMap
+{
+	public static final int NO_QTY = -1;
+
+	private static final long EMPTY_PZN = 0;
+	private static final int MIN_CAPACITY = 16;
+
+	private final StampedLock lock = new StampedLock();
+	private Table table = new Table(MIN_CAPACITY);
+	/** number of PZNs with a quantity */
+	private int size = 0;
+	/** number of used slots, i.e. PZNs with a quantity and removed PZNs */
+	private int slotsUsed = 0;
+
+	@Value(staticConstructor = "of")
+	public static class VersionedQty
+	{
+		int qty;
+		int version;
+	}
+
+	/**
+	 * @return the quantity of given PZN or {@link #NO_QTY}
+	 */
+	public int get(final long pzn)
+	{
+		long stamp = lock.tryOptimisticRead();
+		int qty = table.get(pzn);
+		if (!lock.validate(stamp))
+		{
+			stamp = lock.readLock();
+			try
+			{
+				qty = table.get(pzn);
+			}
+			finally
+			{
+				lock.unlockRead(stamp);
+			}
+		}
+		return qty;
+	}
+
+	/**
+	 * Sets the quantity of given PZN, unless the PZN was already changed by a newer version.
+	 *
+	 * @return true if the quantity was set
+	 */
+	public boolean put(final long pzn, final int qty, final int version)
+	{
+		if (qty < 0)
+		{
+			throw new IllegalArgumentException("qty shall be >= 0 but it was " + qty);
+		}
+		return set(pzn, qty, version);
+	}
+
+	/**
+	 * Removes the quantity of given PZN, unless the PZN was already changed by the same or a newer version.
+	 *
+	 * @return true if the quantity was removed
+	 */
+	public boolean remove(final long pzn, final int version)
+	{
+		return set(pzn, NO_QTY, version);
+	}
+
+	private boolean set(final long pzn, final int qty, final int version)
+	{
+		assertValidPzn(pzn);
+
+		final long stamp = lock.writeLock();
+		try
+		{
+			if ((slotsUsed + 1) * 2 > table.capacity())
+			{
+				table = table.resize(table.capacity() * 2);
+			}
+
+			final int index = table.indexOf(pzn);
+			final boolean newSlot = table.pzns[index] == EMPTY_PZN;
+			if (!newSlot && !isNewer(qty, version, table.versions[index]))
+			{
+				return false;
+			}
+
+			final boolean hadQty = !newSlot && table.qtys[index] != NO_QTY;
+			table.set(index, pzn, qty, version);
+
+			if (newSlot)
+			{
+				slotsUsed++;
+			}
+			size += (qty != NO_QTY ? 1 : 0) - (hadQty ? 1 : 0);
+			return true;
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Same rules as on database: a quantity of the same version is applied, a removal only if the current version is older.
+	 */
+	private static boolean isNewer(final int qty, final int version, final int currentVersion)
+	{
+		return qty != NO_QTY ? version >= currentVersion : version > currentVersion;
+	}
+
+	/**
+	 * Replaces the content of this map with the given snapshot, but keeps the changes which were applied after the snapshot was taken, i.e.
+	 * <ul>
+	 * <li>if a PZN is in the snapshot and in this map, the one with the newer version wins
+	 * <li>if a PZN is only in this map, it's kept if its version is at least {@code reloadVersion}
+	 * </ul>
+	 *
+	 * @param reloadVersion version of the event which triggered the reload; pass {@link Integer#MAX_VALUE} to keep nothing which is not in the snapshot
+	 */
+	public void replaceAll(@NonNull final Map<Long, VersionedQty> snapshot, final int reloadVersion)
+	{
+		final Table newTable = new Table(capacityFor(snapshot.size()));
+		snapshot.forEach((pzn, versionedQty) -> {
+			assertValidPzn(pzn);
+			newTable.set(newTable.indexOf(pzn), pzn, versionedQty.getQty(), versionedQty.getVersion());
+		});
+
+		final long stamp = lock.writeLock();
+		try
+		{
+			final Table mergedTable = newTable.resize(capacityFor(snapshot.size() + slotsUsed));
+			for (int i = 0; i < table.capacity(); i++)
+			{
+				final long pzn = table.pzns[i];
+				if (pzn == EMPTY_PZN)
+				{
+					continue;
+				}
+
+				final int version = table.versions[i];
+				final int index = mergedTable.indexOf(pzn);
+				final boolean keep = mergedTable.pzns[index] == EMPTY_PZN
+						? version >= reloadVersion
+						: version > mergedTable.versions[index];
+				if (keep)
+				{
+					mergedTable.set(index, pzn, table.qtys[i], version);
+				}
+			}
+
+			table = mergedTable;
+			size = mergedTable.countQtys();
+			slotsUsed = mergedTable.countSlotsUsed();
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return number of PZNs with a quantity
+	 */
+	public int size()
+	{
+		final long stamp = lock.readLock();
+		try
+		{
+			return size;
+		}
+		finally
+		{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	private static void assertValidPzn(final long pzn)
+	{
+		if (pzn <= 0)
+		{
+			throw new IllegalArgumentException("pzn shall be > 0 but it was " + pzn);
+		}
+	}
+
+	private static int capacityFor(final int size)
+	{
+		int capacity = MIN_CAPACITY;
+		while (capacity < size * 2)
+		{
+			capacity *= 2;
+		}
+		return capacity;
+	}
+
+	private static int hash(final long pzn)
+	{
+		final long h = pzn * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	/**
+	 * Keys and values of the same length, so that an optimistic reader never indexes out of bounds, even if it sees a table while it's being replaced.
+	 */
+	private static final class Table
+	{
+		private final long[] pzns;
+		private final int[] qtys;
+		private final int[] versions;
+		private final int mask;
+
+		private Table(final int capacity)
+		{
+			pzns = new long[capacity];
+			qtys = new int[capacity];
+			versions = new int[capacity];
+			mask = capacity - 1;
+		}
+
+		private int capacity()
+		{
+			return pzns.length;
+		}
+
+		/**
+		 * @return index of given PZN's slot or of the empty slot where it would be added; {@code -1} if there is neither (only while being modified concurrently)
+		 */
+		private int indexOf(final long pzn)
+		{
+			int index = hash(pzn) & mask;
+			for (int probes = 0; probes <= mask; probes++)
+			{
+				final long slotPzn = pzns[index];
+				if (slotPzn == pzn || slotPzn == EMPTY_PZN)
+				{
+					return index;
+				}
+				index = (index + 1) & mask;
+			}
+			return -1;
+		}
+
+		private int get(final long pzn)
+		{
+			final int index = indexOf(pzn);
+			return index >= 0 && pzns[index] == pzn ? qtys[index] : NO_QTY;
+		}
+
+		private void set(final int index, final long pzn, final int qty, final int version)
+		{
+			pzns[index] = pzn;
+			qtys[index] = qty;
+			versions[index] = version;
+		}
+
+		private int countSlotsUsed()
+		{
+			int count = 0;
+			for (final long pzn : pzns)
+			{
+				if (pzn != EMPTY_PZN)
+				{
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private int countQtys()
+		{
+			int count = 0;
+			for (int i = 0; i < pzns.length; i++)
+			{
+				if (pzns[i] != EMPTY_PZN && qtys[i] != NO_QTY)
+				{
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private Table resize(final int newCapacity)
+		{
+			final Table newTable = new Table(newCapacity);
+			for (int i = 0; i < pzns.length; i++)
+			{
+				if (pzns[i] != EMPTY_PZN)
+				{
+					newTable.set(newTable.indexOf(pzns[i]), pzns[i], qtys[i], versions[i]);
+				}
+			}
+			return newTable;
+		}
+	}
+}
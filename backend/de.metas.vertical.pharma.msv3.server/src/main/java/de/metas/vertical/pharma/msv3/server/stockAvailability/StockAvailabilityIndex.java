@@ -0,0 +1,163 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ListMultimap;
+
+import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
+import de.metas.vertical.pharma.msv3.protocol.types.PZN;
+import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.PznToQtyMap.VersionedQty;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of the stock availabilities and product excludes, so that availability requests can be answered without database access.
+ * <p>
+ * The excluded PZNs of each bpartner are kept as sorted arrays which are replaced on change, because excludes are few and rarely change, compared to how often they are checked.
+ */
+/* package */ final class StockAvailabilityIndex
+{
+	private static final long[] NO_PZNS = new long[0];
+
+	private final PznToQtyMap qtysByPzn = new PznToQtyMap();
+	private final ConcurrentHashMap<Integer, long[]> excludedPznsByBPartnerId = new ConcurrentHashMap<>();
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[qtys=" + qtysByPzn.size() + ", bpartnersWithExcludes=" + excludedPznsByBPartnerId.size() + "]";
+	}
+
+	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
+	{
+		final long pznValue = pzn.getValueAsLong();
+		if (isExcluded(pznValue, bpartner.getBpartnerId()))
+		{
+			return Optional.empty();
+		}
+
+		final int qty = qtysByPzn.get(pznValue);
+		if (qty == PznToQtyMap.NO_QTY)
+		{
+			return Optional.empty();
+		}
+
+		return Optional.of(Quantity.of(qty));
+	}
+
+	private boolean isExcluded(final long pzn, final int bpartnerId)
+	{
+		final long[] excludedPzns = excludedPznsByBPartnerId.getOrDefault(bpartnerId, NO_PZNS);
+		return Arrays.binarySearch(excludedPzns, pzn) >= 0;
+	}
+
+	/**
+	 * @param version MSV3 event version of the change; the change is discarded if the PZN was already changed by a newer version
+	 */
+	public void putQty(final long pzn, final int qty, final int version)
+	{
+		qtysByPzn.put(pzn, qty, version);
+	}
+
+	/**
+	 * @param version MSV3 event version of the removal; the removal is discarded if the PZN was already changed by the same or a newer version
+	 */
+	public void removeQty(final long pzn, final int version)
+	{
+		qtysByPzn.remove(pzn, version);
+	}
+
+	/**
+	 * @see PznToQtyMap#replaceAll(Map, int)
+	 */
+	public void replaceAllQtys(@NonNull final Map<Long, VersionedQty> qtysByPzn, final int reloadVersion)
+	{
+		this.qtysByPzn.replaceAll(qtysByPzn, reloadVersion);
+	}
+
+	public void addExclude(final long pzn, final int bpartnerId)
+	{
+		excludedPznsByBPartnerId.compute(bpartnerId, (k, excludedPzns) -> {
+			if (excludedPzns == null)
+			{
+				return new long[] { pzn };
+			}
+
+			final int index = Arrays.binarySearch(excludedPzns, pzn);
+			if (index >= 0)
+			{
+				return excludedPzns;
+			}
+
+			final int insertionPoint = -index - 1;
+			final long[] newExcludedPzns = new long[excludedPzns.length + 1];
+			System.arraycopy(excludedPzns, 0, newExcludedPzns, 0, insertionPoint);
+			newExcludedPzns[insertionPoint] = pzn;
+			System.arraycopy(excludedPzns, insertionPoint, newExcludedPzns, insertionPoint + 1, excludedPzns.length - insertionPoint);
+			return newExcludedPzns;
+		});
+	}
+
+	public void removeExclude(final long pzn, final int bpartnerId)
+	{
+		excludedPznsByBPartnerId.computeIfPresent(bpartnerId, (k, excludedPzns) -> {
+			final int index = Arrays.binarySearch(excludedPzns, pzn);
+			if (index < 0)
+			{
+				return excludedPzns;
+			}
+			if (excludedPzns.length == 1)
+			{
+				return null; // removes the mapping
+			}
+
+			final long[] newExcludedPzns = new long[excludedPzns.length - 1];
+			System.arraycopy(excludedPzns, 0, newExcludedPzns, 0, index);
+			System.arraycopy(excludedPzns, index + 1, newExcludedPzns, index, excludedPzns.length - index - 1);
+			return newExcludedPzns;
+		});
+	}
+
+	public void replaceAllExcludes(@NonNull final ListMultimap<Integer, Long> excludedPznsByBPartnerId)
+	{
+		final Map<Integer, Collection<Long>> newExcludedPzns = excludedPznsByBPartnerId.asMap();
+
+		this.excludedPznsByBPartnerId.keySet().retainAll(newExcludedPzns.keySet());
+		newExcludedPzns.forEach((bpartnerId, pzns) -> this.excludedPznsByBPartnerId.put(bpartnerId, toSortedArray(pzns)));
+	}
+
+	private static long[] toSortedArray(final Collection<Long> pzns)
+	{
+		return pzns.stream()
+				.mapToLong(Long::longValue)
+				.sorted()
+				.distinct()
+				.toArray();
+	}
+}
@@ -2,13 +2,21 @@ package de.metas.vertical.pharma.msv3.server.stockAvailability;
 
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.AvailabilityType;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
@@ -27,6 +35,7 @@ import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExclude;
 import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExcludesUpdateEvent;
 import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailability;
 import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailabilityUpdatedEvent;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.PznToQtyMap.VersionedQty;
 import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
 import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExcludeRepository;
 import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
@@ -65,6 +74,75 @@ public class StockAvailabilityService
 	@Autowired
 	private JpaProductExcludeRepository productExcludeRepo;
 
+	/** If enabled, availability requests are answered from {@link #index} instead of the database. */
+	@Value("${msv3server.stockAvailability.inMemoryIndex:false}")
+	private boolean inMemoryIndexEnabled;
+	private final StockAvailabilityIndex index = new StockAvailabilityIndex();
+
+	@PostConstruct
+	private void loadIndex()
+	{
+		if (!inMemoryIndexEnabled)
+		{
+			return;
+		}
+
+		reloadIndexQtys(Integer.MAX_VALUE); // the index is empty, so there is nothing to keep
+		reloadIndexExcludes();
+		logger.info("Loaded {}", index);
+	}
+
+	/**
+	 * Reloads all quantities from database, but keeps the index entries which were changed after the records were loaded.
+	 *
+	 * @param reloadVersion event version which triggered the reload; see {@link StockAvailabilityIndex#replaceAllQtys(java.util.Map, int)}
+	 */
+	private void reloadIndexQtys(final int reloadVersion)
+	{
+		index.replaceAllQtys(
+				stockAvailabilityRepo.findAll()
+						.stream()
+						.collect(ImmutableMap.toImmutableMap(
+								JpaStockAvailability::getMfPzn,
+								record -> VersionedQty.of(record.getMfQty(), record.getMfEventVersion()))),
+				reloadVersion);
+	}
+
+	private void reloadIndexExcludes()
+	{
+		index.replaceAllExcludes(productExcludeRepo.findAll()
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(JpaProductExclude::getMfBpartnerId, JpaProductExclude::getPzn)));
+	}
+
+	/**
+	 * Updates the in-memory index after the current transaction was committed, so it never contains data which was rolled back.
+	 * <p>
+	 * Note that the updaters of concurrent transactions are not necessarily called in event version order, so they shall pass the event version to the index.
+	 */
+	private void updateIndexAfterCommit(@NonNull final Consumer<StockAvailabilityIndex> indexUpdater)
+	{
+		if (!inMemoryIndexEnabled)
+		{
+			return;
+		}
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			indexUpdater.accept(index);
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+		{
+			@Override
+			public void afterCommit()
+			{
+				indexUpdater.accept(index);
+			}
+		});
+	}
+
 	public StockAvailabilityResponse checkAvailability(final StockAvailabilityQuery query)
 	{
 		final BPartnerId bpartner = query.getBpartner();
@@ -123,6 +201,11 @@ public class StockAvailabilityService
 
 	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
 	{
+		if (inMemoryIndexEnabled)
+		{
+			return index.getQtyAvailable(pzn, bpartner);
+		}
+
 		if (productExcludeRepo.existsByPznAndMfBpartnerId(pzn.getValueAsLong(), bpartner.getBpartnerId()))
 		{
 			return Optional.empty();
@@ -166,6 +249,8 @@ public class StockAvailabilityService
 							mfSyncToken,
 							mfEventVersion.getAsInt());
 			logger.debug("Deleted {} stock availability records", countDeleted);
+
+			updateIndexAfterCommit(idx -> reloadIndexQtys(mfEventVersion.getAsInt()));
 		}
 
 	}
@@ -177,10 +262,14 @@ public class StockAvailabilityService
 	{
 		if (request.isDelete())
 		{
-			stockAvailabilityRepo
+			final long countDeleted = stockAvailabilityRepo
 					.deleteInBatchByMfPznAndMfEventVersionLessThan(
 							request.getPzn(),
 							mfEventVersion.getAsInt());
+			if (countDeleted > 0)
+			{
+				updateIndexAfterCommit(idx -> idx.removeQty(request.getPzn(), mfEventVersion.getAsInt()));
+			}
 		}
 		else
 		{
@@ -201,6 +290,8 @@ public class StockAvailabilityService
 			jpaStockAvailability.setMfQty(request.getQty());
 			jpaStockAvailability.setMfSyncToken(mfSyncToken);
 			stockAvailabilityRepo.save(jpaStockAvailability);
+
+			updateIndexAfterCommit(idx -> idx.putQty(request.getPzn(), request.getQty(), mfEventVersion.getAsInt()));
 		}
 	}
 
@@ -226,6 +317,8 @@ public class StockAvailabilityService
 		{
 			final long countDeleted = productExcludeRepo.deleteInBatchBySyncTokenNot(syncToken);
 			logger.debug("Deleted {} product exclude records", countDeleted);
+
+			updateIndexAfterCommit(idx -> reloadIndexExcludes());
 		}
 	}
 
@@ -234,6 +327,8 @@ public class StockAvailabilityService
 		if (request.isDelete())
 		{
 			productExcludeRepo.deleteInBatchByPznAndMfBpartnerId(request.getPzn().getValueAsLong(), request.getBpartnerId());
+
+			updateIndexAfterCommit(idx -> idx.removeExclude(request.getPzn().getValueAsLong(), request.getBpartnerId()));
 		}
 		else
 		{
@@ -247,6 +342,8 @@ public class StockAvailabilityService
 
 			jpaProductExclude.setSyncToken(syncToken);
 			productExcludeRepo.save(jpaProductExclude);
+
+			updateIndexAfterCommit(idx -> idx.addExclude(request.getPzn().getValueAsLong(), request.getBpartnerId()));
 		}
 	}
 }
@@ -0,0 +1,292 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
+import de.metas.vertical.pharma.msv3.protocol.types.PZN;
+import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.PznToQtyMap.VersionedQty;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockAvailabilityIndexTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(StockAvailabilityIndexTest.class);
+
+	private static final BPartnerId BPARTNER_1 = BPartnerId.of(1, 1);
+	private static final BPartnerId BPARTNER_2 = BPartnerId.of(2, 2);
+
+	@Test
+	public void pznToQtyMap_behavesLikeHashMap()
+	{
+		final PznToQtyMap map = new PznToQtyMap();
+		final Map<Long, Integer> expected = new HashMap<>();
+
+		// few distinct PZNs, so we get lots of collisions, removals within probe sequences and resizes
+		final Random random = new Random(42);
+		for (int version = 1; version <= 100_000; version++)
+		{
+			final long pzn = 1 + random.nextInt(500);
+			if (random.nextInt(3) == 0)
+			{
+				map.remove(pzn, version);
+				expected.remove(pzn);
+			}
+			else
+			{
+				final int qty = random.nextInt(100);
+				map.put(pzn, qty, version);
+				expected.put(pzn, qty);
+			}
+		}
+
+		assertThat(map.size()).isEqualTo(expected.size());
+		for (long pzn = 1; pzn <= 500; pzn++)
+		{
+			assertThat(map.get(pzn)).isEqualTo(expected.getOrDefault(pzn, PznToQtyMap.NO_QTY));
+		}
+	}
+
+	@Test
+	public void getQtyAvailable()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.putQty(100, 10, 1);
+		index.putQty(200, 0, 1);
+
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_1)).contains(Quantity.of(10));
+		assertThat(index.getQtyAvailable(PZN.of(200), BPARTNER_1)).contains(Quantity.of(0));
+		assertThat(index.getQtyAvailable(PZN.of(300), BPARTNER_1)).isEmpty();
+
+		index.removeQty(100, 2);
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_1)).isEmpty();
+	}
+
+	/**
+	 * Index updates are applied after commit, so the ones of concurrent transactions can come in any order.
+	 */
+	@Test
+	public void olderVersionsAreDiscarded()
+	{
+		final PznToQtyMap map = new PznToQtyMap();
+
+		assertThat(map.put(100, 20, 2)).isTrue();
+		assertThat(map.put(100, 10, 1)).isFalse();
+		assertThat(map.get(100)).isEqualTo(20);
+
+		assertThat(map.remove(100, 1)).isFalse();
+		assertThat(map.remove(100, 2)).as("on database, a deletion only deletes records with an older version").isFalse();
+		assertThat(map.get(100)).isEqualTo(20);
+
+		assertThat(map.put(100, 21, 2)).as("on database, a change of the same version is applied").isTrue();
+		assertThat(map.get(100)).isEqualTo(21);
+
+		assertThat(map.remove(100, 3)).isTrue();
+		assertThat(map.get(100)).isEqualTo(PznToQtyMap.NO_QTY);
+		assertThat(map.size()).isZero();
+
+		assertThat(map.put(100, 20, 2)).as("a removed PZN is not brought back by an older change").isFalse();
+		assertThat(map.get(100)).isEqualTo(PznToQtyMap.NO_QTY);
+
+		assertThat(map.put(100, 30, 3)).isTrue();
+		assertThat(map.get(100)).isEqualTo(30);
+		assertThat(map.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void replaceAllQtys_keepsChangesNewerThanTheSnapshot()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.putQty(100, 10, 5); // newer than snapshot
+		index.putQty(200, 20, 1); // older than snapshot
+		index.putQty(300, 30, 7); // not in snapshot, but changed by a version >= reload version
+		index.putQty(400, 40, 2); // not in snapshot, i.e. deleted by the reload's event
+		index.removeQty(500, 8); // removed after the snapshot was taken
+
+		final int reloadVersion = 6;
+		index.replaceAllQtys(
+				ImmutableMap.of(
+						100L, VersionedQty.of(1, 3),
+						200L, VersionedQty.of(2, 4),
+						500L, VersionedQty.of(5, 4),
+						600L, VersionedQty.of(6, 6)),
+				reloadVersion);
+
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_1)).contains(Quantity.of(10));
+		assertThat(index.getQtyAvailable(PZN.of(200), BPARTNER_1)).contains(Quantity.of(2));
+		assertThat(index.getQtyAvailable(PZN.of(300), BPARTNER_1)).contains(Quantity.of(30));
+		assertThat(index.getQtyAvailable(PZN.of(400), BPARTNER_1)).isEmpty();
+		assertThat(index.getQtyAvailable(PZN.of(500), BPARTNER_1)).isEmpty();
+		assertThat(index.getQtyAvailable(PZN.of(600), BPARTNER_1)).contains(Quantity.of(6));
+
+		// the merged entries keep their versions
+		index.putQty(100, 11, 4);
+		index.putQty(500, 51, 7);
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_1)).contains(Quantity.of(10));
+		assertThat(index.getQtyAvailable(PZN.of(500), BPARTNER_1)).isEmpty();
+	}
+
+	@Test
+	public void excludes()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.putQty(100, 10, 1);
+		index.putQty(200, 20, 1);
+		index.putQty(300, 30, 1);
+
+		index.addExclude(300, BPARTNER_1.getBpartnerId());
+		index.addExclude(100, BPARTNER_1.getBpartnerId());
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_1)).isEmpty();
+		assertThat(index.getQtyAvailable(PZN.of(200), BPARTNER_1)).contains(Quantity.of(20));
+		assertThat(index.getQtyAvailable(PZN.of(300), BPARTNER_1)).isEmpty();
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_2)).contains(Quantity.of(10));
+
+		index.removeExclude(100, BPARTNER_1.getBpartnerId());
+		assertThat(index.getQtyAvailable(PZN.of(100), BPARTNER_1)).contains(Quantity.of(10));
+		assertThat(index.getQtyAvailable(PZN.of(300), BPARTNER_1)).isEmpty();
+
+		index.replaceAllExcludes(ImmutableListMultimap.of(BPARTNER_2.getBpartnerId(), 200L));
+		assertThat(index.getQtyAvailable(PZN.of(300), BPARTNER_1)).contains(Quantity.of(30));
+		assertThat(index.getQtyAvailable(PZN.of(200), BPARTNER_2)).isEmpty();
+	}
+
+	/**
+	 * Simulates pharmacies polling the availability of 300 PZNs per request while stock updates are coming in, and logs requests/s and p99 latency.
+	 * <p>
+	 * Also checks that readers never see a quantity which was not written, i.e. that the optimistic reads are consistent.
+	 */
+	@Test
+	public void loadTest() throws Exception
+	{
+		final int pznsCount = 100_000;
+		final int pznsPerRequest = 300;
+		final int readerThreads = 4;
+		final int requestsPerThread = 2_000;
+
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		final Map<Long, VersionedQty> initialQtys = new HashMap<>();
+		for (long pzn = 1; pzn <= pznsCount; pzn++)
+		{
+			initialQtys.put(pzn, VersionedQty.of(qtyOf(pzn, 0), 0));
+		}
+		index.replaceAllQtys(initialQtys, Integer.MAX_VALUE);
+		index.addExclude(7, BPARTNER_1.getBpartnerId());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(readerThreads + 1);
+		try
+		{
+			final AtomicBoolean running = new AtomicBoolean(true);
+			final Future<?> writer = executor.submit(() -> {
+				final Random random = new Random();
+				for (int round = 1; running.get(); round++)
+				{
+					final long pzn = 1 + random.nextInt(pznsCount);
+					index.putQty(pzn, qtyOf(pzn, round % 2), round);
+				}
+			});
+
+			final CountDownLatch start = new CountDownLatch(1);
+			final long[][] latenciesNanos = new long[readerThreads][requestsPerThread];
+			final Future<?>[] readers = new Future<?>[readerThreads];
+			for (int t = 0; t < readerThreads; t++)
+			{
+				final long[] threadLatenciesNanos = latenciesNanos[t];
+				readers[t] = executor.submit(() -> {
+					final Random random = new Random();
+					start.await();
+					for (int request = 0; request < requestsPerThread; request++)
+					{
+						final long requestStart = System.nanoTime();
+						for (int item = 0; item < pznsPerRequest; item++)
+						{
+							final long pzn = 1 + random.nextInt(pznsCount + 1000); // some PZNs are unknown
+							final Optional<Quantity> qty = index.getQtyAvailable(PZN.of(pzn), BPARTNER_1);
+							assertValidQty(pzn, pznsCount, qty);
+						}
+						threadLatenciesNanos[request] = System.nanoTime() - requestStart;
+					}
+					return null;
+				});
+			}
+
+			final long startNanos = System.nanoTime();
+			start.countDown();
+			for (final Future<?> reader : readers)
+			{
+				reader.get(60, TimeUnit.SECONDS);
+			}
+			final long durationNanos = System.nanoTime() - startNanos;
+			running.set(false);
+			writer.get(10, TimeUnit.SECONDS);
+
+			final long[] allLatenciesNanos = Arrays.stream(latenciesNanos).flatMapToLong(Arrays::stream).sorted().toArray();
+			final long p99Nanos = allLatenciesNanos[(int)(allLatenciesNanos.length * 0.99) - 1];
+			final long requestsPerSecond = allLatenciesNanos.length * TimeUnit.SECONDS.toNanos(1) / durationNanos;
+			logger.info("Availability requests of {} PZNs: {} requests/s, p99={}us ({} reader threads, 1 writer thread, {})",
+					pznsPerRequest, requestsPerSecond, TimeUnit.NANOSECONDS.toMicros(p99Nanos), readerThreads, index);
+
+			assertThat(allLatenciesNanos).hasSize(readerThreads * requestsPerThread);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private static int qtyOf(final long pzn, final int version)
+	{
+		return (int)(pzn % 1000) * 2 + version;
+	}
+
+	private static void assertValidQty(final long pzn, final int pznsCount, final Optional<Quantity> qty)
+	{
+		if (pzn == 7 || pzn > pznsCount)
+		{
+			assertThat(qty).isEmpty();
+		}
+		else
+		{
+			assertThat(qty).isPresent();
+			assertThat(qty.get().getValueAsInt()).isBetween(qtyOf(pzn, 0), qtyOf(pzn, 1));
+		}
+	}
+}
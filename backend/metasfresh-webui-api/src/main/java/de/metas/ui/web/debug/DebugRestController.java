@@ -15,6 +15,7 @@ import org.adempiere.ad.dao.IQueryStatisticsLogger;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.ModelValidationEngine;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -50,6 +51,7 @@ import de.metas.notification.UserNotificationRequest.TargetRecordAction;
 import de.metas.notification.UserNotificationRequest.UserNotificationRequestBuilder;
 import de.metas.notification.UserNotificationTargetType;
 import de.metas.security.IUserRolePermissionsDAO;
+import de.metas.security.impl.AccessSqlCache;
 import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.debug.JSONCacheResetResult.JSONCacheResetResultBuilder;
@@ -388,6 +390,32 @@ public class DebugRestController
 
 	}
 
+	@GetMapping("/modelInterceptors/timings")
+	public List<Map<String, Object>> getModelInterceptorTimings()
+	{
+		userSession.assertLoggedIn();
+
+		return ModelValidationEngine.get().getModelInterceptorTimings()
+				.stream()
+				.map(timing -> ImmutableMap.<String, Object> builder()
+						.put("interceptor", timing.getInterceptorName())
+						.put("timing", timing.getTiming())
+						.put("count", timing.getCount())
+						.put("totalMillis", timing.getTotal().toMillis())
+						.put("p99Millis", timing.getP99().toMillis())
+						.put("maxMillis", timing.getMax().toMillis())
+						.build())
+				.collect(GuavaCollectors.toImmutableList());
+	}
+
+	@GetMapping("/modelInterceptors/timings/_reset")
+	public void resetModelInterceptorTimings()
+	{
+		userSession.assertLoggedIn();
+
+		ModelValidationEngine.get().resetModelInterceptorTimings();
+	}
+
 	@GetMapping("/logger/{loggerName}/_getUpToRoot")
 	public List<Map<String, Object>> getLoggersUpToRoot(@PathVariable("loggerName") final String loggerName)
 	{
@@ -551,6 +579,22 @@ public class DebugRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("websocketCoalescingStats")
+	public WebsocketSender.CoalescingStats getWebsocketCoalescingStats()
+	{
+		userSession.assertLoggedIn();
+
+		return websocketSender.getCoalescingStats();
+	}
+
+	@GetMapping("accessSqlCacheStats")
+	public AccessSqlCache.AccessSqlCacheStats getAccessSqlCacheStats()
+	{
+		userSession.assertLoggedIn();
+
+		return AccessSqlCache.instance.getStats();
+	}
+
 	@PostMapping("/view/{viewId}/deleteRows")
 	public String viewDeleteRowIds(
 			@PathVariable("viewId") final String viewIdStr,
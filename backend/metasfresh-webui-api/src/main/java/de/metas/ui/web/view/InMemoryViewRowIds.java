@@ -0,0 +1,170 @@
+package de.metas.ui.web.view;
+
+import java.util.Arrays;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Ordered integer row IDs of a view selection which is kept in memory instead of <code>T_WEBUI_ViewSelection</code>.
+ * <p>
+ * Immutable. Besides the ordered IDs, a sorted copy is kept in order to answer "contains" questions using binary search.
+ */
+public final class InMemoryViewRowIds
+{
+	public static InMemoryViewRowIds ofOrderedIds(@NonNull final int[] orderedIds)
+	{
+		return orderedIds.length == 0 ? EMPTY : new InMemoryViewRowIds(orderedIds.clone());
+	}
+
+	public static final InMemoryViewRowIds EMPTY = new InMemoryViewRowIds(new int[] {});
+
+	private final int[] orderedIds;
+	private final int[] sortedIds;
+
+	private InMemoryViewRowIds(@NonNull final int[] orderedIds)
+	{
+		this.orderedIds = orderedIds;
+
+		this.sortedIds = orderedIds.clone();
+		Arrays.sort(this.sortedIds);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[size=" + size() + "]";
+	}
+
+	public int size()
+	{
+		return orderedIds.length;
+	}
+
+	public boolean isEmpty()
+	{
+		return orderedIds.length == 0;
+	}
+
+	public boolean contains(final int id)
+	{
+		return Arrays.binarySearch(sortedIds, id) >= 0;
+	}
+
+	public boolean contains(@NonNull final DocumentId rowId)
+	{
+		return rowId.isInt() && contains(rowId.toInt());
+	}
+
+	public boolean containsAny(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+		else if (rowIds.isAll())
+		{
+			return !isEmpty();
+		}
+		else
+		{
+			return rowIds.stream().anyMatch(this::contains);
+		}
+	}
+
+	/**
+	 * @return the IDs of given page, in selection order; might be shorter than <code>pageLength</code> or empty if we are at the end of the selection.
+	 */
+	public int[] getPage(final int firstRowZeroBased, final int pageLength)
+	{
+		final int from = Math.min(Math.max(firstRowZeroBased, 0), orderedIds.length);
+		final int to = Math.min(from + Math.max(pageLength, 0), orderedIds.length);
+		return Arrays.copyOfRange(orderedIds, from, to);
+	}
+
+	public int[] toOrderedIdsArray()
+	{
+		return orderedIds.clone();
+	}
+
+	/**
+	 * @return selection with given row IDs appended at the end, in case they are not already contained
+	 */
+	public InMemoryViewRowIds withAddedRowIds(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return this;
+		}
+		else if (rowIds.isAll())
+		{
+			throw new IllegalArgumentException("Cannot add ALL to selection");
+		}
+
+		final int[] idsToAdd = rowIds.stream()
+				.filter(DocumentId::isInt)
+				.mapToInt(DocumentId::toInt)
+				.filter(id -> !contains(id))
+				.distinct()
+				.toArray();
+		if (idsToAdd.length == 0)
+		{
+			return this;
+		}
+
+		final int[] newOrderedIds = Arrays.copyOf(orderedIds, orderedIds.length + idsToAdd.length);
+		System.arraycopy(idsToAdd, 0, newOrderedIds, orderedIds.length, idsToAdd.length);
+		return new InMemoryViewRowIds(newOrderedIds);
+	}
+
+	public InMemoryViewRowIds withRemovedRowIds(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty() || isEmpty())
+		{
+			return this;
+		}
+		else if (rowIds.isAll())
+		{
+			return EMPTY;
+		}
+
+		final int[] sortedIdsToRemove = rowIds.stream()
+				.filter(DocumentId::isInt)
+				.mapToInt(DocumentId::toInt)
+				.sorted()
+				.toArray();
+
+		final int[] newOrderedIds = Arrays.stream(orderedIds)
+				.filter(id -> Arrays.binarySearch(sortedIdsToRemove, id) < 0)
+				.toArray();
+		if (newOrderedIds.length == orderedIds.length)
+		{
+			return this;
+		}
+
+		return newOrderedIds.length == 0 ? EMPTY : new InMemoryViewRowIds(newOrderedIds);
+	}
+}
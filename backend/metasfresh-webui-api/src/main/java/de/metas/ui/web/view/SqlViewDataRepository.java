@@ -20,6 +20,7 @@ import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -85,7 +86,7 @@ class SqlViewDataRepository implements IViewDataRepository
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final Map<String, DocumentFieldWidgetType> widgetTypesByFieldName;
 	private final SqlViewSelectData sqlViewSelect;
-	private final ViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
+	private final SqlViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 	private final DocumentQueryOrderByList defaultOrderBys;
 
@@ -96,6 +97,17 @@ class SqlViewDataRepository implements IViewDataRepository
 	private final SqlDocumentFilterConverter filterConverters;
 
 	SqlViewDataRepository(@NonNull final SqlViewBinding sqlBindings)
+	{
+		this(sqlBindings,
+				sqlBindings.getSqlViewSelect().isInMemorySelectionSupported()
+						? SqlViewRowIdsOrderedSelectionFactory.ofInMemorySelectionsAllowed(sqlBindings)
+						: SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings));
+	}
+
+	@VisibleForTesting
+	SqlViewDataRepository(
+			@NonNull final SqlViewBinding sqlBindings,
+			@NonNull final SqlViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory)
 	{
 		tableName = sqlBindings.getTableName();
 		tableAlias = sqlBindings.getTableAlias();
@@ -103,7 +115,7 @@ class SqlViewDataRepository implements IViewDataRepository
 		widgetTypesByFieldName = sqlBindings.getWidgetTypesByFieldName();
 		sqlViewSelect = sqlBindings.getSqlViewSelect();
 		viewFilterDescriptors = sqlBindings.getViewFilterDescriptors();
-		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		this.viewRowIdsOrderedSelectionFactory = viewRowIdsOrderedSelectionFactory;
 		defaultOrderBys = sqlBindings.getDefaultOrderBys();
 
 		this.hasIncludedRows = sqlBindings.hasGroupingFields();
@@ -222,11 +234,29 @@ class SqlViewDataRepository implements IViewDataRepository
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectById()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.rowId(rowId)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIds(viewId);
+		if (inMemoryRowIds != null)
+		{
+			if (!inMemoryRowIds.contains(rowId))
+			{
+				throw new EntityNotFoundException("No document found for rowId=" + rowId + " in viewId=" + viewId);
+			}
+
+			sqlAndParams = sqlViewSelect.selectByIdInMemory()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowId(rowId)
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectById()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowId(rowId)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -494,12 +524,32 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.firstRowZeroBased(firstRow)
-				.pageLength(pageLength)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIds(viewId);
+		if (inMemoryRowIds != null)
+		{
+			final int[] pageRowIds = inMemoryRowIds.getPage(firstRow, pageLength);
+			if (pageRowIds.length == 0)
+			{
+				return ImmutableList.of();
+			}
+
+			sqlAndParams = sqlViewSelect.selectByPageInMemory()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageRowIds(pageRowIds)
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageLength(pageLength)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -534,12 +584,32 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.firstRowZeroBased(firstRow)
-				.pageLength(pageLength)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIds(viewId);
+		if (inMemoryRowIds != null)
+		{
+			final int[] pageRowIds = inMemoryRowIds.getPage(firstRow, pageLength);
+			if (pageRowIds.length == 0)
+			{
+				return ImmutableList.of();
+			}
+
+			sqlAndParams = sqlViewSelect.selectRowIdsByPageInMemory()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageRowIds(pageRowIds)
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectRowIdsByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageLength(pageLength)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -710,6 +780,9 @@ class SqlViewDataRepository implements IViewDataRepository
 			final int limit)
 	{
 		final SqlViewRowFieldLoader fieldLoader = rowFieldLoaders.get(fieldName);
+
+		// NOTE: facets are fetched only occasionally, so it's OK to have the selection stored in database for that
+		viewRowIdsOrderedSelectionFactory.materializeIfInMemory(selectionId);
 		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
 
 		final String adLanguage = viewEvalCtx.getAdLanguage();
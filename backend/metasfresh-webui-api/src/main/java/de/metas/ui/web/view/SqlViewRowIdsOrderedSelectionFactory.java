@@ -3,14 +3,22 @@ package de.metas.ui.web.view;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
 
@@ -19,6 +27,7 @@ import de.metas.security.IUserRolePermissions;
 import de.metas.security.IUserRolePermissionsDAO;
 import de.metas.security.UserRolePermissionsKey;
 import de.metas.security.permissions.WindowMaxQueryRecordsConstraint;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
 import de.metas.ui.web.view.descriptor.SqlAndParams;
@@ -59,17 +68,49 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 {
 	public static final SqlViewRowIdsOrderedSelectionFactory of(final SqlViewBinding viewBinding)
 	{
-		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding);
+		final boolean inMemorySelectionsAllowed = false;
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, inMemorySelectionsAllowed);
+	}
+
+	/**
+	 * Same as {@link #of(SqlViewBinding)}, but selections which are not bigger than the size configured by sysconfig {@value #SYSCONFIG_InMemorySelectionMaxSize}
+	 * are kept in memory instead of {@link I_T_WEBUI_ViewSelection}.
+	 * <p>
+	 * The caller is responsible for fetching the rows of such selections, see {@link #getInMemoryRowIds(ViewId)}.
+	 */
+	public static final SqlViewRowIdsOrderedSelectionFactory ofInMemorySelectionsAllowed(final SqlViewBinding viewBinding)
+	{
+		final boolean inMemorySelectionsAllowed = true;
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, inMemorySelectionsAllowed);
 	}
 
 	private static final Logger logger = LogManager.getLogger(SqlViewRowIdsOrderedSelectionFactory.class);
 	private final IUserRolePermissionsDAO userRolePermissionsRepo = Services.get(IUserRolePermissionsDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	@VisibleForTesting
+	static final String SYSCONFIG_InMemorySelectionMaxSize = "de.metas.ui.web.view.SqlViewRowIdsOrderedSelectionFactory.InMemorySelectionMaxSize";
+	private static final int DEFAULT_InMemorySelectionMaxSize = 0; // disabled
+
+	/** How many row IDs are inserted into {@link I_T_WEBUI_ViewSelection} at once, when a selection turned out to be too big to be kept in memory */
+	private static final int MATERIALIZE_CHUNK_SIZE = 10000;
 
 	private final SqlViewBinding viewBinding;
+	private final boolean inMemorySelectionsAllowed;
+
+	/** Selections which are kept in memory, indexed by selectionId. When a selection is materialized into {@link I_T_WEBUI_ViewSelection} it's removed from here. */
+	private final ConcurrentHashMap<String, InMemoryViewRowIds> inMemorySelections = new ConcurrentHashMap<>();
+	private final Object materializeLock = new Object();
 
-	private SqlViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
+	@VisibleForTesting
+	SqlViewRowIdsOrderedSelectionFactory(
+			@NonNull final SqlViewBinding viewBinding,
+			final boolean inMemorySelectionsAllowed)
 	{
 		this.viewBinding = viewBinding;
+		this.inMemorySelectionsAllowed = inMemorySelectionsAllowed
+				&& !viewBinding.hasGroupingFields()
+				&& viewBinding.getSqlViewKeyColumnNamesMap().isSingleIntKey();
 	}
 
 	private SqlViewSelectionQueryBuilder newSqlViewSelectionQueryBuilder()
@@ -80,6 +121,18 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	@Override
 	public String getSqlWhereClause(final ViewId viewId, final DocumentIdsSelection rowIds)
 	{
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIds(viewId);
+		if (inMemoryRowIds != null && !rowIds.isAll())
+		{
+			final DocumentIdsSelection rowIdsInSelection = rowIds.stream()
+					.filter(inMemoryRowIds::contains)
+					.collect(DocumentIdsSelection.toDocumentIdsSelection());
+			return newSqlViewSelectionQueryBuilder().buildSqlWhereClauseByRowIds(rowIdsInSelection);
+		}
+
+		// the where clause is evaluated by others, so we have to make sure the selection is stored in database
+		materializeIfInMemory(viewId.getViewId());
+
 		return newSqlViewSelectionQueryBuilder().buildSqlWhereClause(viewId.getViewId(), rowIds);
 	}
 
@@ -94,6 +147,20 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	{
 		final int queryLimit = extractQueryLimit(viewEvalCtx);
 
+		//
+		// Try keeping the selection in memory
+		final int inMemorySelectionMaxSize = getInMemorySelectionMaxSize();
+		if (inMemorySelectionMaxSize > 0)
+		{
+			final long size = createSelectionInMemoryOrInDatabase(viewEvalCtx, viewId, filters, orderBys, queryLimit, applySecurityRestrictions, context, inMemorySelectionMaxSize);
+			return ViewRowIdsOrderedSelection.builder()
+					.viewId(viewId)
+					.size(size)
+					.orderBys(orderBys)
+					.queryLimit(queryLimit)
+					.build();
+		}
+
 		//
 		//
 		final SqlCreateSelection sqlCreates = newSqlViewSelectionQueryBuilder()
@@ -107,7 +174,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		{
 			final SqlAndParams sqlCreateSelectionLines = sqlCreates.getSqlCreateSelectionLines();
 			final Stopwatch stopwatch = Stopwatch.createStarted();
-			final long linesCount = DB.executeUpdateEx(sqlCreateSelectionLines.getSql(), sqlCreateSelectionLines.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final long linesCount = executeUpdate(sqlCreateSelectionLines, ITrx.TRXNAME_ThreadInherited);
 			logger.trace("Created selection lines {}, linesCount={}, duration={}", viewId, linesCount, stopwatch);
 		}
 
@@ -117,7 +184,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		{
 			final SqlAndParams sqlCreateSelection = sqlCreates.getSqlCreateSelection();
 			final Stopwatch stopwatch = Stopwatch.createStarted();
-			rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			rowsCount = executeUpdate(sqlCreateSelection, ITrx.TRXNAME_ThreadInherited);
 			logger.trace("Created selection {}, rowsCount={}, duration={}", viewId, rowsCount, stopwatch);
 		}
 
@@ -129,7 +196,224 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
-	private int extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
+	private int getInMemorySelectionMaxSize()
+	{
+		return inMemorySelectionsAllowed
+				? sysConfigBL.getIntValue(SYSCONFIG_InMemorySelectionMaxSize, DEFAULT_InMemorySelectionMaxSize)
+				: 0;
+	}
+
+	/**
+	 * Runs the selection query once. If the result is not bigger than <code>maxSize</code>, the selection is kept in memory.
+	 * Else the row IDs which were already fetched and all the following ones are inserted into {@link I_T_WEBUI_ViewSelection}, chunk by chunk.
+	 *
+	 * @return selection size
+	 */
+	private long createSelectionInMemoryOrInDatabase(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int queryLimit,
+			final boolean applySecurityRestrictions,
+			final SqlDocumentFilterConverterContext context,
+			final int maxSize)
+	{
+		final SqlAndParams sql = newSqlViewSelectionQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectOrderedRowIds(viewEvalCtx, filters, orderBys, queryLimit, context);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final InMemoryOrMaterializedRowIdsCollector collector = new InMemoryOrMaterializedRowIdsCollector(viewId.getViewId(), maxSize);
+		streamOrderedRowIds(sql, collector);
+
+		final InMemoryViewRowIds inMemoryRowIds = collector.finish();
+		if (inMemoryRowIds != null)
+		{
+			inMemorySelections.put(viewId.getViewId(), inMemoryRowIds);
+			logger.trace("Created in memory selection {}, size={}, duration={}", viewId, inMemoryRowIds.size(), stopwatch);
+			return inMemoryRowIds.size();
+		}
+		else
+		{
+			logger.trace("Selection {} was too big to be kept in memory (maxSize={}). Created it in database: rowsCount={}, duration={}", viewId, maxSize, collector.getCount(), stopwatch);
+			return collector.getCount();
+		}
+	}
+
+	/**
+	 * Collects the ordered row IDs in memory, up to a given max size.
+	 * When more row IDs are coming, they are inserted into {@link I_T_WEBUI_ViewSelection}, chunk by chunk, in the current transaction.
+	 */
+	private final class InMemoryOrMaterializedRowIdsCollector implements IntConsumer
+	{
+		private final String selectionId;
+		private final int maxInMemorySize;
+
+		private int[] buffer;
+		private int bufferSize = 0;
+		private int materializedCount = 0;
+
+		private InMemoryOrMaterializedRowIdsCollector(@NonNull final String selectionId, final int maxInMemorySize)
+		{
+			this.selectionId = selectionId;
+			this.maxInMemorySize = maxInMemorySize;
+			this.buffer = new int[Math.min(maxInMemorySize, 1000)];
+		}
+
+		@Override
+		public void accept(final int rowId)
+		{
+			if (bufferSize >= buffer.length)
+			{
+				if (materializedCount > 0 || bufferSize >= maxInMemorySize)
+				{
+					flush();
+				}
+				else
+				{
+					buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxInMemorySize));
+				}
+			}
+
+			buffer[bufferSize] = rowId;
+			bufferSize++;
+		}
+
+		private void flush()
+		{
+			if (bufferSize <= 0)
+			{
+				return;
+			}
+
+			final int[] rowIds = bufferSize == buffer.length ? buffer : Arrays.copyOf(buffer, bufferSize);
+			final SqlAndParams sql = newSqlViewSelectionQueryBuilder().buildSqlCreateSelectionFromRowIds(selectionId, rowIds, materializedCount);
+			executeUpdate(sql, ITrx.TRXNAME_ThreadInherited);
+
+			materializedCount += bufferSize;
+			bufferSize = 0;
+			if (buffer.length < MATERIALIZE_CHUNK_SIZE)
+			{
+				buffer = new int[MATERIALIZE_CHUNK_SIZE];
+			}
+		}
+
+		/**
+		 * @return the in memory row IDs or <code>null</code> if the selection was stored in database
+		 */
+		@Nullable
+		public InMemoryViewRowIds finish()
+		{
+			if (materializedCount > 0)
+			{
+				flush();
+				return null;
+			}
+
+			return InMemoryViewRowIds.ofOrderedIds(Arrays.copyOf(buffer, bufferSize));
+		}
+
+		public int getCount()
+		{
+			return materializedCount + bufferSize;
+		}
+	}
+
+	private int[] retrieveOrderedRowIds(@NonNull final SqlAndParams sql)
+	{
+		final IntStream.Builder rowIds = IntStream.builder();
+		streamOrderedRowIds(sql, rowIds);
+		return rowIds.build().toArray();
+	}
+
+	@VisibleForTesting
+	void streamOrderedRowIds(@NonNull final SqlAndParams sql, @NonNull final IntConsumer consumer)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sql.getSqlParams());
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				consumer.accept(rs.getInt(1));
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql.getSql(), sql.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@VisibleForTesting
+	int executeUpdate(@NonNull final SqlAndParams sql, final String trxName)
+	{
+		return DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), trxName);
+	}
+
+	/**
+	 * @return the row IDs of given selection if the selection is kept in memory, else <code>null</code>
+	 */
+	@Nullable
+	public InMemoryViewRowIds getInMemoryRowIds(@NonNull final ViewId viewId)
+	{
+		return inMemorySelections.get(viewId.getViewId());
+	}
+
+	/**
+	 * Stores the selection into {@link I_T_WEBUI_ViewSelection} if it's currently kept in memory.
+	 * <p>
+	 * Needed before running any SQL which expects the selection to be in database.
+	 */
+	public void materializeIfInMemory(@NonNull final String selectionId)
+	{
+		synchronized (materializeLock)
+		{
+			while (true)
+			{
+				final InMemoryViewRowIds inMemoryRowIds = inMemorySelections.get(selectionId);
+				if (inMemoryRowIds == null)
+				{
+					return;
+				}
+
+				// NOTE: run out of transaction because the selection shall be visible to everybody from now on
+				final int rowsCount = insertRowIds(selectionId, inMemoryRowIds, ITrx.TRXNAME_None);
+
+				// NOTE: rows might have been added or removed in the meantime. In that case we insert the current ones again.
+				if (inMemorySelections.remove(selectionId, inMemoryRowIds))
+				{
+					logger.trace("Materialized in memory selection {}, rowsCount={}", selectionId, rowsCount);
+					return;
+				}
+				else if (rowsCount > 0)
+				{
+					executeUpdate(newSqlViewSelectionQueryBuilder().buildSqlDeleteSelection(ImmutableSet.of(selectionId)), ITrx.TRXNAME_None);
+				}
+			}
+		}
+	}
+
+	private int insertRowIds(@NonNull final String selectionId, @NonNull final InMemoryViewRowIds rowIds, final String trxName)
+	{
+		if (rowIds.isEmpty())
+		{
+			return 0;
+		}
+
+		final SqlAndParams sql = newSqlViewSelectionQueryBuilder().buildSqlCreateSelectionFromRowIds(selectionId, rowIds.toOrderedIdsArray());
+		return executeUpdate(sql, trxName);
+	}
+
+	@VisibleForTesting
+	int extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
 	{
 		final UserRolePermissionsKey permissionsKey = viewEvalCtx.getPermissionsKey();
 		final IUserRolePermissions permissions = userRolePermissionsRepo.getUserRolePermissions(permissionsKey);
@@ -150,6 +434,33 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		final String fromSelectionId = fromSelection.getSelectionId();
 		final ViewId newViewId = ViewId.random(windowId);
 
+		//
+		// Order/filter an in memory selection => the result is an in memory selection too
+		final InMemoryViewRowIds fromInMemoryRowIds = inMemorySelections.get(fromSelectionId);
+		if (fromInMemoryRowIds != null)
+		{
+			final int[] rowIds;
+			if (fromInMemoryRowIds.isEmpty())
+			{
+				rowIds = new int[] {};
+			}
+			else
+			{
+				final SqlAndParams sql = newSqlViewSelectionQueryBuilder().buildSqlSelectOrderedRowIdsFromRowIds(viewEvalCtx, fromInMemoryRowIds.toOrderedIdsArray(), filters, orderBys, filterConverterCtx);
+				rowIds = retrieveOrderedRowIds(sql);
+			}
+
+			final InMemoryViewRowIds inMemoryRowIds = InMemoryViewRowIds.ofOrderedIds(rowIds);
+			inMemorySelections.put(newViewId.getViewId(), inMemoryRowIds);
+
+			return ViewRowIdsOrderedSelection.builder()
+					.viewId(newViewId)
+					.size(inMemoryRowIds.size())
+					.orderBys(orderBys)
+					.queryLimit(fromSelection.getQueryLimit())
+					.build();
+		}
+
 		final int rowsCount;
 		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder();
 		if (viewQueryBuilder.hasGroupingFields())
@@ -163,12 +474,12 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			}
 
 			final SqlAndParams sqlCreateSelectionLines = viewQueryBuilder.buildSqlCreateSelectionLinesFromSelectionLines(viewEvalCtx, newViewId, fromSelectionId);
-			final int linesCount = DB.executeUpdateEx(sqlCreateSelectionLines.getSql(), sqlCreateSelectionLines.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int linesCount = executeUpdate(sqlCreateSelectionLines, ITrx.TRXNAME_ThreadInherited);
 
 			if (linesCount > 0)
 			{
 				final SqlAndParams sqlCreateSelection = viewQueryBuilder.buildSqlCreateSelectionFromSelectionLines(viewEvalCtx, newViewId, orderBys);
-				rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+				rowsCount = executeUpdate(sqlCreateSelection, ITrx.TRXNAME_ThreadInherited);
 			}
 			else
 			{
@@ -178,7 +489,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		else
 		{
 			final SqlAndParams sqlCreateSelection = viewQueryBuilder.buildSqlCreateSelectionFromSelection(viewEvalCtx, newViewId, fromSelectionId, filters, orderBys, filterConverterCtx);
-			rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			rowsCount = executeUpdate(sqlCreateSelection, ITrx.TRXNAME_ThreadInherited);
 		}
 
 		return ViewRowIdsOrderedSelection.builder()
@@ -202,6 +513,14 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			throw new IllegalArgumentException("Cannot add ALL to selection");
 		}
 
+		//
+		// In memory selection
+		final InMemoryViewRowIds inMemoryRowIds = inMemorySelections.computeIfPresent(selection.getSelectionId(), (k, currentRowIds) -> currentRowIds.withAddedRowIds(rowIds));
+		if (inMemoryRowIds != null)
+		{
+			return selection.withSize(inMemoryRowIds.size());
+		}
+
 		//
 		// Add
 		boolean hasChanges = false;
@@ -210,7 +529,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		for (final DocumentId rowId : rowIds.toSet())
 		{
 			final SqlAndParams sqlAdd = newSqlViewSelectionQueryBuilder().buildSqlAddRowIdsFromSelection(selectionId, rowId);
-			final int added = DB.executeUpdateEx(sqlAdd.getSql(), sqlAdd.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int added = executeUpdate(sqlAdd, ITrx.TRXNAME_ThreadInherited);
 			if (added <= 0)
 			{
 				continue;
@@ -241,11 +560,19 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return selection;
 		}
 
+		//
+		// In memory selection
+		final InMemoryViewRowIds inMemoryRowIds = inMemorySelections.computeIfPresent(selection.getSelectionId(), (k, currentRowIds) -> currentRowIds.withRemovedRowIds(rowIds));
+		if (inMemoryRowIds != null)
+		{
+			return selection.withSize(inMemoryRowIds.size());
+		}
+
 		//
 		// Delete
 		{
 			final SqlAndParams sqlDelete = newSqlViewSelectionQueryBuilder().buildSqlDeleteRowIdsFromSelection(selection.getSelectionId(), rowIds);
-			final int deleted = DB.executeUpdateEx(sqlDelete.getSql(), sqlDelete.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int deleted = executeUpdate(sqlDelete, ITrx.TRXNAME_ThreadInherited);
 			if (deleted <= 0)
 			{
 				// nothing changed
@@ -276,6 +603,12 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return false;
 		}
 
+		final InMemoryViewRowIds inMemoryRowIds = inMemorySelections.get(selection.getSelectionId());
+		if (inMemoryRowIds != null)
+		{
+			return inMemoryRowIds.containsAny(rowIds);
+		}
+
 		final SqlAndParams sqlCount = newSqlViewSelectionQueryBuilder().buildSqlCount(selection.getSelectionId(), rowIds);
 		final int count = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sqlCount.getSql(), sqlCount.getSqlParamsArray());
 		return count > 0;
@@ -289,19 +622,21 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return;
 		}
 
+		inMemorySelections.keySet().removeAll(selectionIds);
+
 		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder();
 
 		// Delete selection lines
 		{
 			final SqlAndParams sql = viewQueryBuilder.buildSqlDeleteSelectionLines(selectionIds);
-			final int countDeleted = DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int countDeleted = executeUpdate(sql, ITrx.TRXNAME_ThreadInherited);
 			logger.trace("Delete {} selection lines for {}", countDeleted, selectionIds);
 		}
 
 		// Delete selection rows
 		{
 			final SqlAndParams sql = viewQueryBuilder.buildSqlDeleteSelection(selectionIds);
-			final int countDeleted = DB.executeUpdateEx(sql.getSql(), sql.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+			final int countDeleted = executeUpdate(sql, ITrx.TRXNAME_ThreadInherited);
 			logger.trace("Delete {} selection rows for {}", countDeleted, selectionIds);
 		}
 	}
@@ -309,6 +644,9 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	@Override
 	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
 	{
+		// NOTE: in memory selections can be forgotten right away; the ones which were materialized in the meantime are deleted by the scheduler
+		inMemorySelections.keySet().removeAll(selectionIds);
+
 		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIds);
 	}
 
@@ -80,6 +80,11 @@ public class SqlViewSelectData
 	private final IStringExpression sqlSelectById;
 	private final IStringExpression sqlSelectLines;
 
+	// SQLs used when the selection's row IDs are kept in memory (see {@link #isInMemorySelectionSupported()})
+	private final IStringExpression sqlSelectByPageInMemory;
+	private final IStringExpression sqlSelectRowIdsByPageInMemory;
+	private final IStringExpression sqlSelectByIdInMemory;
+
 	@Builder
 	private SqlViewSelectData(
 			@NonNull final String sqlTableName,
@@ -95,30 +100,63 @@ public class SqlViewSelectData
 		this.fieldsByFieldName = Maps.uniqueIndex(allFields, SqlViewRowFieldBinding::getFieldName);
 
 		final IStringExpression sqlSelect = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding);
+		sqlSelectByPage = appendSqlWhereByPage(sqlSelect);
+
+		final IStringExpression sqlSelectRowIds = buildSqlSelect(
+				sqlTableName,
+				sqlTableAlias,
+				keyColumnNamesMap,
+				ImmutableList.of(), // displayFieldNames
+				extractKeyFields(allFields, keyColumnNamesMap), // allFields
+				groupingBinding);
+		sqlSelectRowIdsByPage = appendSqlWhereByPage(sqlSelectRowIds);
+
+		sqlSelectById = appendSqlWhereById(sqlSelect, keyColumnNamesMap);
+
+		this.sqlSelectLines = groupingBinding != null
+				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
+				: null;
+
+		//
+		// In memory selections
+		if (groupingBinding == null && keyColumnNamesMap.isSingleIntKey())
+		{
+			final String sqlInMemorySelectionSource = buildSqlInMemorySelectionSource(keyColumnNamesMap);
+
+			final IStringExpression sqlSelectInMemory = buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, sqlInMemorySelectionSource);
+			sqlSelectByPageInMemory = appendSqlWhereByPage(sqlSelectInMemory);
+			sqlSelectByIdInMemory = appendSqlWhereById(sqlSelectInMemory, keyColumnNamesMap);
+
+			final IStringExpression sqlSelectRowIdsInMemory = buildSqlSelect_WithoutGrouping(
+					sqlTableName,
+					sqlTableAlias,
+					keyColumnNamesMap,
+					ImmutableList.of(), // displayFieldNames
+					extractKeyFields(allFields, keyColumnNamesMap), // allFields
+					sqlInMemorySelectionSource);
+			sqlSelectRowIdsByPageInMemory = appendSqlWhereByPage(sqlSelectRowIdsInMemory);
+		}
+		else
+		{
+			sqlSelectByPageInMemory = null;
+			sqlSelectRowIdsByPageInMemory = null;
+			sqlSelectByIdInMemory = null;
+		}
+	}
 
-		sqlSelectByPage = sqlSelect.toComposer()
+	private static IStringExpression appendSqlWhereByPage(final IStringExpression sqlSelect)
+	{
+		return sqlSelect.toComposer()
 				.append("\n WHERE ")
 				// NOTE: already filtered by UUID
 				.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
 				.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
 				.build();
+	}
 
-		sqlSelectRowIdsByPage = buildSqlSelect(
-				sqlTableName,
-				sqlTableAlias,
-				keyColumnNamesMap,
-				ImmutableList.of(), // displayFieldNames
-				extractKeyFields(allFields, keyColumnNamesMap), // allFields
-				groupingBinding)
-						//
-						.toComposer()
-						.append("\n WHERE ")
-						// NOTE: already filtered by UUID
-						.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
-						.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
-						.build();
-
-		sqlSelectById = sqlSelect.toComposer()
+	private static IStringExpression appendSqlWhereById(final IStringExpression sqlSelect, final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		return sqlSelect.toComposer()
 				.append("\n WHERE ")
 				// NOTE: already filtered by UUID
 				.append("\n")
@@ -127,10 +165,22 @@ public class SqlViewSelectData
 						.map(keyColumnName -> COLUMNNAME_Paging_Prefix + keyColumnName + "=?")
 						.collect(Collectors.joining("\nAND ")))
 				.build();
+	}
 
-		this.sqlSelectLines = groupingBinding != null
-				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
-				: null;
+	/**
+	 * @return true if the rows can also be fetched from a selection whose row IDs are kept in memory (i.e. not stored in {@link I_T_WEBUI_ViewSelection})
+	 */
+	public boolean isInMemorySelectionSupported()
+	{
+		return sqlSelectByPageInMemory != null;
+	}
+
+	private void assertInMemorySelectionSupported()
+	{
+		if (!isInMemorySelectionSupported())
+		{
+			throw new AdempiereException("In memory selections are not supported for " + sqlTableName);
+		}
 	}
 
 	private IStringExpression getSqlSelectLines()
@@ -160,7 +210,7 @@ public class SqlViewSelectData
 	{
 		if (groupingBinding == null)
 		{
-			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields);
+			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, I_T_WEBUI_ViewSelection.Table_Name);
 		}
 		else
 		{
@@ -168,12 +218,16 @@ public class SqlViewSelectData
 		}
 	}
 
+	/**
+	 * @param sqlSelectionSource where the selection rows are taken from; it's either the {@link I_T_WEBUI_ViewSelection} table or the in memory selection source (see {@link #buildSqlInMemorySelectionSource(SqlViewKeyColumnNamesMap)})
+	 */
 	private static IStringExpression buildSqlSelect_WithoutGrouping(
 			@NonNull final String sqlTableName,
 			@NonNull final String sqlTableAlias,
 			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			@NonNull final Collection<String> displayFieldNames,
-			@NonNull final Collection<SqlViewRowFieldBinding> allFields)
+			@NonNull final Collection<SqlViewRowFieldBinding> allFields,
+			@NonNull final String sqlSelectionSource)
 	{
 		final List<String> sqlSelectValuesList = new ArrayList<>();
 		final List<IStringExpression> sqlSelectDisplayNamesList = new ArrayList<>();
@@ -212,7 +266,7 @@ public class SqlViewSelectData
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
 				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+				.append("\n   FROM " + sqlSelectionSource + " sel")
 				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
@@ -221,6 +275,22 @@ public class SqlViewSelectData
 		return sql.build().caching();
 	}
 
+	/**
+	 * Builds a subselect which provides the same columns as {@link I_T_WEBUI_ViewSelection}, but the rows are taken from an array of row IDs.
+	 * <p>
+	 * SQL Parameters required: 1=UUID, 2=offset to be added to the 1-based position in the array in order to get the Line, 3=row IDs array (see {@link SqlViewSelectionQueryBuilder#toSqlIntArray(int[])})
+	 */
+	private static String buildSqlInMemorySelectionSource(final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		final String keyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+		return "(SELECT "
+				+ "?::varchar AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+				+ ", (x." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " + ?) AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ ", x." + keyColumnName
+				+ " FROM unnest(?::numeric[]) WITH ORDINALITY AS x(" + keyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")"
+				+ ")";
+	}
+
 	private static IStringExpression buildSqlSelect_WithGrouping(
 			final String sqlTableName,
 			final String sqlTableAlias,
@@ -414,6 +484,51 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, viewSelectionId, firstSeqNo, lastSeqNo);
 	}
 
+	@Builder(builderMethodName = "selectByPageInMemory", builderClassName = "SelectByPageInMemoryBuilder")
+	private SqlAndParams selectByPageInMemoryBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			final int firstRowZeroBased,
+			@NonNull final int[] pageRowIds)
+	{
+		assertInMemorySelectionSupported();
+		final String sql = sqlSelectByPageInMemory.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, buildSqlParamsByPageInMemory(viewId, firstRowZeroBased, pageRowIds));
+	}
+
+	@Builder(builderMethodName = "selectRowIdsByPageInMemory", builderClassName = "SelectRowIdsByPageInMemoryBuilder")
+	private SqlAndParams selectRowIdsByPageInMemoryBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			final int firstRowZeroBased,
+			@NonNull final int[] pageRowIds)
+	{
+		assertInMemorySelectionSupported();
+		final String sql = sqlSelectRowIdsByPageInMemory.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, buildSqlParamsByPageInMemory(viewId, firstRowZeroBased, pageRowIds));
+	}
+
+	private static List<Object> buildSqlParamsByPageInMemory(
+			@NonNull final ViewId viewId,
+			final int firstRowZeroBased,
+			@NonNull final int[] pageRowIds)
+	{
+		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
+		Check.assume(pageRowIds.length > 0, "pageRowIds not empty");
+
+		final String viewSelectionId = viewId.getViewId();
+		final int firstSeqNo = firstRowZeroBased + 1; // NOTE: firstRow is 0-based while SeqNo are 1-based
+		final int lastSeqNo = firstRowZeroBased + pageRowIds.length;
+
+		return ImmutableList.of(
+				viewSelectionId, // in memory selection source: UUID
+				firstRowZeroBased, // in memory selection source: Line offset
+				SqlViewSelectionQueryBuilder.toSqlIntArray(pageRowIds), // in memory selection source: row IDs
+				viewSelectionId, // UUID filter
+				firstSeqNo,
+				lastSeqNo);
+	}
+
 	@Builder(builderMethodName = "selectById", builderClassName = "SelectByIdBuilder")
 	private SqlAndParams selectByIdBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
@@ -428,6 +543,24 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	@Builder(builderMethodName = "selectByIdInMemory", builderClassName = "SelectByIdInMemoryBuilder")
+	private SqlAndParams selectByIdInMemoryBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentId rowId)
+	{
+		assertInMemorySelectionSupported();
+		final String sql = sqlSelectByIdInMemory.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(viewId.getViewId()); // in memory selection source: UUID
+		sqlParams.add(0); // in memory selection source: Line offset
+		sqlParams.add(SqlViewSelectionQueryBuilder.toSqlIntArray(new int[] { rowId.toInt() })); // in memory selection source: row IDs
+		sqlParams.add(viewId.getViewId()); // UUID filter
+		sqlParams.addAll(keyColumnNamesMap.getSqlValuesList(rowId));
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
 	@Builder(builderMethodName = "selectIncludedLines", builderClassName = "SelectIncludedLinesBuilder")
 	private SqlAndParams selectIncludedLinesBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
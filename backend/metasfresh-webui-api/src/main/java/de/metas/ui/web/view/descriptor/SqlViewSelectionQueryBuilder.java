@@ -310,6 +310,129 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * Builds the SQL which selects the ordered key values of the rows matching given filters, without storing them into {@link I_T_WEBUI_ViewSelection}.
+	 * <p>
+	 * Supported only for views having a single integer key and no grouping fields.
+	 */
+	public SqlAndParams buildSqlSelectOrderedRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int limit,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		Check.assume(!hasGroupingFields(), "Views with grouping fields are not supported");
+
+		final String sqlTableName = getTableName();
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "Only views with a single integer key are supported: {}", keyColumnNamesMap);
+
+		//
+		// SELECT ... FROM ... WHERE 1=1
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
+		sqlBuilder.append(
+				IStringExpression.composer()
+						.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
+						//
+						.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
+						.append("\n WHERE 1=1 ")
+						.wrap(securityRestrictionsWrapper(sqlTableAlias)) // security
+		);
+
+		//
+		// WHERE clause (from query)
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		{
+			final SqlParamsCollector sqlWhereClauseParams = SqlParamsCollector.newInstance();
+			final IStringExpression sqlWhereClause = buildSqlWhereClause(sqlWhereClauseParams, filters, SqlOptions.usingTableAlias(sqlTableAlias), filterConverterCtx);
+
+			if (sqlWhereClause != null && !sqlWhereClause.isNullExpression())
+			{
+				sqlBuilder.append("\n AND (\n").append(sqlWhereClause).append("\n)");
+				sqlParams.addAll(sqlWhereClauseParams.toList());
+			}
+		}
+
+		//
+		// ORDER BY
+		{
+			final IStringExpression sqlOrderBy = SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
+					.joinOnTableNameOrAlias(sqlTableAlias)
+					.useColumnNameAlias(false)
+					.buildSqlOrderBy(orderBys)
+					.orElseGet(() -> ConstantStringExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)));
+
+			sqlBuilder.append("\n ORDER BY ").append(sqlOrderBy);
+		}
+
+		//
+		// LIMIT
+		if (limit > 0)
+		{
+			sqlBuilder.append("\n LIMIT ?");
+			sqlParams.add(limit);
+		}
+
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	/**
+	 * Builds the SQL which stores given ordered row IDs into {@link I_T_WEBUI_ViewSelection}.
+	 * Used to materialize a selection which was kept in memory so far.
+	 */
+	public SqlAndParams buildSqlCreateSelectionFromRowIds(
+			@NonNull final String selectionId,
+			@NonNull final int[] orderedRowIds)
+	{
+		final int lineOffset = 0;
+		return buildSqlCreateSelectionFromRowIds(selectionId, orderedRowIds, lineOffset);
+	}
+
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromRowIds(String, int[])}, but the lines are numbered starting from <code>lineOffset + 1</code>.
+	 * Used to store a selection chunk by chunk.
+	 */
+	public SqlAndParams buildSqlCreateSelectionFromRowIds(
+			@NonNull final String selectionId,
+			@NonNull final int[] orderedRowIds,
+			final int lineOffset)
+	{
+		Check.assume(lineOffset >= 0, "lineOffset >= 0 but it was {}", lineOffset);
+		final String keyColumnName = getSqlViewKeyColumnNamesMap().getSingleWebuiSelectionColumnName();
+
+		final String sql = "INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+				+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+				+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ ", " + keyColumnName
+				+ ")"
+				+ "\n SELECT ?, x." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " + ?, x." + keyColumnName
+				+ "\n FROM unnest(?::numeric[]) WITH ORDINALITY AS x(" + keyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")";
+
+		return SqlAndParams.of(sql, selectionId, lineOffset, toSqlIntArray(orderedRowIds));
+	}
+
+	/**
+	 * @return the given IDs as a PostgreSQL array literal (e.g. <code>{1,2,3}</code>), to be used as a single SQL parameter casted to an array
+	 */
+	public static String toSqlIntArray(@NonNull final int[] ids)
+	{
+		final StringBuilder sb = new StringBuilder(ids.length * 8 + 2);
+		sb.append("{");
+		for (int i = 0; i < ids.length; i++)
+		{
+			if (i > 0)
+			{
+				sb.append(",");
+			}
+			sb.append(ids[i]);
+		}
+		sb.append("}");
+		return sb.toString();
+	}
+
 	private SqlAndParams buildSqlCreateSelectionLines_WithGrouping(
 			final ViewEvaluationCtx viewEvalCtx,
 			final ViewId newViewId,
@@ -519,6 +642,88 @@ public final class SqlViewSelectionQueryBuilder
 		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
 
+		final SqlFromSelectionParts fromSelectionParts = buildSqlFromSelectionParts(viewEvalCtx, filters, orderBys, filterConverterCtx);
+		final SqlAndParams sqlSourceTable = fromSelectionParts.getSqlSourceTable();
+		final String sqlOrderBys = fromSelectionParts.getSqlOrderBys();
+
+		//
+		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
+
+		//
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+						+ ")")
+				.append("\n SELECT ")
+				.append("\n  ?", newViewId.getViewId()) // newUUID
+				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
+				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
+				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
+				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+				.build();
+	}
+
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, DocumentFilterList, DocumentQueryOrderByList, SqlDocumentFilterConverterContext)},
+	 * but the source selection is given as an array of row IDs and the result are the ordered key values instead of an insert into {@link I_T_WEBUI_ViewSelection}.
+	 * <p>
+	 * Supported only for views having a single integer key and no grouping fields.
+	 *
+	 * @return
+	 *
+	 *         <pre>
+	 * SELECT keys FROM unnest([fromRowIds]) sel INNER JOIN ourTable ORDER BY ...
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlSelectOrderedRowIdsFromRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] fromRowIds,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final String selectionKeyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		final SqlFromSelectionParts fromSelectionParts = buildSqlFromSelectionParts(viewEvalCtx, filters, orderBys, filterConverterCtx);
+		final SqlAndParams sqlSourceTable = fromSelectionParts.getSqlSourceTable();
+		final String sqlOrderBys = fromSelectionParts.getSqlOrderBys();
+
+		//
+		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
+
+		//
+		return SqlAndParams.builder()
+				.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
+				.append("\n FROM unnest(?::numeric[]) WITH ORDINALITY AS sel(" + selectionKeyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")", toSqlIntArray(fromRowIds))
+				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+				// NOTE: keep the current order for rows which are equal in terms of given orderBys
+				.append("\n ORDER BY ").append(sqlOrderBys != null ? sqlOrderBys + ", " : "").append("sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.build();
+	}
+
+	@Value
+	private static class SqlFromSelectionParts
+	{
+		@NonNull
+		SqlAndParams sqlSourceTable;
+		@Nullable
+		String sqlOrderBys;
+	}
+
+	private SqlFromSelectionParts buildSqlFromSelectionParts(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
 		final DocumentQueryOrderByList orderBysEffective = orderBys.stream()
 				.flatMap(this::flatMapEffectiveFieldNames)
 				.collect(DocumentQueryOrderByList.toDocumentQueryOrderByList());
@@ -596,24 +801,7 @@ public final class SqlViewSelectionQueryBuilder
 				.map(sql -> _viewBinding.replaceTableNameWithTableAlias(sql, sqlTableAlias))
 				.orElse(null);
 
-		//
-		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
-
-		//
-		return SqlAndParams.builder()
-				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
-						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
-						+ ")")
-				.append("\n SELECT ")
-				.append("\n  ?", newViewId.getViewId()) // newUUID
-				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
-				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
-				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
-				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
-				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
-				.build();
+		return new SqlFromSelectionParts(sqlSourceTable, sqlOrderBys);
 	}
 
 	/**
@@ -666,6 +854,30 @@ public final class SqlViewSelectionQueryBuilder
 		return buildSqlWhereClause(sqlTableName, keyColumnNamesMap, selectionId, rowIds, rowIdsConverter);
 	}
 
+	/**
+	 * Same as {@link #buildSqlWhereClause(String, DocumentIdsSelection)} but without checking if the rows are part of a selection stored in database.
+	 * <p>
+	 * To be used for selections which are kept in memory, after the caller made sure the given rowIds are part of the selection.
+	 */
+	public String buildSqlWhereClauseByRowIds(@NonNull final DocumentIdsSelection rowIds)
+	{
+		Check.assume(!rowIds.isAll(), "rowIds shall not be ALL");
+		if (rowIds.isEmpty())
+		{
+			return "1=0";
+		}
+
+		return getSqlViewKeyColumnNamesMap()
+				.prepareSqlFilterByRowIds()
+				.sqlColumnPrefix(getTableName() + ".")
+				.useKeyColumnName(true)
+				.rowIds(rowIds)
+				.rowIdsConverter(getRowIdsConverter())
+				.embedSqlParams(true)
+				.build()
+				.getSql();
+	}
+
 	@Builder(builderMethodName = "prepareSqlWhereClause", builderClassName = "SqlWhereClauseBuilder")
 	private static String buildSqlWhereClause(
 			@NonNull final String sqlTableAlias,
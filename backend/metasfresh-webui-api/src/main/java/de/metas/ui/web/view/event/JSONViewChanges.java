@@ -1,15 +1,20 @@
 package de.metas.ui.web.view.event;
 
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.websocket.MergeableWebsocketEvent;
 import de.metas.ui.web.window.datatypes.WindowId;
 
 /*
@@ -36,7 +41,7 @@ import de.metas.ui.web.window.datatypes.WindowId;
 
 @SuppressWarnings("serial")
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public final class JSONViewChanges implements Serializable
+public final class JSONViewChanges implements Serializable, MergeableWebsocketEvent
 {
 	public static JSONViewChanges of(final ViewChanges changes)
 	{
@@ -82,6 +87,18 @@ public final class JSONViewChanges implements Serializable
 		}
 	}
 
+	private JSONViewChanges(
+			final String viewId,
+			final WindowId windowId,
+			final Boolean fullyChanged,
+			final Set<String> changedIds)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -108,4 +125,44 @@ public final class JSONViewChanges implements Serializable
 	{
 		return fullyChanged;
 	}
+
+	public Set<String> getChangedIds()
+	{
+		return changedIds != null ? changedIds : ImmutableSet.of();
+	}
+
+	/**
+	 * Merges with the changes of the same view: the changed IDs are united, and if any of them is fully changed, the result is fully changed.
+	 */
+	@Override
+	@Nullable
+	public JSONViewChanges mergeWithNextEvent(final Object nextEvent)
+	{
+		if (!(nextEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges next = (JSONViewChanges)nextEvent;
+		if (!Objects.equals(viewId, next.viewId)
+				|| !Objects.equals(windowId, next.windowId))
+		{
+			return null;
+		}
+
+		if (Boolean.TRUE.equals(fullyChanged) || Boolean.TRUE.equals(next.fullyChanged))
+		{
+			return new JSONViewChanges(viewId, windowId, Boolean.TRUE, null);
+		}
+
+		final ImmutableSet<String> changedIdsMerged = ImmutableSet.<String> builder()
+				.addAll(getChangedIds())
+				.addAll(next.getChangedIds())
+				.build();
+		if (changedIdsMerged.isEmpty())
+		{
+			return new JSONViewChanges(viewId, windowId, null, null);
+		}
+		return new JSONViewChanges(viewId, windowId, Boolean.FALSE, changedIdsMerged);
+	}
 }
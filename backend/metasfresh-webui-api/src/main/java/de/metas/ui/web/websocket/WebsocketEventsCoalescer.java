@@ -0,0 +1,206 @@
+package de.metas.ui.web.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the websocket events per destination for a given time window and then sends them from a dedicated thread.
+ * <p>
+ * Within a window, an event which implements {@link MergeableWebsocketEvent} is merged with the next event sent to the same destination, if possible.
+ * Events which cannot be merged are sent as they are, preserving their order per destination.
+ * <p>
+ * Callers are never blocked by the actual sending.
+ */
+/* package */ final class WebsocketEventsCoalescer
+{
+	private static final Logger logger = LogManager.getLogger(WebsocketEventsCoalescer.class);
+
+	private final Consumer<WebsocketEvent> sender;
+	private final long windowMillis;
+	private final ScheduledExecutorService executor;
+
+	private final ConcurrentHashMap<String, PendingEvents> pendingEventsByDestination = new ConcurrentHashMap<>();
+
+	private final LongAdder eventsIn = new LongAdder();
+	private final LongAdder eventsOut = new LongAdder();
+
+	public WebsocketEventsCoalescer(
+			@NonNull final Consumer<WebsocketEvent> sender,
+			final long windowMillis)
+	{
+		Check.assumeGreaterThanZero(windowMillis, "windowMillis");
+
+		this.sender = sender;
+		this.windowMillis = windowMillis;
+		this.executor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(WebsocketEventsCoalescer.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+	}
+
+	public void enqueue(@NonNull final WebsocketEvent event)
+	{
+		eventsIn.increment();
+
+		final String destination = event.getDestination();
+		final boolean[] newWindow = { false };
+		pendingEventsByDestination.compute(destination, (k, existingPendingEvents) -> {
+			final PendingEvents pendingEvents;
+			if (existingPendingEvents == null)
+			{
+				pendingEvents = new PendingEvents();
+				newWindow[0] = true;
+			}
+			else
+			{
+				pendingEvents = existingPendingEvents;
+			}
+
+			pendingEvents.add(event);
+			return pendingEvents;
+		});
+
+		if (newWindow[0])
+		{
+			executor.schedule(() -> sendPendingEvents(destination), windowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void sendPendingEvents(@NonNull final String destination)
+	{
+		final PendingEvents pendingEvents = pendingEventsByDestination.remove(destination);
+		if (pendingEvents == null)
+		{
+			return;
+		}
+
+		for (final WebsocketEvent event : pendingEvents.getEvents())
+		{
+			eventsOut.increment();
+			try
+			{
+				sender.accept(event);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed sending {}. Ignored.", event, ex);
+			}
+		}
+	}
+
+	@VisibleForTesting
+	void sendAllPendingEvents()
+	{
+		ImmutableSet.copyOf(pendingEventsByDestination.keySet()).forEach(this::sendPendingEvents);
+	}
+
+	public long getEventsIn()
+	{
+		return eventsIn.sum();
+	}
+
+	public long getEventsOut()
+	{
+		return eventsOut.sum();
+	}
+
+	/**
+	 * @return how many events were sent per received event; 1 means nothing was merged
+	 */
+	public double getMergeRatio()
+	{
+		final long eventsIn = getEventsIn();
+		return eventsIn > 0 ? (double)getEventsOut() / eventsIn : 1;
+	}
+
+	/** Events which are waiting to be sent to one destination. Accessed only while holding the lock of the destination's map entry. */
+	private static final class PendingEvents
+	{
+		private final List<WebsocketEvent> events = new ArrayList<>();
+
+		public void add(@NonNull final WebsocketEvent event)
+		{
+			final int lastIndex = events.size() - 1;
+			if (lastIndex >= 0)
+			{
+				final WebsocketEvent mergedEvent = mergeOrNull(events.get(lastIndex), event);
+				if (mergedEvent != null)
+				{
+					events.set(lastIndex, mergedEvent);
+					return;
+				}
+			}
+
+			events.add(event);
+		}
+
+		private static WebsocketEvent mergeOrNull(@NonNull final WebsocketEvent event, @NonNull final WebsocketEvent nextEvent)
+		{
+			if (event.isConverted() || nextEvent.isConverted())
+			{
+				return null;
+			}
+			if (!(event.getPayload() instanceof MergeableWebsocketEvent))
+			{
+				return null;
+			}
+
+			final Object mergedPayload = ((MergeableWebsocketEvent)event.getPayload()).mergeWithNextEvent(nextEvent.getPayload());
+			if (mergedPayload == null)
+			{
+				return null;
+			}
+
+			return WebsocketEvent.builder()
+					.destination(event.getDestination())
+					.payload(mergedPayload)
+					.converted(false)
+					.build();
+		}
+
+		public List<WebsocketEvent> getEvents()
+		{
+			return events;
+		}
+	}
+}
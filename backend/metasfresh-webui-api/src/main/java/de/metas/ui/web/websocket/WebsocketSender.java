@@ -3,6 +3,7 @@ package de.metas.ui.web.websocket;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -47,6 +48,9 @@ import lombok.NonNull;
  * NOTE: by default, all methods will send the events after the current DB transaction is committed.
  * If there is no current transaction, the events will be sent right away.
  *
+ * If <code>metasfresh.webui.websocket.coalescingWindowMillis</code> is set, the events are not sent right away but collected per destination for that time window,
+ * merged if possible, and then sent from a dedicated thread (see {@link WebsocketEventsCoalescer}).
+ *
  * @author metas-dev <dev@metasfresh.com>
  *
  */
@@ -58,20 +62,31 @@ public class WebsocketSender implements InitializingBean
 	private final SimpMessagingTemplate websocketMessagingTemplate;
 	private final WebsocketEventsLog eventsLog = new WebsocketEventsLog();
 	private final WebsocketEventsQueue autoflushQueue;
+	private WebsocketEventsCoalescer coalescer;
 
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
+	/** Time window in which the events to the same destination are merged. Zero or less means the events are sent without coalescing them. */
+	@Value("${metasfresh.webui.websocket.coalescingWindowMillis:0}")
+	private long coalescingWindowMillis;
+
 	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", websocketMessagingTemplate, eventsLog, /* autoflush */true);
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", this::publishEvent, /* autoflush */true);
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
 		eventsLog.setLogEventsEnabled(logEventsEnabledDefault);
+
+		if (coalescingWindowMillis > 0)
+		{
+			coalescer = new WebsocketEventsCoalescer(this::sendEventNow, coalescingWindowMillis);
+			logger.info("Coalescing websocket events using a window of {}ms", coalescingWindowMillis);
+		}
 	}
 
 	public void convertAndSend(final Collection<? extends WebsocketEndpointAware> events)
@@ -116,7 +131,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, websocketMessagingTemplate, eventsLog, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, this::publishEvent, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -126,6 +141,55 @@ public class WebsocketSender implements InitializingBean
 		return queue;
 	}
 
+	private void publishEvent(@NonNull final WebsocketEvent event)
+	{
+		final WebsocketEventsCoalescer coalescer = this.coalescer;
+		if (coalescer != null)
+		{
+			coalescer.enqueue(event);
+		}
+		else
+		{
+			sendEventNow(event);
+		}
+	}
+
+	private void sendEventNow(@NonNull final WebsocketEvent event)
+	{
+		final String destination = event.getDestination();
+		final Object payload = event.getPayload();
+		if (event.isConverted())
+		{
+			final Message<?> message = (Message<?>)payload;
+			websocketMessagingTemplate.send(destination, message);
+		}
+		else
+		{
+			websocketMessagingTemplate.convertAndSend(destination, payload);
+			eventsLog.logEvent(destination, payload);
+		}
+	}
+
+	/**
+	 * @return statistics of the events coalescing or {@link CoalescingStats#DISABLED} if the events are not coalesced.
+	 */
+	public CoalescingStats getCoalescingStats()
+	{
+		final WebsocketEventsCoalescer coalescer = this.coalescer;
+		if (coalescer == null)
+		{
+			return CoalescingStats.DISABLED;
+		}
+
+		return CoalescingStats.builder()
+				.enabled(true)
+				.windowMillis(coalescingWindowMillis)
+				.eventsIn(coalescer.getEventsIn())
+				.eventsOut(coalescer.getEventsOut())
+				.mergeRatio(coalescer.getMergeRatio())
+				.build();
+	}
+
 	public void setLogEventsEnabled(final boolean enabled)
 	{
 		eventsLog.setLogEventsEnabled(enabled);
@@ -143,31 +207,33 @@ public class WebsocketSender implements InitializingBean
 
 	@lombok.Value
 	@lombok.Builder
-	private static final class WebsocketEvent
+	public static class CoalescingStats
 	{
-		private final String destination;
-		private final Object payload;
-		private final boolean converted;
+		public static final CoalescingStats DISABLED = builder().enabled(false).build();
+
+		boolean enabled;
+		long windowMillis;
+		long eventsIn;
+		long eventsOut;
+		/** events out / events in */
+		double mergeRatio;
 	}
 
 	private static class WebsocketEventsQueue
 	{
 		/** internal name, used for logging */
 		private final String name;
-		private final SimpMessagingTemplate websocketMessagingTemplate;
-		private final WebsocketEventsLog eventsLog;
+		private final Consumer<WebsocketEvent> publisher;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
-				@NonNull final WebsocketEventsLog eventsLog,
+				@NonNull final Consumer<WebsocketEvent> publisher,
 				final boolean autoflush)
 		{
 			this.name = name;
-			this.websocketMessagingTemplate = websocketMessagingTemplate;
-			this.eventsLog = eventsLog;
+			this.publisher = publisher;
 			this.autoflush = autoflush;
 		}
 
@@ -221,28 +287,19 @@ public class WebsocketSender implements InitializingBean
 			eventsToSend.forEach(this::sendEvent);
 		}
 
-		private void sendEvent(final WebsocketEvent event)
+		private void sendEvent(final String destination, final Object payload, final boolean converted)
 		{
-			final String destination = event.getDestination();
-			final Object payload = event.getPayload();
-			final boolean converted = event.isConverted();
-			sendEvent(destination, payload, converted);
+			sendEvent(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(payload)
+					.converted(converted)
+					.build());
 		}
 
-		private void sendEvent(final String destination, final Object payload, final boolean converted)
+		private void sendEvent(final WebsocketEvent event)
 		{
-			logger.debug("[name={}] Sending to destination={}: payload={}", name, destination, payload);
-
-			if (converted)
-			{
-				final Message<?> message = (Message<?>)payload;
-				websocketMessagingTemplate.send(destination, message);
-			}
-			else
-			{
-				websocketMessagingTemplate.convertAndSend(destination, payload);
-				eventsLog.logEvent(destination, payload);
-			}
+			logger.debug("[name={}] Sending event={}", name, event);
+			publisher.accept(event);
 		}
 	}
 }
@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -13,6 +15,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import de.metas.ui.web.websocket.MergeableWebsocketEvent;
 import de.metas.ui.web.websocket.WebSocketConfig;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -59,7 +62,7 @@ import lombok.ToString;
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
 @EqualsAndHashCode
 @ToString
-final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
+final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware, MergeableWebsocketEvent
 {
 	public static JSONDocumentChangedWebSocketEvent rootDocument(final WindowId windowId, final DocumentId documentId)
 	{
@@ -185,4 +188,28 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 
 		from.getIncludedTabsInfo().values().forEach(this::addIncludedTabInfo);
 	}
+
+	/**
+	 * Merges with a later event of the same document: the later event wins (e.g. its timestamp), the stale flags and included tabs info are united.
+	 */
+	@Override
+	@Nullable
+	public JSONDocumentChangedWebSocketEvent mergeWithNextEvent(final Object nextEvent)
+	{
+		if (!(nextEvent instanceof JSONDocumentChangedWebSocketEvent))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent next = (JSONDocumentChangedWebSocketEvent)nextEvent;
+		if (!Objects.equals(windowId, next.windowId)
+				|| !Objects.equals(id, next.id))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent merged = next.copy();
+		merged.mergeFrom(this);
+		return merged;
+	}
 }
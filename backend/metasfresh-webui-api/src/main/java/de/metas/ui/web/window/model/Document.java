@@ -134,7 +134,7 @@ public final class Document
 	//
 	// Callouts
 	private ITabCallout documentCallout = ITabCallout.NULL; // will be set from builder, after document is initialized
-	private final ICalloutExecutor fieldCalloutExecutor;
+	private ICalloutExecutor _fieldCalloutExecutor; // lazy
 	private DocumentAsCalloutRecord _calloutRecord; // lazy
 
 	//
@@ -230,8 +230,8 @@ public final class Document
 		}
 
 		//
-		// Initialize field callout executor
-		fieldCalloutExecutor = entityDescriptor.createFieldsCalloutExecutor();
+		// Field callout executor
+		_fieldCalloutExecutor = null; // lazy
 
 		//
 		// Evaluatee
@@ -369,7 +369,7 @@ public final class Document
 		//
 		// Initialize callout executor
 		documentCallout = from.documentCallout;
-		fieldCalloutExecutor = entityDescriptor.createFieldsCalloutExecutor();
+		_fieldCalloutExecutor = null; // lazy, because most of the copies (e.g. read-only ones) will never execute a callout
 
 		_evaluatee = null; // lazy
 		_shadowParentEvaluatee = null; // never copy it!
@@ -1250,7 +1250,7 @@ public final class Document
 		updateFieldsWhichDependsOn(documentField.getFieldName());
 
 		// Callouts
-		fieldCalloutExecutor.execute(documentField.asCalloutField());
+		getFieldCalloutExecutor().execute(documentField.asCalloutField());
 
 		// Notify parent that one of it's children was changed
 		if (!isRootDocument() && hasChanges())
@@ -1261,7 +1261,7 @@ public final class Document
 
 	private void executeAllFieldCallouts()
 	{
-		fieldCalloutExecutor.executeAll((fieldName) -> {
+		getFieldCalloutExecutor().executeAll((fieldName) -> {
 			final IDocumentField documentField = getFieldOrNull(fieldName);
 			if (documentField == null)
 			{
@@ -1584,6 +1584,11 @@ public final class Document
 
 	/* package */ICalloutExecutor getFieldCalloutExecutor()
 	{
+		ICalloutExecutor fieldCalloutExecutor = _fieldCalloutExecutor;
+		if (fieldCalloutExecutor == null)
+		{
+			fieldCalloutExecutor = _fieldCalloutExecutor = entityDescriptor.createFieldsCalloutExecutor();
+		}
 		return fieldCalloutExecutor;
 	}
 
@@ -68,6 +68,12 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 	private final DetailId detailId;
 	private final DocumentPath parentDocumentPath;
 	private final LinkedHashMap<DocumentId, Document> _documentsWithChanges;
+	/**
+	 * Changed documents of a read-only collection we were copied from, which are not copied yet.
+	 * They are shared until this collection is accessed first time, see {@link #getInnerDocumentsWithChanges()}.
+	 */
+	private ImmutableMap<DocumentId, Document> _documentsWithChangesToCopy; // lazy
+	private CopyMode _documentsWithChangesToCopyMode;
 
 	private final IncludedDocumentsCollectionActions actions;
 	private final ActionsContext actionsContext = new ActionsContext();
@@ -104,7 +110,27 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 		detailId = from.detailId;
 		entityDescriptor = from.entityDescriptor;
 
-		_documentsWithChanges = new LinkedHashMap<>(Maps.transformValues(from._documentsWithChanges, includedDocumentOrig -> includedDocumentOrig.copy(parentDocumentCopy, copyMode)));
+		if (from.parentDocument.isWritable())
+		{
+			// the original might be changed after this copy was done, so copy the changed documents right away
+			_documentsWithChanges = new LinkedHashMap<>(Maps.transformValues(from.getInnerDocumentsWithChanges(), includedDocumentOrig -> includedDocumentOrig.copy(parentDocumentCopy, copyMode)));
+			_documentsWithChangesToCopy = null;
+			_documentsWithChangesToCopyMode = null;
+		}
+		else
+		{
+			// read-only documents are not changed, so we can share them until they are actually needed
+			_documentsWithChanges = new LinkedHashMap<>();
+			if (from._documentsWithChangesToCopy != null)
+			{
+				_documentsWithChangesToCopy = from._documentsWithChangesToCopy;
+			}
+			else
+			{
+				_documentsWithChangesToCopy = !from._documentsWithChanges.isEmpty() ? ImmutableMap.copyOf(from._documentsWithChanges) : null;
+			}
+			_documentsWithChangesToCopyMode = _documentsWithChangesToCopy != null ? copyMode : null;
+		}
 
 		actions = from.actions.copy();
 		parentReadonly = from.parentReadonly;
@@ -129,26 +155,34 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 	private final void addChangedDocument(final Document document)
 	{
 		final DocumentId documentId = document.getDocumentId();
-		_documentsWithChanges.put(documentId, document);
+		getInnerDocumentsWithChanges().put(documentId, document);
 	}
 
 	private final void forgetChangedDocument(final DocumentId documentId)
 	{
-		_documentsWithChanges.remove(documentId);
+		getInnerDocumentsWithChanges().remove(documentId);
 	}
 
 	private final Collection<Document> getChangedDocuments()
 	{
-		return _documentsWithChanges.values();
+		return getInnerDocumentsWithChanges().values();
 	}
 
 	private final Document getChangedDocumentOrNull(final DocumentId documentId)
 	{
-		return _documentsWithChanges.get(documentId);
+		return getInnerDocumentsWithChanges().get(documentId);
 	}
 
 	private final Map<DocumentId, Document> getInnerDocumentsWithChanges()
 	{
+		final ImmutableMap<DocumentId, Document> documentsWithChangesToCopy = _documentsWithChangesToCopy;
+		if (documentsWithChangesToCopy != null)
+		{
+			_documentsWithChangesToCopy = null;
+			documentsWithChangesToCopy.forEach((documentId, includedDocumentOrig) -> _documentsWithChanges.put(documentId, includedDocumentOrig.copy(parentDocument, _documentsWithChangesToCopyMode)));
+			_documentsWithChangesToCopyMode = null;
+		}
+
 		return _documentsWithChanges;
 	}
 
@@ -0,0 +1,96 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+{
+	@Test
+	public void getPage()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedIds(new int[] { 30, 10, 20, 50, 40 });
+
+		assertThat(rowIds.size()).isEqualTo(5);
+		assertThat(rowIds.getPage(0, 2)).containsExactly(30, 10);
+		assertThat(rowIds.getPage(2, 2)).containsExactly(20, 50);
+		assertThat(rowIds.getPage(4, 2)).containsExactly(40);
+		assertThat(rowIds.getPage(5, 2)).isEmpty();
+	}
+
+	@Test
+	public void containsAny()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedIds(new int[] { 30, 10, 20 });
+
+		assertThat(rowIds.containsAny(DocumentIdsSelection.ofIntSet(ImmutableSet.of(1, 20)))).isTrue();
+		assertThat(rowIds.containsAny(DocumentIdsSelection.ofIntSet(ImmutableSet.of(1, 2)))).isFalse();
+		assertThat(rowIds.containsAny(DocumentIdsSelection.ALL)).isTrue();
+		assertThat(rowIds.containsAny(DocumentIdsSelection.EMPTY)).isFalse();
+		assertThat(InMemoryViewRowIds.EMPTY.containsAny(DocumentIdsSelection.ALL)).isFalse();
+	}
+
+	@Test
+	public void withAddedRowIds_appendsOnlyMissingIds()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedIds(new int[] { 30, 10 })
+				.withAddedRowIds(DocumentIdsSelection.ofIntSet(ImmutableSet.of(10, 5)));
+
+		assertThat(rowIds.toOrderedIdsArray()).containsExactly(30, 10, 5);
+		assertThat(rowIds.contains(5)).isTrue();
+	}
+
+	@Test
+	public void withAddedRowIds_ALL()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedIds(new int[] { 1 });
+		assertThatThrownBy(() -> rowIds.withAddedRowIds(DocumentIdsSelection.ALL))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void withRemovedRowIds_keepsOrder()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedIds(new int[] { 30, 10, 20, 50 })
+				.withRemovedRowIds(DocumentIdsSelection.ofIntSet(ImmutableSet.of(10, 50, 99)));
+
+		assertThat(rowIds.toOrderedIdsArray()).containsExactly(30, 20);
+		assertThat(rowIds.contains(10)).isFalse();
+	}
+
+	@Test
+	public void withRemovedRowIds_ALL()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedIds(new int[] { 30, 10 })
+				.withRemovedRowIds(DocumentIdsSelection.ALL);
+
+		assertThat(rowIds).isSameAs(InMemoryViewRowIds.EMPTY);
+	}
+}
@@ -0,0 +1,126 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.exceptions.EntityNotFoundException;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+
+/**
+ * Tests how {@link SqlViewDataRepository} serves selections which are kept in memory by {@link SqlViewRowIdsOrderedSelectionFactory}.
+ * <p>
+ * NOTE: only the cases which are answered without running any SQL can be tested here.
+ */
+public class SqlViewDataRepository_InMemorySelection_Test
+{
+	private final List<SqlAndParams> executedQueries = new ArrayList<>();
+	private final List<SqlAndParams> executedUpdates = new ArrayList<>();
+
+	private ViewEvaluationCtx viewEvalCtx;
+	private SqlViewRowIdsOrderedSelectionFactory factory;
+	private SqlViewDataRepository repository;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		SqlViewRowIdsOrderedSelectionFactoryTest.setInMemorySelectionMaxSize(100);
+
+		viewEvalCtx = SqlViewRowIdsOrderedSelectionFactoryTest.newViewEvaluationCtx();
+
+		final SqlViewBinding viewBinding = SqlViewRowIdsOrderedSelectionFactoryTest.createIntKeyViewBinding();
+		factory = SqlViewRowIdsOrderedSelectionFactoryTest.newInMemorySelectionsFactory(
+				viewBinding,
+				sql -> {
+					executedQueries.add(sql);
+					return new int[] { 30, 10, 20 };
+				},
+				executedUpdates);
+		repository = new SqlViewDataRepository(viewBinding, factory);
+	}
+
+	private ViewRowIdsOrderedSelection createOrderedSelection()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		final boolean applySecurityRestrictions = false;
+		final ViewRowIdsOrderedSelection selection = repository.createOrderedSelection(
+				viewEvalCtx,
+				viewId,
+				DocumentFilterList.EMPTY,
+				applySecurityRestrictions,
+				SqlDocumentFilterConverterContext.EMPTY);
+
+		assertThat(selection.getSize()).isEqualTo(3);
+		assertThat(executedQueries).hasSize(1);
+		executedQueries.clear();
+
+		return selection;
+	}
+
+	@Test
+	public void retrieveById_rowNotInSelection()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection();
+
+		assertThatThrownBy(() -> repository.retrieveById(viewEvalCtx, selection.getViewId(), DocumentId.of(99)))
+				.isInstanceOf(EntityNotFoundException.class);
+		assertThat(executedQueries).isEmpty();
+	}
+
+	@Test
+	public void retrievePage_afterLastRow()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection();
+
+		assertThat(repository.retrievePage(viewEvalCtx, selection, 3, 10)).isEmpty();
+		assertThat(repository.retrieveRowIdsByPage(viewEvalCtx, selection, 3, 10)).isEmpty();
+		assertThat(executedQueries).isEmpty();
+	}
+
+	@Test
+	public void deleteSelection()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection();
+
+		repository.deleteSelection(selection.getSelectionId());
+
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+		assertThat(executedUpdates).as("selection lines and selection rows are deleted from database too").hasSize(2);
+	}
+}
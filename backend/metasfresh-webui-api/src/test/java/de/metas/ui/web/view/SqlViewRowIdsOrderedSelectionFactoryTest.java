@@ -0,0 +1,291 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.organization.OrgId;
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewRowFieldBinding;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+
+public class SqlViewRowIdsOrderedSelectionFactoryTest
+{
+	static final String TABLENAME = "dummyTable";
+	static final String KEY_COLUMNNAME = "dummyTable_ID";
+
+	private int[] queryResult = new int[] {};
+	private final List<SqlAndParams> executedQueries = new ArrayList<>();
+	private final List<SqlAndParams> executedUpdates = new ArrayList<>();
+
+	private ViewEvaluationCtx viewEvalCtx;
+	private SqlViewRowIdsOrderedSelectionFactory factory;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		viewEvalCtx = newViewEvaluationCtx();
+		factory = newInMemorySelectionsFactory(createIntKeyViewBinding(), this::fakeQuery, executedUpdates);
+
+		setInMemorySelectionMaxSize(5);
+	}
+
+	static SqlViewBinding createIntKeyViewBinding()
+	{
+		final SqlViewRowFieldBinding keyField = SqlViewRowFieldBinding.builder()
+				.fieldName(KEY_COLUMNNAME)
+				.widgetType(DocumentFieldWidgetType.Integer)
+				.sqlValueClass(Integer.class)
+				.fieldLoader((rs, adLanguage) -> rs.getInt(KEY_COLUMNNAME))
+				.keyColumn(true)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.columnName(KEY_COLUMNNAME)
+						.columnNameAlias(KEY_COLUMNNAME)
+						.build())
+				.build();
+
+		return SqlViewBinding.builder()
+				.tableName(TABLENAME)
+				.field(keyField)
+				.displayFieldNames(KEY_COLUMNNAME)
+				.build();
+	}
+
+	static ViewEvaluationCtx newViewEvaluationCtx()
+	{
+		return ViewEvaluationCtx._builder()
+				.loggedUserId(Optional.empty())
+				.adLanguage("en_US")
+				.timeZone(ZoneId.of("UTC"))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.SYSTEM, UserId.SYSTEM, ClientId.SYSTEM, LocalDate.of(2020, 1, 1)))
+				.build();
+	}
+
+	/**
+	 * @return factory which does not touch the database: queries are answered by given <code>query</code> function and the updates are only recorded
+	 */
+	static SqlViewRowIdsOrderedSelectionFactory newInMemorySelectionsFactory(
+			final SqlViewBinding viewBinding,
+			final Function<SqlAndParams, int[]> query,
+			final List<SqlAndParams> executedUpdates)
+	{
+		final boolean inMemorySelectionsAllowed = true;
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, inMemorySelectionsAllowed)
+		{
+			@Override
+			void streamOrderedRowIds(final SqlAndParams sql, final IntConsumer consumer)
+			{
+				Arrays.stream(query.apply(sql)).forEach(consumer);
+			}
+
+			@Override
+			int executeUpdate(final SqlAndParams sql, final String trxName)
+			{
+				executedUpdates.add(sql);
+				return 1;
+			}
+
+			@Override
+			int extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
+			{
+				return 0; // no limit
+			}
+		};
+	}
+
+	static void setInMemorySelectionMaxSize(final int maxSize)
+	{
+		Services.get(ISysConfigBL.class).setValue(SqlViewRowIdsOrderedSelectionFactory.SYSCONFIG_InMemorySelectionMaxSize, maxSize, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private int[] fakeQuery(final SqlAndParams sql)
+	{
+		executedQueries.add(sql);
+		return queryResult;
+	}
+
+	private ViewRowIdsOrderedSelection createOrderedSelection(final int... rowIds)
+	{
+		queryResult = rowIds;
+
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		final boolean applySecurityRestrictions = false;
+		return factory.createOrderedSelection(
+				viewEvalCtx,
+				viewId,
+				DocumentFilterList.EMPTY,
+				DocumentQueryOrderByList.EMPTY,
+				applySecurityRestrictions,
+				SqlDocumentFilterConverterContext.EMPTY);
+	}
+
+	@Test
+	public void selectionNotBiggerThanMaxSize_isKeptInMemory()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20, 50, 40);
+
+		assertThat(selection.getSize()).isEqualTo(5);
+		assertThat(executedQueries).hasSize(1);
+		assertThat(executedUpdates).isEmpty();
+
+		final InMemoryViewRowIds inMemoryRowIds = factory.getInMemoryRowIds(selection.getViewId());
+		assertThat(inMemoryRowIds).isNotNull();
+		assertThat(inMemoryRowIds.toOrderedIdsArray()).containsExactly(30, 10, 20, 50, 40);
+	}
+
+	@Test
+	public void inMemorySelectionsDisabled()
+	{
+		setInMemorySelectionMaxSize(0);
+
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20);
+
+		assertThat(executedQueries).as("the selection is created by INSERT ... SELECT").isEmpty();
+		assertThat(executedUpdates).hasSize(1);
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+	}
+
+	@Test
+	public void selectionBiggerThanMaxSize_isStoredInDatabase_runningTheQueryOnce()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(IntStream.rangeClosed(1, 12).toArray());
+		final String selectionId = selection.getSelectionId();
+
+		assertThat(selection.getSize()).isEqualTo(12);
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+		assertThat(executedQueries).hasSize(1);
+
+		// the already fetched rows are inserted first, then the remaining ones, continuing the line numbers
+		assertThat(executedUpdates).hasSize(2);
+		assertThat(executedUpdates.get(0).getSqlParams()).containsExactly(selectionId, 0, "{1,2,3,4,5}");
+		assertThat(executedUpdates.get(1).getSqlParams()).containsExactly(selectionId, 5, "{6,7,8,9,10,11,12}");
+	}
+
+	@Test
+	public void addAndRemoveRowIds_inMemory()
+	{
+		ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20);
+
+		selection = factory.addRowIdsToSelection(selection, DocumentIdsSelection.ofIntSet(ImmutableSet.of(40)));
+		assertThat(selection.getSize()).isEqualTo(4);
+		assertThat(factory.containsAnyOfRowIds(selection, DocumentIdsSelection.ofIntSet(ImmutableSet.of(40, 99)))).isTrue();
+
+		selection = factory.removeRowIdsFromSelection(selection, DocumentIdsSelection.ofIntSet(ImmutableSet.of(10)));
+		assertThat(selection.getSize()).isEqualTo(3);
+		assertThat(factory.containsAnyOfRowIds(selection, DocumentIdsSelection.ofIntSet(ImmutableSet.of(10, 99)))).isFalse();
+
+		assertThat(factory.getInMemoryRowIds(selection.getViewId()).toOrderedIdsArray()).containsExactly(30, 20, 40);
+		assertThat(executedUpdates).isEmpty();
+	}
+
+	@Test
+	public void getSqlWhereClause_explicitRowIds_keepsSelectionInMemory()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20);
+
+		final String sqlWhereClause = factory.getSqlWhereClause(selection.getViewId(), DocumentIdsSelection.ofIntSet(ImmutableSet.of(20, 99)));
+
+		assertThat(sqlWhereClause).contains(TABLENAME + "." + KEY_COLUMNNAME).contains("20").doesNotContain("99");
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNotNull();
+		assertThat(executedUpdates).isEmpty();
+	}
+
+	@Test
+	public void getSqlWhereClause_allRows_materializesTheSelection()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20);
+
+		factory.getSqlWhereClause(selection.getViewId(), DocumentIdsSelection.ALL);
+
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+		assertThat(executedUpdates).hasSize(1);
+		assertThat(executedUpdates.get(0).getSqlParams()).containsExactly(selection.getSelectionId(), 0, "{30,10,20}");
+	}
+
+	@Test
+	public void materializeIfInMemory_insertsOnlyOnce()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20);
+
+		factory.materializeIfInMemory(selection.getSelectionId());
+		factory.materializeIfInMemory(selection.getSelectionId());
+
+		assertThat(executedUpdates).hasSize(1);
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+	}
+
+	@Test
+	public void materializeIfInMemory_emptySelection()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection();
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNotNull();
+
+		factory.materializeIfInMemory(selection.getSelectionId());
+
+		assertThat(executedUpdates).as("nothing to insert").isEmpty();
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+	}
+
+	@Test
+	public void deleteSelections_forgetsInMemorySelection()
+	{
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection(30, 10, 20);
+
+		factory.deleteSelections(ImmutableSet.of(selection.getSelectionId()));
+
+		assertThat(factory.getInMemoryRowIds(selection.getViewId())).isNull();
+	}
+}
@@ -0,0 +1,201 @@
+package de.metas.ui.web.view.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.ViewEvaluationCtx;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+
+/**
+ * Tests the SQLs used for selections whose row IDs are kept in memory.
+ */
+public class SqlViewSelectionQueryBuilder_InMemorySelection_Test
+{
+	private static final String TABLENAME = "dummyTable";
+	private static final String KEY_COLUMNNAME = "dummyTable_ID";
+
+	private ViewEvaluationCtx viewEvalCtx;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		viewEvalCtx = ViewEvaluationCtx._builder()
+				.loggedUserId(Optional.empty())
+				.adLanguage("en_US")
+				.timeZone(ZoneId.of("UTC"))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.SYSTEM, UserId.SYSTEM, ClientId.SYSTEM, LocalDate.of(2020, 1, 1)))
+				.build();
+	}
+
+	private static SqlViewBinding createViewBinding(final Class<?> keyValueClass)
+	{
+		final SqlViewRowFieldBinding keyField = SqlViewRowFieldBinding.builder()
+				.fieldName(KEY_COLUMNNAME)
+				.widgetType(Integer.class.equals(keyValueClass) ? DocumentFieldWidgetType.Integer : DocumentFieldWidgetType.Text)
+				.sqlValueClass(keyValueClass)
+				.fieldLoader((rs, adLanguage) -> rs.getString(KEY_COLUMNNAME))
+				.keyColumn(true)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.columnName(KEY_COLUMNNAME)
+						.columnNameAlias(KEY_COLUMNNAME)
+						.build())
+				.build();
+
+		return SqlViewBinding.builder()
+				.tableName(TABLENAME)
+				.field(keyField)
+				.displayFieldNames(KEY_COLUMNNAME)
+				.build();
+	}
+
+	private static SqlViewSelectionQueryBuilder newQueryBuilder()
+	{
+		return SqlViewSelectionQueryBuilder.newInstance(createViewBinding(Integer.class));
+	}
+
+	@Test
+	public void toSqlIntArray()
+	{
+		assertThat(SqlViewSelectionQueryBuilder.toSqlIntArray(new int[] {})).isEqualTo("{}");
+		assertThat(SqlViewSelectionQueryBuilder.toSqlIntArray(new int[] { 3, 1, 2 })).isEqualTo("{3,1,2}");
+	}
+
+	@Test
+	public void buildSqlCreateSelectionFromRowIds()
+	{
+		final SqlAndParams sql = newQueryBuilder().buildSqlCreateSelectionFromRowIds("sel1", new int[] { 30, 10 });
+
+		assertThat(sql.getSql())
+				.startsWith("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name)
+				.contains("unnest(?::numeric[]) WITH ORDINALITY");
+		assertThat(sql.getSqlParams()).containsExactly("sel1", 0, "{30,10}");
+	}
+
+	@Test
+	public void buildSqlCreateSelectionFromRowIds_withLineOffset()
+	{
+		final SqlAndParams sql = newQueryBuilder().buildSqlCreateSelectionFromRowIds("sel1", new int[] { 30, 10 }, 1000);
+
+		assertThat(sql.getSql()).contains("x." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " + ?");
+		assertThat(sql.getSqlParams()).containsExactly("sel1", 1000, "{30,10}");
+	}
+
+	@Test
+	public void buildSqlSelectOrderedRowIds()
+	{
+		final boolean applySecurityRestrictions = false;
+		final SqlAndParams sqlWithLimit = newQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectOrderedRowIds(viewEvalCtx, DocumentFilterList.EMPTY, DocumentQueryOrderByList.EMPTY, 500, SqlDocumentFilterConverterContext.EMPTY);
+		assertThat(sqlWithLimit.getSql())
+				.contains(TABLENAME + "." + KEY_COLUMNNAME)
+				.contains("ORDER BY")
+				.endsWith("LIMIT ?");
+		assertThat(sqlWithLimit.getSqlParams()).containsExactly(500);
+
+		final SqlAndParams sqlWithoutLimit = newQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectOrderedRowIds(viewEvalCtx, DocumentFilterList.EMPTY, DocumentQueryOrderByList.EMPTY, 0, SqlDocumentFilterConverterContext.EMPTY);
+		assertThat(sqlWithoutLimit.getSql()).doesNotContain("LIMIT");
+		assertThat(sqlWithoutLimit.getSqlParams()).isEmpty();
+	}
+
+	@Test
+	public void buildSqlWhereClauseByRowIds()
+	{
+		assertThat(newQueryBuilder().buildSqlWhereClauseByRowIds(DocumentIdsSelection.EMPTY)).isEqualTo("1=0");
+
+		final String sqlWhereClause = newQueryBuilder().buildSqlWhereClauseByRowIds(DocumentIdsSelection.ofIntSet(ImmutableSet.of(20)));
+		assertThat(sqlWhereClause).contains(TABLENAME + "." + KEY_COLUMNNAME).contains("20");
+	}
+
+	@Test
+	public void inMemorySelectionSupportedOnlyForSingleIntKey()
+	{
+		assertThat(createViewBinding(Integer.class).getSqlViewSelect().isInMemorySelectionSupported()).isTrue();
+		assertThat(createViewBinding(String.class).getSqlViewSelect().isInMemorySelectionSupported()).isFalse();
+	}
+
+	@Test
+	public void selectByPageInMemory()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		final SqlAndParams sql = createViewBinding(Integer.class).getSqlViewSelect().selectByPageInMemory()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(20)
+				.pageRowIds(new int[] { 7, 5, 6 })
+				.build();
+
+		assertThat(sql.getSql()).contains("unnest(?::numeric[]) WITH ORDINALITY");
+		assertThat(sql.getSqlParams()).containsExactly(
+				viewId.getViewId(), // UUID
+				20, // line offset
+				"{7,5,6}", // row IDs
+				viewId.getViewId(), // UUID filter
+				21, // first SeqNo
+				23); // last SeqNo
+	}
+
+	@Test
+	public void selectByIdInMemory()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		final SqlAndParams sql = createViewBinding(Integer.class).getSqlViewSelect().selectByIdInMemory()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.rowId(DocumentId.of(7))
+				.build();
+
+		assertThat(sql.getSqlParams()).hasSize(5);
+		assertThat(sql.getSqlParams()).startsWith(viewId.getViewId(), 0, "{7}", viewId.getViewId());
+	}
+}
@@ -0,0 +1,129 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.event.JSONViewChanges;
+import de.metas.ui.web.view.event.ViewChanges;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+import javax.annotation.Nullable;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebsocketEventsCoalescerTest
+{
+	private List<WebsocketEvent> sentEvents;
+	private WebsocketEventsCoalescer coalescer;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		sentEvents = new ArrayList<>();
+		coalescer = new WebsocketEventsCoalescer(sentEvents::add, 3600 * 1000);
+	}
+
+	private static WebsocketEvent event(final String destination, final Object payload)
+	{
+		return WebsocketEvent.builder().destination(destination).payload(payload).build();
+	}
+
+	private static JSONViewChanges viewChanges(final ViewId viewId, final int... rowIds)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		for (final int rowId : rowIds)
+		{
+			changes.addChangedRowId(DocumentId.of(rowId));
+		}
+		return JSONViewChanges.of(changes);
+	}
+
+	@Test
+	public void viewChangesToSameDestination_areMerged()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 1, 2)));
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 2, 3)));
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 4)));
+
+		coalescer.sendAllPendingEvents();
+
+		assertThat(sentEvents).hasSize(1);
+		final JSONViewChanges sentPayload = (JSONViewChanges)sentEvents.get(0).getPayload();
+		assertThat(sentPayload.getChangedIds()).containsExactlyInAnyOrder("1", "2", "3", "4");
+		assertThat(sentPayload.getFullyChanged()).isFalse();
+
+		assertThat(coalescer.getEventsIn()).isEqualTo(3);
+		assertThat(coalescer.getEventsOut()).isEqualTo(1);
+	}
+
+	@Test
+	public void fullyChangedWins()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		final ViewChanges fullyChanged = new ViewChanges(viewId);
+		fullyChanged.setFullyChanged();
+
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 1)));
+		coalescer.enqueue(event("/view/1", JSONViewChanges.of(fullyChanged)));
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 2)));
+
+		coalescer.sendAllPendingEvents();
+
+		assertThat(sentEvents).hasSize(1);
+		final JSONViewChanges sentPayload = (JSONViewChanges)sentEvents.get(0).getPayload();
+		assertThat(sentPayload.getFullyChanged()).isTrue();
+		assertThat(sentPayload.getChangedIds()).isEmpty();
+	}
+
+	@Test
+	public void nonMergeableEvents_areSentInOrder()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 1)));
+		coalescer.enqueue(event("/view/1", "some notification"));
+		coalescer.enqueue(event("/view/1", viewChanges(viewId, 2)));
+		coalescer.enqueue(event("/other", "other notification"));
+
+		coalescer.sendAllPendingEvents();
+
+		assertThat(sentEvents)
+				.extracting(WebsocketEvent::getDestination)
+				.containsExactlyInAnyOrder("/view/1", "/view/1", "/view/1", "/other");
+		final List<Object> viewPayloads = sentEvents.stream()
+				.filter(event -> event.getDestination().equals("/view/1"))
+				.map(WebsocketEvent::getPayload)
+				.collect(ImmutableList.toImmutableList());
+		assertThat(viewPayloads.get(1)).isEqualTo("some notification");
+		assertThat(coalescer.getMergeRatio()).isEqualTo(1.0);
+	}
+}
@@ -0,0 +1,190 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvidersService;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentType;
+import de.metas.ui.web.window.descriptor.DetailId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.model.Document.CopyMode;
+import de.metas.ui.web.window.model.IDocumentChangesCollector.ReasonSupplier;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HighVolumeReadWriteIncludedDocumentsCollectionTest
+{
+	private static final DetailId DETAIL_ID = DetailId.fromPrefixAndId("T", 1);
+	private static final String FIELDNAME_ID = "ID";
+	private static final String FIELDNAME_Name = "Name";
+	private static final ReasonSupplier REASON = () -> "test";
+
+	private final List<Object> nameCalloutValues = new ArrayList<>();
+	private DocumentEntityDescriptor rootEntityDescriptor;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final InMemoryDocumentsRepository documentsRepository = new InMemoryDocumentsRepository();
+		final DocumentFilterDescriptorsProvidersService filterDescriptorsProvidersService = new DocumentFilterDescriptorsProvidersService(ImmutableList.of());
+
+		final DocumentEntityDescriptor includedEntityDescriptor = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Window, DocumentId.of(1))
+				.setDetailId(DETAIL_ID)
+				.setDataBinding(() -> () -> documentsRepository)
+				.setFilterDescriptorsProvidersService(filterDescriptorsProvidersService)
+				.disableDefaultTableCallouts()
+				.addField(DocumentFieldDescriptor.builder(FIELDNAME_ID)
+						.setWidgetType(DocumentFieldWidgetType.Integer)
+						.setKey(true))
+				.addField(DocumentFieldDescriptor.builder(FIELDNAME_Name)
+						.setWidgetType(DocumentFieldWidgetType.Text)
+						.addCallout(field -> nameCalloutValues.add(field.getValue())))
+				.build();
+
+		rootEntityDescriptor = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Window, DocumentId.of(1))
+				.setDataBinding(() -> () -> documentsRepository)
+				.setFilterDescriptorsProvidersService(filterDescriptorsProvidersService)
+				.disableCallouts()
+				.addField(DocumentFieldDescriptor.builder(FIELDNAME_ID)
+						.setWidgetType(DocumentFieldWidgetType.Integer)
+						.setKey(true))
+				.addIncludedEntity(includedEntityDescriptor)
+				.build();
+	}
+
+	@Test
+	public void checkOutWritable_fromReadonly_copiesChangedIncludedDocumentsOnFirstAccess()
+	{
+		final Document root = Document.builder(rootEntityDescriptor).initializeAsNewDocument(DocumentId.of(1), "0");
+		final Document included = root.createIncludedDocument(DETAIL_ID);
+		included.setValue(FIELDNAME_Name, "original", REASON);
+		final DocumentId includedId = included.getDocumentId();
+
+		final Document readonly = root.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
+		final Document writable1 = readonly.copy(CopyMode.CheckOutWritable, NullDocumentChangesCollector.instance);
+		final Document writable2 = readonly.copy(CopyMode.CheckOutWritable, NullDocumentChangesCollector.instance); // taken before writable1 is accessed
+
+		final Document readonlyIncluded = readonly.getIncludedDocument(DETAIL_ID, includedId);
+		final Document writable1Included = writable1.getIncludedDocument(DETAIL_ID, includedId);
+		assertThat(writable1Included).isNotSameAs(readonlyIncluded).isNotSameAs(included);
+		assertThat(writable1Included.getParentDocument()).isSameAs(writable1);
+		assertThat(writable1.getIncludedDocument(DETAIL_ID, includedId)).as("copied only once").isSameAs(writable1Included);
+
+		nameCalloutValues.clear();
+		writable1Included.setValue(FIELDNAME_Name, "changed", REASON);
+		assertThat(nameCalloutValues).containsExactly("changed");
+		assertThat(writable1Included.getFieldCalloutExecutor()).isNotSameAs(readonlyIncluded.getFieldCalloutExecutor());
+
+		assertThat(getName(readonlyIncluded)).isEqualTo("original");
+		assertThat(getName(root.getIncludedDocument(DETAIL_ID, includedId))).isEqualTo("original");
+
+		final Document writable2Included = writable2.getIncludedDocument(DETAIL_ID, includedId);
+		assertThat(writable2Included).isNotSameAs(writable1Included).isNotSameAs(readonlyIncluded);
+		assertThat(writable2Included.getParentDocument()).isSameAs(writable2);
+		assertThat(getName(writable2Included)).isEqualTo("original");
+	}
+
+	private static Object getName(final Document document)
+	{
+		return document.getFieldView(FIELDNAME_Name).getValue();
+	}
+
+	/** Creates new documents only; nothing is ever saved, so there is nothing to retrieve. */
+	private static class InMemoryDocumentsRepository implements DocumentsRepository
+	{
+		private final AtomicInteger nextId = new AtomicInteger(100);
+
+		@Override
+		public OrderedDocumentsList retrieveDocuments(final DocumentQuery query, final IDocumentChangesCollector changesCollector)
+		{
+			return OrderedDocumentsList.newEmpty();
+		}
+
+		@Override
+		public Document retrieveDocument(final DocumentQuery query, final IDocumentChangesCollector changesCollector)
+		{
+			return null;
+		}
+
+		@Override
+		public DocumentId retrieveParentDocumentId(final DocumentEntityDescriptor parentEntityDescriptor, final DocumentQuery childDocumentQuery)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Document createNewDocument(final DocumentEntityDescriptor entityDescriptor, final Document parentDocument, final IDocumentChangesCollector changesCollector)
+		{
+			return Document.builder(entityDescriptor)
+					.setParentDocument(parentDocument)
+					.setChangesCollector(changesCollector)
+					.initializeAsNewDocument(DocumentId.of(nextId.incrementAndGet()), "0");
+		}
+
+		@Override
+		public void refresh(final Document document)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SaveResult save(final Document document)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(final Document document)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String retrieveVersion(final DocumentEntityDescriptor entityDescriptor, final int documentIdAsInt)
+		{
+			return "0";
+		}
+
+		@Override
+		public int retrieveLastLineNo(final DocumentQuery query)
+		{
+			return 0;
+		}
+	}
+}